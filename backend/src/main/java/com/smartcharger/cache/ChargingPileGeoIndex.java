@@ -0,0 +1,450 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.util.GeoUtil;
+import com.smartcharger.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 充电桩空间网格索引
+ * 按固定经纬度网格对充电桩坐标分桶，附近查询只扫描半径覆盖的网格，不访问数据库。
+ * 数据库仍是唯一数据源：启动时全量加载，写操作在事务提交后增量更新，并通过Redis通知其他节点。
+ * 全量加载期间应用的增量更新会被记录，并在替换时覆盖加载结果，不会被加载开始前读取的旧数据回退。
+ */
+@Slf4j
+@Component
+public class ChargingPileGeoIndex implements MessageListener {
+
+    static final String CHANNEL = "charging-pile:geo-index";
+
+    /**
+     * 网格边长（度），约1.1km
+     */
+    private static final double CELL_SIZE_DEGREES = 0.01;
+
+    private static final String OP_UPSERT = "U";
+    private static final String OP_REMOVE = "D";
+
+    private final ChargingPileRepository chargingPileRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChargingPileStatusCache chargingPileStatusCache;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Long, IndexedPile> piles = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * 全量加载期间应用的变更（充电桩ID到快照，null表示删除），未在加载时为null；由this保护
+     */
+    private Map<Long, IndexedPile> rebuildDeltas;
+
+    public ChargingPileGeoIndex(ChargingPileRepository chargingPileRepository,
+                                StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                ChargingPileStatusCache chargingPileStatusCache) {
+        this.chargingPileRepository = chargingPileRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.chargingPileStatusCache = chargingPileStatusCache;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 应用启动后从数据库全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            rebuildDeltas = new HashMap<>();
+        }
+        List<ChargingPile> all;
+        try {
+            all = chargingPileRepository.findAll();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                rebuildDeltas = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            piles.clear();
+            cells.clear();
+            for (ChargingPile pile : all) {
+                if (!rebuildDeltas.containsKey(pile.getId())) {
+                    put(IndexedPile.of(pile));
+                }
+            }
+            // 加载期间已生效的变更比加载结果新
+            rebuildDeltas.values().stream().filter(Objects::nonNull).forEach(this::put);
+            rebuildDeltas = null;
+            ready = true;
+        }
+        log.info("Charging pile geo index built: piles={}, cells={}", piles.size(), cells.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 按ID获取索引中的充电桩快照，不存在时返回null
+     */
+    public IndexedPile get(Long pileId) {
+        return piles.get(pileId);
+    }
+
+    /**
+     * 充电桩新增或变更（事务提交后生效并通知其他节点）
+     */
+    public void onPileChanged(ChargingPile pile) {
+        TransactionUtil.afterCommit(() -> {
+            upsert(pile);
+            publish(OP_UPSERT, pile.getId());
+        });
+    }
+
+    /**
+     * 批量更新后按ID重新加载充电桩（事务提交后生效并通知其他节点）
+     */
+    public void onPilesChanged(Collection<Long> pileIds) {
+        List<Long> ids = List.copyOf(pileIds);
+        TransactionUtil.afterCommit(() -> {
+            chargingPileRepository.findAllById(ids).forEach(this::upsert);
+            ids.forEach(id -> publish(OP_UPSERT, id));
+        });
+    }
+
+    /**
+     * 充电桩删除（事务提交后生效并通知其他节点）
+     */
+    public void onPileRemoved(Long pileId) {
+        TransactionUtil.afterCommit(() -> {
+            remove(pileId);
+            publish(OP_REMOVE, pileId);
+        });
+    }
+
+    /**
+     * 查询半径内的充电桩，按距离升序返回
+     *
+     * @param lng 中心点经度
+     * @param lat 中心点纬度
+     * @param radiusKm 搜索半径（km）
+     * @param type 类型筛选，可为空
+     * @param status 状态筛选，可为空
+     */
+    public List<Hit> findNearby(double lng, double lat, double radiusKm,
+                                ChargingPileType type, ChargingPileStatus status) {
+        List<Hit> hits = new ArrayList<>();
+        if (radiusKm < 0) {
+            return hits;
+        }
+
+        double latDelta = GeoUtil.latDegrees(radiusKm);
+        double lngDelta = GeoUtil.lngDegrees(lat, radiusKm);
+        int minRow = toCell(lat - latDelta);
+        int maxRow = toCell(lat + latDelta);
+        int minCol = toCell(lng - lngDelta);
+        int maxCol = toCell(lng + lngDelta);
+
+        long cellCount = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (cellCount > cells.size()) {
+            // 半径覆盖的网格比已占用网格还多时，直接扫描全部充电桩更快
+            collect(piles.values(), lng, lat, radiusKm, type, status, hits);
+        } else {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Set<Long> ids = cells.get(cellKey(row, col));
+                    if (ids != null) {
+                        collectIds(ids, lng, lat, radiusKm, type, status, hits);
+                    }
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * 查询距离最近的若干个充电桩：从中心网格开始逐圈向外扩展，
+     * 直到已找到的第K个结果不超过已完整覆盖的半径，或达到最大搜索半径
+     *
+     * @param lng 中心点经度
+     * @param lat 中心点纬度
+     * @param limit 返回数量K
+     * @param maxRadiusKm 最大搜索半径（km）
+     * @param type 类型筛选，可为空
+     * @param status 状态筛选，可为空
+     */
+    public List<Hit> findNearest(double lng, double lat, int limit, double maxRadiusKm,
+                                 ChargingPileType type, ChargingPileStatus status) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Hit::distanceKm).reversed());
+        if (limit <= 0 || maxRadiusKm < 0) {
+            return new ArrayList<>();
+        }
+
+        int centerRow = toCell(lat);
+        int centerCol = toCell(lng);
+        int maxRing = (int) Math.ceil(Math.max(GeoUtil.latDegrees(maxRadiusKm),
+                GeoUtil.lngDegrees(lat, maxRadiusKm)) / CELL_SIZE_DEGREES);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            long side = 2L * ring + 1;
+            if (side * side > cells.size()) {
+                // 扩展范围已超过已占用网格数，改为全量扫描
+                best.clear();
+                for (IndexedPile pile : piles.values()) {
+                    offer(best, limit, match(pile, lng, lat, maxRadiusKm, type, status));
+                }
+                break;
+            }
+
+            scanRing(centerRow, centerCol, ring, lng, lat, maxRadiusKm, type, status, best, limit);
+
+            double coveredKm = coveredRadiusKm(lng, lat, centerRow, centerCol, ring);
+            if (coveredKm >= maxRadiusKm
+                    || (best.size() == limit && best.peek().distanceKm() <= coveredKm)) {
+                break;
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    synchronized void upsert(ChargingPile pile) {
+        IndexedPile indexed = IndexedPile.of(pile);
+        if (rebuildDeltas != null) {
+            rebuildDeltas.put(indexed.id(), indexed);
+        }
+        IndexedPile previous = piles.get(pile.getId());
+        if (previous != null) {
+            unlinkCell(previous);
+        }
+        put(indexed);
+    }
+
+    synchronized void remove(Long pileId) {
+        if (rebuildDeltas != null) {
+            rebuildDeltas.put(pileId, null);
+        }
+        IndexedPile previous = piles.remove(pileId);
+        if (previous != null) {
+            unlinkCell(previous);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|");
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            Long pileId = Long.valueOf(parts[2]);
+            if (OP_REMOVE.equals(parts[1])) {
+                remove(pileId);
+            } else {
+                chargingPileRepository.findById(pileId).ifPresentOrElse(this::upsert, () -> remove(pileId));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to apply geo index change: message={}", body, e);
+        }
+    }
+
+    private void publish(String op, Long pileId) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + "|" + op + "|" + pileId);
+        } catch (Exception e) {
+            log.warn("Failed to publish geo index change: op={}, pileId={}", op, pileId, e);
+        }
+    }
+
+    private void put(IndexedPile pile) {
+        piles.put(pile.id(), pile);
+        if (pile.located()) {
+            cells.computeIfAbsent(cellKey(toCell(pile.latValue()), toCell(pile.lngValue())),
+                    key -> ConcurrentHashMap.newKeySet()).add(pile.id());
+        }
+    }
+
+    private void unlinkCell(IndexedPile pile) {
+        if (!pile.located()) {
+            return;
+        }
+        long key = cellKey(toCell(pile.latValue()), toCell(pile.lngValue()));
+        Set<Long> ids = cells.get(key);
+        if (ids != null) {
+            ids.remove(pile.id());
+            if (ids.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private void collectIds(Set<Long> ids, double lng, double lat, double radiusKm,
+                            ChargingPileType type, ChargingPileStatus status, List<Hit> hits) {
+        for (Long id : ids) {
+            IndexedPile pile = piles.get(id);
+            if (pile != null) {
+                Hit hit = match(pile, lng, lat, radiusKm, type, status);
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+        }
+    }
+
+    private void collect(Collection<IndexedPile> candidates, double lng, double lat, double radiusKm,
+                         ChargingPileType type, ChargingPileStatus status, List<Hit> hits) {
+        for (IndexedPile pile : candidates) {
+            Hit hit = match(pile, lng, lat, radiusKm, type, status);
+            if (hit != null) {
+                hits.add(hit);
+            }
+        }
+    }
+
+    private void scanRing(int centerRow, int centerCol, int ring, double lng, double lat, double radiusKm,
+                          ChargingPileType type, ChargingPileStatus status, PriorityQueue<Hit> best, int limit) {
+        for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+            boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+            int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+            for (int col = centerCol - ring; col <= centerCol + ring; col += step) {
+                Set<Long> ids = cells.get(cellKey(row, col));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    IndexedPile pile = piles.get(id);
+                    if (pile != null) {
+                        offer(best, limit, match(pile, lng, lat, radiusKm, type, status));
+                    }
+                }
+            }
+        }
+    }
+
+    private void offer(PriorityQueue<Hit> best, int limit, Hit hit) {
+        if (hit == null) {
+            return;
+        }
+        if (best.size() < limit) {
+            best.add(hit);
+        } else if (hit.distanceKm() < best.peek().distanceKm()) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+
+    /**
+     * 已扫描网格块（中心网格外扩ring圈）能完整覆盖的圆半径（km）
+     */
+    private double coveredRadiusKm(double lng, double lat, int centerRow, int centerCol, int ring) {
+        double latGap = Math.min(lat - (centerRow - ring) * CELL_SIZE_DEGREES,
+                (centerRow + ring + 1) * CELL_SIZE_DEGREES - lat);
+        double lngGap = Math.min(lng - (centerCol - ring) * CELL_SIZE_DEGREES,
+                (centerCol + ring + 1) * CELL_SIZE_DEGREES - lng);
+
+        double latKm = latGap * GeoUtil.KM_PER_DEGREE;
+        // 点到相隔lngGap度的经线的最短球面距离
+        double lngKm = lngGap >= 90.0
+                ? Double.MAX_VALUE
+                : GeoUtil.EARTH_RADIUS_KM * Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(Math.toRadians(lngGap)));
+        return Math.min(latKm, lngKm);
+    }
+
+    private Hit match(IndexedPile pile, double lng, double lat, double radiusKm,
+                      ChargingPileType type, ChargingPileStatus status) {
+        if (!pile.located() || (type != null && pile.type() != type)) {
+            return null;
+        }
+        // 状态以实时状态缓存为准，缓存中没有时使用索引快照中的状态
+        ChargingPileStatus liveStatus = chargingPileStatusCache.statusOf(pile.id(), pile.status());
+        if (status != null && liveStatus != status) {
+            return null;
+        }
+        double distance = GeoUtil.haversineKm(lng, lat, pile.lngValue(), pile.latValue());
+        return distance <= radiusKm ? new Hit(pile, distance, liveStatus) : null;
+    }
+
+    private static int toCell(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    /**
+     * 索引中的充电桩快照（不可变）
+     */
+    public record IndexedPile(Long id, String code, String location, BigDecimal lng, BigDecimal lat,
+                              double lngValue, double latValue, boolean located,
+                              ChargingPileType type, BigDecimal power, ChargingPileStatus status,
+                              LocalDateTime createdTime, LocalDateTime updatedTime) {
+
+        static IndexedPile of(ChargingPile pile) {
+            boolean located = pile.getLng() != null && pile.getLat() != null;
+            return new IndexedPile(
+                    pile.getId(),
+                    pile.getCode(),
+                    pile.getLocation(),
+                    pile.getLng(),
+                    pile.getLat(),
+                    located ? pile.getLng().doubleValue() : 0,
+                    located ? pile.getLat().doubleValue() : 0,
+                    located,
+                    pile.getType(),
+                    pile.getPower(),
+                    pile.getStatus(),
+                    pile.getCreatedTime(),
+                    pile.getUpdatedTime()
+            );
+        }
+    }
+
+    /**
+     * 查询命中结果
+     */
+    public record Hit(IndexedPile pile, double distanceKm, ChargingPileStatus status) {
+    }
+}
@@ -0,0 +1,462 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 充电桩实时状态缓存
+ * 每个节点以充电桩ID为下标、每桩一个字节保存状态，并维护各状态计数，状态查询和计数都是O(1)内存读取；
+ * ID超出 {@link #MAX_DENSE_ID} 的充电桩存放在稀疏表中，数组大小不随个别大ID膨胀。
+ * 状态同时镜像到Redis中每种状态一个位图（偏移量为充电桩ID），变更通过Redis通知其他节点；
+ * 数据库仍是唯一数据源：启动时及定期全量加载校正。全量加载期间应用的变更会被记录，
+ * 在替换快照时覆盖到快照上，并在写入位图后重新镜像，不会被加载开始前读取的旧状态回退。
+ * 状态实际发生变化时发布 {@link ChargingPileStatusChangedEvent}，供实时推送等进程内订阅者使用。
+ */
+@Slf4j
+@Component
+public class ChargingPileStatusCache implements MessageListener {
+
+    static final String CHANNEL = "charging-pile:status";
+    static final String BITMAP_KEY_PREFIX = "{charging-pile:status}:";
+
+    private static final ChargingPileStatus[] STATUSES = ChargingPileStatus.values();
+    private static final byte UNKNOWN = 0;
+    private static final String REMOVED = "-";
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /**
+     * 使用数组保存的最大充电桩ID（不含），更大或为负的ID存放在稀疏表中
+     */
+    static final int MAX_DENSE_ID = 1 << 20;
+
+    /**
+     * Redis位图的最大偏移量，更大的ID只在节点间通知，不写入位图
+     */
+    private static final long MAX_BITMAP_OFFSET = (1L << 32) - 1;
+
+    /**
+     * 在目标状态位图中置位、其余状态位图中清位，并发布变更；ARGV: 充电桩ID、目标状态下标（从1开始，0表示删除）、通知消息
+     */
+    private static final RedisScript<Long> SET_STATUS_SCRIPT = new DefaultRedisScript<>(
+            "local target = tonumber(ARGV[2]) " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('SETBIT', KEYS[i], ARGV[1], i == target and 1 or 0) " +
+            "end " +
+            "return redis.call('PUBLISH', '" + CHANNEL + "', ARGV[3])",
+            Long.class);
+
+    private final ChargingPileRepository chargingPileRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<String> bitmapKeys;
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(STATUSES.length);
+    private final Object rebuildLock = new Object();
+    private volatile byte[] slots = new byte[0];
+    private volatile Map<Long, Byte> sparseSlots = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    /**
+     * 全量加载期间应用的变更（充电桩ID到状态，null表示删除），未在加载时为null；由this保护
+     */
+    private Map<Long, ChargingPileStatus> rebuildDeltas;
+
+    public ChargingPileStatusCache(ChargingPileRepository chargingPileRepository,
+                                   StringRedisTemplate stringRedisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.chargingPileRepository = chargingPileRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.eventPublisher = eventPublisher;
+        this.bitmapKeys = Arrays.stream(STATUSES).map(status -> BITMAP_KEY_PREFIX + status.name()).toList();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 从数据库全量加载，并覆盖Redis中的状态位图
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                rebuildDeltas = new HashMap<>();
+            }
+
+            Snapshot loaded = new Snapshot();
+            int pileCount;
+            try {
+                List<ChargingPile> all = chargingPileRepository.findAll();
+                pileCount = all.size();
+                for (ChargingPile pile : all) {
+                    loaded.put(pile.getId(), encode(pile.getStatus()));
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    rebuildDeltas = null;
+                }
+                throw e;
+            }
+
+            Snapshot previous;
+            boolean wasReady;
+            synchronized (this) {
+                // 加载期间已生效的变更比快照新
+                rebuildDeltas.forEach((pileId, status) -> loaded.put(pileId, encode(status)));
+                rebuildDeltas = new HashMap<>();
+                previous = new Snapshot(slots, sparseSlots);
+                wasReady = ready;
+                slots = loaded.dense;
+                sparseSlots = new ConcurrentHashMap<>(loaded.sparse);
+                int[] loadedCounts = loaded.counts();
+                for (int i = 0; i < loadedCounts.length; i++) {
+                    counts.set(i, loadedCounts[i]);
+                }
+                ready = true;
+            }
+
+            mirrorAll(loaded);
+            // 写入位图期间生效的变更可能已被整体覆盖，重新写入
+            Map<Long, ChargingPileStatus> lateDeltas;
+            synchronized (this) {
+                lateDeltas = rebuildDeltas;
+                rebuildDeltas = null;
+            }
+            lateDeltas.forEach(this::mirrorBits);
+
+            if (wasReady) {
+                publishCorrections(previous, loaded);
+            }
+            log.info("Charging pile status cache loaded: piles={}, counts={}", pileCount, counts());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 充电桩当前状态，未知时返回null
+     */
+    public ChargingPileStatus statusOf(Long pileId) {
+        if (pileId == null) {
+            return null;
+        }
+        if (!isDense(pileId)) {
+            Byte value = sparseSlots.get(pileId);
+            return value != null ? decode(value) : null;
+        }
+        byte[] current = slots;
+        if (pileId >= current.length) {
+            return null;
+        }
+        return decode((byte) SLOTS.getAcquire(current, pileId.intValue()));
+    }
+
+    /**
+     * 充电桩当前状态，未知时返回fallback
+     */
+    public ChargingPileStatus statusOf(Long pileId, ChargingPileStatus fallback) {
+        ChargingPileStatus status = statusOf(pileId);
+        return status != null ? status : fallback;
+    }
+
+    /**
+     * 指定状态的充电桩数量
+     */
+    public int count(ChargingPileStatus status) {
+        return counts.get(status.ordinal());
+    }
+
+    /**
+     * 各状态的充电桩数量
+     */
+    public Map<ChargingPileStatus, Integer> counts() {
+        Map<ChargingPileStatus, Integer> result = new EnumMap<>(ChargingPileStatus.class);
+        for (ChargingPileStatus status : STATUSES) {
+            result.put(status, count(status));
+        }
+        return result;
+    }
+
+    /**
+     * 从给定充电桩中筛选出处于指定状态的充电桩ID
+     */
+    public List<Long> filter(Collection<Long> pileIds, ChargingPileStatus status) {
+        List<Long> matched = new ArrayList<>();
+        for (Long pileId : pileIds) {
+            if (statusOf(pileId) == status) {
+                matched.add(pileId);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 充电桩状态变更（事务提交后生效并同步到Redis及其他节点）
+     */
+    public void onStatusChanged(Long pileId, ChargingPileStatus status) {
+        TransactionUtil.afterCommit(() -> {
+            applyAndPublish(pileId, status);
+            mirror(pileId, status);
+        });
+    }
+
+    /**
+     * 批量更新后按ID重新加载状态（事务提交后生效）
+     */
+    public void onPilesChanged(Collection<Long> pileIds) {
+        List<Long> ids = List.copyOf(pileIds);
+        TransactionUtil.afterCommit(() -> chargingPileRepository.findAllById(ids).forEach(pile -> {
+            applyAndPublish(pile.getId(), pile.getStatus());
+            mirror(pile.getId(), pile.getStatus());
+        }));
+    }
+
+    /**
+     * 充电桩删除（事务提交后生效）
+     */
+    public void onPileRemoved(Long pileId) {
+        onStatusChanged(pileId, null);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|");
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            applyAndPublish(Long.valueOf(parts[1]),
+                    REMOVED.equals(parts[2]) ? null : ChargingPileStatus.valueOf(parts[2]));
+        } catch (Exception e) {
+            log.warn("Failed to apply charging pile status change: message={}", body, e);
+        }
+    }
+
+    private void applyAndPublish(Long pileId, ChargingPileStatus status) {
+        if (apply(pileId, status)) {
+            eventPublisher.publishEvent(new ChargingPileStatusChangedEvent(pileId, status));
+        }
+    }
+
+    /**
+     * 更新本地状态，返回状态是否发生变化
+     */
+    private synchronized boolean apply(Long pileId, ChargingPileStatus status) {
+        if (rebuildDeltas != null) {
+            rebuildDeltas.put(pileId, status);
+        }
+
+        ChargingPileStatus previous = statusOf(pileId);
+        if (previous == status) {
+            return false;
+        }
+        if (isDense(pileId)) {
+            byte[] current = slots;
+            int index = pileId.intValue();
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.min(MAX_DENSE_ID, Math.max(index + 1, current.length * 2)));
+                slots = current;
+            }
+            SLOTS.setRelease(current, index, encode(status));
+        } else if (status == null) {
+            sparseSlots.remove(pileId);
+        } else {
+            sparseSlots.put(pileId, encode(status));
+        }
+        if (previous != null) {
+            counts.decrementAndGet(previous.ordinal());
+        }
+        if (status != null) {
+            counts.incrementAndGet(status.ordinal());
+        }
+        return true;
+    }
+
+    /**
+     * 全量加载纠正了本地状态时，为有差异的充电桩发布变更事件
+     */
+    private void publishCorrections(Snapshot previous, Snapshot loaded) {
+        int length = Math.max(previous.dense.length, loaded.dense.length);
+        for (int id = 0; id < length; id++) {
+            byte before = id < previous.dense.length ? previous.dense[id] : UNKNOWN;
+            byte after = id < loaded.dense.length ? loaded.dense[id] : UNKNOWN;
+            if (before != after) {
+                eventPublisher.publishEvent(new ChargingPileStatusChangedEvent((long) id, decode(after)));
+            }
+        }
+        Set<Long> sparseIds = new HashSet<>(previous.sparse.keySet());
+        sparseIds.addAll(loaded.sparse.keySet());
+        for (Long id : sparseIds) {
+            byte before = previous.sparse.getOrDefault(id, UNKNOWN);
+            byte after = loaded.sparse.getOrDefault(id, UNKNOWN);
+            if (before != after) {
+                eventPublisher.publishEvent(new ChargingPileStatusChangedEvent(id, decode(after)));
+            }
+        }
+    }
+
+    private void mirror(Long pileId, ChargingPileStatus status) {
+        String message = nodeId + "|" + pileId + "|" + (status != null ? status.name() : REMOVED);
+        try {
+            if (pileId < 0 || pileId > MAX_BITMAP_OFFSET) {
+                stringRedisTemplate.convertAndSend(CHANNEL, message);
+                return;
+            }
+            stringRedisTemplate.execute(SET_STATUS_SCRIPT, bitmapKeys, pileId.toString(),
+                    String.valueOf(encode(status)), message);
+        } catch (Exception e) {
+            // 同步失败时其他节点由定期全量加载校正
+            log.warn("Failed to mirror charging pile status: pileId={}, status={}", pileId, status, e);
+        }
+    }
+
+    /**
+     * 只更新Redis位图，不通知其他节点
+     */
+    private void mirrorBits(Long pileId, ChargingPileStatus status) {
+        if (pileId < 0 || pileId > MAX_BITMAP_OFFSET) {
+            return;
+        }
+        byte code = encode(status);
+        try {
+            stringRedisTemplate.execute(connection -> {
+                for (ChargingPileStatus candidate : STATUSES) {
+                    connection.stringCommands().setBit(bitmapKey(candidate), pileId, encode(candidate) == code);
+                }
+                return null;
+            }, true);
+        } catch (Exception e) {
+            log.warn("Failed to mirror charging pile status: pileId={}, status={}", pileId, status, e);
+        }
+    }
+
+    private void mirrorAll(Snapshot loaded) {
+        try {
+            for (ChargingPileStatus status : STATUSES) {
+                byte[] bitmap = new byte[(loaded.dense.length + 7) / 8];
+                byte code = encode(status);
+                for (int id = 0; id < loaded.dense.length; id++) {
+                    if (loaded.dense[id] == code) {
+                        // Redis位图偏移量0对应首字节最高位
+                        bitmap[id >>> 3] |= (byte) (0x80 >>> (id & 7));
+                    }
+                }
+                byte[] key = bitmapKey(status);
+                stringRedisTemplate.execute(connection -> connection.stringCommands().set(key, bitmap), true);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to mirror charging pile status bitmaps", e);
+        }
+        loaded.sparse.forEach((pileId, code) -> mirrorBits(pileId, decode(code)));
+    }
+
+    private static byte[] bitmapKey(ChargingPileStatus status) {
+        return (BITMAP_KEY_PREFIX + status.name()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isDense(long pileId) {
+        return pileId >= 0 && pileId < MAX_DENSE_ID;
+    }
+
+    private static byte encode(ChargingPileStatus status) {
+        return status == null ? UNKNOWN : (byte) (status.ordinal() + 1);
+    }
+
+    private static ChargingPileStatus decode(byte value) {
+        return value == UNKNOWN ? null : STATUSES[value - 1];
+    }
+
+    /**
+     * 一次全量加载的状态：ID较小的充电桩在数组中，其余在稀疏表中
+     */
+    private static final class Snapshot {
+
+        private byte[] dense;
+        private final Map<Long, Byte> sparse;
+
+        private Snapshot() {
+            this.dense = new byte[0];
+            this.sparse = new HashMap<>();
+        }
+
+        private Snapshot(byte[] dense, Map<Long, Byte> sparse) {
+            this.dense = dense;
+            this.sparse = sparse;
+        }
+
+        private void put(Long pileId, byte code) {
+            if (!isDense(pileId)) {
+                if (code == UNKNOWN) {
+                    sparse.remove(pileId);
+                } else {
+                    sparse.put(pileId, code);
+                }
+                return;
+            }
+            int index = pileId.intValue();
+            if (index >= dense.length) {
+                if (code == UNKNOWN) {
+                    return;
+                }
+                dense = Arrays.copyOf(dense, Math.min(MAX_DENSE_ID, Math.max(index + 1, dense.length * 2)));
+            }
+            dense[index] = code;
+        }
+
+        private int[] counts() {
+            int[] result = new int[STATUSES.length];
+            for (byte code : dense) {
+                if (code != UNKNOWN) {
+                    result[code - 1]++;
+                }
+            }
+            for (byte code : sparse.values()) {
+                result[code - 1]++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.enums.ChargingPileStatus;
+
+/**
+ * 充电桩实时状态变更事件（本节点事务提交或收到其他节点通知后发布）
+ *
+ * @param pileId 充电桩ID
+ * @param status 新状态，充电桩被删除时为null
+ */
+public record ChargingPileStatusChangedEvent(Long pileId, ChargingPileStatus status) {
+}
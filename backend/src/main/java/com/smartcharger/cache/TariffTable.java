@@ -0,0 +1,280 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.PriceConfig;
+import com.smartcharger.repository.PriceConfigRepository;
+import com.smartcharger.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 电价表本地快照
+ * 按充电桩类型缓存所有激活的费用配置，时间窗口预先按生效开始时间排序，查询为二分查找，不访问数据库。
+ * 快照不可变且带版本号：费用配置变更在事务提交后整体重建并原子替换，同时通过Redis通知其他节点重建。
+ */
+@Slf4j
+@Component
+public class TariffTable implements MessageListener {
+
+    static final String CHANNEL = "price-config:tariff";
+
+    private static final Comparator<Tariff> BY_START_TIME =
+            Comparator.comparing(Tariff::startTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final PriceConfigRepository priceConfigRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public TariffTable(PriceConfigRepository priceConfigRepository,
+                       StringRedisTemplate stringRedisTemplate,
+                       RedisMessageListenerContainer listenerContainer) {
+        this.priceConfigRepository = priceConfigRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 从数据库重建快照
+     * 版本号在读库前分配，并发重建时较早读库的结果不会覆盖较新的快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        long version = versionSequence.incrementAndGet();
+        Snapshot next = Snapshot.build(version, priceConfigRepository.findByIsActive(1));
+        Snapshot applied = snapshot.accumulateAndGet(next,
+                (current, candidate) -> current == null || candidate.version > current.version ? candidate : current);
+        if (applied == next) {
+            log.info("Tariff table loaded: version={}, types={}", version, next.byType.keySet());
+        }
+    }
+
+    /**
+     * 定期兜底刷新，防止错过其他节点的变更通知
+     */
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * 费用配置变更（事务提交后重建快照并通知其他节点）
+     */
+    public void onConfigChanged() {
+        TransactionUtil.afterCommit(() -> {
+            reload();
+            publish();
+        });
+    }
+
+    /**
+     * 当前快照，首次访问时同步加载
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            reload();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    /**
+     * 查询指定类型在指定时刻生效的电价，没有则返回null
+     */
+    public Tariff find(String chargingPileType, LocalDateTime at) {
+        return current().find(chargingPileType, at);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (nodeId.equals(body)) {
+            return;
+        }
+
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Failed to reload tariff table: message={}", body, e);
+        }
+    }
+
+    private void publish() {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to publish tariff table change", e);
+        }
+    }
+
+    /**
+     * 不可变电价快照
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<String, Windows> byType;
+
+        private Snapshot(long version, Map<String, Windows> byType) {
+            this.version = version;
+            this.byType = byType;
+        }
+
+        static Snapshot build(long version, List<PriceConfig> configs) {
+            Map<String, List<Tariff>> grouped = new HashMap<>();
+            for (PriceConfig config : configs) {
+                grouped.computeIfAbsent(config.getChargingPileType(), key -> new ArrayList<>())
+                        .add(Tariff.of(config));
+            }
+
+            Map<String, Windows> byType = new HashMap<>();
+            grouped.forEach((type, tariffs) -> byType.put(type, Windows.of(tariffs)));
+            return new Snapshot(version, Collections.unmodifiableMap(byType));
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Tariff find(String chargingPileType, LocalDateTime at) {
+            Windows windows = byType.get(chargingPileType);
+            return windows != null ? windows.find(at) : null;
+        }
+
+        /**
+         * 指定类型的全部时间窗口，按生效开始时间升序
+         */
+        public List<Tariff> windows(String chargingPileType) {
+            Windows windows = byType.get(chargingPileType);
+            return windows != null ? List.of(windows.sorted) : List.of();
+        }
+    }
+
+    /**
+     * 单个类型的时间窗口，按生效开始时间升序（无开始时间的排最前）
+     */
+    private static final class Windows {
+
+        private final Tariff[] sorted;
+
+        /**
+         * 窗口之间存在重叠（历史数据未经冲突校验），此时退化为线性扫描以保持"最新创建优先"的语义
+         */
+        private final boolean overlapping;
+
+        private Windows(Tariff[] sorted, boolean overlapping) {
+            this.sorted = sorted;
+            this.overlapping = overlapping;
+        }
+
+        static Windows of(List<Tariff> tariffs) {
+            Tariff[] sorted = tariffs.toArray(new Tariff[0]);
+            Arrays.sort(sorted, BY_START_TIME);
+
+            boolean overlapping = false;
+            boolean unbounded = false;
+            LocalDateTime reach = null;
+            for (int i = 0; i < sorted.length; i++) {
+                Tariff tariff = sorted[i];
+                if (i > 0 && (unbounded || tariff.startTime() == null || !tariff.startTime().isAfter(reach))) {
+                    overlapping = true;
+                    break;
+                }
+                if (tariff.endTime() == null) {
+                    unbounded = true;
+                } else if (reach == null || tariff.endTime().isAfter(reach)) {
+                    reach = tariff.endTime();
+                }
+            }
+            return new Windows(sorted, overlapping);
+        }
+
+        Tariff find(LocalDateTime at) {
+            if (overlapping) {
+                Tariff latest = null;
+                for (Tariff tariff : sorted) {
+                    if (tariff.covers(at) && (latest == null || tariff.isNewerThan(latest))) {
+                        latest = tariff;
+                    }
+                }
+                return latest;
+            }
+
+            // 二分查找最后一个开始时间不晚于at的窗口
+            int low = 0;
+            int high = sorted.length - 1;
+            int candidate = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                LocalDateTime start = sorted[mid].startTime();
+                if (start == null || !start.isAfter(at)) {
+                    candidate = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return candidate >= 0 && sorted[candidate].covers(at) ? sorted[candidate] : null;
+        }
+    }
+
+    /**
+     * 电价时间窗口（费用配置的不可变副本）
+     */
+    public record Tariff(Long id, String chargingPileType, BigDecimal pricePerKwh, BigDecimal serviceFee,
+                         LocalDateTime startTime, LocalDateTime endTime,
+                         LocalDateTime createdTime, LocalDateTime updatedTime) {
+
+        static Tariff of(PriceConfig config) {
+            return new Tariff(config.getId(), config.getChargingPileType(), config.getPricePerKwh(),
+                    config.getServiceFee(), config.getStartTime(), config.getEndTime(),
+                    config.getCreatedTime(), config.getUpdatedTime());
+        }
+
+        public boolean covers(LocalDateTime at) {
+            return (startTime == null || !startTime.isAfter(at))
+                    && (endTime == null || !endTime.isBefore(at));
+        }
+
+        /**
+         * 是否比另一窗口创建得更晚（缺少创建时间的视为最早）
+         */
+        public boolean isNewerThan(Tariff other) {
+            if (createdTime == null || other.createdTime == null) {
+                return other.createdTime == null && createdTime != null;
+            }
+            return createdTime.isAfter(other.createdTime);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartcharger.common.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务指标切面
+ * 对每个 @Scheduled 方法记录执行耗时（scheduled.task.duration）和调度延迟（scheduled.task.lag）：
+ * 延迟为实际开始时间与按调度配置应开始时间之差——fixedDelay为上次结束加间隔，fixedRate为上次开始加周期，
+ * cron为上次结束之后的下一个触发时间（与Spring的CronTrigger一致）。首次执行没有参照，不记录延迟。
+ */
+@Aspect
+@Component
+public class ScheduledTaskMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TaskState> states = new ConcurrentHashMap<>();
+
+    public ScheduledTaskMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(scheduled)")
+    public Object around(ProceedingJoinPoint joinPoint, Scheduled scheduled) throws Throwable {
+        String task = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        TaskState state = states.computeIfAbsent(task, key -> new TaskState(
+                timer("scheduled.task.lag", key), timer("scheduled.task.duration", key)));
+
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+        Duration lag = state.lag(scheduled, start);
+        if (lag != null) {
+            state.lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            state.durationTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            state.lastStart = start;
+            state.lastEnd = Instant.now();
+        }
+    }
+
+    private Timer timer(String name, String task) {
+        return Timer.builder(name)
+                .tag("task", task)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 单个定时任务的上次执行时间
+     */
+    static final class TaskState {
+
+        private final Timer lagTimer;
+        private final Timer durationTimer;
+        private volatile Instant lastStart;
+        private volatile Instant lastEnd;
+
+        TaskState(Timer lagTimer, Timer durationTimer) {
+            this.lagTimer = lagTimer;
+            this.durationTimer = durationTimer;
+        }
+
+        /**
+         * 本次开始相对应开始时间的延迟，无法确定应开始时间时返回null
+         */
+        Duration lag(Scheduled scheduled, Instant start) {
+            Instant previousStart = lastStart;
+            Instant previousEnd = lastEnd;
+            if (previousStart == null || previousEnd == null) {
+                return null;
+            }
+            Instant expected;
+            if (scheduled.fixedDelay() >= 0) {
+                expected = previousEnd.plusMillis(scheduled.timeUnit().toMillis(scheduled.fixedDelay()));
+            } else if (scheduled.fixedRate() >= 0) {
+                expected = previousStart.plusMillis(scheduled.timeUnit().toMillis(scheduled.fixedRate()));
+            } else if (StringUtils.hasText(scheduled.cron()) && !Scheduled.CRON_DISABLED.equals(scheduled.cron())) {
+                ZoneId zone = StringUtils.hasText(scheduled.zone()) ? ZoneId.of(scheduled.zone()) : ZoneId.systemDefault();
+                ZonedDateTime next = CronExpression.parse(scheduled.cron()).next(previousEnd.atZone(zone));
+                if (next == null) {
+                    return null;
+                }
+                expected = next.toInstant();
+            } else {
+                return null;
+            }
+            return Duration.between(expected, start);
+        }
+    }
+}
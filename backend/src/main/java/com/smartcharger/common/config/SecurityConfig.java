@@ -1,6 +1,8 @@
 package com.smartcharger.common.config;
 
 import com.smartcharger.common.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -9,15 +11,19 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Spring Security配置类
@@ -27,18 +33,28 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final String PASSWORD_ENCODER_ID = "bcrypt";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final int managementPort;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.managementPort = managementPort;
     }
 
     /**
      * 密码加密器
+     * 新哈希带算法前缀（如 {bcrypt}），历史上无前缀的哈希按BCrypt验证；
+     * 调整BCrypt强度或更换 idForEncode 后，用户下次登录时自动按新配置重新哈希。
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(PASSWORD_ENCODER_ID,
+                Map.of(PASSWORD_ENCODER_ID, new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(bcryptStrength));
+        return encoder;
     }
 
     /**
@@ -59,11 +75,20 @@ public class SecurityConfig {
 
                 // 配置URL访问权限
                 .authorizeHttpRequests(auth -> auth
+                        // 异步结果（CompletableFuture、SSE）和错误页的再次分派只写出已授权请求的结果；
+                        // JWT过滤器不在再次分派时执行，认证信息不随之保留，不放行会被当作匿名请求拒绝
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         // 允许访问的URL（不需要认证）
                         .requestMatchers(
                                 "/auth/login",
                                 "/auth/register",
-                                "/health"
+                                "/health",
+                                "/actuator/health"
+                        ).permitAll()
+                        // 指标只在绑定内网地址的独立管理端口上免认证抓取
+                        .requestMatchers(new AndRequestMatcher(
+                                new AntPathRequestMatcher("/actuator/prometheus"),
+                                request -> managementPort > 0 && request.getLocalPort() == managementPort)
                         ).permitAll()
                         // 其他所有请求都需要认证
                         .anyRequest().authenticated()
@@ -5,6 +5,7 @@ import com.smartcharger.common.result.ResultCode;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
@@ -31,6 +32,16 @@ public class GlobalExceptionHandler {
         return Result.error(e.getCode(), e.getMessage());
     }
 
+    /**
+     * 处理限流拒绝：返回429，不记录堆栈
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Result<?> handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn("请求被限流: code={}, message={}", e.getCode(), e.getMessage());
+        return Result.error(e.getCode(), e.getMessage());
+    }
+
     /**
      * 处理参数校验异常（@Valid）
      */
@@ -64,6 +75,16 @@ public class GlobalExceptionHandler {
         return Result.error(ResultCode.BAD_REQUEST, errorMessage);
     }
 
+    /**
+     * 处理乐观锁冲突（数据已被并发修改）
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.OK)
+    public Result<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.warn("乐观锁冲突: {}", e.getMessage());
+        return Result.error(ResultCode.CHARGING_PILE_BUSY);
+    }
+
     /**
      * 处理认证异常
      */
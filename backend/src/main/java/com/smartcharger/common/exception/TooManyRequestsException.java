@@ -0,0 +1,16 @@
+package com.smartcharger.common.exception;
+
+import com.smartcharger.common.result.ResultCode;
+
+/**
+ * 限流异常类
+ * 处理能力已满或尝试次数超限时抛出，响应状态码为429
+ */
+public class TooManyRequestsException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(ResultCode resultCode) {
+        super(resultCode);
+    }
+}
@@ -0,0 +1,203 @@
+package com.smartcharger.common.filter;
+
+import com.smartcharger.common.security.JwtAuthenticationFilter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * 访问日志过滤器
+ * 每个请求完成时向 ACCESS_LOG 日志器输出一行JSON，由异步追加器写出，请求线程不等待IO；
+ * 耗时以 System.nanoTime 计量，异步请求在异步处理完成时记录。
+ * 只有匹配 access-log.body-paths 的非multipart请求才缓存请求体，且最多缓存 access-log.body-max-bytes 字节；
+ * 成功且不慢的GET请求按 access-log.get-sample-rate 采样，错误和慢请求总是记录。
+ * 查询参数中的 access_token 记录为 *** 。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    /**
+     * 认证通过后由JWT认证过滤器写入的用户ID请求属性
+     */
+    public static final String USER_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".userId";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private static final Pattern QUERY_TOKEN = Pattern.compile(
+            "(^|&)(" + JwtAuthenticationFilter.QUERY_TOKEN_PARAMETER + "=)[^&]*");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> bodyPaths;
+    private final int bodyMaxBytes;
+    private final double getSampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${access-log.body-paths:}") List<String> bodyPaths,
+                           @Value("${access-log.body-max-bytes:2048}") int bodyMaxBytes,
+                           @Value("${access-log.get-sample-rate:1.0}") double getSampleRate,
+                           @Value("${access-log.slow-threshold-millis:1000}") long slowThresholdMillis) {
+        this.bodyPaths = bodyPaths.stream().filter(StringUtils::hasText).map(String::trim).toList();
+        this.bodyMaxBytes = bodyMaxBytes;
+        this.getSampleRate = getSampleRate;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!ACCESS_LOG.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        HttpServletRequest loggedRequest = capturesBody(request)
+                ? new ContentCachingRequestWrapper(request, bodyMaxBytes)
+                : request;
+        boolean failed = true;
+        try {
+            filterChain.doFilter(loggedRequest, response);
+            failed = false;
+        } finally {
+            if (!failed && loggedRequest.isAsyncStarted()) {
+                loggedRequest.getAsyncContext().addListener(new CompletionListener(loggedRequest, response, startNanos));
+            } else {
+                log(loggedRequest, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+                        System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    boolean capturesBody(HttpServletRequest request) {
+        if (bodyPaths.isEmpty() || "GET".equals(request.getMethod())) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith("multipart/")) {
+            return false;
+        }
+        String path = pathWithinApplication(request);
+        for (String pattern : bodyPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 格式化并输出一行访问日志，被采样丢弃时返回null
+     */
+    String log(HttpServletRequest request, int status, long elapsedNanos) {
+        boolean sampled = getSampleRate < 1.0 && "GET".equals(request.getMethod())
+                && status < 400 && elapsedNanos < slowThresholdNanos;
+        if (sampled && ThreadLocalRandom.current().nextDouble() >= getSampleRate) {
+            return null;
+        }
+
+        StringBuilder line = new StringBuilder(256).append('{');
+        appendString(line, "method", request.getMethod());
+        appendString(line.append(','), "path", pathWithinApplication(request));
+        if (request.getQueryString() != null) {
+            appendString(line.append(','), "query",
+                    QUERY_TOKEN.matcher(request.getQueryString()).replaceAll("$1$2***"));
+        }
+        line.append(",\"status\":").append(status)
+                .append(",\"latencyUs\":").append(elapsedNanos / 1000);
+        Object userId = request.getAttribute(USER_ID_ATTRIBUTE);
+        if (userId != null) {
+            line.append(",\"userId\":").append(userId);
+        }
+        appendString(line.append(','), "ip", request.getRemoteAddr());
+        if (sampled) {
+            line.append(",\"sampleRate\":").append(getSampleRate);
+        }
+        ContentCachingRequestWrapper wrapper = WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+        if (wrapper != null && wrapper.getContentAsByteArray().length > 0) {
+            appendString(line.append(','), "body", new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8));
+        }
+        String entry = line.append('}').toString();
+        ACCESS_LOG.info(entry);
+        return entry;
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static void appendString(StringBuilder line, String name, String value) {
+        line.append('"').append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * 异步请求完成时记录访问日志
+     */
+    private final class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long startNanos;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response, long startNanos) {
+            this.request = request;
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            log(request, response.getStatus(), System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -1,30 +0,0 @@
-package com.smartcharger.common.filter;
-
-import jakarta.servlet.*;
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.stereotype.Component;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-
-import java.io.IOException;
-
-/**
- * 请求体缓存过滤器
- * 用于支持多次读取请求体
- */
-@Component
-public class RequestCachingFilter implements Filter {
-
-    @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
-
-        if (request instanceof HttpServletRequest) {
-            HttpServletRequest httpRequest = (HttpServletRequest) request;
-            // 包装请求，使请求体可以多次读取
-            ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(httpRequest);
-            chain.doFilter(wrappedRequest, response);
-        } else {
-            chain.doFilter(request, response);
-        }
-    }
-}
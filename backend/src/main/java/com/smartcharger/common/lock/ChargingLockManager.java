@@ -0,0 +1,230 @@
+package com.smartcharger.common.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 开始充电锁管理器
+ * 同一节点上对同一充电桩的并发请求先在本地分段锁上排队，只有拿到本地锁的请求才访问Redis；
+ * Redis中只保留用户锁（一次Lua往返），充电桩的跨节点互斥由状态机的条件更新保证。
+ */
+@Slf4j
+@Component
+public class ChargingLockManager {
+
+    static final String USER_LOCK_PREFIX = "{charging:start}:user:";
+
+    private static final int STRIPE_COUNT = 256;
+    private static final long MIN_BACKOFF_MILLIS = 20L;
+    private static final long MAX_BACKOFF_MILLIS = 200L;
+
+    /**
+     * 全部未被占用时一起加锁并返回0，否则返回第一个被占用锁的序号
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  if redis.call('EXISTS', KEYS[i]) == 1 then return i end " +
+            "end " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('SET', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 只释放自己持有的锁
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local released = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('GET', KEYS[i]) == ARGV[1] then " +
+            "    redis.call('DEL', KEYS[i]) " +
+            "    released = released + 1 " +
+            "  end " +
+            "end " +
+            "return released",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long waitMillis;
+    private final long leaseMillis;
+    private final ReentrantLock[] pileStripes = new ReentrantLock[STRIPE_COUNT];
+
+    private final Timer acquiredWaitTimer;
+    private final Timer timeoutWaitTimer;
+    private final Timer holdTimer;
+    private final Map<LockOwner, Counter> failureCounters = new EnumMap<>(LockOwner.class);
+
+    /**
+     * 没有指标注册表（未引入actuator）时使用本地的SimpleMeterRegistry，锁功能不依赖指标
+     */
+    @Autowired
+    public ChargingLockManager(StringRedisTemplate stringRedisTemplate,
+                               ObjectProvider<MeterRegistry> meterRegistryProvider,
+                               @Value("${charging.lock.wait-millis:5000}") long waitMillis,
+                               @Value("${charging.lock.lease-millis:30000}") long leaseMillis) {
+        this(stringRedisTemplate, meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new), waitMillis, leaseMillis);
+    }
+
+    ChargingLockManager(StringRedisTemplate stringRedisTemplate,
+                        MeterRegistry meterRegistry,
+                        long waitMillis,
+                        long leaseMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.waitMillis = waitMillis;
+        this.leaseMillis = leaseMillis;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            pileStripes[i] = new ReentrantLock();
+        }
+
+        this.acquiredWaitTimer = waitTimer(meterRegistry, "acquired");
+        this.timeoutWaitTimer = waitTimer(meterRegistry, "timeout");
+        this.holdTimer = Timer.builder("charging.start.lock.hold")
+                .description("Time the start-charging locks are held")
+                .register(meterRegistry);
+        for (LockOwner owner : LockOwner.values()) {
+            failureCounters.put(owner, Counter.builder("charging.start.lock.failures")
+                    .description("Start-charging lock acquisitions that timed out, by the lock that was held")
+                    .tag("lock", owner.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 在等待时间内尝试获取充电桩本地锁和用户锁
+     * 返回的锁需在finally或try-with-resources中关闭；未获取成功时关闭为空操作
+     */
+    public StartLock tryAcquireStartLocks(Long userId, Long pileId) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+
+        ReentrantLock stripe = pileStripes[Math.floorMod(Long.hashCode(pileId), STRIPE_COUNT)];
+        if (!stripe.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+            timeoutWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            failureCounters.get(LockOwner.PILE).increment();
+            return StartLock.blocked(LockOwner.PILE);
+        }
+
+        List<String> keys = List.of(USER_LOCK_PREFIX + userId);
+        String token = UUID.randomUUID().toString();
+        boolean acquired = false;
+        try {
+            long backoff = MIN_BACKOFF_MILLIS;
+            while (true) {
+                Long result = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys, token, String.valueOf(leaseMillis));
+                if (result != null && result == 0L) {
+                    acquired = true;
+                    long now = System.nanoTime();
+                    acquiredWaitTimer.record(now - startNanos, TimeUnit.NANOSECONDS);
+                    return new StartLock(this, stripe, keys, token, now, null);
+                }
+
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    timeoutWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    failureCounters.get(LockOwner.USER).increment();
+                    log.warn("Failed to acquire start charging locks: userId={}, pileId={}, blockedBy={}",
+                            userId, pileId, LockOwner.USER);
+                    return StartLock.blocked(LockOwner.USER);
+                }
+                Thread.sleep(Math.min(backoff, remainingMillis));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        } finally {
+            if (!acquired) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    private void release(StartLock lock) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, lock.keys, lock.token);
+        } catch (Exception e) {
+            // 释放失败时锁会在租期到期后自动失效
+            log.error("Failed to release start charging locks: keys={}", lock.keys, e);
+        } finally {
+            holdTimer.record(System.nanoTime() - lock.acquiredNanos, TimeUnit.NANOSECONDS);
+            lock.stripe.unlock();
+        }
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("charging.start.lock.wait")
+                .description("Time spent waiting for the start-charging locks")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 被占用的锁
+     */
+    public enum LockOwner {
+        USER,
+        PILE
+    }
+
+    /**
+     * 开始充电锁句柄
+     */
+    public static final class StartLock implements AutoCloseable {
+
+        private final ChargingLockManager manager;
+        private final ReentrantLock stripe;
+        private final List<String> keys;
+        private final String token;
+        private final long acquiredNanos;
+        private final LockOwner blockedBy;
+        private boolean released;
+
+        private StartLock(ChargingLockManager manager, ReentrantLock stripe, List<String> keys, String token,
+                          long acquiredNanos, LockOwner blockedBy) {
+            this.manager = manager;
+            this.stripe = stripe;
+            this.keys = keys;
+            this.token = token;
+            this.acquiredNanos = acquiredNanos;
+            this.blockedBy = blockedBy;
+        }
+
+        private static StartLock blocked(LockOwner owner) {
+            return new StartLock(null, null, null, null, 0L, owner);
+        }
+
+        public boolean isAcquired() {
+            return blockedBy == null;
+        }
+
+        /**
+         * 未获取成功时，导致失败的锁
+         */
+        public LockOwner getBlockedBy() {
+            return blockedBy;
+        }
+
+        @Override
+        public void close() {
+            if (isAcquired() && !released) {
+                released = true;
+                manager.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.smartcharger.common.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Prometheus抓取端点（/actuator/prometheus）
+ * 以Prometheus文本格式输出注册表中的全部指标：计数器输出 _total，计时器和分布摘要输出 _count、_sum（秒）及 _max，
+ * 仪表输出当前值。不输出直方图桶：简单注册表的桶计数按时间窗口衰减，不满足Prometheus对桶单调递增的要求，
+ * 因此计时器不开启 publishPercentileHistogram，只能得到次数、总和与窗口内最大值。
+ * 引入 micrometer-registry-prometheus 后由Spring Boot自带的端点接管，本端点不再注册。
+ */
+@Component
+@WebEndpoint(id = "prometheus")
+@ConditionalOnMissingClass({
+        "io.micrometer.prometheus.PrometheusMeterRegistry",
+        "io.micrometer.prometheusmetrics.PrometheusMeterRegistry"})
+public class PrometheusScrapeEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    public PrometheusScrapeEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation(produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String scrape() {
+        return format(meterRegistry.getMeters());
+    }
+
+    static String format(List<Meter> meters) {
+        // 同名样本必须连续输出，按指标族名归并
+        Map<String, Family> families = new TreeMap<>();
+        List<Meter> sorted = new ArrayList<>(meters);
+        sorted.sort(Comparator.comparing(meter -> meter.getId().getName()));
+        for (Meter meter : sorted) {
+            Meter.Id id = meter.getId();
+            String baseName = sanitize(id.getName()) + unitSuffix(id);
+            String labels = labels(id.getTagsAsIterable());
+            for (Measurement measurement : meter.measure()) {
+                String type = "gauge";
+                String name = baseName;
+                switch (measurement.getStatistic()) {
+                    case COUNT -> {
+                        if (id.getType() == Meter.Type.COUNTER) {
+                            type = "counter";
+                            name = baseName + "_total";
+                        } else {
+                            type = "summary";
+                            name = baseName + "_count";
+                        }
+                    }
+                    case TOTAL, TOTAL_TIME -> {
+                        if (id.getType() == Meter.Type.COUNTER) {
+                            type = "counter";
+                            name = baseName + "_total";
+                        } else {
+                            type = "summary";
+                            name = baseName + "_sum";
+                        }
+                    }
+                    case MAX -> name = baseName + "_max";
+                    case ACTIVE_TASKS -> name = baseName + "_active_count";
+                    case DURATION -> name = baseName + "_duration_sum";
+                    default -> {
+                    }
+                }
+                String familyType = type;
+                String familyName = "summary".equals(type) ? baseName : name;
+                families.computeIfAbsent(familyName, key -> new Family(familyType))
+                        .samples.put(name + labels, measurement.getValue());
+            }
+        }
+
+        StringBuilder out = new StringBuilder(families.size() * 128);
+        families.forEach((name, family) -> {
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            family.samples.forEach((sample, value) -> out.append(sample).append(' ').append(value(value)).append('\n'));
+        });
+        return out.toString();
+    }
+
+    private static String unitSuffix(Meter.Id id) {
+        if (id.getType() == Meter.Type.TIMER || id.getType() == Meter.Type.LONG_TASK_TIMER) {
+            return "_seconds";
+        }
+        String unit = id.getBaseUnit();
+        return unit != null && !id.getName().endsWith(unit) ? "_" + sanitize(unit) : "";
+    }
+
+    private static String labels(Iterable<Tag> tags) {
+        StringBuilder labels = new StringBuilder();
+        for (Tag tag : tags) {
+            labels.append(labels.isEmpty() ? '{' : ',')
+                    .append(sanitize(tag.getKey())).append("=\"");
+            String value = tag.getValue();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> labels.append("\\\\");
+                    case '"' -> labels.append("\\\"");
+                    case '\n' -> labels.append("\\n");
+                    default -> labels.append(c);
+                }
+            }
+            labels.append('"');
+        }
+        return labels.isEmpty() ? "" : labels.append('}').toString();
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sanitized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+                    || (i > 0 && c >= '0' && c <= '9');
+            sanitized.append(valid ? c : '_');
+        }
+        return sanitized.toString();
+    }
+
+    private static String value(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * 指标族：类型及按输出顺序排列的样本值
+     */
+    private static final class Family {
+
+        private final String type;
+        private final Map<String, Double> samples = new LinkedHashMap<>();
+
+        private Family(String type) {
+            this.type = type;
+        }
+    }
+}
@@ -16,6 +16,7 @@ public enum ResultCode {
     UNAUTHORIZED(401, "未认证，请先登录"),
     FORBIDDEN(403, "无权限访问"),
     NOT_FOUND(404, "资源不存在"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试"),
 
     // 业务错误 40xx
     USERNAME_EXISTS(4001, "用户名已存在"),
@@ -26,6 +27,7 @@ public enum ResultCode {
     TOKEN_INVALID(4006, "Token无效"),
     OLD_PASSWORD_ERROR(4007, "旧密码错误"),
     USER_NOT_FOUND(4008, "用户不存在"),
+    LOGIN_ATTEMPTS_EXCEEDED(4009, "登录失败次数过多，请稍后再试"),
 
     // 车辆相关错误 41xx
     LICENSE_PLATE_INVALID(4101, "车牌号格式不正确"),
@@ -73,12 +75,17 @@ public enum ResultCode {
     CHARGING_PILE_HAS_RESERVATIONS(4804, "该充电桩有关联的预约记录，无法删除"),
     CHARGING_PILE_STATUS_INVALID(4805, "充电桩状态转换不合法，只能手动设置为空闲或故障"),
     CHARGING_PILE_IS_CHARGING(4806, "充电桩正在充电中，无法手动更改状态"),
+    CHARGING_PILE_TRANSITION_ILLEGAL(4807, "充电桩当前状态不允许该操作"),
 
     // 用户管理相关错误 49xx
     USER_HAS_ACTIVE_CHARGING(4901, "该用户有正在进行的充电记录"),
     PASSWORD_TOO_WEAK(4902, "密码强度不足，至少8位，包含字母和数字"),
     INVALID_USER_STATUS(4903, "用户状态无效，只能设置为启用或禁用"),
 
+    // 导出任务相关错误 50xx
+    EXPORT_JOB_NOT_FOUND(5001, "导出任务不存在"),
+    EXPORT_FILE_NOT_READY(5002, "导出文件尚未生成或已过期"),
+
     // 服务器错误 5xx
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
     SERVICE_UNAVAILABLE(503, "服务暂时不可用"),
@@ -1,5 +1,6 @@
 package com.smartcharger.common.security;
 
+import com.smartcharger.common.filter.AccessLogFilter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,14 +16,27 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
  * JWT认证过滤器
+ * Token从请求头读取；浏览器 EventSource 无法设置请求头，SSE推送接口另外接受 access_token 查询参数
+ * （访问日志中该参数已脱敏）。
  */
 @Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * 以查询参数传递Token时的参数名
+     */
+    public static final String QUERY_TOKEN_PARAMETER = "access_token";
+
+    /**
+     * 允许以查询参数传递Token的路径（相对于context-path）
+     */
+    private static final Set<String> QUERY_TOKEN_PATHS = Set.of("/charging-piles/stream");
+
     @Value("${jwt.header-string}")
     private String headerString;
 
@@ -43,39 +57,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 1. 从请求头中获取token
             String token = getTokenFromRequest(request);
 
-            // 2. 验证token
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                // 3. 从token中获取用户信息
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                String username = jwtTokenProvider.getUsernameFromToken(token);
+            // 2. 验证token并获取用户信息（只解析一次）
+            if (StringUtils.hasText(token)) {
+                TokenPrincipal principal = jwtTokenProvider.authenticate(token);
 
-                if (userId != null && username != null) {
-                    // 4. 创建认证对象
+                if (principal != null) {
+                    // 3. 创建认证对象
                     UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
+                            new UsernamePasswordAuthenticationToken(principal.userId(), null, new ArrayList<>());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // 5. 设置到SecurityContext
+                    // 4. 设置到SecurityContext
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("设置用户认证信息到SecurityContext: userId={}, username={}", userId, username);
+                    request.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, principal.userId());
+                    log.debug("设置用户认证信息到SecurityContext: userId={}, username={}",
+                            principal.userId(), principal.username());
                 }
             }
         } catch (Exception e) {
             log.error("无法设置用户认证信息: {}", e.getMessage());
         }
 
-        // 6. 继续过滤链
+        // 5. 继续过滤链
         filterChain.doFilter(request, response);
     }
 
     /**
-     * 从请求头中获取Token
+     * 从请求头中获取Token，SSE推送接口的GET请求还可从查询参数获取
      */
-    private String getTokenFromRequest(HttpServletRequest request) {
+    String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader(headerString);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(tokenPrefix + " ")) {
             return bearerToken.substring(tokenPrefix.length() + 1);
         }
+        if ("GET".equals(request.getMethod())
+                && QUERY_TOKEN_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            String queryToken = request.getParameter(QUERY_TOKEN_PARAMETER);
+            return StringUtils.hasText(queryToken) ? queryToken : null;
+        }
         return null;
     }
 }
@@ -1,20 +1,26 @@
 package com.smartcharger.common.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类
+ * Token中携带用户的会话纪元（sessionEpoch），纪元与Redis中该用户当前纪元一致时有效；
+ * 吊销会话只需递增纪元，同一用户可在多个设备上同时登录，Redis中每个用户只保存一个整数。
+ * 签名密钥和解析器在启动时构建一次；验签结果和用户纪元缓存在本地 {@link TokenValidationCache} 中，
+ * 稳定状态下认证不访问Redis。
  */
 @Slf4j
 @Component
@@ -26,24 +32,33 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TokenValidationCache tokenValidationCache;
 
-    private static final String TOKEN_PREFIX = "token:";
+    private static final String SESSION_EPOCH_PREFIX = "session-epoch:";
+    private static final String CLAIM_USERNAME = "username";
+    private static final String CLAIM_SESSION_EPOCH = "sessionEpoch";
 
-    public JwtTokenProvider(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    public JwtTokenProvider(StringRedisTemplate stringRedisTemplate,
+                            TokenValidationCache tokenValidationCache) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.tokenValidationCache = tokenValidationCache;
     }
 
     /**
-     * 生成密钥
+     * 生成密钥和解析器
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     /**
-     * 生成JWT Token
+     * 生成JWT Token（携带用户当前的会话纪元）
      */
     public String generateToken(Long userId, String username) {
         Date now = new Date();
@@ -51,95 +66,86 @@ public class JwtTokenProvider {
 
         String token = Jwts.builder()
                 .subject(String.valueOf(userId))
-                .claim("username", username)
+                .claim(CLAIM_USERNAME, username)
+                .claim(CLAIM_SESSION_EPOCH, loadEpoch(userId))
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
-        // 存储token到Redis
-        String redisKey = TOKEN_PREFIX + userId;
-        redisTemplate.opsForValue().set(redisKey, token, expiration, TimeUnit.MILLISECONDS);
-
         log.info("生成Token成功: userId={}, username={}", userId, username);
         return token;
     }
 
     /**
-     * 从Token中获取用户ID
+     * 验证Token并返回其中的用户身份，无效或会话已吊销时返回null
      */
-    public Long getUserIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return Long.parseLong(claims.getSubject());
-        } catch (Exception e) {
-            log.error("从Token中获取用户ID失败: {}", e.getMessage());
-            return null;
+    public TokenPrincipal authenticate(String token) {
+        TokenValidationCache.CachedToken cached = tokenValidationCache.getToken(token);
+        if (cached == null) {
+            cached = parse(token);
+            if (cached == null) {
+                return null;
+            }
+        }
+
+        Long userId = cached.principal().userId();
+        Long epoch = tokenValidationCache.getEpoch(userId);
+        if (epoch == null) {
+            epoch = loadEpoch(userId);
         }
+        return cached.sessionEpoch() == epoch ? cached.principal() : null;
     }
 
     /**
-     * 从Token中获取用户名
+     * 吊销用户的全部会话（登出、修改密码、禁用账号）
      */
-    public String getUsernameFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.get("username", String.class);
-        } catch (Exception e) {
-            log.error("从Token中获取用户名失败: {}", e.getMessage());
-            return null;
-        }
+    public void revokeSessions(Long userId) {
+        Long epoch = stringRedisTemplate.opsForValue().increment(SESSION_EPOCH_PREFIX + userId);
+        tokenValidationCache.publishEpoch(userId, epoch != null ? epoch : 0L);
+        log.info("吊销会话成功: userId={}, sessionEpoch={}", userId, epoch);
     }
 
     /**
-     * 验证Token是否有效
+     * 获取Token过期时间（毫秒）
      */
-    public boolean validateToken(String token) {
-        try {
-            // 1. 验证Token格式和签名
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-
-            // 2. 验证Token是否在Redis中存在
-            Long userId = getUserIdFromToken(token);
-            if (userId == null) {
-                return false;
-            }
-
-            String redisKey = TOKEN_PREFIX + userId;
-            String redisToken = (String) redisTemplate.opsForValue().get(redisKey);
-
-            // 3. 比对Redis中的token和传入的token是否一致
-            return token.equals(redisToken);
-        } catch (Exception e) {
-            log.error("Token验证失败: ", e.getMessage());
-            return false;
-        }
+    public Long getExpiration() {
+        return expiration;
     }
 
     /**
-     * 删除Token（登出）
+     * 验证签名和有效期并缓存结果，无效时返回null
      */
-    public void deleteToken(Long userId) {
-        String redisKey = TOKEN_PREFIX + userId;
-        redisTemplate.delete(redisKey);
-        log.info("删除Token成功: userId={}", userId);
+    private TokenValidationCache.CachedToken parse(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token验证失败: {}", e.getMessage());
+            return null;
+        }
+
+        Long userId;
+        try {
+            userId = Long.parseLong(claims.getSubject());
+        } catch (NumberFormatException e) {
+            log.debug("Token中的用户ID无效: {}", claims.getSubject());
+            return null;
+        }
+        String username = claims.get(CLAIM_USERNAME, String.class);
+        Number sessionEpoch = claims.get(CLAIM_SESSION_EPOCH, Number.class);
+        if (username == null || sessionEpoch == null) {
+            return null;
+        }
+        return tokenValidationCache.putToken(token, new TokenPrincipal(userId, username),
+                sessionEpoch.longValue(), claims.getExpiration().getTime());
     }
 
     /**
-     * 获取Token过期时间（毫秒）
+     * 从Redis读取用户当前的会话纪元（不存在时为0）并写入本地缓存
      */
-    public Long getExpiration() {
-        return expiration;
+    private long loadEpoch(Long userId) {
+        String value = stringRedisTemplate.opsForValue().get(SESSION_EPOCH_PREFIX + userId);
+        return tokenValidationCache.updateEpoch(userId, value != null ? Long.parseLong(value) : 0L);
     }
 }
@@ -0,0 +1,109 @@
+package com.smartcharger.common.security;
+
+import com.smartcharger.common.exception.TooManyRequestsException;
+import com.smartcharger.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 登录失败次数限制
+ * 按用户名和客户端IP分别在Redis中计数登录失败，窗口从第一次失败开始计时；任一计数达到上限时，
+ * 在计算密码哈希之前直接拒绝，暴力尝试不会消耗哈希线程。登录成功后清除该用户名的计数。
+ * 按IP计数需显式配置 security.login.max-failures-per-ip 启用（默认0为关闭），且只应在客户端IP可信时启用：
+ * 经反向代理部署时须同时配置 server.forward-headers-strategy，否则所有客户端共用代理的IP。
+ * Redis不可用时放行，不影响正常登录。
+ */
+@Slf4j
+@Component
+public class LoginAttemptLimiter {
+
+    private static final String USER_KEY_PREFIX = "login:fail:user:";
+    private static final String IP_KEY_PREFIX = "login:fail:ip:";
+
+    private static final RedisScript<Long> RECORD_FAILURE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  if redis.call('INCR', KEYS[i]) == 1 then " +
+            "    redis.call('EXPIRE', KEYS[i], ARGV[1]) " +
+            "  end " +
+            "end " +
+            "return #KEYS",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int maxUserFailures;
+    private final int maxIpFailures;
+    private final long windowSeconds;
+
+    public LoginAttemptLimiter(StringRedisTemplate stringRedisTemplate,
+                               @Value("${security.login.max-failures-per-user:5}") int maxUserFailures,
+                               @Value("${security.login.max-failures-per-ip:0}") int maxIpFailures,
+                               @Value("${security.login.window-seconds:900}") long windowSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.maxUserFailures = maxUserFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.windowSeconds = windowSeconds;
+    }
+
+    /**
+     * 检查是否允许尝试登录，超过上限时抛出429
+     */
+    public void checkAllowed(String username, String clientIp) {
+        List<String> counts;
+        try {
+            counts = stringRedisTemplate.opsForValue().multiGet(keys(username, clientIp));
+        } catch (Exception e) {
+            log.warn("Failed to read login failure counts: username={}, ip={}", username, clientIp, e);
+            return;
+        }
+        if (counts == null) {
+            return;
+        }
+        if (exceeds(counts.get(0), maxUserFailures) || (ipLimited() && exceeds(counts.get(1), maxIpFailures))) {
+            log.warn("Login attempts exceeded: username={}, ip={}", username, clientIp);
+            throw new TooManyRequestsException(ResultCode.LOGIN_ATTEMPTS_EXCEEDED);
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        try {
+            stringRedisTemplate.execute(RECORD_FAILURE_SCRIPT, keys(username, clientIp),
+                    String.valueOf(windowSeconds));
+        } catch (Exception e) {
+            log.warn("Failed to record login failure: username={}, ip={}", username, clientIp, e);
+        }
+    }
+
+    public void reset(String username) {
+        try {
+            stringRedisTemplate.delete(userKey(username));
+        } catch (Exception e) {
+            log.warn("Failed to reset login failures: username={}", username, e);
+        }
+    }
+
+    private boolean ipLimited() {
+        return maxIpFailures > 0;
+    }
+
+    private List<String> keys(String username, String clientIp) {
+        return ipLimited() ? List.of(userKey(username), ipKey(clientIp)) : List.of(userKey(username));
+    }
+
+    private static boolean exceeds(String count, int max) {
+        return count != null && Long.parseLong(count) >= max;
+    }
+
+    private static String userKey(String username) {
+        return USER_KEY_PREFIX + username;
+    }
+
+    private static String ipKey(String clientIp) {
+        return IP_KEY_PREFIX + clientIp;
+    }
+}
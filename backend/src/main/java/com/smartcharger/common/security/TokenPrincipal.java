@@ -0,0 +1,7 @@
+package com.smartcharger.common.security;
+
+/**
+ * Token中解析出的用户身份
+ */
+public record TokenPrincipal(Long userId, String username) {
+}
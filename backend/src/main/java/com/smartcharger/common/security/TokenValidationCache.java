@@ -0,0 +1,178 @@
+package com.smartcharger.common.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token验证本地缓存
+ * 已验签的Token以SHA-256摘要为键缓存其用户身份和会话纪元，命中时不再解析验签；
+ * 每个用户当前的会话纪元也缓存在本地，命中时认证不访问Redis。两者均按最近访问淘汰超出容量的条目，并有短TTL。
+ * 吊销会话时Redis中的纪元递增并通知所有节点；纪元只增不减，本地写入取较大值，
+ * 与并发的读取交错也不会回退到旧纪元。通知丢失时由TTL兜底。
+ */
+@Slf4j
+@Component
+public class TokenValidationCache implements MessageListener {
+
+    static final String CHANNEL = "auth:session-epoch";
+
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long ttlMillis;
+    private final Map<String, CachedToken> tokens;
+    private final Map<Long, EpochEntry> epochs;
+
+    public TokenValidationCache(StringRedisTemplate stringRedisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Value("${jwt.cache.ttl-seconds:60}") long ttlSeconds,
+                                @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.tokens = lru(maxSize);
+        this.epochs = lru(maxSize);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 查询已验签的Token，未命中或已过期时返回null
+     */
+    public CachedToken getToken(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (tokens) {
+            CachedToken cached = tokens.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() <= now) {
+                tokens.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * 缓存已验签的Token
+     *
+     * @param tokenExpiresAt Token自身的过期时间（毫秒时间戳）
+     */
+    public CachedToken putToken(String token, TokenPrincipal principal, long sessionEpoch, long tokenExpiresAt) {
+        CachedToken cached = new CachedToken(principal, sessionEpoch,
+                Math.min(System.currentTimeMillis() + ttlMillis, tokenExpiresAt));
+        String key = digest(token);
+        synchronized (tokens) {
+            tokens.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * 用户当前的会话纪元，未命中或已过期时返回null
+     */
+    public Long getEpoch(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (epochs) {
+            EpochEntry entry = epochs.get(userId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= now) {
+                epochs.remove(userId);
+                return null;
+            }
+            return entry.epoch();
+        }
+    }
+
+    /**
+     * 记录从Redis读取或收到通知的会话纪元，返回记录后的纪元（不低于已缓存的纪元）
+     */
+    public long updateEpoch(Long userId, long epoch) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        synchronized (epochs) {
+            EpochEntry entry = epochs.get(userId);
+            long current = entry != null ? Math.max(entry.epoch(), epoch) : epoch;
+            epochs.put(userId, new EpochEntry(current, expiresAt));
+            return current;
+        }
+    }
+
+    /**
+     * 会话纪元递增后更新本地缓存并通知其他节点
+     */
+    public void publishEpoch(Long userId, long epoch) {
+        updateEpoch(userId, epoch);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, userId + SEPARATOR + epoch);
+        } catch (Exception e) {
+            // 通知失败时其他节点缓存的纪元在TTL后过期
+            log.warn("Failed to publish session epoch: userId={}, epoch={}", userId, epoch, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        try {
+            updateEpoch(Long.valueOf(body.substring(0, index)), Long.parseLong(body.substring(index + 1)));
+        } catch (RuntimeException e) {
+            log.warn("Invalid session epoch message: {}", body);
+        }
+    }
+
+    int size() {
+        synchronized (tokens) {
+            return tokens.size();
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 已验签的Token：用户身份及签发时的会话纪元
+     */
+    public record CachedToken(TokenPrincipal principal, long sessionEpoch, long expiresAt) {
+    }
+
+    private record EpochEntry(long epoch, long expiresAt) {
+    }
+}
@@ -1,13 +1,17 @@
 package com.smartcharger.controller;
 
 import com.smartcharger.common.result.Result;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.dto.response.ReservationResponse;
 import com.smartcharger.entity.enums.ReservationStatus;
 import com.smartcharger.service.ReservationService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -16,6 +20,7 @@ import java.time.LocalDate;
 @RestController
 @RequestMapping("/admin/reservations")
 @RequiredArgsConstructor
+@Validated
 public class AdminReservationController {
 
     private final ReservationService reservationService;
@@ -36,6 +41,22 @@ public class AdminReservationController {
                 userId, chargingPileId, status, startDate, endDate, page, size));
     }
 
+    @GetMapping("/cursor")
+    public Result<CursorPageResponse<ReservationResponse>> getAdminReservationListByCursor(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long chargingPileId,
+            @RequestParam(required = false) ReservationStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("Admin reservation cursor query: userId={}, chargingPileId={}, status={}, startDate={}, endDate={}, cursor={}, size={}",
+                userId, chargingPileId, status, startDate, endDate, cursor, size);
+
+        return Result.success(reservationService.getAdminReservationsByCursor(
+                userId, chargingPileId, status, startDate, endDate, cursor, size));
+    }
+
     @GetMapping("/{id:\\d+}")
     public Result<ReservationResponse> getAdminReservationDetail(@PathVariable Long id) {
         log.info("Admin reservation detail query: id={}", id);
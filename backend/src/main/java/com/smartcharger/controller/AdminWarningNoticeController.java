@@ -3,15 +3,19 @@ package com.smartcharger.controller;
 import com.smartcharger.common.result.Result;
 import com.smartcharger.dto.request.AdminWarningNoticeReadRequest;
 import com.smartcharger.dto.request.ThresholdConfigRequest;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.dto.response.ThresholdConfigResponse;
 import com.smartcharger.dto.response.WarningNoticeResponse;
 import com.smartcharger.entity.enums.WarningNoticeType;
 import com.smartcharger.service.WarningNoticeService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -20,6 +24,7 @@ import java.time.LocalDate;
 @RestController
 @RequestMapping("/admin/warning-notices")
 @RequiredArgsConstructor
+@Validated
 public class AdminWarningNoticeController {
 
     private final WarningNoticeService warningNoticeService;
@@ -39,6 +44,21 @@ public class AdminWarningNoticeController {
                 type, isRead, userId, startDate, endDate, page, size));
     }
 
+    @GetMapping("/cursor")
+    public Result<CursorPageResponse<WarningNoticeResponse>> getAdminWarningNoticeListByCursor(
+            @RequestParam(required = false) WarningNoticeType type,
+            @RequestParam(required = false) Integer isRead,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        log.info("Admin warning-notice cursor query: type={}, isRead={}, userId={}, startDate={}, endDate={}, cursor={}, size={}",
+                type, isRead, userId, startDate, endDate, cursor, size);
+        return Result.success(warningNoticeService.getAdminWarningNoticesByCursor(
+                type, isRead, userId, startDate, endDate, cursor, size));
+    }
+
     @GetMapping("/{id:\\d+}")
     public Result<WarningNoticeResponse> getAdminWarningNoticeDetail(@PathVariable Long id) {
         log.info("Admin warning-notice detail query: id={}", id);
@@ -8,12 +8,15 @@ import com.smartcharger.dto.request.UpdateProfileRequest;
 import com.smartcharger.dto.response.LoginResponse;
 import com.smartcharger.dto.response.UserInfoResponse;
 import com.smartcharger.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 
 @Slf4j
 @RestController
@@ -30,18 +33,17 @@ public class AuthController {
      * 用户注册
      */
     @PostMapping("/register")
-    public Result<Void> register(@Valid @RequestBody RegisterRequest request) {
-        authService.register(request);
-        return Result.success();
+    public CompletableFuture<Result<Void>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request).thenApply(ignored -> Result.success());
     }
 
     /**
      * 用户登录
      */
     @PostMapping("/login")
-    public Result<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
-        return Result.success(response);
+    public CompletableFuture<Result<LoginResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                          HttpServletRequest httpRequest) {
+        return authService.login(request, httpRequest.getRemoteAddr()).thenApply(Result::success);
     }
 
     /**
@@ -78,10 +80,9 @@ public class AuthController {
      * 修改密码
      */
     @PutMapping("/password")
-    public Result<Void> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
+    public CompletableFuture<Result<Void>> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
         Long userId = getCurrentUserId();
-        authService.changePassword(userId, request);
-        return Result.success();
+        return authService.changePassword(userId, request).thenApply(ignored -> Result.success());
     }
 
     /**
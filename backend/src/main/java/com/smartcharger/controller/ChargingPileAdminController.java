@@ -7,12 +7,13 @@ import com.smartcharger.dto.response.ChargingPileResponse;
 import com.smartcharger.dto.response.ImportResultResponse;
 import com.smartcharger.entity.enums.ChargingPileStatus;
 import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.entity.enums.ExportFormat;
 import com.smartcharger.service.ChargingPileAdminService;
+import com.smartcharger.util.TabularWriter;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -138,15 +139,15 @@ public class ChargingPileAdminController {
             HttpServletResponse response) throws IOException {
         log.info("批量导出充电桩（管理端），参数：type={}, status={}", type, status);
 
-        Workbook workbook = chargingPileAdminService.exportChargingPiles(type, status);
-
         // 设置响应头
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setContentType(ExportFormat.XLSX.getContentType());
         response.setHeader("Content-Disposition",
                 "attachment; filename=charging_piles_" + LocalDate.now() + ".xlsx");
 
-        // 写入响应流
-        workbook.write(response.getOutputStream());
-        workbook.close();
+        // 边读取边写入响应流
+        try (TabularWriter writer = TabularWriter.create(ExportFormat.XLSX, response.getOutputStream())) {
+            chargingPileAdminService.exportChargingPiles(type, status, writer);
+            writer.finish();
+        }
     }
 }
@@ -4,11 +4,14 @@ import com.smartcharger.common.result.Result;
 import com.smartcharger.dto.request.*;
 import com.smartcharger.dto.response.ChargingPileResponse;
 import com.smartcharger.service.ChargingPileService;
+import com.smartcharger.service.ChargingPileStreamService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +27,7 @@ import java.util.Map;
 public class ChargingPileController {
 
     private final ChargingPileService chargingPileService;
+    private final ChargingPileStreamService chargingPileStreamService;
 
     /**
      * 查询充电桩列表（分页）
@@ -65,4 +69,26 @@ public class ChargingPileController {
         List<ChargingPileResponse> list = chargingPileService.getNearbyChargingPiles(request);
         return Result.success(list);
     }
+
+    /**
+     * 获取距离最近的若干个充电桩（一键找桩）
+     */
+    @GetMapping("/nearest")
+    public Result<List<ChargingPileResponse>> getNearestChargingPiles(@Valid NearestQueryRequest request) {
+        log.info("查询最近充电桩，参数：{}", request);
+
+        List<ChargingPileResponse> list = chargingPileService.getNearestChargingPiles(request);
+        return Result.success(list);
+    }
+
+    /**
+     * 订阅可视范围内充电桩的实时状态变更（SSE）
+     * 浏览器 EventSource 无法设置请求头，可改用 access_token 查询参数传递Token
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChargingPileStatus(@Valid ChargingPileStreamRequest request) {
+        log.info("订阅充电桩状态推送，参数：{}", request);
+
+        return chargingPileStreamService.subscribe(request);
+    }
 }
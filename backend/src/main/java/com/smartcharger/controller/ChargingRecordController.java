@@ -6,6 +6,7 @@ import com.smartcharger.dto.request.ChargingRecordStartRequest;
 import com.smartcharger.dto.response.ChargingRecordResponse;
 import com.smartcharger.dto.response.ChargingStatisticsMonthlyResponse;
 import com.smartcharger.dto.response.ChargingStatisticsYearlyResponse;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.entity.enums.ChargingRecordStatus;
 import com.smartcharger.service.ChargingRecordService;
 import jakarta.validation.Valid;
@@ -134,6 +135,23 @@ public class ChargingRecordController {
         return Result.success(result);
     }
 
+    /**
+     * 管理端：按游标查询充电记录，nextCursor原样传回获取下一页
+     */
+    @GetMapping("/admin/all/cursor")
+    public Result<CursorPageResponse<ChargingRecordResponse>> getAllChargingRecordsByCursor(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long chargingPileId,
+            @RequestParam(required = false) ChargingRecordStatus status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer size) {
+        CursorPageResponse<ChargingRecordResponse> result = chargingRecordService.getAllChargingRecordsByCursor(
+                userId, chargingPileId, status, startDate, endDate, cursor, size);
+        return Result.success(result);
+    }
+
     /**
      * 鑾峰彇褰撳墠鐢ㄦ埛ID
      */
@@ -0,0 +1,89 @@
+package com.smartcharger.controller;
+
+import com.smartcharger.common.result.Result;
+import com.smartcharger.dto.request.ExportJobCreateRequest;
+import com.smartcharger.dto.response.ExportJobResponse;
+import com.smartcharger.entity.ExportJob;
+import com.smartcharger.service.ExportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Paths;
+
+/**
+ * 导出任务控制器（管理端）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/export-jobs")
+@RequiredArgsConstructor
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    /**
+     * 提交导出任务
+     */
+    @PostMapping
+    public Result<ExportJobResponse> submit(@Valid @RequestBody ExportJobCreateRequest request) {
+        Long adminId = getCurrentUserId();
+        log.info("提交导出任务，管理员ID：{}，请求：{}", adminId, request);
+
+        ExportJobResponse response = exportJobService.submit(adminId, request);
+        return Result.success(response);
+    }
+
+    /**
+     * 查询导出任务状态与进度
+     */
+    @GetMapping("/{id:\\d+}")
+    public Result<ExportJobResponse> getJob(@PathVariable Long id) {
+        ExportJobResponse response = exportJobService.getJob(id);
+        return Result.success(response);
+    }
+
+    /**
+     * 查询当前管理员的导出任务
+     */
+    @GetMapping
+    public Result<Page<ExportJobResponse>> getJobs(
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<ExportJobResponse> result = exportJobService.getJobs(getCurrentUserId(), page, size);
+        return Result.success(result);
+    }
+
+    /**
+     * 下载导出文件（支持Range断点续传）
+     */
+    @GetMapping("/{id:\\d+}/download")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        ExportJob job = exportJobService.getDownloadableJob(id);
+        log.info("下载导出文件，任务ID：{}，文件：{}", id, job.getFileName());
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                .body(new FileSystemResource(Paths.get(job.getFilePath())));
+    }
+
+    /**
+     * 获取当前用户ID
+     */
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return Long.parseLong(authentication.getName());
+    }
+}
@@ -5,16 +5,18 @@ import com.smartcharger.dto.response.ChargingPileUsageResponse;
 import com.smartcharger.dto.response.RevenueStatisticsResponse;
 import com.smartcharger.dto.response.StatisticsOverviewResponse;
 import com.smartcharger.dto.response.UserActivityResponse;
+import com.smartcharger.entity.enums.ExportFormat;
 import com.smartcharger.service.StatisticsAdminService;
+import com.smartcharger.service.StatisticsRollupService;
+import com.smartcharger.util.TabularWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -24,6 +26,7 @@ import java.time.format.DateTimeFormatter;
 public class StatisticsAdminController {
 
     private final StatisticsAdminService statisticsAdminService;
+    private final StatisticsRollupService statisticsRollupService;
 
     @GetMapping("/overview")
     public Result<StatisticsOverviewResponse> getOverview(
@@ -58,21 +61,28 @@ public class StatisticsAdminController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportStatistics(
+    public void exportStatistics(
             @RequestParam(defaultValue = "TODAY") String rangeType,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) throws Exception {
-        Workbook workbook = statisticsAdminService.exportStatistics(rangeType, startDate, endDate);
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
         String filename = "statistics_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".xlsx";
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(outputStream.toByteArray());
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        try (TabularWriter writer = TabularWriter.create(ExportFormat.XLSX, response.getOutputStream())) {
+            statisticsAdminService.exportStatistics(rangeType, startDate, endDate, writer);
+            writer.finish();
+        }
+    }
+
+    /**
+     * 从充电记录重新汇总指定日期范围，返回处理的天数
+     */
+    @PostMapping("/rollup/backfill")
+    public Result<Integer> backfillRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return Result.success(statisticsRollupService.backfill(startDate, endDate));
     }
 }
@@ -5,12 +5,13 @@ import com.smartcharger.dto.request.BatchUserStatusUpdateRequest;
 import com.smartcharger.dto.request.PasswordResetRequest;
 import com.smartcharger.dto.request.UserStatusUpdateRequest;
 import com.smartcharger.dto.response.*;
+import com.smartcharger.entity.enums.ExportFormat;
 import com.smartcharger.service.UserManagementService;
+import com.smartcharger.util.TabularWriter;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
@@ -150,16 +151,16 @@ public class UserManagementController {
             HttpServletResponse response) throws IOException {
         log.info("导出用户列表，参数：status={}, isActive={}", status, isActive);
 
-        Workbook workbook = userManagementService.exportUsers(status, isActive);
-
         // 设置响应头
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setContentType(ExportFormat.XLSX.getContentType());
         response.setHeader("Content-Disposition",
                 "attachment; filename=users_" + LocalDate.now() + ".xlsx");
 
-        // 写入响应流
-        workbook.write(response.getOutputStream());
-        workbook.close();
+        // 边读取边写入响应流
+        try (TabularWriter writer = TabularWriter.create(ExportFormat.XLSX, response.getOutputStream())) {
+            userManagementService.exportUsers(status, isActive, writer);
+            writer.finish();
+        }
     }
 
     /**
@@ -0,0 +1,45 @@
+package com.smartcharger.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * 充电桩状态实时推送订阅请求DTO（订阅地图可视范围）
+ */
+@Data
+public class ChargingPileStreamRequest {
+
+    /**
+     * 可视范围最小经度
+     */
+    @NotNull(message = "最小经度不能为空")
+    @DecimalMin(value = "-180.0", message = "经度范围不合法")
+    @DecimalMax(value = "180.0", message = "经度范围不合法")
+    private Double minLng;
+
+    /**
+     * 可视范围最大经度
+     */
+    @NotNull(message = "最大经度不能为空")
+    @DecimalMin(value = "-180.0", message = "经度范围不合法")
+    @DecimalMax(value = "180.0", message = "经度范围不合法")
+    private Double maxLng;
+
+    /**
+     * 可视范围最小纬度
+     */
+    @NotNull(message = "最小纬度不能为空")
+    @DecimalMin(value = "-90.0", message = "纬度范围不合法")
+    @DecimalMax(value = "90.0", message = "纬度范围不合法")
+    private Double minLat;
+
+    /**
+     * 可视范围最大纬度
+     */
+    @NotNull(message = "最大纬度不能为空")
+    @DecimalMin(value = "-90.0", message = "纬度范围不合法")
+    @DecimalMax(value = "90.0", message = "纬度范围不合法")
+    private Double maxLat;
+}
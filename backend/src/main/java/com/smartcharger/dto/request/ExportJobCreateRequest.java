@@ -0,0 +1,77 @@
+package com.smartcharger.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.entity.enums.ChargingRecordStatus;
+import com.smartcharger.entity.enums.ExportFormat;
+import com.smartcharger.entity.enums.ExportJobType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 提交导出任务请求
+ * 只使用与导出类型对应的筛选条件，其余条件忽略
+ */
+@Data
+public class ExportJobCreateRequest {
+
+    @NotNull(message = "导出类型不能为空")
+    private ExportJobType type;
+
+    private ExportFormat format = ExportFormat.XLSX;
+
+    /**
+     * 用户列表：用户状态
+     */
+    private Integer userStatus;
+
+    /**
+     * 用户列表：是否只导出活跃用户
+     */
+    private Boolean isActive;
+
+    /**
+     * 充电桩列表：充电桩类型
+     */
+    private ChargingPileType pileType;
+
+    /**
+     * 充电桩列表：充电桩状态
+     */
+    private ChargingPileStatus pileStatus;
+
+    /**
+     * 充电记录：用户ID
+     */
+    private Long userId;
+
+    /**
+     * 充电记录：充电桩ID
+     */
+    private Long chargingPileId;
+
+    /**
+     * 充电记录：记录状态
+     */
+    private ChargingRecordStatus recordStatus;
+
+    /**
+     * 统计报表：时间范围类型
+     */
+    private String rangeType = "TODAY";
+
+    /**
+     * 充电记录、统计报表：开始日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    /**
+     * 充电记录、统计报表：结束日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+}
@@ -0,0 +1,53 @@
+package com.smartcharger.dto.request;
+
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.entity.enums.ChargingPileType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 最近K个充电桩查询请求DTO
+ */
+@Data
+public class NearestQueryRequest {
+
+    /**
+     * 中心点经度
+     */
+    @NotNull(message = "经度不能为空")
+    private BigDecimal lng;
+
+    /**
+     * 中心点纬度
+     */
+    @NotNull(message = "纬度不能为空")
+    private BigDecimal lat;
+
+    /**
+     * 返回数量，默认5个
+     */
+    @Min(value = 1, message = "返回数量至少为1")
+    @Max(value = 50, message = "返回数量不能超过50")
+    private Integer limit = 5;
+
+    /**
+     * 最大搜索半径（km），默认20km
+     */
+    @DecimalMin(value = "0.0", inclusive = false, message = "搜索半径必须大于0")
+    private Double maxRadius = 20.0;
+
+    /**
+     * 充电桩类型
+     */
+    private ChargingPileType type;
+
+    /**
+     * 状态筛选，默认空闲
+     */
+    private ChargingPileStatus status = ChargingPileStatus.IDLE;
+}
@@ -0,0 +1,44 @@
+package com.smartcharger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 分时计费结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargingFeeResult {
+
+    /**
+     * 总充电量（度）
+     */
+    private BigDecimal electricQuantity;
+
+    /**
+     * 电费合计
+     */
+    private BigDecimal electricityFee;
+
+    /**
+     * 服务费合计
+     */
+    private BigDecimal serviceFee;
+
+    /**
+     * 总费用
+     */
+    private BigDecimal totalFee;
+
+    /**
+     * 分时段明细（按时间升序）
+     */
+    private List<ChargingRecordResponse.FeeSegment> segments;
+}
@@ -0,0 +1,27 @@
+package com.smartcharger.dto.response;
+
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 充电桩状态变更推送消息
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargingPileStatusDelta {
+
+    /**
+     * 充电桩ID
+     */
+    private Long id;
+
+    /**
+     * 新状态，充电桩被删除时为空
+     */
+    private ChargingPileStatus status;
+}
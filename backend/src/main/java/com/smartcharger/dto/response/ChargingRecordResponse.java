@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 充电记录响应DTO
@@ -167,5 +168,66 @@ public class ChargingRecordResponse {
          * 服务费总额
          */
         private BigDecimal serviceFee;
+
+        /**
+         * 分时段明细（按时间升序）
+         */
+        private List<FeeSegment> segments;
+    }
+
+    /**
+     * 分时段费用明细内部类
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FeeSegment {
+        /**
+         * 时段开始时间
+         */
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+        private LocalDateTime startTime;
+
+        /**
+         * 时段结束时间
+         */
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+        private LocalDateTime endTime;
+
+        /**
+         * 费用配置ID
+         */
+        private Long priceConfigId;
+
+        /**
+         * 每度电价格
+         */
+        private BigDecimal pricePerKwh;
+
+        /**
+         * 服务费单价
+         */
+        private BigDecimal serviceFeePerKwh;
+
+        /**
+         * 时段充电量（度）
+         */
+        private BigDecimal electricQuantity;
+
+        /**
+         * 时段电费
+         */
+        private BigDecimal electricityFee;
+
+        /**
+         * 时段服务费
+         */
+        private BigDecimal serviceFee;
+
+        /**
+         * 时段总费用
+         */
+        private BigDecimal fee;
     }
 }
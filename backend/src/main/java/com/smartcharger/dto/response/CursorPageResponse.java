@@ -0,0 +1,25 @@
+package com.smartcharger.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页响应（不统计总数）
+ */
+@Data
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> records;
+
+    private Integer size;
+
+    private Boolean hasNext;
+
+    /**
+     * 下一页游标，没有下一页时为null
+     */
+    private String nextCursor;
+}
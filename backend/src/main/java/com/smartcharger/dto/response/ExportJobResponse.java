@@ -0,0 +1,53 @@
+package com.smartcharger.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.smartcharger.entity.enums.ExportFormat;
+import com.smartcharger.entity.enums.ExportJobStatus;
+import com.smartcharger.entity.enums.ExportJobType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务响应
+ */
+@Data
+@Builder
+public class ExportJobResponse {
+
+    private Long id;
+
+    private ExportJobType type;
+
+    private String typeDesc;
+
+    private ExportFormat format;
+
+    private ExportJobStatus status;
+
+    private String statusDesc;
+
+    /**
+     * 已导出行数，导出中时为实时进度
+     */
+    private Long rowCount;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private String errorMessage;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime createdTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime startedTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime finishedTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime expireTime;
+}
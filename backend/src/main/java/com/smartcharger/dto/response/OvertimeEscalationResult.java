@@ -0,0 +1,36 @@
+package com.smartcharger.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 超时占位预警分块处理结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OvertimeEscalationResult {
+
+    /**
+     * 本块扫描到的待升级记录数
+     */
+    private Integer scannedCount;
+
+    /**
+     * 本块最后一条记录ID（下一块从其之后开始）
+     */
+    private Long lastRecordId;
+
+    /**
+     * 本块发出的预警数
+     */
+    private Integer noticeCount;
+
+    /**
+     * 本块置为超时占位的充电桩数
+     */
+    private Integer overtimePileCount;
+}
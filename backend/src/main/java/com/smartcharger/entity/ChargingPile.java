@@ -39,4 +39,11 @@ public class ChargingPile extends BaseEntity {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     private ChargingPileStatus status = ChargingPileStatus.IDLE;
+
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -60,6 +60,9 @@ public class ChargingRecord extends BaseEntity {
     @Column(name = "pre_end_notice_sent", nullable = false)
     private Integer preEndNoticeSent = 0;
 
+    @Column(name = "overtime_warning_level", nullable = false)
+    private Integer overtimeWarningLevel = 0;
+
     @Column(name = "duration")
     private Integer duration;
 
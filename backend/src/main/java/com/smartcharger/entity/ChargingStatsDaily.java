@@ -0,0 +1,38 @@
+package com.smartcharger.entity;
+
+import com.smartcharger.entity.enums.ChargingPileType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 充电统计日汇总实体类（按充电桩）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "charging_stats_daily")
+public class ChargingStatsDaily extends BaseEntity {
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "charging_pile_id", nullable = false)
+    private Long chargingPileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "pile_type", nullable = false, length = 20)
+    private ChargingPileType pileType;
+
+    @Column(name = "session_count", nullable = false)
+    private Long sessionCount = 0L;
+
+    @Column(name = "electric_quantity", nullable = false, precision = 14, scale = 3)
+    private BigDecimal electricQuantity = BigDecimal.ZERO;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
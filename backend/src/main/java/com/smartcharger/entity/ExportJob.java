@@ -0,0 +1,77 @@
+package com.smartcharger.entity;
+
+import com.smartcharger.entity.enums.ExportFormat;
+import com.smartcharger.entity.enums.ExportJobStatus;
+import com.smartcharger.entity.enums.ExportJobType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出任务实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "export_job")
+public class ExportJob extends BaseEntity {
+
+    @Column(name = "admin_id", nullable = false)
+    private Long adminId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30)
+    private ExportJobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 20)
+    private ExportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ExportJobStatus status = ExportJobStatus.PENDING;
+
+    /**
+     * 导出条件（JSON）
+     */
+    @Column(name = "params", columnDefinition = "TEXT")
+    private String params;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount = 0L;
+
+    @Column(name = "file_name", length = 200)
+    private String fileName;
+
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "started_time")
+    private LocalDateTime startedTime;
+
+    @Column(name = "finished_time")
+    private LocalDateTime finishedTime;
+
+    @Column(name = "expire_time")
+    private LocalDateTime expireTime;
+
+    /**
+     * 执行任务的节点标识
+     */
+    @Column(name = "owner_node", length = 64)
+    private String ownerNode;
+
+    /**
+     * 执行节点最近一次心跳时间，未结束的任务心跳过期即视为中断
+     */
+    @Column(name = "heartbeat_time")
+    private LocalDateTime heartbeatTime;
+}
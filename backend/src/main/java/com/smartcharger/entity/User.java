@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.time.LocalDateTime;
+
 /**
  * 用户实体类
  */
@@ -36,4 +38,10 @@ public class User extends BaseEntity {
 
     @Column(name = "status", nullable = false)
     private Integer status = 1;
+
+    /**
+     * 最近一次开始充电时间，仅由开始充电时的条件更新维护
+     */
+    @Column(name = "last_charging_time", insertable = false, updatable = false)
+    private LocalDateTime lastChargingTime;
 }
@@ -0,0 +1,27 @@
+package com.smartcharger.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+
+/**
+ * 每日活跃用户实体类
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "user_activity_daily")
+public class UserActivityDaily extends BaseEntity {
+
+    @Column(name = "stat_date", nullable = false, unique = true)
+    private LocalDate statDate;
+
+    /**
+     * 当日开始充电用户的HyperLogLog草图
+     */
+    @Lob
+    @Column(name = "user_hll", columnDefinition = "BLOB")
+    private byte[] userHll;
+}
@@ -0,0 +1,57 @@
+package com.smartcharger.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 用户统计实体类（由统计变更发件箱异步累加）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "user_stats")
+public class UserStats extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    /**
+     * 充电次数（含未完成）
+     */
+    @Column(name = "charging_count", nullable = false)
+    private Long chargingCount = 0L;
+
+    @Column(name = "settled_count", nullable = false)
+    private Long settledCount = 0L;
+
+    @Column(name = "total_electric_quantity", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalElectricQuantity = BigDecimal.ZERO;
+
+    @Column(name = "total_spent", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+
+    /**
+     * 已完成充电总时长（分钟）
+     */
+    @Column(name = "total_duration_minutes", nullable = false)
+    private Long totalDurationMinutes = 0L;
+
+    @Column(name = "overtime_count", nullable = false)
+    private Long overtimeCount = 0L;
+
+    @Column(name = "reservation_count", nullable = false)
+    private Long reservationCount = 0L;
+
+    @Column(name = "cancelled_reservation_count", nullable = false)
+    private Long cancelledReservationCount = 0L;
+
+    @Column(name = "fault_report_count", nullable = false)
+    private Long faultReportCount = 0L;
+
+    @Column(name = "last_charging_time")
+    private LocalDateTime lastChargingTime;
+}
@@ -0,0 +1,55 @@
+package com.smartcharger.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 用户统计变更发件箱实体类
+ * 每行是一次业务写入产生的统计增量，与业务数据在同一事务中写入
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "user_stats_outbox")
+public class UserStatsOutbox extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "charging_count", nullable = false)
+    private Integer chargingCount = 0;
+
+    @Column(name = "settled_count", nullable = false)
+    private Integer settledCount = 0;
+
+    @Column(name = "electric_quantity", nullable = false, precision = 12, scale = 2)
+    private BigDecimal electricQuantity = BigDecimal.ZERO;
+
+    @Column(name = "spent", nullable = false, precision = 12, scale = 2)
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes = 0;
+
+    @Column(name = "overtime_count", nullable = false)
+    private Integer overtimeCount = 0;
+
+    @Column(name = "reservation_count", nullable = false)
+    private Integer reservationCount = 0;
+
+    @Column(name = "cancelled_reservation_count", nullable = false)
+    private Integer cancelledReservationCount = 0;
+
+    @Column(name = "fault_report_count", nullable = false)
+    private Integer faultReportCount = 0;
+
+    /**
+     * 充电开始时间，仅开始充电的增量有值
+     */
+    @Column(name = "last_charging_time")
+    private LocalDateTime lastChargingTime;
+}
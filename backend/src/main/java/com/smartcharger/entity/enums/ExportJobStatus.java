@@ -0,0 +1,22 @@
+package com.smartcharger.entity.enums;
+
+/**
+ * 导出任务状态枚举
+ */
+public enum ExportJobStatus {
+    PENDING("排队中"),
+    RUNNING("导出中"),
+    COMPLETED("已完成"),
+    FAILED("失败"),
+    EXPIRED("已过期");
+
+    private final String description;
+
+    ExportJobStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartcharger.entity.enums;
+
+/**
+ * 导出任务类型枚举
+ */
+public enum ExportJobType {
+    USERS("用户列表", "users"),
+    CHARGING_PILES("充电桩列表", "charging_piles"),
+    CHARGING_RECORDS("充电记录", "charging_records"),
+    STATISTICS("统计报表", "statistics");
+
+    private final String description;
+    private final String filePrefix;
+
+    ExportJobType(String description, String filePrefix) {
+        this.description = description;
+        this.filePrefix = filePrefix;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getFilePrefix() {
+        return filePrefix;
+    }
+}
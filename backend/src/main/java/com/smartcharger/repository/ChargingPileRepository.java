@@ -7,11 +7,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,29 +22,101 @@ import java.util.List;
 @Repository
 public interface ChargingPileRepository extends JpaRepository<ChargingPile, Long>, JpaSpecificationExecutor<ChargingPile> {
 
+    String DISTANCE_EXPRESSION = "(6371 * acos(LEAST(1.0, cos(radians(:lat)) * cos(radians(cp.lat)) * " +
+            "cos(radians(cp.lng) - radians(:lng)) + sin(radians(:lat)) * " +
+            "sin(radians(cp.lat)))))";
+
+    String BOUNDING_BOX_CONDITION = "WHERE cp.lng BETWEEN :minLng AND :maxLng " +
+            "AND cp.lat BETWEEN :minLat AND :maxLat " +
+            "AND (:type IS NULL OR cp.type = :type) " +
+            "AND (:status IS NULL OR cp.status = :status) ";
+
     /**
      * 根据编号查询充电桩
      */
     ChargingPile findByCode(String code);
 
+    /**
+     * 查询给定编号中已存在的编号（用于批量导入去重）
+     */
+    @Query("SELECT cp.code FROM ChargingPile cp WHERE cp.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    /**
+     * 根据编号批量查询充电桩ID
+     */
+    @Query("SELECT cp.id FROM ChargingPile cp WHERE cp.code IN :codes")
+    List<Long> findIdsByCodeIn(@Param("codes") Collection<String> codes);
+
+    /**
+     * 比较并设置充电桩状态：仅当当前状态为fromStatus时变更，返回实际变更数量（0或1）
+     */
+    @Modifying
+    @Query("UPDATE ChargingPile cp SET cp.status = :toStatus, cp.version = cp.version + 1 " +
+            "WHERE cp.id = :id AND cp.status = :fromStatus")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("fromStatus") ChargingPileStatus fromStatus,
+                            @Param("toStatus") ChargingPileStatus toStatus);
+
+    /**
+     * 批量变更充电桩状态（仅变更当前处于指定状态的充电桩），返回实际变更数量
+     */
+    @Modifying
+    @Query("UPDATE ChargingPile cp SET cp.status = :toStatus, cp.version = cp.version + 1 " +
+            "WHERE cp.id IN :ids AND cp.status IN :fromStatuses")
+    int bulkUpdateStatus(@Param("ids") Collection<Long> ids,
+                         @Param("fromStatuses") Collection<ChargingPileStatus> fromStatuses,
+                         @Param("toStatus") ChargingPileStatus toStatus);
+
     /**
      * 查询附近的充电桩（使用Haversine公式计算距离）
+     * 先用经纬度包围盒过滤，使 idx_location 可以走范围扫描，再计算精确距离
      *
      * @param lng 中心点经度
      * @param lat 中心点纬度
      * @param radius 搜索半径（km）
+     * @param minLng 包围盒最小经度
+     * @param maxLng 包围盒最大经度
+     * @param minLat 包围盒最小纬度
+     * @param maxLat 包围盒最大纬度
+     * @param type 类型筛选（可为空）
+     * @param status 状态筛选（可为空）
      * @return 充电桩列表
      */
-    @Query(value = "SELECT cp.*, " +
-            "(6371 * acos(cos(radians(:lat)) * cos(radians(cp.lat)) * " +
-            "cos(radians(cp.lng) - radians(:lng)) + sin(radians(:lat)) * " +
-            "sin(radians(cp.lat)))) AS distance " +
+    @Query(value = "SELECT cp.*, " + DISTANCE_EXPRESSION + " AS distance " +
             "FROM charging_pile cp " +
+            BOUNDING_BOX_CONDITION +
             "HAVING distance <= :radius " +
             "ORDER BY distance", nativeQuery = true)
     List<ChargingPile> findNearby(@Param("lng") BigDecimal lng,
                                    @Param("lat") BigDecimal lat,
-                                   @Param("radius") Double radius);
+                                   @Param("radius") Double radius,
+                                   @Param("minLng") Double minLng,
+                                   @Param("maxLng") Double maxLng,
+                                   @Param("minLat") Double minLat,
+                                   @Param("maxLat") Double maxLat,
+                                   @Param("type") String type,
+                                   @Param("status") String status);
+
+    /**
+     * 查询包围盒内距离最近的若干个充电桩
+     */
+    @Query(value = "SELECT cp.*, " + DISTANCE_EXPRESSION + " AS distance " +
+            "FROM charging_pile cp " +
+            BOUNDING_BOX_CONDITION +
+            "HAVING distance <= :radius " +
+            "ORDER BY distance " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ChargingPile> findNearest(@Param("lng") BigDecimal lng,
+                                    @Param("lat") BigDecimal lat,
+                                    @Param("radius") Double radius,
+                                    @Param("minLng") Double minLng,
+                                    @Param("maxLng") Double maxLng,
+                                    @Param("minLat") Double minLat,
+                                    @Param("maxLat") Double maxLat,
+                                    @Param("type") String type,
+                                    @Param("status") String status,
+                                    @Param("limit") Integer limit);
 
     /**
      * 根据类型查询充电桩
@@ -72,5 +146,18 @@ public interface ChargingPileRepository extends JpaRepository<ChargingPile, Long
                                                @Param("keyword") String keyword,
                                                Pageable pageable);
 
+    /**
+     * 管理端：按ID顺序分块查询充电桩（用于导出），afterId为上一块最后一个充电桩ID，首块传0
+     */
+    @Query("SELECT cp FROM ChargingPile cp WHERE " +
+            "(:type IS NULL OR cp.type = :type) AND " +
+            "(:status IS NULL OR cp.status = :status) AND " +
+            "cp.id > :afterId " +
+            "ORDER BY cp.id")
+    List<ChargingPile> findExportChunk(@Param("type") ChargingPileType type,
+                                       @Param("status") ChargingPileStatus status,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
     Long countByStatus(ChargingPileStatus status);
 }
@@ -4,12 +4,15 @@ import com.smartcharger.entity.ChargingRecord;
 import com.smartcharger.entity.enums.ChargingRecordStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,12 +30,52 @@ public interface ChargingRecordRepository extends JpaRepository<ChargingRecord,
     Optional<ChargingRecord> findFirstByChargingPileIdAndStatusAndLeaveTimeIsNullOrderByEndTimeDesc(
             Long chargingPileId, ChargingRecordStatus status);
 
-    List<ChargingRecord> findByStatusAndTargetEndTimeLessThanEqual(
-            ChargingRecordStatus status, LocalDateTime targetEndTime);
+    List<ChargingRecord> findByStatusAndTargetEndTimeIsNotNull(ChargingRecordStatus status);
 
-    List<ChargingRecord> findByStatusAndPreEndNoticeSentAndTargetEndTimeBetween(
-            ChargingRecordStatus status, Integer preEndNoticeSent,
-            LocalDateTime startTime, LocalDateTime endTime);
+    /**
+     * 查询需要升级超时占位预警的记录（按ID分块）
+     * 生效阈值优先取用户级配置，否则取系统级阈值；超时分钟数/阈值 即预警级别，只返回级别高于已发送级别的记录
+     * 返回：[记录ID, 用户ID, 充电桩ID, 充电桩编号, 超时分钟数, 生效阈值]
+     */
+    @Query(value = "SELECT c.id, c.user_id, c.charging_pile_id, c.code, c.overtime_minutes, c.threshold FROM (" +
+            "SELECT cr.id, cr.user_id, cr.charging_pile_id, cp.code, cr.overtime_warning_level, " +
+            "TIMESTAMPDIFF(MINUTE, cr.end_time, :now) AS overtime_minutes, " +
+            "GREATEST(COALESCE(CAST(uc.config_value AS UNSIGNED), :systemThreshold), 1) AS threshold " +
+            "FROM charging_record cr " +
+            "JOIN charging_pile cp ON cp.id = cr.charging_pile_id " +
+            "LEFT JOIN system_config uc ON uc.user_id = cr.user_id AND uc.config_key = 'overtime_warning_threshold' " +
+            "WHERE cr.status = 'COMPLETED' AND cr.leave_time IS NULL AND cr.end_time IS NOT NULL " +
+            "AND cr.id > :afterId" +
+            ") c WHERE FLOOR(c.overtime_minutes / c.threshold) > c.overtime_warning_level " +
+            "ORDER BY c.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findOvertimeEscalationCandidates(@Param("now") LocalDateTime now,
+                                                    @Param("systemThreshold") Integer systemThreshold,
+                                                    @Param("afterId") Long afterId,
+                                                    @Param("limit") Integer limit);
+
+    /**
+     * 提升超时占位预警级别，返回0表示该级别已由其他节点发送
+     */
+    @Modifying
+    @Query("UPDATE ChargingRecord r SET r.overtimeWarningLevel = :level " +
+            "WHERE r.id = :id AND r.overtimeWarningLevel < :level")
+    int raiseOvertimeWarningLevel(@Param("id") Long id, @Param("level") Integer level);
+
+    /**
+     * 认领充电结束结算：仅当记录仍为充电中时改为已完成，返回0表示已被并发的结束流程结算
+     */
+    @Modifying
+    @Query("UPDATE ChargingRecord r SET r.status = :completed WHERE r.id = :id AND r.status = :charging")
+    int markCompleted(@Param("id") Long id,
+                      @Param("charging") ChargingRecordStatus charging,
+                      @Param("completed") ChargingRecordStatus completed);
+
+    /**
+     * 标记即将结束提醒已发送，返回0表示已被其他节点发送过
+     */
+    @Modifying
+    @Query("UPDATE ChargingRecord r SET r.preEndNoticeSent = 1 WHERE r.id = :id AND r.preEndNoticeSent = 0")
+    int markPreEndNoticeSent(@Param("id") Long id);
 
     List<ChargingRecord> findByStatusAndEndTimeIsNotNullAndLeaveTimeIsNull(
             ChargingRecordStatus status);
@@ -58,6 +101,27 @@ public interface ChargingRecordRepository extends JpaRepository<ChargingRecord,
                                                     @Param("endDate") LocalDateTime endDate,
                                                     Pageable pageable);
 
+    /**
+     * 管理端键集分页：按（开始时间, ID）倒序取游标之后的记录，不统计总数
+     */
+    @Query("SELECT cr FROM ChargingRecord cr WHERE " +
+           "(:userId IS NULL OR cr.userId = :userId) " +
+           "AND (:chargingPileId IS NULL OR cr.chargingPileId = :chargingPileId) " +
+           "AND (:status IS NULL OR cr.status = :status) " +
+           "AND (:startDate IS NULL OR cr.startTime >= :startDate) " +
+           "AND (:endDate IS NULL OR cr.startTime < :endDate) " +
+           "AND (:afterTime IS NULL OR cr.startTime < :afterTime " +
+           "     OR (cr.startTime = :afterTime AND cr.id < :afterId)) " +
+           "ORDER BY cr.startTime DESC, cr.id DESC")
+    Slice<ChargingRecord> findAdminSlice(@Param("userId") Long userId,
+                                         @Param("chargingPileId") Long chargingPileId,
+                                         @Param("status") ChargingRecordStatus status,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate,
+                                         @Param("afterTime") LocalDateTime afterTime,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
     /**
      * 查询用户指定状态和时间范围的充电记录（分页）
      */
@@ -146,55 +210,46 @@ public interface ChargingRecordRepository extends JpaRepository<ChargingRecord,
     LocalDateTime findLastChargingTimeByChargingPileId(@Param("chargingPileId") Long chargingPileId);
 
     /**
-     * 统计用户的充电记录数量
-     */
-    Long countByUserId(Long userId);
-
-    /**
-     * 统计用户的总充电量
-     */
-    @Query("SELECT SUM(cr.electricQuantity) FROM ChargingRecord cr WHERE cr.userId = :userId AND cr.status = 'COMPLETED'")
-    java.math.BigDecimal sumElectricQuantityByUserId(@Param("userId") Long userId);
-
-    /**
-     * 统计用户的总消费金额
-     */
-    @Query("SELECT SUM(cr.fee) FROM ChargingRecord cr WHERE cr.userId = :userId AND cr.status = 'COMPLETED'")
-    java.math.BigDecimal sumFeeByUserId(@Param("userId") Long userId);
-
-    /**
-     * 计算用户的平均充电时长（分钟）
+     * 查询用户最近N条充电记录
      */
-    @Query("SELECT AVG(TIMESTAMPDIFF(MINUTE, cr.startTime, cr.endTime)) FROM ChargingRecord cr WHERE cr.userId = :userId AND cr.status = 'COMPLETED'")
-    Double avgDurationByUserId(@Param("userId") Long userId);
+    @Query("SELECT cr FROM ChargingRecord cr WHERE cr.userId = :userId ORDER BY cr.startTime DESC")
+    List<ChargingRecord> findRecentRecordsByUserId(@Param("userId") Long userId, Pageable pageable);
 
     /**
-     * 查询用户的最后充电时间
+     * 批量汇总用户的充电数据：[用户ID, 记录数, 总电量, 总消费, 平均时长, 最后充电时间]
+     * 电量、消费和时长只统计已完成的记录
      */
-    @Query("SELECT MAX(cr.startTime) FROM ChargingRecord cr WHERE cr.userId = :userId")
-    LocalDateTime findLastChargingTimeByUserId(@Param("userId") Long userId);
+    @Query("SELECT cr.userId, COUNT(cr), " +
+            "SUM(CASE WHEN cr.status = 'COMPLETED' THEN cr.electricQuantity END), " +
+            "SUM(CASE WHEN cr.status = 'COMPLETED' THEN cr.fee END), " +
+            "AVG(CASE WHEN cr.status = 'COMPLETED' THEN TIMESTAMPDIFF(MINUTE, cr.startTime, cr.endTime) END), " +
+            "MAX(cr.startTime) " +
+            "FROM ChargingRecord cr WHERE cr.userId IN :userIds GROUP BY cr.userId")
+    List<Object[]> aggregateGroupByUserIdIn(@Param("userIds") Collection<Long> userIds);
 
     /**
-     * 查询用户最近N条充电记录
+     * 管理端：按ID倒序分块查询充电记录（用于导出），beforeId为上一块最后一条记录ID，首块传null
      */
-    @Query("SELECT cr FROM ChargingRecord cr WHERE cr.userId = :userId ORDER BY cr.startTime DESC")
-    List<ChargingRecord> findRecentRecordsByUserId(@Param("userId") Long userId, Pageable pageable);
-
-    @Query("SELECT COUNT(DISTINCT cr.chargingPileId) FROM ChargingRecord cr WHERE cr.startTime >= :startTime AND cr.startTime < :endTime")
-    Long countUsedChargingPilesByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-
-    @Query("SELECT SUM(cr.fee) FROM ChargingRecord cr WHERE cr.status = 'COMPLETED' AND cr.startTime >= :startTime AND cr.startTime < :endTime")
-    java.math.BigDecimal sumSettledFeeByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-
-    @Query("SELECT COUNT(cr) FROM ChargingRecord cr WHERE cr.status = 'COMPLETED' AND cr.startTime >= :startTime AND cr.startTime < :endTime")
-    Long countSettledRecordsByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-
-    @Query("SELECT DATE(cr.startTime), SUM(cr.fee), COUNT(cr) FROM ChargingRecord cr WHERE cr.status = 'COMPLETED' AND cr.startTime >= :startTime AND cr.startTime < :endTime GROUP BY DATE(cr.startTime) ORDER BY DATE(cr.startTime)")
-    List<Object[]> aggregateDailySettledRevenueByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-
-    @Query("SELECT COUNT(DISTINCT cr.userId) FROM ChargingRecord cr WHERE cr.startTime >= :startTime AND cr.startTime < :endTime")
-    Long countDistinctActiveUsersByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
-
-    @Query("SELECT DATE(cr.startTime), COUNT(DISTINCT cr.userId) FROM ChargingRecord cr WHERE cr.startTime >= :startTime AND cr.startTime < :endTime GROUP BY DATE(cr.startTime) ORDER BY DATE(cr.startTime)")
-    List<Object[]> countDailyDistinctActiveUsersByStartTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    @Query("SELECT cr FROM ChargingRecord cr WHERE " +
+           "(:userId IS NULL OR cr.userId = :userId) " +
+           "AND (:chargingPileId IS NULL OR cr.chargingPileId = :chargingPileId) " +
+           "AND (:status IS NULL OR cr.status = :status) " +
+           "AND (:startDate IS NULL OR cr.startTime >= :startDate) " +
+           "AND (:endDate IS NULL OR cr.startTime < :endDate) " +
+           "AND (:beforeId IS NULL OR cr.id < :beforeId) " +
+           "ORDER BY cr.id DESC")
+    List<ChargingRecord> findExportChunk(@Param("userId") Long userId,
+                                         @Param("chargingPileId") Long chargingPileId,
+                                         @Param("status") ChargingRecordStatus status,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate,
+                                         @Param("beforeId") Long beforeId,
+                                         Pageable pageable);
+
+    @Query("SELECT MIN(cr.startTime) FROM ChargingRecord cr WHERE cr.status = 'COMPLETED'")
+    LocalDateTime findEarliestSettledStartTime();
+
+    @Query("SELECT DISTINCT cr.userId FROM ChargingRecord cr WHERE cr.startTime >= :startTime AND cr.startTime < :endTime")
+    List<Long> findDistinctUserIdsByStartTimeRange(@Param("startTime") LocalDateTime startTime,
+                                                   @Param("endTime") LocalDateTime endTime);
 }
@@ -0,0 +1,65 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.ChargingStatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 充电统计日汇总数据访问接口（按充电桩）
+ */
+@Repository
+public interface ChargingStatsDailyRepository extends JpaRepository<ChargingStatsDaily, Long> {
+
+    /**
+     * 累加一次已完成的充电，汇总行不存在时插入
+     */
+    @Modifying
+    @Query(value = "INSERT INTO charging_stats_daily " +
+            "(stat_date, charging_pile_id, pile_type, session_count, electric_quantity, revenue, created_time, updated_time) " +
+            "VALUES (:statDate, :pileId, :pileType, 1, :electricQuantity, :revenue, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE session_count = session_count + 1, " +
+            "electric_quantity = electric_quantity + VALUES(electric_quantity), " +
+            "revenue = revenue + VALUES(revenue), updated_time = NOW()", nativeQuery = true)
+    int accumulate(@Param("statDate") LocalDate statDate,
+                   @Param("pileId") Long pileId,
+                   @Param("pileType") String pileType,
+                   @Param("electricQuantity") BigDecimal electricQuantity,
+                   @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "DELETE FROM charging_stats_daily WHERE stat_date = :statDate", nativeQuery = true)
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+
+    /**
+     * 从充电记录重新汇总指定时间范围（须为整日）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO charging_stats_daily " +
+            "(stat_date, charging_pile_id, pile_type, session_count, electric_quantity, revenue, created_time, updated_time) " +
+            "SELECT DATE(cr.start_time), cr.charging_pile_id, cp.type, COUNT(*), " +
+            "COALESCE(SUM(cr.electric_quantity), 0), COALESCE(SUM(cr.fee), 0), NOW(), NOW() " +
+            "FROM charging_record cr JOIN charging_pile cp ON cp.id = cr.charging_pile_id " +
+            "WHERE cr.status = 'COMPLETED' AND cr.start_time >= :startTime AND cr.start_time < :endTime " +
+            "GROUP BY DATE(cr.start_time), cr.charging_pile_id, cp.type", nativeQuery = true)
+    int rebuild(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT COUNT(DISTINCT d.chargingPileId) FROM ChargingStatsDaily d " +
+            "WHERE d.statDate >= :startDate AND d.statDate < :endDate")
+    Long countUsedChargingPiles(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按日汇总收入：[日期, 收入, 充电次数]
+     */
+    @Query("SELECT d.statDate, SUM(d.revenue), SUM(d.sessionCount) FROM ChargingStatsDaily d " +
+            "WHERE d.statDate >= :startDate AND d.statDate < :endDate " +
+            "GROUP BY d.statDate ORDER BY d.statDate")
+    List<Object[]> aggregateDailyRevenue(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,53 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.ChargingStatsHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 充电统计小时汇总数据访问接口（按充电桩）
+ */
+@Repository
+public interface ChargingStatsHourlyRepository extends JpaRepository<ChargingStatsHourly, Long> {
+
+    /**
+     * 累加一次已完成的充电，汇总行不存在时插入
+     */
+    @Modifying
+    @Query(value = "INSERT INTO charging_stats_hourly " +
+            "(stat_hour, charging_pile_id, pile_type, session_count, electric_quantity, revenue, created_time, updated_time) " +
+            "VALUES (:statHour, :pileId, :pileType, 1, :electricQuantity, :revenue, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE session_count = session_count + 1, " +
+            "electric_quantity = electric_quantity + VALUES(electric_quantity), " +
+            "revenue = revenue + VALUES(revenue), updated_time = NOW()", nativeQuery = true)
+    int accumulate(@Param("statHour") LocalDateTime statHour,
+                   @Param("pileId") Long pileId,
+                   @Param("pileType") String pileType,
+                   @Param("electricQuantity") BigDecimal electricQuantity,
+                   @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "DELETE FROM charging_stats_hourly WHERE stat_hour >= :startTime AND stat_hour < :endTime",
+            nativeQuery = true)
+    int deleteByStatHourRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 从充电记录重新汇总指定时间范围（须为整点）
+     */
+    @Modifying
+    @Query(value = "INSERT INTO charging_stats_hourly " +
+            "(stat_hour, charging_pile_id, pile_type, session_count, electric_quantity, revenue, created_time, updated_time) " +
+            "SELECT DATE_FORMAT(cr.start_time, '%Y-%m-%d %H:00:00'), cr.charging_pile_id, cp.type, COUNT(*), " +
+            "COALESCE(SUM(cr.electric_quantity), 0), COALESCE(SUM(cr.fee), 0), NOW(), NOW() " +
+            "FROM charging_record cr JOIN charging_pile cp ON cp.id = cr.charging_pile_id " +
+            "WHERE cr.status = 'COMPLETED' AND cr.start_time >= :startTime AND cr.start_time < :endTime " +
+            "GROUP BY DATE_FORMAT(cr.start_time, '%Y-%m-%d %H:00:00'), cr.charging_pile_id, cp.type",
+            nativeQuery = true)
+    int rebuild(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+}
@@ -0,0 +1,54 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.ExportJob;
+import com.smartcharger.entity.enums.ExportJobStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 导出任务数据访问接口
+ */
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    Page<ExportJob> findByAdminId(Long adminId, Pageable pageable);
+
+    /**
+     * 文件已过期的任务
+     */
+    List<ExportJob> findByStatusAndExpireTimeBefore(ExportJobStatus status, LocalDateTime time);
+
+    /**
+     * 刷新指定节点上未结束任务的心跳
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.heartbeatTime = :now WHERE j.ownerNode = :ownerNode AND j.status IN :statuses")
+    int heartbeat(@Param("ownerNode") String ownerNode,
+                  @Param("statuses") Collection<ExportJobStatus> statuses,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * 将心跳已过期的未结束任务（执行节点已停止）标记为失败，返回标记数量
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :failed, j.errorMessage = :errorMessage, j.finishedTime = :now " +
+            "WHERE j.status IN :statuses AND (j.heartbeatTime < :staleBefore " +
+            "OR (j.heartbeatTime IS NULL AND j.createdTime < :staleBefore))")
+    int failStale(@Param("statuses") Collection<ExportJobStatus> statuses,
+                  @Param("failed") ExportJobStatus failed,
+                  @Param("errorMessage") String errorMessage,
+                  @Param("staleBefore") LocalDateTime staleBefore,
+                  @Param("now") LocalDateTime now);
+}
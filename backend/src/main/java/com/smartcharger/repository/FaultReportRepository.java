@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -86,7 +87,8 @@ public interface FaultReportRepository extends JpaRepository<FaultReport, Long>
     Long countByChargingPileId(Long chargingPileId);
 
     /**
-     * 统计用户的故障报修次数
+     * 批量统计用户的故障报修次数：[用户ID, 报修次数]
      */
-    Long countByUserId(Long userId);
+    @Query("SELECT f.userId, COUNT(f) FROM FaultReport f WHERE f.userId IN :userIds GROUP BY f.userId")
+    List<Object[]> countGroupByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -33,6 +33,11 @@ public interface PriceConfigRepository extends JpaRepository<PriceConfig, Long>
      */
     Page<PriceConfig> findByIsActive(Integer isActive, Pageable pageable);
 
+    /**
+     * 根据激活状态查询全部配置（用于构建电价表快照）
+     */
+    List<PriceConfig> findByIsActive(Integer isActive);
+
     /**
      * 查询当前有效的费用配置
      * 条件：充电桩类型 + 激活状态 + 当前时间在生效范围内
@@ -4,12 +4,14 @@ import com.smartcharger.entity.Reservation;
 import com.smartcharger.entity.enums.ReservationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,9 +50,34 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                          @Param("endDate") LocalDateTime endDate,
                                          Pageable pageable);
 
-    Long countByChargingPileId(Long chargingPileId);
+    /**
+     * 管理端键集分页：按（开始时间, ID）倒序取游标之后的预约，不统计总数
+     */
+    @Query("SELECT r FROM Reservation r WHERE " +
+           "(:userId IS NULL OR r.userId = :userId) " +
+           "AND (:chargingPileId IS NULL OR r.chargingPileId = :chargingPileId) " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "AND (:startDate IS NULL OR r.startTime >= :startDate) " +
+           "AND (:endDate IS NULL OR r.startTime < :endDate) " +
+           "AND (:afterTime IS NULL OR r.startTime < :afterTime " +
+           "     OR (r.startTime = :afterTime AND r.id < :afterId)) " +
+           "ORDER BY r.startTime DESC, r.id DESC")
+    Slice<Reservation> findAdminSlice(@Param("userId") Long userId,
+                                      @Param("chargingPileId") Long chargingPileId,
+                                      @Param("status") ReservationStatus status,
+                                      @Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate,
+                                      @Param("afterTime") LocalDateTime afterTime,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
 
-    Long countByUserId(Long userId);
+    Long countByChargingPileId(Long chargingPileId);
 
-    Long countByUserIdAndStatus(Long userId, ReservationStatus status);
+    /**
+     * 批量统计用户的预约次数和指定状态的预约次数：[用户ID, 预约次数, 指定状态次数]
+     */
+    @Query("SELECT r.userId, COUNT(r), SUM(CASE WHEN r.status = :status THEN 1 ELSE 0 END) " +
+            "FROM Reservation r WHERE r.userId IN :userIds GROUP BY r.userId")
+    List<Object[]> countGroupByUserIdIn(@Param("userIds") Collection<Long> userIds,
+                                        @Param("status") ReservationStatus status);
 }
@@ -0,0 +1,42 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.UserActivityDaily;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 每日活跃用户数据访问接口
+ */
+@Repository
+public interface UserActivityDailyRepository extends JpaRepository<UserActivityDaily, Long> {
+
+    /**
+     * 当日行不存在时插入空行
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_activity_daily (stat_date, created_time, updated_time) " +
+            "VALUES (:statDate, NOW(), NOW())", nativeQuery = true)
+    int insertIfAbsent(@Param("statDate") LocalDate statDate);
+
+    /**
+     * 加锁查询当日行，用于合并草图
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<UserActivityDaily> findByStatDate(LocalDate statDate);
+
+    /**
+     * 日期范围内的草图：[日期, 草图]
+     */
+    @Query("SELECT a.statDate, a.userHll FROM UserActivityDaily a " +
+            "WHERE a.statDate >= :startDate AND a.statDate < :endDate ORDER BY a.statDate")
+    List<Object[]> findSketches(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
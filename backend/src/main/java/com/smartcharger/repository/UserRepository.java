@@ -4,9 +4,11 @@ import com.smartcharger.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -61,9 +63,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * 管理端：查询活跃用户（最近30天有充电记录）
      */
-    @Query("SELECT DISTINCT u FROM User u " +
-            "INNER JOIN ChargingRecord cr ON u.id = cr.userId " +
-            "WHERE cr.startTime >= :thirtyDaysAgo AND " +
+    @Query("SELECT u FROM User u " +
+            "WHERE u.lastChargingTime >= :thirtyDaysAgo AND " +
             "(:status IS NULL OR u.status = :status) AND " +
             "(:keyword IS NULL OR u.username LIKE %:keyword% OR u.phone LIKE %:keyword% OR u.nickname LIKE %:keyword%) AND " +
             "(:startDate IS NULL OR u.createdTime >= :startDate) AND " +
@@ -77,26 +78,48 @@ public interface UserRepository extends JpaRepository<User, Long> {
                                               Pageable pageable);
 
     /**
-     * 管理端：根据状态查询用户列表（用于导出）
+     * 管理端：按ID倒序分块查询用户（用于导出），beforeId为上一块最后一个用户ID，首块传null；
+     * activeSince不为null时只查询该时间之后充过电的用户
      */
     @Query("SELECT u FROM User u WHERE " +
-            "(:status IS NULL OR u.status = :status) " +
-            "ORDER BY u.createdTime DESC")
-    List<User> findByStatus(@Param("status") Integer status);
-
-    /**
-     * 管理端：查询活跃用户列表（用于导出）
-     */
-    @Query("SELECT DISTINCT u FROM User u " +
-            "INNER JOIN ChargingRecord cr ON u.id = cr.userId " +
-            "WHERE cr.startTime >= :thirtyDaysAgo AND " +
-            "(:status IS NULL OR u.status = :status) " +
-            "ORDER BY u.createdTime DESC")
-    List<User> findActiveUsersByStatus(@Param("status") Integer status,
-                                        @Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
+            "(:status IS NULL OR u.status = :status) AND " +
+            "(:activeSince IS NULL OR u.lastChargingTime >= :activeSince) AND " +
+            "(:beforeId IS NULL OR u.id < :beforeId) " +
+            "ORDER BY u.id DESC")
+    List<User> findExportChunk(@Param("status") Integer status,
+                               @Param("activeSince") LocalDateTime activeSince,
+                               @Param("beforeId") Long beforeId,
+                               Pageable pageable);
 
     Long countByCreatedTimeGreaterThanEqualAndCreatedTimeLessThan(LocalDateTime startTime, LocalDateTime endTime);
 
     @Query("SELECT DATE(u.createdTime), COUNT(u) FROM User u WHERE u.createdTime >= :startTime AND u.createdTime < :endTime GROUP BY DATE(u.createdTime) ORDER BY DATE(u.createdTime)")
     List<Object[]> countDailyNewUsersByCreatedTimeRange(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 记录用户开始充电时间，只前进不回退；不修改更新时间
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.lastChargingTime = :startTime, u.updatedTime = u.updatedTime " +
+            "WHERE u.id = :userId AND (u.lastChargingTime IS NULL OR u.lastChargingTime < :startTime)")
+    int touchLastChargingTime(@Param("userId") Long userId, @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 登录时升级密码哈希；密码已被并发修改时不覆盖
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :userId AND u.password = :oldPassword")
+    int upgradePassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
+
+    /**
+     * 修改密码；密码已被并发修改时不覆盖，返回0
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword, u.updatedTime = :updatedTime " +
+            "WHERE u.id = :userId AND u.password = :oldPassword")
+    int changePassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword, @Param("updatedTime") LocalDateTime updatedTime);
 }
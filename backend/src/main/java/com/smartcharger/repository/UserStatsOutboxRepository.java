@@ -0,0 +1,29 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.UserStatsOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户统计变更发件箱数据访问接口
+ */
+@Repository
+public interface UserStatsOutboxRepository extends JpaRepository<UserStatsOutbox, Long> {
+
+    /**
+     * 按写入顺序领取一批增量并加锁，已被其他节点领取的行直接跳过
+     */
+    @Query(value = "SELECT * FROM user_stats_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<UserStatsOutbox> claimBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM UserStatsOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
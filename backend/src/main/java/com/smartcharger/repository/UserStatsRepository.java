@@ -0,0 +1,57 @@
+package com.smartcharger.repository;
+
+import com.smartcharger.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户统计数据访问接口
+ */
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    List<UserStats> findByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * 累加一个用户合并后的统计增量，统计行不存在时插入；最后充电时间只向后推进
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stats " +
+            "(user_id, charging_count, settled_count, total_electric_quantity, total_spent, total_duration_minutes, " +
+            "overtime_count, reservation_count, cancelled_reservation_count, fault_report_count, last_charging_time, " +
+            "created_time, updated_time) " +
+            "VALUES (:userId, :chargingCount, :settledCount, :electricQuantity, :spent, :durationMinutes, " +
+            ":overtimeCount, :reservationCount, :cancelledReservationCount, :faultReportCount, :lastChargingTime, " +
+            "NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE charging_count = charging_count + VALUES(charging_count), " +
+            "settled_count = settled_count + VALUES(settled_count), " +
+            "total_electric_quantity = total_electric_quantity + VALUES(total_electric_quantity), " +
+            "total_spent = total_spent + VALUES(total_spent), " +
+            "total_duration_minutes = total_duration_minutes + VALUES(total_duration_minutes), " +
+            "overtime_count = overtime_count + VALUES(overtime_count), " +
+            "reservation_count = reservation_count + VALUES(reservation_count), " +
+            "cancelled_reservation_count = cancelled_reservation_count + VALUES(cancelled_reservation_count), " +
+            "fault_report_count = fault_report_count + VALUES(fault_report_count), " +
+            "last_charging_time = GREATEST(COALESCE(last_charging_time, VALUES(last_charging_time)), " +
+            "COALESCE(VALUES(last_charging_time), last_charging_time)), " +
+            "updated_time = NOW()", nativeQuery = true)
+    int accumulate(@Param("userId") Long userId,
+                   @Param("chargingCount") long chargingCount,
+                   @Param("settledCount") long settledCount,
+                   @Param("electricQuantity") BigDecimal electricQuantity,
+                   @Param("spent") BigDecimal spent,
+                   @Param("durationMinutes") long durationMinutes,
+                   @Param("overtimeCount") long overtimeCount,
+                   @Param("reservationCount") long reservationCount,
+                   @Param("cancelledReservationCount") long cancelledReservationCount,
+                   @Param("faultReportCount") long faultReportCount,
+                   @Param("lastChargingTime") LocalDateTime lastChargingTime);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +70,10 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
      * 统计用户的车辆数量
      */
     long countByUserId(Long userId);
+
+    /**
+     * 批量统计用户的车辆数量：[用户ID, 车辆数量]
+     */
+    @Query("SELECT v.userId, COUNT(v) FROM Vehicle v WHERE v.userId IN :userIds GROUP BY v.userId")
+    List<Object[]> countGroupByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -5,6 +5,7 @@ import com.smartcharger.entity.enums.SendStatus;
 import com.smartcharger.entity.enums.WarningNoticeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +32,27 @@ public interface WarningNoticeRepository extends JpaRepository<WarningNotice, Lo
                                                                   Integer isRead, SendStatus sendStatus,
                                                                   Pageable pageable);
 
+    /**
+     * 管理端键集分页：按（创建时间, ID）倒序取游标之后的通知，不统计总数
+     */
+    @Query("SELECT wn FROM WarningNotice wn WHERE " +
+            "(:type IS NULL OR wn.type = :type) " +
+            "AND (:isRead IS NULL OR wn.isRead = :isRead) " +
+            "AND (:userId IS NULL OR wn.userId = :userId) " +
+            "AND (:startDate IS NULL OR wn.createdTime >= :startDate) " +
+            "AND (:endDate IS NULL OR wn.createdTime < :endDate) " +
+            "AND (:afterTime IS NULL OR wn.createdTime < :afterTime " +
+            "     OR (wn.createdTime = :afterTime AND wn.id < :afterId)) " +
+            "ORDER BY wn.createdTime DESC, wn.id DESC")
+    Slice<WarningNotice> findAdminSlice(@Param("type") WarningNoticeType type,
+                                        @Param("isRead") Integer isRead,
+                                        @Param("userId") Long userId,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate,
+                                        @Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
     Integer countByUserIdAndIsReadAndSendStatus(Long userId, Integer isRead, SendStatus sendStatus);
 
     @Modifying
@@ -47,7 +70,10 @@ public interface WarningNoticeRepository extends JpaRepository<WarningNotice, Lo
 
     Optional<WarningNotice> findByIdAndUserIdAndSendStatus(Long id, Long userId, SendStatus sendStatus);
 
-    Long countByUserIdAndType(Long userId, WarningNoticeType type);
+    @Query("SELECT wn.userId, COUNT(wn) FROM WarningNotice wn " +
+            "WHERE wn.userId IN :userIds AND wn.type = :type GROUP BY wn.userId")
+    List<Object[]> countGroupByUserIdInAndType(@Param("userIds") Collection<Long> userIds,
+                                               @Param("type") WarningNoticeType type);
 
     @Query("SELECT wn FROM WarningNotice wn WHERE wn.userId = :userId AND wn.type = 'OVERTIME_WARNING' AND " +
             "(:startDate IS NULL OR wn.createdTime >= :startDate) AND " +
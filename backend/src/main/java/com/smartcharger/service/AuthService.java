@@ -7,6 +7,8 @@ import com.smartcharger.dto.request.UpdateProfileRequest;
 import com.smartcharger.dto.response.LoginResponse;
 import com.smartcharger.dto.response.UserInfoResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 认证服务接口
  */
@@ -14,13 +16,17 @@ public interface AuthService {
 
     /**
      * 用户注册
+     * 密码哈希在密码哈希线程池中异步完成
      */
-    void register(RegisterRequest request);
+    CompletableFuture<Void> register(RegisterRequest request);
 
     /**
      * 用户登录
+     * 密码验证在密码哈希线程池中异步完成
+     *
+     * @param clientIp 客户端IP，用于登录失败次数限制
      */
-    LoginResponse login(LoginRequest request);
+    CompletableFuture<LoginResponse> login(LoginRequest request, String clientIp);
 
     /**
      * 用户登出
@@ -39,6 +45,7 @@ public interface AuthService {
 
     /**
      * 修改密码
+     * 旧密码验证和新密码哈希在密码哈希线程池中异步完成
      */
-    void changePassword(Long userId, ChangePasswordRequest request);
+    CompletableFuture<Void> changePassword(Long userId, ChangePasswordRequest request);
 }
@@ -0,0 +1,23 @@
+package com.smartcharger.service;
+
+import com.smartcharger.dto.response.ChargingFeeResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 分时计费服务接口
+ */
+public interface ChargingFeeService {
+
+    /**
+     * 按电价时间窗口分段计算一次充电的充电量和费用
+     *
+     * @param chargingPileType 充电桩类型
+     * @param power 充电桩功率（kW）
+     * @param startTime 充电开始时间
+     * @param endTime 充电结束时间
+     */
+    ChargingFeeResult calculate(String chargingPileType, BigDecimal power,
+                                LocalDateTime startTime, LocalDateTime endTime);
+}
@@ -10,7 +10,7 @@ import com.smartcharger.dto.response.ChargingPileStatisticsResponse;
 import com.smartcharger.dto.response.ImportResultResponse;
 import com.smartcharger.entity.enums.ChargingPileStatus;
 import com.smartcharger.entity.enums.ChargingPileType;
-import org.apache.poi.ss.usermodel.Workbook;
+import com.smartcharger.util.TabularWriter;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -71,5 +71,6 @@ public interface ChargingPileAdminService {
     /**
      * 批量导出充电桩（Excel）
      */
-    Workbook exportChargingPiles(ChargingPileType type, ChargingPileStatus status);
+    void exportChargingPiles(ChargingPileType type, ChargingPileStatus status,
+                             TabularWriter writer) throws IOException;
 }
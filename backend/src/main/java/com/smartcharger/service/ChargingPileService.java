@@ -2,6 +2,7 @@ package com.smartcharger.service;
 
 import com.smartcharger.dto.request.ChargingPileQueryRequest;
 import com.smartcharger.dto.request.NearbyQueryRequest;
+import com.smartcharger.dto.request.NearestQueryRequest;
 import com.smartcharger.dto.response.ChargingPileResponse;
 import org.springframework.data.domain.Page;
 
@@ -37,6 +38,14 @@ public interface ChargingPileService {
      */
     List<ChargingPileResponse> getNearbyChargingPiles(NearbyQueryRequest request);
 
+    /**
+     * 获取距离最近的若干个充电桩（默认空闲状态）
+     *
+     * @param request 查询请求
+     * @return 按距离升序的充电桩列表
+     */
+    List<ChargingPileResponse> getNearestChargingPiles(NearestQueryRequest request);
+
     /**
      * 计算两点之间的距离（Haversine公式）
      *
@@ -0,0 +1,35 @@
+package com.smartcharger.service;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+
+import java.util.Set;
+
+/**
+ * 充电桩状态机接口
+ * 统一校验状态转换是否合法，并以条件更新（比较并设置）落库，不依赖分布式锁。
+ */
+public interface ChargingPileStateMachine {
+
+    /**
+     * 状态转换是否合法（状态不变视为合法）
+     */
+    boolean canTransition(ChargingPileStatus from, ChargingPileStatus to);
+
+    /**
+     * 可以转换到目标状态的所有来源状态
+     */
+    Set<ChargingPileStatus> sourcesOf(ChargingPileStatus to);
+
+    /**
+     * 尝试将充电桩从当前加载的状态转换到目标状态
+     * 转换不合法或状态已被并发修改时返回false；成功后同步实体状态并刷新地理索引
+     */
+    boolean compareAndSet(ChargingPile chargingPile, ChargingPileStatus to);
+
+    /**
+     * 将充电桩转换到目标状态
+     * 转换不合法时抛出CHARGING_PILE_TRANSITION_ILLEGAL，状态已被并发修改时抛出CHARGING_PILE_BUSY
+     */
+    void transition(ChargingPile chargingPile, ChargingPileStatus to);
+}
@@ -0,0 +1,20 @@
+package com.smartcharger.service;
+
+import com.smartcharger.dto.request.ChargingPileStreamRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 充电桩状态实时推送服务接口
+ */
+public interface ChargingPileStreamService {
+
+    /**
+     * 订阅可视范围内充电桩的状态变更
+     */
+    SseEmitter subscribe(ChargingPileStreamRequest request);
+
+    /**
+     * 当前订阅连接数
+     */
+    int getSubscriberCount();
+}
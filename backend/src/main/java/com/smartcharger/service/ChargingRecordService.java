@@ -5,9 +5,12 @@ import com.smartcharger.dto.request.ChargingRecordStartRequest;
 import com.smartcharger.dto.response.ChargingRecordResponse;
 import com.smartcharger.dto.response.ChargingStatisticsMonthlyResponse;
 import com.smartcharger.dto.response.ChargingStatisticsYearlyResponse;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.entity.enums.ChargingRecordStatus;
+import com.smartcharger.util.TabularWriter;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
 /**
@@ -27,9 +30,9 @@ public interface ChargingRecordService {
 
     ChargingRecordResponse confirmLeave(Long userId, Long recordId);
 
-    void autoCompleteDueChargingRecords();
+    void autoCompleteChargingRecord(Long recordId);
 
-    void sendPreEndChargingReminders();
+    void sendPreEndChargingReminder(Long recordId);
 
     /**
      * 鏌ヨ鍏呯數璁板綍鍒楄〃
@@ -38,6 +41,16 @@ public interface ChargingRecordService {
                                                          LocalDate startDate, LocalDate endDate,
                                                          Integer page, Integer size);
 
+    /**
+     * 管理端：按游标查询充电记录（按开始时间倒序，不统计总数）
+     *
+     * @param cursor 上一页返回的游标，第一页传null
+     */
+    CursorPageResponse<ChargingRecordResponse> getAllChargingRecordsByCursor(Long userId, Long chargingPileId,
+                                                                           ChargingRecordStatus status,
+                                                                           LocalDate startDate, LocalDate endDate,
+                                                                           String cursor, Integer size);
+
     /**
      * 鏌ヨ鍏呯數璁板綍璇︽儏
      */
@@ -73,4 +86,10 @@ public interface ChargingRecordService {
                                                          ChargingRecordStatus status,
                                                          LocalDate startDate, LocalDate endDate,
                                                          Integer page, Integer size);
+
+    /**
+     * 管理端：按筛选条件导出充电记录，按ID倒序分块读取并逐行写出
+     */
+    void exportChargingRecords(Long userId, Long chargingPileId, ChargingRecordStatus status,
+                               LocalDate startDate, LocalDate endDate, TabularWriter writer) throws IOException;
 }
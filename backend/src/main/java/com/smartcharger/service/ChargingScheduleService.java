@@ -0,0 +1,70 @@
+package com.smartcharger.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 充电定时任务调度服务接口（到达目标自动结束充电、即将结束提醒）
+ */
+public interface ChargingScheduleService {
+
+    /**
+     * 目标结束前多少分钟发送即将结束提醒
+     */
+    int PRE_END_NOTICE_MINUTES = 5;
+
+    /**
+     * 在目标结束时间安排自动结束充电（事务提交后生效）
+     */
+    void scheduleAutoComplete(Long recordId, LocalDateTime targetEndTime);
+
+    /**
+     * 自动结束失败后按指数退避延迟重试，超过重试次数后放弃，由定期补齐重新调度
+     */
+    void retryAutoComplete(Long recordId);
+
+    /**
+     * 自动结束执行成功后清零重试计数
+     */
+    void clearAutoCompleteRetries(Long recordId);
+
+    /**
+     * 取消自动结束充电（事务提交后生效）
+     */
+    void cancelAutoComplete(Long recordId);
+
+    /**
+     * 领取已到期的自动结束任务，返回充电记录ID
+     */
+    List<Long> claimDueAutoCompletions(int limit);
+
+    /**
+     * 在目标结束前安排即将结束提醒（事务提交后生效）
+     */
+    void schedulePreEndReminder(Long recordId, LocalDateTime targetEndTime);
+
+    /**
+     * 提醒发送失败后按指数退避延迟重试，超过重试次数后放弃，由定期补齐重新调度
+     */
+    void retryPreEndReminder(Long recordId);
+
+    /**
+     * 提醒发送成功后清零重试计数
+     */
+    void clearPreEndReminderRetries(Long recordId);
+
+    /**
+     * 取消即将结束提醒（事务提交后生效）
+     */
+    void cancelPreEndReminder(Long recordId);
+
+    /**
+     * 领取已到期的提醒任务，返回充电记录ID
+     */
+    List<Long> claimDuePreEndReminders(int limit);
+
+    /**
+     * 按数据库中充电中的记录补齐调度任务（已存在的任务不改动）
+     */
+    void rebuildSchedules();
+}
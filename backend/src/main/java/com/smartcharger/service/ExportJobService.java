@@ -0,0 +1,36 @@
+package com.smartcharger.service;
+
+import com.smartcharger.dto.request.ExportJobCreateRequest;
+import com.smartcharger.dto.response.ExportJobResponse;
+import com.smartcharger.entity.ExportJob;
+import org.springframework.data.domain.Page;
+
+/**
+ * 导出任务服务接口（管理端）
+ */
+public interface ExportJobService {
+
+    /**
+     * 提交导出任务，任务在导出线程池中执行
+     *
+     * @param adminId 管理员ID
+     * @param request 导出类型、格式与筛选条件
+     * @return 任务信息，导出线程池已满时抛出系统繁忙
+     */
+    ExportJobResponse submit(Long adminId, ExportJobCreateRequest request);
+
+    /**
+     * 查询任务状态与进度
+     */
+    ExportJobResponse getJob(Long id);
+
+    /**
+     * 查询管理员提交的任务列表
+     */
+    Page<ExportJobResponse> getJobs(Long adminId, Integer page, Integer size);
+
+    /**
+     * 获取可下载的任务，文件未生成或已过期时抛出异常
+     */
+    ExportJob getDownloadableJob(Long id);
+}
@@ -2,6 +2,7 @@ package com.smartcharger.service;
 
 import com.smartcharger.dto.request.ReservationCreateRequest;
 import com.smartcharger.dto.response.AvailabilityCheckResponse;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.dto.response.ReservationResponse;
 import com.smartcharger.entity.enums.ReservationStatus;
 import org.springframework.data.domain.Page;
@@ -34,6 +35,11 @@ public interface ReservationService {
                                                    LocalDate startDate, LocalDate endDate,
                                                    Integer page, Integer size);
 
+    CursorPageResponse<ReservationResponse> getAdminReservationsByCursor(Long userId, Long chargingPileId,
+                                                                       ReservationStatus status,
+                                                                       LocalDate startDate, LocalDate endDate,
+                                                                       String cursor, Integer size);
+
     ReservationResponse getAdminReservationById(Long id);
 
     void cancelReservationByAdmin(Long id);
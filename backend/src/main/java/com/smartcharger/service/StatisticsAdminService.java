@@ -4,8 +4,9 @@ import com.smartcharger.dto.response.ChargingPileUsageResponse;
 import com.smartcharger.dto.response.RevenueStatisticsResponse;
 import com.smartcharger.dto.response.StatisticsOverviewResponse;
 import com.smartcharger.dto.response.UserActivityResponse;
-import org.apache.poi.ss.usermodel.Workbook;
+import com.smartcharger.util.TabularWriter;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
 public interface StatisticsAdminService {
@@ -18,5 +19,6 @@ public interface StatisticsAdminService {
 
     UserActivityResponse getUserActivity(String rangeType, LocalDate startDate, LocalDate endDate);
 
-    Workbook exportStatistics(String rangeType, LocalDate startDate, LocalDate endDate);
+    void exportStatistics(String rangeType, LocalDate startDate, LocalDate endDate,
+                          TabularWriter writer) throws IOException;
 }
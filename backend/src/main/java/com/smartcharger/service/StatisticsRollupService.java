@@ -0,0 +1,35 @@
+package com.smartcharger.service;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.ChargingRecord;
+
+import java.time.LocalDate;
+
+/**
+ * 统计汇总服务接口
+ * 维护按充电桩（日、小时）的已完成充电汇总，统计按充电开始时间归属日期。
+ */
+public interface StatisticsRollupService {
+
+    /**
+     * 在结束充电的事务内累加一条已完成的充电记录
+     */
+    void recordSettled(ChargingRecord chargingRecord, ChargingPile chargingPile);
+
+    /**
+     * 从充电记录重新汇总一天，同时重建当日活跃用户草图
+     */
+    void rebuildDay(LocalDate date);
+
+    /**
+     * 逐日重新汇总日期范围（含首尾），每天一个事务，返回处理的天数
+     * 当天仍在累加，结束日期最晚截至前一天
+     * 同一时间只允许一个节点执行，已有回填在执行时抛出SYSTEM_BUSY
+     */
+    int backfill(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 汇总表或活跃用户草图为空时回填截至前一天的全部历史数据
+     */
+    void backfillIfEmpty();
+}
@@ -0,0 +1,37 @@
+package com.smartcharger.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 用户活跃度服务接口
+ * 以每日一个HyperLogLog草图记录开始充电的用户，任意日期范围的活跃用户数由每日草图合并估计。
+ */
+public interface UserActivityService {
+
+    /**
+     * 在开始充电的事务内记录用户活跃：更新最近充电时间，事务提交后计入当日草图
+     */
+    void recordChargingStart(Long userId, LocalDateTime startTime);
+
+    /**
+     * 日期范围 [startDate, endDate) 内的去重活跃用户数（估计值）
+     */
+    long countActiveUsers(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 日期范围 [startDate, endDate) 内每日的活跃用户数（估计值），无活跃用户的日期不返回
+     */
+    Map<LocalDate, Long> countDailyActiveUsers(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 从充电记录重新生成一天的草图（须在事务内调用）
+     */
+    void rebuildDay(LocalDate date);
+
+    /**
+     * 是否已有持久化的草图
+     */
+    boolean hasSketches();
+}
@@ -4,9 +4,10 @@ import com.smartcharger.dto.request.BatchUserStatusUpdateRequest;
 import com.smartcharger.dto.request.PasswordResetRequest;
 import com.smartcharger.dto.request.UserStatusUpdateRequest;
 import com.smartcharger.dto.response.*;
-import org.apache.poi.ss.usermodel.Workbook;
+import com.smartcharger.util.TabularWriter;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
 /**
@@ -102,11 +103,11 @@ public interface UserManagementService {
     /**
      * 导出用户列表
      *
-     * @param status   状态筛选
-     * @param isActive 是否活跃用户
-     * @return Excel 工作簿
+     * @param status       状态筛选
+     * @param isActive     是否活跃用户
+     * @param writer       导出写入器
      */
-    Workbook exportUsers(Integer status, Boolean isActive);
+    void exportUsers(Integer status, Boolean isActive, TabularWriter writer) throws IOException;
 
     /**
      * 批量更新用户状态
@@ -0,0 +1,25 @@
+package com.smartcharger.service;
+
+import com.smartcharger.dto.response.UserStatisticsResponse;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户统计数据服务接口（管理端）
+ */
+public interface UserStatisticsService {
+
+    /**
+     * 批量加载用户统计数据，每类数据一次按用户分组的查询，查询次数与用户数量无关
+     *
+     * @param userIds 用户ID集合
+     * @return 用户ID到统计数据的映射，包含所有传入的用户
+     */
+    Map<Long, UserStatisticsResponse> loadStatistics(Collection<Long> userIds);
+
+    /**
+     * 加载单个用户的统计数据
+     */
+    UserStatisticsResponse loadStatistics(Long userId);
+}
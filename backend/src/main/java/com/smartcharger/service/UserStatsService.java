@@ -0,0 +1,48 @@
+package com.smartcharger.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 用户统计维护服务接口
+ * 各记录方法须在业务写入的事务中调用，统计增量与业务数据一同提交或回滚
+ */
+public interface UserStatsService {
+
+    /**
+     * 用户开始充电
+     */
+    void recordChargingStarted(Long userId, LocalDateTime startTime);
+
+    /**
+     * 用户充电结算完成
+     */
+    void recordChargingSettled(Long userId, BigDecimal electricQuantity, BigDecimal fee, int durationMinutes);
+
+    /**
+     * 用户超时占位预警数量变化（新增为正，删除为负）
+     */
+    void recordOvertimeWarnings(Long userId, int delta);
+
+    /**
+     * 用户创建预约
+     */
+    void recordReservationCreated(Long userId);
+
+    /**
+     * 用户预约被取消
+     */
+    void recordReservationCancelled(Long userId);
+
+    /**
+     * 用户故障报修数量变化（新增为正，撤销为负）
+     */
+    void recordFaultReports(Long userId, int delta);
+
+    /**
+     * 将发件箱中的增量应用到用户统计表
+     *
+     * @return 本次应用的增量条数
+     */
+    int relay();
+}
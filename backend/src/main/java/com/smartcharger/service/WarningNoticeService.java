@@ -1,6 +1,8 @@
 package com.smartcharger.service;
 
 import com.smartcharger.dto.request.ThresholdConfigRequest;
+import com.smartcharger.dto.response.CursorPageResponse;
+import com.smartcharger.dto.response.OvertimeEscalationResult;
 import com.smartcharger.dto.response.ThresholdConfigResponse;
 import com.smartcharger.dto.response.UnreadCountResponse;
 import com.smartcharger.dto.response.WarningNoticeResponse;
@@ -31,6 +33,15 @@ public interface WarningNoticeService {
     void createOvertimeWarning(Long userId, Long chargingPileId, Long chargingRecordId,
                                String pileName, Integer duration);
 
+    /**
+     * 处理一块超时占位记录：按阈值级别升级预警、批量置充电桩为超时占位
+     *
+     * @param afterRecordId 从该记录ID之后开始
+     * @param limit 本块最多处理的记录数
+     * @param now 本轮检测的基准时间
+     */
+    OvertimeEscalationResult escalateOvertimeWarnings(Long afterRecordId, int limit, LocalDateTime now);
+
     void createChargingEndingSoonNotice(Long userId, Long chargingPileId, Long chargingRecordId,
                                         String pileName, LocalDateTime targetEndTime);
 
@@ -41,6 +52,11 @@ public interface WarningNoticeService {
                                                           Long userId, LocalDate startDate, LocalDate endDate,
                                                           Integer page, Integer size);
 
+    CursorPageResponse<WarningNoticeResponse> getAdminWarningNoticesByCursor(WarningNoticeType type, Integer isRead,
+                                                                           Long userId, LocalDate startDate,
+                                                                           LocalDate endDate, String cursor,
+                                                                           Integer size);
+
     WarningNoticeResponse getAdminWarningNoticeById(Long id);
 
     void markAdminWarningsAsRead(List<Long> ids);
@@ -3,6 +3,8 @@ package com.smartcharger.service.impl;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.common.security.JwtTokenProvider;
+import com.smartcharger.common.security.LoginAttemptLimiter;
+import com.smartcharger.common.security.PasswordHasher;
 import com.smartcharger.dto.request.ChangePasswordRequest;
 import com.smartcharger.dto.request.LoginRequest;
 import com.smartcharger.dto.request.RegisterRequest;
@@ -13,35 +15,40 @@ import com.smartcharger.entity.User;
 import com.smartcharger.repository.UserRepository;
 import com.smartcharger.service.AuthService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 认证服务实现类
+ * 密码哈希计算交给 {@link PasswordHasher} 的有界线程池，登录、注册和修改密码在哈希完成后异步返回，
+ * 不占用请求线程等待哈希，也不在持有数据库事务时等待。
  */
 @Slf4j
 @Service
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final LoginAttemptLimiter loginAttemptLimiter;
     private final JwtTokenProvider jwtTokenProvider;
 
     public AuthServiceImpl(UserRepository userRepository,
-                           PasswordEncoder passwordEncoder,
+                           PasswordHasher passwordHasher,
+                           LoginAttemptLimiter loginAttemptLimiter,
                            JwtTokenProvider jwtTokenProvider) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.loginAttemptLimiter = loginAttemptLimiter;
         this.jwtTokenProvider = jwtTokenProvider;
     }
 
     @Override
-    @Transactional
-    public void register(RegisterRequest request) {
+    public CompletableFuture<Void> register(RegisterRequest request) {
         log.info("用户注册: username={}, phone={}", request.getUsername(), request.getPhone());
 
         // 1. 校验用户名是否已存在
@@ -54,44 +61,67 @@ public class AuthServiceImpl implements AuthService {
             throw new BusinessException(ResultCode.PHONE_EXISTS);
         }
 
-        // 3. 创建用户
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setPhone(request.getPhone());
-        user.setNickname(StringUtils.hasText(request.getNickname()) ?
-                request.getNickname() : request.getUsername());
-        user.setStatus(1);
-
-        // 4. 保存用户
-        userRepository.save(user);
-
-        log.info("用户注册成功: userId={}, username={}", user.getId(), user.getUsername());
+        // 3. 哈希完成后创建并保存用户（唯一索引保证并发注册不会重复）
+        return passwordHasher.encode(request.getPassword())
+                .thenAccept(encodedPassword -> {
+                    User user = new User();
+                    user.setUsername(request.getUsername());
+                    user.setPassword(encodedPassword);
+                    user.setPhone(request.getPhone());
+                    user.setNickname(StringUtils.hasText(request.getNickname()) ?
+                            request.getNickname() : request.getUsername());
+                    user.setStatus(1);
+                    userRepository.save(user);
+
+                    log.info("用户注册成功: userId={}, username={}", user.getId(), user.getUsername());
+                });
     }
 
     @Override
-    @Transactional
-    public LoginResponse login(LoginRequest request) {
+    public CompletableFuture<LoginResponse> login(LoginRequest request, String clientIp) {
         log.info("用户登录: username={}", request.getUsername());
+        String username = request.getUsername();
 
-        // 1. 查询用户（支持用户名或手机号登录）
-        User user = userRepository.findByUsernameOrPhone(request.getUsername(), request.getUsername())
-                .orElseThrow(() -> new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR));
+        // 1. 检查登录失败次数
+        loginAttemptLimiter.checkAllowed(username, clientIp);
 
-        // 2. 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // 2. 查询用户（支持用户名或手机号登录）
+        User user = userRepository.findByUsernameOrPhone(username, username).orElse(null);
+        if (user == null) {
+            loginAttemptLimiter.recordFailure(username, clientIp);
             throw new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR);
         }
 
-        // 3. 检查账号状态
-        if (user.getStatus() != 1) {
-            throw new BusinessException(ResultCode.ACCOUNT_DISABLED);
-        }
+        // 3. 在密码哈希线程池中验证密码，后续步骤在验证完成后执行
+        return passwordHasher.verify(request.getPassword(), user.getPassword())
+                .thenApply(verification -> {
+                    if (!verification.matched()) {
+                        loginAttemptLimiter.recordFailure(username, clientIp);
+                        throw new BusinessException(ResultCode.USERNAME_OR_PASSWORD_ERROR);
+                    }
+                    loginAttemptLimiter.reset(username);
+
+                    // 4. 检查账号状态
+                    if (user.getStatus() != 1) {
+                        throw new BusinessException(ResultCode.ACCOUNT_DISABLED);
+                    }
+
+                    // 5. 密码哈希算法或强度已调整时升级存储的哈希
+                    if (verification.upgradedPassword() != null
+                            && userRepository.upgradePassword(user.getId(), user.getPassword(),
+                            verification.upgradedPassword()) > 0) {
+                        log.info("密码哈希已升级: userId={}", user.getId());
+                    }
+
+                    return buildLoginResponse(user);
+                });
+    }
 
-        // 4. 生成JWT Token
+    private LoginResponse buildLoginResponse(User user) {
+        // 生成JWT Token
         String token = jwtTokenProvider.generateToken(user.getId(), user.getUsername());
 
-        // 5. 构建用户信息
+        // 构建用户信息
         UserInfoResponse userInfo = UserInfoResponse.builder()
                 .userId(user.getId())
                 .username(user.getUsername())
@@ -104,7 +134,7 @@ public class AuthServiceImpl implements AuthService {
                 .roles(new ArrayList<>())
                 .build();
 
-        // 6. 构建登录响应
+        // 构建登录响应
         LoginResponse response = LoginResponse.builder()
                 .token(token)
                 .tokenType("Bearer")
@@ -121,8 +151,8 @@ public class AuthServiceImpl implements AuthService {
     public void logout(Long userId) {
         log.info("用户登出: userId={}", userId);
 
-        // 删除Redis中的token
-        jwtTokenProvider.deleteToken(userId);
+        // 吊销该用户在所有设备上的会话
+        jwtTokenProvider.revokeSessions(userId);
 
         log.info("用户登出成功: userId={}", userId);
     }
@@ -182,26 +212,33 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    @Transactional
-    public void changePassword(Long userId, ChangePasswordRequest request) {
+    public CompletableFuture<Void> changePassword(Long userId, ChangePasswordRequest request) {
         log.info("修改密码: userId={}", userId);
 
         // 查询用户
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException(ResultCode.USER_NOT_FOUND));
-
-        // 验证旧密码
-        if (!passwordEncoder.matches(request.getOldPassword(), user.getPassword())) {
-            throw new BusinessException(ResultCode.OLD_PASSWORD_ERROR);
-        }
-
-        // 更新密码
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
-
-        // 删除token，强制重新登录
-        jwtTokenProvider.deleteToken(userId);
-
-        log.info("修改密码成功: userId={}", userId);
+        String currentPassword = user.getPassword();
+
+        // 验证旧密码后哈希新密码
+        return passwordHasher.matches(request.getOldPassword(), currentPassword)
+                .thenCompose(matched -> {
+                    if (!matched) {
+                        throw new BusinessException(ResultCode.OLD_PASSWORD_ERROR);
+                    }
+                    return passwordHasher.encode(request.getNewPassword());
+                })
+                .thenAccept(encodedPassword -> {
+                    // 只在密码未被并发修改时更新
+                    if (userRepository.changePassword(userId, currentPassword, encodedPassword,
+                            LocalDateTime.now()) == 0) {
+                        throw new BusinessException(ResultCode.OLD_PASSWORD_ERROR);
+                    }
+
+                    // 吊销会话，强制重新登录
+                    jwtTokenProvider.revokeSessions(userId);
+
+                    log.info("修改密码成功: userId={}", userId);
+                });
     }
 }
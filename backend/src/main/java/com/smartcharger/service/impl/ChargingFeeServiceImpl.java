@@ -0,0 +1,192 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.TariffTable;
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.dto.response.ChargingFeeResult;
+import com.smartcharger.dto.response.ChargingRecordResponse;
+import com.smartcharger.service.ChargingFeeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * 分时计费服务实现类
+ * 充电区间按电价窗口边界切分，每段按充电桩功率折算电量；计算过程使用定点长整数：
+ * 电量单位为Wh（0.001度），单价单位为0.0001元，金额单位为0.0000001元，最后统一四舍五入到分。
+ */
+@Service
+@RequiredArgsConstructor
+public class ChargingFeeServiceImpl implements ChargingFeeService {
+
+    private static final int PRICE_SCALE = 4;
+    private static final long AMOUNT_UNITS_PER_CENT = 100_000L;
+    private static final long SECONDS_PER_HOUR = 3600L;
+
+    private final TariffTable tariffTable;
+
+    @Override
+    public ChargingFeeResult calculate(String chargingPileType, BigDecimal power,
+                                       LocalDateTime startTime, LocalDateTime endTime) {
+        if (endTime.isBefore(startTime)) {
+            endTime = startTime;
+        }
+
+        TariffTable.Snapshot snapshot = tariffTable.current();
+        long powerWatts = power.movePointRight(3).setScale(0, RoundingMode.DOWN).longValueExact();
+
+        // 与本次充电区间相交的电价窗口，以及区间内的全部切分点
+        List<TariffTable.Tariff> windows = new ArrayList<>();
+        TreeSet<LocalDateTime> cuts = new TreeSet<>();
+        cuts.add(startTime);
+        cuts.add(endTime);
+        for (TariffTable.Tariff window : snapshot.windows(chargingPileType)) {
+            LocalDateTime windowEnd = exclusiveEnd(window);
+            if ((window.startTime() != null && !window.startTime().isBefore(endTime))
+                    || (windowEnd != null && !windowEnd.isAfter(startTime))) {
+                continue;
+            }
+            windows.add(window);
+            addCut(cuts, window.startTime(), startTime, endTime);
+            addCut(cuts, windowEnd, startTime, endTime);
+        }
+
+        TariffTable.Tariff fallback = null;
+        List<Segment> segments = new ArrayList<>();
+        Iterator<LocalDateTime> iterator = cuts.iterator();
+        LocalDateTime from = iterator.next();
+        while (iterator.hasNext()) {
+            LocalDateTime to = iterator.next();
+            TariffTable.Tariff tariff = resolve(windows, from, to);
+            if (tariff == null) {
+                // 区间落在电价窗口空档时，按结束时刻（否则当前）生效的电价计费
+                if (fallback == null) {
+                    fallback = resolveFallback(snapshot, chargingPileType, endTime);
+                }
+                tariff = fallback;
+            }
+
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.tariff == tariff) {
+                last.to = to;
+            } else {
+                segments.add(new Segment(tariff, from, to));
+            }
+            from = to;
+        }
+
+        long totalWh = 0;
+        long electricityUnits = 0;
+        long serviceUnits = 0;
+        List<ChargingRecordResponse.FeeSegment> feeSegments = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            long wh = energyWh(powerWatts, startTime, segment.to) - energyWh(powerWatts, startTime, segment.from);
+            long segmentElectricityUnits = wh * toPriceUnits(segment.tariff.pricePerKwh());
+            long segmentServiceUnits = wh * toPriceUnits(segment.tariff.serviceFee());
+
+            totalWh += wh;
+            electricityUnits += segmentElectricityUnits;
+            serviceUnits += segmentServiceUnits;
+
+            feeSegments.add(ChargingRecordResponse.FeeSegment.builder()
+                    .startTime(segment.from)
+                    .endTime(segment.to)
+                    .priceConfigId(segment.tariff.id())
+                    .pricePerKwh(segment.tariff.pricePerKwh())
+                    .serviceFeePerKwh(segment.tariff.serviceFee())
+                    .electricQuantity(BigDecimal.valueOf(wh, 3))
+                    .electricityFee(toYuan(segmentElectricityUnits))
+                    .serviceFee(toYuan(segmentServiceUnits))
+                    .fee(toYuan(segmentElectricityUnits + segmentServiceUnits))
+                    .build());
+        }
+
+        return ChargingFeeResult.builder()
+                .electricQuantity(BigDecimal.valueOf(totalWh, 3))
+                .electricityFee(toYuan(electricityUnits))
+                .serviceFee(toYuan(serviceUnits))
+                .totalFee(toYuan(electricityUnits + serviceUnits))
+                .segments(feeSegments)
+                .build();
+    }
+
+    /**
+     * 选出完整覆盖[from, to)的窗口；窗口重叠时与费用配置查询一致，最新创建的优先
+     */
+    private TariffTable.Tariff resolve(List<TariffTable.Tariff> windows, LocalDateTime from, LocalDateTime to) {
+        TariffTable.Tariff resolved = null;
+        for (TariffTable.Tariff window : windows) {
+            LocalDateTime windowEnd = exclusiveEnd(window);
+            boolean covers = (window.startTime() == null || !window.startTime().isAfter(from))
+                    && (windowEnd == null || !windowEnd.isBefore(to));
+            if (covers && (resolved == null || window.isNewerThan(resolved))) {
+                resolved = window;
+            }
+        }
+        return resolved;
+    }
+
+    private TariffTable.Tariff resolveFallback(TariffTable.Snapshot snapshot, String chargingPileType,
+                                               LocalDateTime endTime) {
+        TariffTable.Tariff tariff = snapshot.find(chargingPileType, endTime);
+        if (tariff == null) {
+            tariff = snapshot.find(chargingPileType, LocalDateTime.now());
+        }
+        if (tariff == null) {
+            throw new BusinessException(ResultCode.NO_ACTIVE_PRICE_CONFIG);
+        }
+        return tariff;
+    }
+
+    /**
+     * 窗口结束时间是包含的（配置冲突校验要求相邻窗口以秒错开），切分时换算为下一秒的开区间边界
+     */
+    private LocalDateTime exclusiveEnd(TariffTable.Tariff window) {
+        return window.endTime() != null
+                ? window.endTime().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1)
+                : null;
+    }
+
+    private void addCut(TreeSet<LocalDateTime> cuts, LocalDateTime cut, LocalDateTime startTime,
+                        LocalDateTime endTime) {
+        if (cut != null && cut.isAfter(startTime) && cut.isBefore(endTime)) {
+            cuts.add(cut);
+        }
+    }
+
+    /**
+     * 从充电开始到指定时刻的累计电量（Wh，向下取整），分段电量取差值保证各段之和等于总电量
+     */
+    private long energyWh(long powerWatts, LocalDateTime startTime, LocalDateTime at) {
+        return powerWatts * Duration.between(startTime, at).getSeconds() / SECONDS_PER_HOUR;
+    }
+
+    private long toPriceUnits(BigDecimal price) {
+        return price.movePointRight(PRICE_SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private BigDecimal toYuan(long amountUnits) {
+        return BigDecimal.valueOf((amountUnits + AMOUNT_UNITS_PER_CENT / 2) / AMOUNT_UNITS_PER_CENT, 2);
+    }
+
+    private static final class Segment {
+        private final TariffTable.Tariff tariff;
+        private final LocalDateTime from;
+        private LocalDateTime to;
+
+        private Segment(TariffTable.Tariff tariff, LocalDateTime from, LocalDateTime to) {
+            this.tariff = tariff;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusCache;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ChargingPileBatchDeleteRequest;
@@ -18,24 +20,33 @@ import com.smartcharger.repository.ChargingRecordRepository;
 import com.smartcharger.repository.FaultReportRepository;
 import com.smartcharger.repository.ReservationRepository;
 import com.smartcharger.service.ChargingPileAdminService;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.util.ExcelRowReader;
+import com.smartcharger.util.TabularWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * 充电桩管理服务实现类（管理端）
@@ -45,10 +56,29 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
 
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final String[] EXPORT_HEADERS = {"充电桩编号", "位置描述", "经度", "纬度", "类型", "功率(kW)", "状态", "创建时间"};
+    private static final int[] EXPORT_COLUMN_WIDTHS = {16, 32, 14, 14, 8, 10, 10, 22};
+
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int IMPORT_COLUMN_COUNT = 6;
+
+    /**
+     * 批量插入充电桩；连接参数rewriteBatchedStatements开启后驱动将同一批改写为多行INSERT
+     */
+    private static final String INSERT_PILE_SQL = "INSERT INTO charging_pile " +
+            "(code, location, lng, lat, type, power, status, version, created_time, updated_time) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, NOW(), NOW())";
+
     private final ChargingPileRepository chargingPileRepository;
     private final ChargingRecordRepository chargingRecordRepository;
     private final ReservationRepository reservationRepository;
     private final FaultReportRepository faultReportRepository;
+    private final ChargingPileGeoIndex chargingPileGeoIndex;
+    private final ChargingPileStatusCache chargingPileStatusCache;
+    private final ChargingPileStateMachine chargingPileStateMachine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -70,6 +100,8 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
         chargingPile.setStatus(ChargingPileStatus.IDLE);
 
         chargingPileRepository.save(chargingPile);
+        chargingPileGeoIndex.onPileChanged(chargingPile);
+        chargingPileStatusCache.onStatusChanged(chargingPile.getId(), chargingPile.getStatus());
 
         log.info("添加充电桩成功: code={}, id={}", request.getCode(), chargingPile.getId());
 
@@ -110,6 +142,7 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
         }
 
         chargingPileRepository.save(chargingPile);
+        chargingPileGeoIndex.onPileChanged(chargingPile);
 
         log.info("更新充电桩成功: id={}", id);
 
@@ -143,6 +176,8 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
 
         // 删除充电桩
         chargingPileRepository.delete(chargingPile);
+        chargingPileGeoIndex.onPileRemoved(id);
+        chargingPileStatusCache.onPileRemoved(id);
 
         log.info("删除充电桩成功: id={}, code={}", id, chargingPile.getCode());
     }
@@ -193,8 +228,7 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
         }
 
         // 更新状态
-        chargingPile.setStatus(newStatus);
-        chargingPileRepository.save(chargingPile);
+        chargingPileStateMachine.transition(chargingPile, newStatus);
 
         log.info("更新充电桩状态成功: id={}, newStatus={}", id, newStatus);
 
@@ -325,7 +359,6 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
     }
 
     @Override
-    @Transactional
     public ImportResultResponse importChargingPiles(MultipartFile file) throws IOException {
         // 验证文件格式
         String filename = file.getOriginalFilename();
@@ -333,260 +366,235 @@ public class ChargingPileAdminServiceImpl implements ChargingPileAdminService {
             throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "文件格式不正确，仅支持.xlsx或.xls格式");
         }
 
-        // 解析Excel文件
-        Workbook workbook = WorkbookFactory.create(file.getInputStream());
-        Sheet sheet = workbook.getSheetAt(0);
-
-        int totalCount = 0;
-        int successCount = 0;
-        List<ImportResultResponse.FailedRecord> failedRecords = new ArrayList<>();
-
-        // 从第2行开始读取（第1行是表头）
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) {
-                continue;
-            }
-
-            totalCount++;
-
-            try {
-                // 读取单元格数据
-                String code = getCellValue(row.getCell(0));
-                String location = getCellValue(row.getCell(1));
-                String lngStr = getCellValue(row.getCell(2));
-                String latStr = getCellValue(row.getCell(3));
-                String typeStr = getCellValue(row.getCell(4));
-                String powerStr = getCellValue(row.getCell(5));
-
-                // 验证必填字段
-                if (code == null || code.trim().isEmpty()) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("充电桩编号不能为空")
-                            .build());
-                    continue;
-                }
-
-                if (location == null || location.trim().isEmpty()) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("位置描述不能为空")
-                            .build());
-                    continue;
-                }
-
-                if (typeStr == null || typeStr.trim().isEmpty()) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("充电桩类型不能为空")
-                            .build());
-                    continue;
-                }
-
-                if (powerStr == null || powerStr.trim().isEmpty()) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("功率不能为空")
-                            .build());
-                    continue;
-                }
-
-                // 验证充电桩编号是否已存在
-                ChargingPile existingPile = chargingPileRepository.findByCode(code);
-                if (existingPile != null) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("充电桩编号已存在")
-                            .build());
-                    continue;
-                }
-
-                // 解析类型
-                ChargingPileType type;
-                try {
-                    type = ChargingPileType.valueOf(typeStr.toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("充电桩类型无效，必须是AC或DC")
-                            .build());
-                    continue;
+        // 逐行读取Excel，按块去重并批量写入，每块一个事务
+        ImportProgress progress = new ImportProgress();
+        List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        try (InputStream inputStream = file.getInputStream()) {
+            ExcelRowReader.read(inputStream, filename, IMPORT_COLUMN_COUNT, (rowNumber, cells) -> {
+                // 第1行是表头
+                if (rowNumber == 1) {
+                    return;
                 }
-
-                // 解析功率
-                BigDecimal power;
-                try {
-                    power = new BigDecimal(powerStr);
-                    if (power.compareTo(BigDecimal.ZERO) <= 0) {
-                        failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                                .row(i + 1)
-                                .code(code)
-                                .reason("功率必须大于0")
-                                .build());
-                        continue;
-                    }
-                } catch (NumberFormatException e) {
-                    failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                            .row(i + 1)
-                            .code(code)
-                            .reason("功率格式不正确")
-                            .build());
-                    continue;
-                }
-
-                // 解析经纬度（可选）
-                BigDecimal lng = null;
-                BigDecimal lat = null;
-                if (lngStr != null && !lngStr.trim().isEmpty()) {
-                    try {
-                        lng = new BigDecimal(lngStr);
-                    } catch (NumberFormatException e) {
-                        failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                                .row(i + 1)
-                                .code(code)
-                                .reason("经度格式不正确")
-                                .build());
-                        continue;
-                    }
+                chunk.add(new ImportRow(rowNumber, cells));
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
                 }
-                if (latStr != null && !latStr.trim().isEmpty()) {
-                    try {
-                        lat = new BigDecimal(latStr);
-                    } catch (NumberFormatException e) {
-                        failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                                .row(i + 1)
-                                .code(code)
-                                .reason("纬度格式不正确")
-                                .build());
-                        continue;
-                    }
-                }
-
-                // 创建充电桩
-                ChargingPile chargingPile = new ChargingPile();
-                chargingPile.setCode(code);
-                chargingPile.setLocation(location);
-                chargingPile.setLng(lng);
-                chargingPile.setLat(lat);
-                chargingPile.setType(type);
-                chargingPile.setPower(power);
-                chargingPile.setStatus(ChargingPileStatus.IDLE);
-
-                chargingPileRepository.save(chargingPile);
-                successCount++;
-
-            } catch (Exception e) {
-                String code = getCellValue(row.getCell(0));
-                failedRecords.add(ImportResultResponse.FailedRecord.builder()
-                        .row(i + 1)
-                        .code(code)
-                        .reason("导入失败：" + e.getMessage())
-                        .build());
-            }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
         }
 
-        workbook.close();
-
+        List<ImportResultResponse.FailedRecord> failedRecords = progress.failedRecords;
+        failedRecords.sort(Comparator.comparing(ImportResultResponse.FailedRecord::getRow));
         log.info("批量导入充电桩完成: totalCount={}, successCount={}, failCount={}",
-                totalCount, successCount, failedRecords.size());
+                progress.totalCount, progress.successCount, failedRecords.size());
 
         return ImportResultResponse.builder()
-                .totalCount(totalCount)
-                .successCount(successCount)
+                .totalCount(progress.totalCount)
+                .successCount(progress.successCount)
                 .failCount(failedRecords.size())
                 .failedRecords(failedRecords)
                 .build();
     }
 
     @Override
-    public Workbook exportChargingPiles(ChargingPileType type, ChargingPileStatus status) {
-        // 查询充电桩列表
-        List<ChargingPile> chargingPiles;
-        if (type != null || status != null) {
-            Pageable pageable = PageRequest.of(0, 10000); // 最多导出10000条
-            Page<ChargingPile> page = chargingPileRepository.findByAdminConditions(type, status, null, pageable);
-            chargingPiles = page.getContent();
-        } else {
-            chargingPiles = chargingPileRepository.findAll();
-        }
-
-        // 创建Excel工作簿
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("充电桩列表");
-
-        // 创建表头样式
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"充电桩编号", "位置描述", "经度", "纬度", "类型", "功率(kW)", "状态", "创建时间"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // 填充数据
+    public void exportChargingPiles(ChargingPileType type, ChargingPileStatus status,
+                                    TabularWriter writer) throws IOException {
+        writer.startSheet("充电桩列表", EXPORT_HEADERS, EXPORT_COLUMN_WIDTHS);
+
+        // 按ID顺序分块读取并逐行写出
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        int rowNum = 1;
-        for (ChargingPile pile : chargingPiles) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(pile.getCode());
-            row.createCell(1).setCellValue(pile.getLocation());
-            row.createCell(2).setCellValue(pile.getLng() != null ? pile.getLng().toString() : "");
-            row.createCell(3).setCellValue(pile.getLat() != null ? pile.getLat().toString() : "");
-            row.createCell(4).setCellValue(pile.getType().name());
-            row.createCell(5).setCellValue(pile.getPower().toString());
-            row.createCell(6).setCellValue(pile.getStatus().getDescription());
-            row.createCell(7).setCellValue(pile.getCreatedTime().format(formatter));
-        }
+        Pageable chunk = PageRequest.of(0, EXPORT_CHUNK_SIZE);
+        long afterId = 0L;
+        List<ChargingPile> chargingPiles;
+        do {
+            chargingPiles = chargingPileRepository.findExportChunk(type, status, afterId, chunk);
+            for (ChargingPile pile : chargingPiles) {
+                writer.writeRow(
+                        pile.getCode(),
+                        pile.getLocation(),
+                        pile.getLng() != null ? pile.getLng().toString() : "",
+                        pile.getLat() != null ? pile.getLat().toString() : "",
+                        pile.getType().name(),
+                        pile.getPower().toString(),
+                        pile.getStatus().getDescription(),
+                        pile.getCreatedTime().format(formatter));
+                afterId = pile.getId();
+            }
+        } while (chargingPiles.size() == EXPORT_CHUNK_SIZE);
+
+        log.info("导出充电桩数据: count={}", writer.getRowCount());
+    }
+
+    /**
+     * 导入一块数据：一次IN查询预先找出已存在的编号，校验通过的行在一个事务中批量插入
+     */
+    private void importChunk(List<ImportRow> rows, ImportProgress progress) {
+        progress.totalCount += rows.size();
 
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+        Set<String> codes = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.code() != null && !row.code().isEmpty()) {
+                codes.add(row.code());
+            }
+        }
+        // 编号唯一索引的排序规则不区分大小写
+        Set<String> usedCodes = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (!codes.isEmpty()) {
+            usedCodes.addAll(chargingPileRepository.findExistingCodes(codes));
         }
 
-        log.info("导出充电桩数据: count={}", chargingPiles.size());
+        List<ImportRow> validRows = new ArrayList<>(rows.size());
+        List<ChargingPile> piles = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            ChargingPile pile = parseImportRow(row, usedCodes, progress.failedRecords);
+            if (pile != null) {
+                usedCodes.add(pile.getCode());
+                validRows.add(row);
+                piles.add(pile);
+            }
+        }
+        if (piles.isEmpty()) {
+            return;
+        }
 
-        return workbook;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_PILE_SQL, piles, piles.size(), (ps, pile) -> {
+                    ps.setString(1, pile.getCode());
+                    ps.setString(2, pile.getLocation());
+                    ps.setBigDecimal(3, pile.getLng());
+                    ps.setBigDecimal(4, pile.getLat());
+                    ps.setString(5, pile.getType().name());
+                    ps.setBigDecimal(6, pile.getPower());
+                    ps.setString(7, pile.getStatus().name());
+                });
+                List<Long> ids = chargingPileRepository.findIdsByCodeIn(
+                        piles.stream().map(ChargingPile::getCode).toList());
+                chargingPileGeoIndex.onPilesChanged(ids);
+                chargingPileStatusCache.onPilesChanged(ids);
+            });
+            progress.successCount += piles.size();
+        } catch (DataAccessException e) {
+            // 并发导入了相同编号等情况，整块回滚并记录失败
+            log.warn("批量导入充电桩块失败: firstRow={}, size={}", validRows.get(0).rowNumber(), piles.size(), e);
+            for (ImportRow row : validRows) {
+                progress.failedRecords.add(failedRecord(row, "导入失败：" + e.getMostSpecificCause().getMessage()));
+            }
+        }
+        log.info("批量导入充电桩进度: processed={}, success={}, failed={}",
+                progress.totalCount, progress.successCount, progress.failedRecords.size());
     }
 
     /**
-     * 获取单元格值
+     * 校验并解析一行，校验失败时记录原因并返回null
      */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
+    private ChargingPile parseImportRow(ImportRow row, Set<String> usedCodes,
+                                        List<ImportResultResponse.FailedRecord> failedRecords) {
+        // 验证必填字段
+        if (row.code() == null || row.code().isEmpty()) {
+            failedRecords.add(failedRecord(row, "充电桩编号不能为空"));
+            return null;
+        }
+        if (row.location() == null || row.location().isEmpty()) {
+            failedRecords.add(failedRecord(row, "位置描述不能为空"));
+            return null;
+        }
+        if (row.type() == null || row.type().isEmpty()) {
+            failedRecords.add(failedRecord(row, "充电桩类型不能为空"));
+            return null;
+        }
+        if (row.power() == null || row.power().isEmpty()) {
+            failedRecords.add(failedRecord(row, "功率不能为空"));
             return null;
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                } else {
-                    // 避免科学计数法
-                    return BigDecimal.valueOf(cell.getNumericCellValue()).toPlainString();
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
+        // 验证充电桩编号是否已存在（数据库或本文件前面的行）
+        if (usedCodes.contains(row.code())) {
+            failedRecords.add(failedRecord(row, "充电桩编号已存在"));
+            return null;
+        }
+
+        // 解析类型
+        ChargingPileType type;
+        try {
+            type = ChargingPileType.valueOf(row.type().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            failedRecords.add(failedRecord(row, "充电桩类型无效，必须是AC或DC"));
+            return null;
+        }
+
+        // 解析功率
+        BigDecimal power;
+        try {
+            power = new BigDecimal(row.power());
+        } catch (NumberFormatException e) {
+            failedRecords.add(failedRecord(row, "功率格式不正确"));
+            return null;
+        }
+        if (power.compareTo(BigDecimal.ZERO) <= 0) {
+            failedRecords.add(failedRecord(row, "功率必须大于0"));
+            return null;
+        }
+
+        // 解析经纬度（可选）
+        BigDecimal lng = null;
+        BigDecimal lat = null;
+        if (row.lng() != null && !row.lng().isEmpty()) {
+            try {
+                lng = new BigDecimal(row.lng());
+            } catch (NumberFormatException e) {
+                failedRecords.add(failedRecord(row, "经度格式不正确"));
+                return null;
+            }
+        }
+        if (row.lat() != null && !row.lat().isEmpty()) {
+            try {
+                lat = new BigDecimal(row.lat());
+            } catch (NumberFormatException e) {
+                failedRecords.add(failedRecord(row, "纬度格式不正确"));
                 return null;
+            }
+        }
+
+        ChargingPile chargingPile = new ChargingPile();
+        chargingPile.setCode(row.code());
+        chargingPile.setLocation(row.location());
+        chargingPile.setLng(lng);
+        chargingPile.setLat(lat);
+        chargingPile.setType(type);
+        chargingPile.setPower(power);
+        chargingPile.setStatus(ChargingPileStatus.IDLE);
+        return chargingPile;
+    }
+
+    private ImportResultResponse.FailedRecord failedRecord(ImportRow row, String reason) {
+        return ImportResultResponse.FailedRecord.builder()
+                .row(row.rowNumber())
+                .code(row.code())
+                .reason(reason)
+                .build();
+    }
+
+    /**
+     * 导入文件中的一行（编号、位置、经度、纬度、类型、功率）
+     */
+    private record ImportRow(int rowNumber, String code, String location, String lng, String lat,
+                             String type, String power) {
+
+        ImportRow(int rowNumber, String[] cells) {
+            this(rowNumber, cells[0], cells[1], cells[2], cells[3], cells[4], cells[5]);
         }
     }
+
+    /**
+     * 导入累计结果
+     */
+    private static final class ImportProgress {
+        private int totalCount;
+        private int successCount;
+        private final List<ImportResultResponse.FailedRecord> failedRecords = new ArrayList<>();
+    }
 }
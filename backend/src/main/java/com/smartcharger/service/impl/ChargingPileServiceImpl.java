@@ -1,13 +1,16 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.cache.ChargingPileGeoIndex;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ChargingPileQueryRequest;
 import com.smartcharger.dto.request.NearbyQueryRequest;
+import com.smartcharger.dto.request.NearestQueryRequest;
 import com.smartcharger.dto.response.ChargingPileResponse;
 import com.smartcharger.entity.ChargingPile;
 import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.service.ChargingPileService;
+import com.smartcharger.util.GeoUtil;
 import jakarta.persistence.criteria.Predicate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -32,12 +35,15 @@ import java.util.stream.Collectors;
 public class ChargingPileServiceImpl implements ChargingPileService {
 
     private final ChargingPileRepository chargingPileRepository;
+    private final ChargingPileGeoIndex chargingPileGeoIndex;
 
-    // 地球半径（km）
-    private static final double EARTH_RADIUS = 6371.0;
+    // 最近K个查询回退到数据库时的初始搜索半径（km）
+    private static final double NEAREST_INITIAL_RADIUS_KM = 2.0;
 
-    public ChargingPileServiceImpl(ChargingPileRepository chargingPileRepository) {
+    public ChargingPileServiceImpl(ChargingPileRepository chargingPileRepository,
+                                   ChargingPileGeoIndex chargingPileGeoIndex) {
         this.chargingPileRepository = chargingPileRepository;
+        this.chargingPileGeoIndex = chargingPileGeoIndex;
     }
 
     @Override
@@ -101,30 +107,79 @@ public class ChargingPileServiceImpl implements ChargingPileService {
 
     @Override
     public List<ChargingPileResponse> getNearbyChargingPiles(NearbyQueryRequest request) {
-        // 查询附近的充电桩
+        // 优先走内存网格索引，索引未就绪时回退到数据库查询
+        if (chargingPileGeoIndex.isReady()) {
+            return chargingPileGeoIndex.findNearby(
+                            request.getLng().doubleValue(),
+                            request.getLat().doubleValue(),
+                            request.getRadius(),
+                            request.getType(),
+                            request.getStatus()
+                    ).stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.toList());
+        }
+
+        // 查询附近的充电桩（包围盒预过滤，类型和状态在数据库中筛选）
+        double lng = request.getLng().doubleValue();
+        double lat = request.getLat().doubleValue();
+        double latDelta = GeoUtil.latDegrees(request.getRadius());
+        double lngDelta = GeoUtil.lngDegrees(lat, request.getRadius());
         List<ChargingPile> nearbyPiles = chargingPileRepository.findNearby(
                 request.getLng(),
                 request.getLat(),
-                request.getRadius()
+                request.getRadius(),
+                lng - lngDelta,
+                lng + lngDelta,
+                lat - latDelta,
+                lat + latDelta,
+                request.getType() != null ? request.getType().name() : null,
+                request.getStatus() != null ? request.getStatus().name() : null
         );
 
-        // 过滤类型和状态
-        List<ChargingPile> filteredPiles = nearbyPiles.stream()
-                .filter(pile -> request.getType() == null || pile.getType() == request.getType())
-                .filter(pile -> request.getStatus() == null || pile.getStatus() == request.getStatus())
+        // 转换为响应DTO并计算距离
+        return nearbyPiles.stream()
+                .map(pile -> convertToResponse(pile, request.getLng(), request.getLat()))
                 .collect(Collectors.toList());
+    }
 
-        // 转换为响应DTO并计算距离
-        return filteredPiles.stream()
-                .map(pile -> {
-                    ChargingPileResponse response = convertToResponse(pile);
-                    Double distance = calculateDistance(
-                            request.getLng(), request.getLat(),
-                            pile.getLng(), pile.getLat()
-                    );
-                    response.setDistance(distance);
-                    return response;
-                })
+    @Override
+    public List<ChargingPileResponse> getNearestChargingPiles(NearestQueryRequest request) {
+        double lng = request.getLng().doubleValue();
+        double lat = request.getLat().doubleValue();
+
+        if (chargingPileGeoIndex.isReady()) {
+            return chargingPileGeoIndex.findNearest(
+                            lng, lat,
+                            request.getLimit(),
+                            request.getMaxRadius(),
+                            request.getType(),
+                            request.getStatus()
+                    ).stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.toList());
+        }
+
+        // 索引未就绪：逐步扩大搜索半径，直到找到足够数量或达到最大半径
+        String type = request.getType() != null ? request.getType().name() : null;
+        String status = request.getStatus() != null ? request.getStatus().name() : null;
+        double radius = Math.min(NEAREST_INITIAL_RADIUS_KM, request.getMaxRadius());
+        List<ChargingPile> nearestPiles;
+        while (true) {
+            double latDelta = GeoUtil.latDegrees(radius);
+            double lngDelta = GeoUtil.lngDegrees(lat, radius);
+            nearestPiles = chargingPileRepository.findNearest(
+                    request.getLng(), request.getLat(), radius,
+                    lng - lngDelta, lng + lngDelta, lat - latDelta, lat + latDelta,
+                    type, status, request.getLimit());
+            if (nearestPiles.size() >= request.getLimit() || radius >= request.getMaxRadius()) {
+                break;
+            }
+            radius = Math.min(radius * 2, request.getMaxRadius());
+        }
+
+        return nearestPiles.stream()
+                .map(pile -> convertToResponse(pile, request.getLng(), request.getLat()))
                 .collect(Collectors.toList());
     }
 
@@ -134,25 +189,45 @@ public class ChargingPileServiceImpl implements ChargingPileService {
             return null;
         }
 
-        // 将经纬度转换为弧度
-        double lon1 = Math.toRadians(lng1.doubleValue());
-        double lat1Rad = Math.toRadians(lat1.doubleValue());
-        double lon2 = Math.toRadians(lng2.doubleValue());
-        double lat2Rad = Math.toRadians(lat2.doubleValue());
-
-        // Haversine公式
-        double dLon = lon2 - lon1;
-        double dLat = lat2Rad - lat1Rad;
+        // Haversine公式计算距离并保留两位小数
+        double distance = GeoUtil.haversineKm(
+                lng1.doubleValue(), lat1.doubleValue(), lng2.doubleValue(), lat2.doubleValue());
+        return roundDistance(distance);
+    }
 
-        double a = Math.pow(Math.sin(dLat / 2), 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                        Math.pow(Math.sin(dLon / 2), 2);
+    private Double roundDistance(double distance) {
+        return Math.round(distance * 100.0) / 100.0;
+    }
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    /**
+     * 将实体转换为响应DTO并计算距离
+     */
+    private ChargingPileResponse convertToResponse(ChargingPile pile, BigDecimal lng, BigDecimal lat) {
+        ChargingPileResponse response = convertToResponse(pile);
+        response.setDistance(calculateDistance(lng, lat, pile.getLng(), pile.getLat()));
+        return response;
+    }
 
-        // 计算距离并保留两位小数
-        double distance = EARTH_RADIUS * c;
-        return Math.round(distance * 100.0) / 100.0;
+    /**
+     * 将索引命中结果转换为响应DTO
+     */
+    private ChargingPileResponse convertToResponse(ChargingPileGeoIndex.Hit hit) {
+        ChargingPileGeoIndex.IndexedPile pile = hit.pile();
+        return ChargingPileResponse.builder()
+                .id(pile.id())
+                .code(pile.code())
+                .location(pile.location())
+                .lng(pile.lng())
+                .lat(pile.lat())
+                .type(pile.type())
+                .typeDesc(pile.type().getDescription())
+                .power(pile.power())
+                .status(hit.status())
+                .statusDesc(hit.status().getDescription())
+                .distance(roundDistance(hit.distanceKm()))
+                .createdTime(pile.createdTime())
+                .updatedTime(pile.updatedTime())
+                .build();
     }
 
     /**
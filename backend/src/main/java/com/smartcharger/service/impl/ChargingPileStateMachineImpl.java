@@ -0,0 +1,104 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusCache;
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 充电桩状态机实现类
+ * 状态变更使用 UPDATE ... WHERE id = ? AND status = ? 条件更新，并发请求中只有一个能成功，
+ * 成功后从数据库刷新实体，使实体版本号与数据库一致，后续保存不会触发乐观锁冲突。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChargingPileStateMachineImpl implements ChargingPileStateMachine {
+
+    private static final Map<ChargingPileStatus, Set<ChargingPileStatus>> TRANSITIONS =
+            new EnumMap<>(ChargingPileStatus.class);
+
+    static {
+        TRANSITIONS.put(ChargingPileStatus.IDLE, EnumSet.of(
+                ChargingPileStatus.CHARGING, ChargingPileStatus.OVERTIME, ChargingPileStatus.FAULT));
+        TRANSITIONS.put(ChargingPileStatus.CHARGING, EnumSet.of(
+                ChargingPileStatus.WAITING_LEAVE, ChargingPileStatus.FAULT));
+        TRANSITIONS.put(ChargingPileStatus.WAITING_LEAVE, EnumSet.of(
+                ChargingPileStatus.IDLE, ChargingPileStatus.OVERTIME, ChargingPileStatus.FAULT));
+        TRANSITIONS.put(ChargingPileStatus.OVERTIME, EnumSet.of(
+                ChargingPileStatus.IDLE, ChargingPileStatus.FAULT));
+        TRANSITIONS.put(ChargingPileStatus.FAULT, EnumSet.of(ChargingPileStatus.IDLE));
+    }
+
+    private final ChargingPileRepository chargingPileRepository;
+    private final ChargingPileGeoIndex chargingPileGeoIndex;
+    private final ChargingPileStatusCache chargingPileStatusCache;
+    private final EntityManager entityManager;
+
+    @Override
+    public boolean canTransition(ChargingPileStatus from, ChargingPileStatus to) {
+        return from == to || TRANSITIONS.getOrDefault(from, Collections.emptySet()).contains(to);
+    }
+
+    @Override
+    public Set<ChargingPileStatus> sourcesOf(ChargingPileStatus to) {
+        Set<ChargingPileStatus> sources = EnumSet.noneOf(ChargingPileStatus.class);
+        TRANSITIONS.forEach((from, targets) -> {
+            if (targets.contains(to)) {
+                sources.add(from);
+            }
+        });
+        return sources;
+    }
+
+    @Override
+    public boolean compareAndSet(ChargingPile chargingPile, ChargingPileStatus to) {
+        ChargingPileStatus from = chargingPile.getStatus();
+        if (from == to) {
+            return true;
+        }
+        if (!canTransition(from, to)) {
+            log.warn("Illegal charging pile transition: pileId={}, from={}, to={}", chargingPile.getId(), from, to);
+            return false;
+        }
+
+        if (chargingPileRepository.compareAndSetStatus(chargingPile.getId(), from, to) == 0) {
+            log.warn("Charging pile status changed concurrently: pileId={}, expected={}, to={}",
+                    chargingPile.getId(), from, to);
+            return false;
+        }
+
+        if (entityManager.contains(chargingPile)) {
+            entityManager.refresh(chargingPile);
+        } else {
+            chargingPile.setStatus(to);
+        }
+        chargingPileGeoIndex.onPileChanged(chargingPile);
+        chargingPileStatusCache.onStatusChanged(chargingPile.getId(), to);
+        return true;
+    }
+
+    @Override
+    public void transition(ChargingPile chargingPile, ChargingPileStatus to) {
+        if (!canTransition(chargingPile.getStatus(), to)) {
+            throw new BusinessException(ResultCode.CHARGING_PILE_TRANSITION_ILLEGAL);
+        }
+        if (!compareAndSet(chargingPile, to)) {
+            throw new BusinessException(ResultCode.CHARGING_PILE_BUSY);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusChangedEvent;
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.dto.request.ChargingPileStreamRequest;
+import com.smartcharger.dto.response.ChargingPileStatusDelta;
+import com.smartcharger.service.ChargingPileStreamService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 充电桩状态实时推送服务实现类
+ * SSE连接由Servlet异步请求承载，空闲连接不占用Tomcat工作线程；
+ * 订阅者按ID分配到固定的推送线程，每个推送线程只遍历并推送给自己的订阅者；状态变更事件分发到所有推送线程，
+ * 同一订阅者收到的变更保持发布顺序，慢连接只阻塞所在线程，其他线程的订阅者不受影响。
+ * 跨节点的变更由状态缓存经Redis同步后在各节点发布，因此每个节点只需推送给本节点的订阅者。
+ */
+@Slf4j
+@Service
+public class ChargingPileStreamServiceImpl implements ChargingPileStreamService {
+
+    static final String EVENT_STATUS = "status";
+
+    private static final int LANE_QUEUE_CAPACITY = 10_000;
+
+    private final ChargingPileGeoIndex chargingPileGeoIndex;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final AtomicLong subscriberSequence = new AtomicLong();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService[] lanes;
+    private final List<Map<Long, Subscriber>> laneSubscribers;
+
+    public ChargingPileStreamServiceImpl(ChargingPileGeoIndex chargingPileGeoIndex,
+                                         @Value("${charging-pile.stream.timeout-millis:1800000}") long timeoutMillis,
+                                         @Value("${charging-pile.stream.max-subscribers:20000}") int maxSubscribers,
+                                         @Value("${charging-pile.stream.dispatch-threads:4}") int dispatchThreads) {
+        this.chargingPileGeoIndex = chargingPileGeoIndex;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.lanes = new ExecutorService[dispatchThreads];
+        this.laneSubscribers = new ArrayList<>(dispatchThreads);
+        for (int i = 0; i < dispatchThreads; i++) {
+            laneSubscribers.add(new ConcurrentHashMap<>());
+            String threadName = "pile-stream-" + i;
+            // 队列满时丢弃最旧的推送，客户端重连后会重新拉取列表
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(LANE_QUEUE_CAPACITY),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.DiscardOldestPolicy());
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(ChargingPileStreamRequest request) {
+        if (request.getMinLng() > request.getMaxLng() || request.getMinLat() > request.getMaxLat()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "可视范围不合法");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        }
+
+        long id = subscriberSequence.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(id, emitter, request.getMinLng(), request.getMaxLng(),
+                request.getMinLat(), request.getMaxLat());
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        laneSubscribers.get(laneOf(subscriber)).put(id, subscriber);
+
+        try {
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (Exception e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * 状态变更事件只在发布线程上入队，推送在推送线程中进行
+     */
+    @EventListener
+    public void onStatusChanged(ChargingPileStatusChangedEvent event) {
+        for (int i = 0; i < lanes.length; i++) {
+            int lane = i;
+            if (!laneSubscribers.get(lane).isEmpty()) {
+                lanes[lane].execute(() -> dispatch(event, lane));
+            }
+        }
+    }
+
+    /**
+     * 定期发送心跳，及时清理已断开的连接
+     */
+    @Scheduled(fixedDelay = 25000, initialDelay = 25000)
+    public void heartbeat() {
+        for (int i = 0; i < lanes.length; i++) {
+            Map<Long, Subscriber> subscribers = laneSubscribers.get(i);
+            lanes[i].execute(() -> subscribers.values()
+                    .forEach(subscriber -> send(subscriber, SseEmitter.event().comment("ping"))));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+        for (Map<Long, Subscriber> subscribers : laneSubscribers) {
+            subscribers.values().forEach(subscriber -> subscriber.emitter().complete());
+            subscribers.clear();
+        }
+        subscriberCount.set(0);
+    }
+
+    /**
+     * 将状态变更推送给指定推送线程上的订阅者
+     */
+    void dispatch(ChargingPileStatusChangedEvent event, int lane) {
+        ChargingPileGeoIndex.IndexedPile pile = chargingPileGeoIndex.get(event.pileId());
+        // 删除通知发给所有订阅者；没有坐标的充电桩不在任何可视范围内
+        boolean broadcast = event.status() == null;
+        if (!broadcast && (pile == null || !pile.located())) {
+            return;
+        }
+
+        ChargingPileStatusDelta delta = ChargingPileStatusDelta.builder()
+                .id(event.pileId())
+                .status(event.status())
+                .build();
+        for (Subscriber subscriber : laneSubscribers.get(lane).values()) {
+            if (broadcast || subscriber.covers(pile.lngValue(), pile.latValue())) {
+                send(subscriber, SseEmitter.event().name(EVENT_STATUS).data(delta, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+        } catch (Exception e) {
+            remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+            log.debug("Charging pile stream subscriber disconnected: id={}", subscriber.id());
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (laneSubscribers.get(laneOf(subscriber)).remove(subscriber.id()) != null) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private int laneOf(Subscriber subscriber) {
+        return Math.floorMod(subscriber.id(), lanes.length);
+    }
+
+    /**
+     * 订阅者及其可视范围
+     */
+    private record Subscriber(long id, SseEmitter emitter,
+                              double minLng, double maxLng, double minLat, double maxLat) {
+
+        boolean covers(double lng, double lat) {
+            return lng >= minLng && lng <= maxLng && lat >= minLat && lat <= maxLat;
+        }
+    }
+}
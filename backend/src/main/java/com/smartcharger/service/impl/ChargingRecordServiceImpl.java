@@ -1,12 +1,15 @@
 package com.smartcharger.service.impl;
 
 import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.lock.ChargingLockManager;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ChargingRecordEndRequest;
 import com.smartcharger.dto.request.ChargingRecordStartRequest;
+import com.smartcharger.dto.response.ChargingFeeResult;
 import com.smartcharger.dto.response.ChargingRecordResponse;
 import com.smartcharger.dto.response.ChargingStatisticsMonthlyResponse;
 import com.smartcharger.dto.response.ChargingStatisticsYearlyResponse;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.entity.ChargingPile;
 import com.smartcharger.entity.ChargingRecord;
 import com.smartcharger.entity.Vehicle;
@@ -16,23 +19,31 @@ import com.smartcharger.entity.enums.ChargingRecordStatus;
 import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.repository.ChargingRecordRepository;
 import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.service.ChargingFeeService;
+import com.smartcharger.service.ChargingPileStateMachine;
 import com.smartcharger.service.ChargingRecordService;
-import com.smartcharger.service.PriceConfigService;
+import com.smartcharger.service.ChargingScheduleService;
 import com.smartcharger.service.StartChargingTxService;
+import com.smartcharger.service.StatisticsRollupService;
+import com.smartcharger.service.UserStatsService;
 import com.smartcharger.service.WarningNoticeService;
+import com.smartcharger.util.KeysetCursor;
+import com.smartcharger.util.TabularWriter;
+import com.smartcharger.util.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -52,28 +63,33 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChargingRecordServiceImpl implements ChargingRecordService {
 
-    private static final int PRE_END_NOTICE_MINUTES = 5;
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final String[] EXPORT_HEADERS = {"记录ID", "用户ID", "充电桩编号", "车牌号", "开始时间", "结束时间",
+            "时长(分钟)", "电量(kWh)", "费用(元)", "状态"};
+    private static final int[] EXPORT_COLUMN_WIDTHS = {12, 10, 16, 12, 22, 22, 12, 12, 12, 10};
+    private static final DateTimeFormatter EXPORT_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private final ChargingRecordRepository chargingRecordRepository;
     private final ChargingPileRepository chargingPileRepository;
     private final VehicleRepository vehicleRepository;
-    private final PriceConfigService priceConfigService;
-    private final RedissonClient redissonClient;
+    private final ChargingFeeService chargingFeeService;
+    private final ChargingLockManager chargingLockManager;
     private final StartChargingTxService startChargingTxService;
     private final WarningNoticeService warningNoticeService;
+    private final ChargingScheduleService chargingScheduleService;
+    private final ChargingPileStateMachine chargingPileStateMachine;
+    private final StatisticsRollupService statisticsRollupService;
+    private final UserStatsService userStatsService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public ChargingRecordResponse startCharging(Long userId, ChargingRecordStartRequest request) {
-        String userLockKey = "charging:start:user:" + userId;
-        String pileLockKey = "charging:start:pile:" + request.getChargingPileId();
-
-        RLock userLock = null;
-        RLock pileLock = null;
-
-        try {
-            userLock = redissonClient.getLock(userLockKey);
-            if (!userLock.tryLock(5, 30, TimeUnit.SECONDS)) {
-                log.warn("Failed to acquire lock for user {}: timeout", userId);
+        Long pileId = request.getChargingPileId();
+        try (ChargingLockManager.StartLock lock = chargingLockManager.tryAcquireStartLocks(userId, pileId)) {
+            if (!lock.isAcquired()) {
+                if (lock.getBlockedBy() == ChargingLockManager.LockOwner.PILE) {
+                    throw new BusinessException(ResultCode.CHARGING_PILE_BUSY);
+                }
                 Optional<ChargingRecord> existingRecord = chargingRecordRepository.findByUserIdAndStatus(
                         userId, ChargingRecordStatus.CHARGING);
                 if (existingRecord.isPresent()) {
@@ -81,14 +97,7 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
                 }
                 throw new BusinessException(ResultCode.SYSTEM_BUSY);
             }
-            log.info("Acquired lock for user {}", userId);
-
-            pileLock = redissonClient.getLock(pileLockKey);
-            if (!pileLock.tryLock(5, 30, TimeUnit.SECONDS)) {
-                log.warn("Failed to acquire lock for pile {}: timeout", request.getChargingPileId());
-                throw new BusinessException(ResultCode.CHARGING_PILE_BUSY);
-            }
-            log.info("Acquired lock for user {} and pile {}", userId, request.getChargingPileId());
+            log.info("Acquired start charging locks for user {} and pile {}", userId, pileId);
 
             return startChargingTxService.startChargingInTx(userId, request);
         } catch (InterruptedException e) {
@@ -100,23 +109,6 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
         } catch (Exception e) {
             log.error("Redis connection error or unexpected exception for user {}", userId, e);
             throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR);
-        } finally {
-            if (pileLock != null && pileLock.isHeldByCurrentThread()) {
-                try {
-                    pileLock.unlock();
-                    log.info("Released lock for pile {}", request.getChargingPileId());
-                } catch (Exception e) {
-                    log.error("Failed to release pile lock", e);
-                }
-            }
-            if (userLock != null && userLock.isHeldByCurrentThread()) {
-                try {
-                    userLock.unlock();
-                    log.info("Released lock for user {}", userId);
-                } catch (Exception e) {
-                    log.error("Failed to release user lock", e);
-                }
-            }
         }
     }
 
@@ -134,6 +126,9 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
                 .orElseThrow(() -> new BusinessException(ResultCode.CHARGING_PILE_NOT_FOUND));
 
         chargingRecord = completeCharging(chargingRecord, chargingPile, ChargingEndReason.USER_MANUAL);
+        if (chargingRecord == null) {
+            throw new BusinessException(ResultCode.CHARGING_RECORD_NOT_CHARGING);
+        }
         return convertToResponse(chargingRecord, chargingPile, null);
     }
 
@@ -167,8 +162,7 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
 
         if (chargingPile.getStatus() == ChargingPileStatus.WAITING_LEAVE
                 || chargingPile.getStatus() == ChargingPileStatus.OVERTIME) {
-            chargingPile.setStatus(ChargingPileStatus.IDLE);
-            chargingPileRepository.save(chargingPile);
+            chargingPileStateMachine.compareAndSet(chargingPile, ChargingPileStatus.IDLE);
         }
 
         log.info("Owner confirmed leaving: userId={}, recordId={}, pileId={}",
@@ -178,48 +172,57 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
 
     @Override
     @Transactional
-    public void autoCompleteDueChargingRecords() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ChargingRecord> dueRecords = chargingRecordRepository
-                .findByStatusAndTargetEndTimeLessThanEqual(ChargingRecordStatus.CHARGING, now);
-
-        for (ChargingRecord record : dueRecords) {
-            try {
-                ChargingPile chargingPile = chargingPileRepository.findById(record.getChargingPileId())
-                        .orElseThrow(() -> new BusinessException(ResultCode.CHARGING_PILE_NOT_FOUND));
-                completeCharging(record, chargingPile, ChargingEndReason.AUTO_TARGET_REACHED);
-            } catch (Exception e) {
-                log.error("Auto complete charging failed: recordId={}", record.getId(), e);
-            }
+    public void autoCompleteChargingRecord(Long recordId) {
+        ChargingRecord record = chargingRecordRepository.findById(recordId).orElse(null);
+        if (record == null || record.getStatus() != ChargingRecordStatus.CHARGING
+                || record.getTargetEndTime() == null) {
+            log.debug("Skip auto complete, record no longer charging: recordId={}", recordId);
+            return;
+        }
+        if (record.getTargetEndTime().isAfter(LocalDateTime.now())) {
+            // 提前触发（节点时钟偏差等），按目标结束时间重新调度
+            chargingScheduleService.scheduleAutoComplete(recordId, record.getTargetEndTime());
+            return;
+        }
+
+        ChargingPile chargingPile = chargingPileRepository.findById(record.getChargingPileId())
+                .orElseThrow(() -> new BusinessException(ResultCode.CHARGING_PILE_NOT_FOUND));
+        if (completeCharging(record, chargingPile, ChargingEndReason.AUTO_TARGET_REACHED) == null) {
+            log.debug("Skip auto complete, record already settled: recordId={}", recordId);
         }
     }
 
     @Override
     @Transactional
-    public void sendPreEndChargingReminders() {
+    public void sendPreEndChargingReminder(Long recordId) {
+        ChargingRecord record = chargingRecordRepository.findById(recordId).orElse(null);
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime reminderEnd = now.plusMinutes(PRE_END_NOTICE_MINUTES);
-        List<ChargingRecord> records = chargingRecordRepository
-                .findByStatusAndPreEndNoticeSentAndTargetEndTimeBetween(
-                        ChargingRecordStatus.CHARGING, 0, now, reminderEnd);
-
-        for (ChargingRecord record : records) {
-            try {
-                ChargingPile pile = chargingPileRepository.findById(record.getChargingPileId())
-                        .orElseThrow(() -> new BusinessException(ResultCode.CHARGING_PILE_NOT_FOUND));
-                warningNoticeService.createChargingEndingSoonNotice(
-                        record.getUserId(),
-                        record.getChargingPileId(),
-                        record.getId(),
-                        pile.getCode(),
-                        record.getTargetEndTime()
-                );
-                record.setPreEndNoticeSent(1);
-                chargingRecordRepository.save(record);
-            } catch (Exception e) {
-                log.error("Create pre-end charging reminder failed: recordId={}", record.getId(), e);
-            }
+        if (record == null || record.getStatus() != ChargingRecordStatus.CHARGING
+                || record.getTargetEndTime() == null
+                || record.getTargetEndTime().isBefore(now)) {
+            log.debug("Skip pre-end reminder, record no longer charging: recordId={}", recordId);
+            return;
+        }
+        if (record.getTargetEndTime().minusMinutes(ChargingScheduleService.PRE_END_NOTICE_MINUTES).isAfter(now)) {
+            chargingScheduleService.schedulePreEndReminder(recordId, record.getTargetEndTime());
+            return;
         }
+
+        // 以记录ID为幂等键：标记与提醒在同一事务内，重复触发或多节点并发时只有一次能标记成功
+        if (chargingRecordRepository.markPreEndNoticeSent(recordId) == 0) {
+            log.debug("Pre-end reminder already sent: recordId={}", recordId);
+            return;
+        }
+
+        ChargingPile pile = chargingPileRepository.findById(record.getChargingPileId())
+                .orElseThrow(() -> new BusinessException(ResultCode.CHARGING_PILE_NOT_FOUND));
+        warningNoticeService.createChargingEndingSoonNotice(
+                record.getUserId(),
+                record.getChargingPileId(),
+                record.getId(),
+                pile.getCode(),
+                record.getTargetEndTime()
+        );
     }
 
     @Override
@@ -261,6 +264,41 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
         return new org.springframework.data.domain.PageImpl<>(responses, pageable, recordPage.getTotalElements());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChargingRecordResponse> getAllChargingRecordsByCursor(Long userId, Long chargingPileId,
+                                                                                  ChargingRecordStatus status,
+                                                                                  LocalDate startDate, LocalDate endDate,
+                                                                                  String cursor, Integer size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+
+        Slice<ChargingRecord> recordSlice = chargingRecordRepository.findAdminSlice(
+                userId, chargingPileId, status, startDateTime, endDateTime,
+                after != null ? after.time() : null, after != null ? after.id() : null,
+                PageRequest.of(0, size));
+
+        List<ChargingRecord> records = recordSlice.getContent();
+        Map<Long, ChargingPile> pileMap = batchFetchPiles(records);
+        Map<Long, Vehicle> vehicleMap = batchFetchVehicles(records);
+
+        List<ChargingRecordResponse> responses = records.stream()
+                .map(record -> convertToResponse(
+                        record,
+                        pileMap.get(record.getChargingPileId()),
+                        vehicleMap.get(record.getVehicleId())))
+                .collect(Collectors.toList());
+
+        ChargingRecord last = records.isEmpty() ? null : records.get(records.size() - 1);
+        return CursorPageResponse.<ChargingRecordResponse>builder()
+                .records(responses)
+                .size(size)
+                .hasNext(recordSlice.hasNext())
+                .nextCursor(recordSlice.hasNext() ? new KeysetCursor(last.getStartTime(), last.getId()).encode() : null)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ChargingRecordResponse getChargingRecordDetail(Long userId, Long recordId) {
@@ -447,22 +485,70 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
         return new org.springframework.data.domain.PageImpl<>(responses, pageable, recordPage.getTotalElements());
     }
 
+    @Override
+    public void exportChargingRecords(Long userId, Long chargingPileId, ChargingRecordStatus status,
+                                      LocalDate startDate, LocalDate endDate, TabularWriter writer) throws IOException {
+        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+        writer.startSheet("充电记录", EXPORT_HEADERS, EXPORT_COLUMN_WIDTHS);
+
+        // 每块批量加载关联的充电桩和车辆
+        Pageable chunk = PageRequest.of(0, EXPORT_CHUNK_SIZE);
+        Long beforeId = null;
+        List<ChargingRecord> records;
+        do {
+            records = chargingRecordRepository.findExportChunk(
+                    userId, chargingPileId, status, startDateTime, endDateTime, beforeId, chunk);
+            if (records.isEmpty()) {
+                break;
+            }
+            Map<Long, ChargingPile> pileMap = batchFetchPiles(records);
+            Map<Long, Vehicle> vehicleMap = batchFetchVehicles(records);
+            for (ChargingRecord record : records) {
+                ChargingPile pile = pileMap.get(record.getChargingPileId());
+                Vehicle vehicle = vehicleMap.get(record.getVehicleId());
+                writer.writeRow(
+                        record.getId(),
+                        record.getUserId(),
+                        pile != null ? pile.getCode() : "",
+                        vehicle != null ? vehicle.getLicensePlate() : "",
+                        record.getStartTime() != null ? record.getStartTime().format(EXPORT_TIME_FORMATTER) : "",
+                        record.getEndTime() != null ? record.getEndTime().format(EXPORT_TIME_FORMATTER) : "",
+                        record.getDuration(),
+                        record.getElectricQuantity(),
+                        record.getFee(),
+                        record.getStatus().getDescription());
+            }
+            beforeId = records.get(records.size() - 1).getId();
+        } while (records.size() == EXPORT_CHUNK_SIZE);
+
+        log.info("Export charging records: userId={}, chargingPileId={}, status={}, count={}",
+                userId, chargingPileId, status, writer.getRowCount());
+    }
+
+    /**
+     * 结束充电并结算，记录已不在充电中时返回null
+     * 手动结束与自动结束可能在不同节点并发执行，先以条件更新认领记录（行锁持有到提交），
+     * 只有认领成功的事务累加统计，避免汇总表和用户统计重复计数
+     */
     private ChargingRecord completeCharging(ChargingRecord chargingRecord, ChargingPile chargingPile,
                                             ChargingEndReason endReason) {
-        if (chargingRecord.getStatus() != ChargingRecordStatus.CHARGING) {
-            throw new BusinessException(ResultCode.CHARGING_RECORD_NOT_CHARGING);
+        if (chargingRecord.getStatus() != ChargingRecordStatus.CHARGING
+                || chargingRecordRepository.markCompleted(chargingRecord.getId(),
+                ChargingRecordStatus.CHARGING, ChargingRecordStatus.COMPLETED) == 0) {
+            return null;
         }
 
         LocalDateTime endTime = LocalDateTime.now();
         Duration duration = Duration.between(chargingRecord.getStartTime(), endTime);
         int durationMinutes = Math.max(0, (int) duration.toMinutes());
-        BigDecimal durationHours = BigDecimal.valueOf(duration.getSeconds())
-                .divide(BigDecimal.valueOf(3600), 6, RoundingMode.DOWN);
 
-        BigDecimal electricQuantity = chargingPile.getPower()
-                .multiply(durationHours)
-                .setScale(3, RoundingMode.DOWN);
-        BigDecimal fee = priceConfigService.calculateFee(chargingPile.getType().name(), electricQuantity);
+        long feeStartNanos = System.nanoTime();
+        ChargingFeeResult feeResult = chargingFeeService.calculate(chargingPile.getType().name(),
+                chargingPile.getPower(), chargingRecord.getStartTime(), endTime);
+        meterRegistry.timer("charging.fee.calculate").record(System.nanoTime() - feeStartNanos, TimeUnit.NANOSECONDS);
+        BigDecimal electricQuantity = feeResult.getElectricQuantity();
+        BigDecimal fee = feeResult.getTotalFee();
 
         chargingRecord.setEndTime(endTime);
         chargingRecord.setDuration(durationMinutes);
@@ -471,9 +557,15 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
         chargingRecord.setStatus(ChargingRecordStatus.COMPLETED);
         chargingRecord.setEndReason(endReason);
         chargingRecord = chargingRecordRepository.save(chargingRecord);
+        statisticsRollupService.recordSettled(chargingRecord, chargingPile);
+        userStatsService.recordChargingSettled(chargingRecord.getUserId(), electricQuantity, fee, durationMinutes);
+        if (endReason != ChargingEndReason.AUTO_TARGET_REACHED) {
+            chargingScheduleService.cancelAutoComplete(chargingRecord.getId());
+        }
+        chargingScheduleService.cancelPreEndReminder(chargingRecord.getId());
 
-        chargingPile.setStatus(ChargingPileStatus.WAITING_LEAVE);
-        chargingPileRepository.save(chargingPile);
+        // 充电期间充电桩可能已被报修为故障，此时保持故障状态，充电记录照常结束
+        chargingPileStateMachine.compareAndSet(chargingPile, ChargingPileStatus.WAITING_LEAVE);
 
         warningNoticeService.createChargingCompletedNotice(
                 chargingRecord.getUserId(),
@@ -482,6 +574,9 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
                 chargingPile.getCode()
         );
 
+        Counter completedCounter = meterRegistry.counter("charging.complete", "reason", endReason.name());
+        TransactionUtil.afterCommit(completedCounter::increment);
+
         log.info("Charging completed: userId={}, recordId={}, reason={}, duration={}min, quantity={}, fee={}",
                 chargingRecord.getUserId(), chargingRecord.getId(), endReason,
                 durationMinutes, electricQuantity, fee);
@@ -491,25 +586,26 @@ public class ChargingRecordServiceImpl implements ChargingRecordService {
     private void enrichFeeBreakdown(ChargingRecord chargingRecord, ChargingPile pile, ChargingRecordResponse response) {
         if (chargingRecord.getStatus() != ChargingRecordStatus.COMPLETED
                 || pile == null
+                || chargingRecord.getEndTime() == null
                 || chargingRecord.getElectricQuantity() == null) {
             return;
         }
 
         try {
-            var priceConfig = priceConfigService.getCurrentPriceConfig(pile.getType().name());
-            response.setPricePerKwh(priceConfig.getPricePerKwh());
-            response.setServiceFee(priceConfig.getServiceFee());
-
-            BigDecimal electricityFee = chargingRecord.getElectricQuantity()
-                    .multiply(priceConfig.getPricePerKwh())
-                    .setScale(2, RoundingMode.HALF_UP);
-            BigDecimal serviceFeeTotal = chargingRecord.getElectricQuantity()
-                    .multiply(priceConfig.getServiceFee())
-                    .setScale(2, RoundingMode.HALF_UP);
+            ChargingFeeResult feeResult = chargingFeeService.calculate(pile.getType().name(), pile.getPower(),
+                    chargingRecord.getStartTime(), chargingRecord.getEndTime());
+            List<ChargingRecordResponse.FeeSegment> segments = feeResult.getSegments();
+            if (!segments.isEmpty()) {
+                // 单价展示结束时段的电价，分时段单价见明细
+                ChargingRecordResponse.FeeSegment lastSegment = segments.get(segments.size() - 1);
+                response.setPricePerKwh(lastSegment.getPricePerKwh());
+                response.setServiceFee(lastSegment.getServiceFeePerKwh());
+            }
 
             ChargingRecordResponse.FeeBreakdown breakdown = ChargingRecordResponse.FeeBreakdown.builder()
-                    .electricityFee(electricityFee)
-                    .serviceFee(serviceFeeTotal)
+                    .electricityFee(feeResult.getElectricityFee())
+                    .serviceFee(feeResult.getServiceFee())
+                    .segments(segments)
                     .build();
             response.setFeeBreakdown(breakdown);
         } catch (Exception e) {
@@ -0,0 +1,178 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.entity.ChargingRecord;
+import com.smartcharger.entity.enums.ChargingRecordStatus;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.service.ChargingScheduleService;
+import com.smartcharger.util.RedisDelayQueue;
+import com.smartcharger.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 充电定时任务调度服务实现类
+ * 任务存放在Redis延迟队列中，数据库仍是唯一数据源：启动时及定期按充电中的记录补齐，丢失的任务可以恢复。
+ * 执行失败的任务按指数退避重试，执行成功后清零计数；连续失败 {@link #MAX_RETRY_ATTEMPTS} 次后放弃并清零计数，
+ * 充电仍未结束的记录由下一次定期补齐重新加入队列。
+ */
+@Slf4j
+@Service
+public class ChargingScheduleServiceImpl implements ChargingScheduleService {
+
+    static final String AUTO_COMPLETE_QUEUE_KEY = "charging:delay:auto-complete";
+    static final String PRE_END_REMINDER_QUEUE_KEY = "charging:delay:pre-end-reminder";
+
+    static final int MAX_RETRY_ATTEMPTS = 5;
+
+    private static final long RETRY_BASE_DELAY_MILLIS = 30_000L;
+    private static final long RETRY_MAX_DELAY_MILLIS = 300_000L;
+
+    private final ChargingRecordRepository chargingRecordRepository;
+    private final RedisDelayQueue autoCompleteQueue;
+    private final RedisDelayQueue preEndReminderQueue;
+
+    public ChargingScheduleServiceImpl(ChargingRecordRepository chargingRecordRepository,
+                                       StringRedisTemplate stringRedisTemplate) {
+        this.chargingRecordRepository = chargingRecordRepository;
+        this.autoCompleteQueue = new RedisDelayQueue(stringRedisTemplate, AUTO_COMPLETE_QUEUE_KEY);
+        this.preEndReminderQueue = new RedisDelayQueue(stringRedisTemplate, PRE_END_REMINDER_QUEUE_KEY);
+    }
+
+    @Override
+    public void scheduleAutoComplete(Long recordId, LocalDateTime targetEndTime) {
+        if (recordId != null && targetEndTime != null) {
+            scheduleAfterCommit(autoCompleteQueue, recordId, targetEndTime);
+        }
+    }
+
+    @Override
+    public void retryAutoComplete(Long recordId) {
+        retry(autoCompleteQueue, recordId);
+    }
+
+    @Override
+    public void clearAutoCompleteRetries(Long recordId) {
+        clearRetries(autoCompleteQueue, recordId);
+    }
+
+    @Override
+    public void cancelAutoComplete(Long recordId) {
+        cancelAfterCommit(autoCompleteQueue, recordId);
+    }
+
+    @Override
+    public List<Long> claimDueAutoCompletions(int limit) {
+        return claimDue(autoCompleteQueue, limit);
+    }
+
+    @Override
+    public void schedulePreEndReminder(Long recordId, LocalDateTime targetEndTime) {
+        if (recordId != null && targetEndTime != null) {
+            scheduleAfterCommit(preEndReminderQueue, recordId, targetEndTime.minusMinutes(PRE_END_NOTICE_MINUTES));
+        }
+    }
+
+    @Override
+    public void retryPreEndReminder(Long recordId) {
+        retry(preEndReminderQueue, recordId);
+    }
+
+    @Override
+    public void clearPreEndReminderRetries(Long recordId) {
+        clearRetries(preEndReminderQueue, recordId);
+    }
+
+    @Override
+    public void cancelPreEndReminder(Long recordId) {
+        cancelAfterCommit(preEndReminderQueue, recordId);
+    }
+
+    @Override
+    public List<Long> claimDuePreEndReminders(int limit) {
+        return claimDue(preEndReminderQueue, limit);
+    }
+
+    @Override
+    public void rebuildSchedules() {
+        List<ChargingRecord> records = chargingRecordRepository
+                .findByStatusAndTargetEndTimeIsNotNull(ChargingRecordStatus.CHARGING);
+        for (ChargingRecord record : records) {
+            String member = record.getId().toString();
+            autoCompleteQueue.scheduleIfAbsent(member, toEpochMillis(record.getTargetEndTime()));
+            if (record.getPreEndNoticeSent() == null || record.getPreEndNoticeSent() == 0) {
+                preEndReminderQueue.scheduleIfAbsent(member,
+                        toEpochMillis(record.getTargetEndTime().minusMinutes(PRE_END_NOTICE_MINUTES)));
+            }
+        }
+        log.info("Charging schedules rebuilt: chargingRecords={}", records.size());
+    }
+
+    private void scheduleAfterCommit(RedisDelayQueue queue, Long recordId, LocalDateTime dueAt) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                queue.schedule(recordId.toString(), toEpochMillis(dueAt));
+            } catch (Exception e) {
+                // 调度失败不影响充电，由定期补齐恢复
+                log.warn("Failed to schedule charging task: queue={}, recordId={}", queue.getKey(), recordId, e);
+            }
+        });
+    }
+
+    private void retry(RedisDelayQueue queue, Long recordId) {
+        String member = recordId.toString();
+        try {
+            long attempt = queue.incrementAttempts(member);
+            if (attempt > MAX_RETRY_ATTEMPTS) {
+                queue.clearAttempts(member);
+                log.error("Giving up charging task until next schedule rebuild: queue={}, recordId={}, attempts={}",
+                        queue.getKey(), recordId, MAX_RETRY_ATTEMPTS);
+                return;
+            }
+            queue.schedule(member, System.currentTimeMillis() + retryDelayMillis(attempt));
+        } catch (Exception e) {
+            log.warn("Failed to reschedule charging task: queue={}, recordId={}", queue.getKey(), recordId, e);
+        }
+    }
+
+    private void clearRetries(RedisDelayQueue queue, Long recordId) {
+        try {
+            queue.clearAttempts(recordId.toString());
+        } catch (Exception e) {
+            // 计数带过期时间，清除失败只会让后续重试提前放弃
+            log.warn("Failed to clear charging task attempts: queue={}, recordId={}", queue.getKey(), recordId, e);
+        }
+    }
+
+    /**
+     * 第attempt次重试的延迟：30秒起每次翻倍，最长5分钟
+     */
+    static long retryDelayMillis(long attempt) {
+        long shift = Math.min(Math.max(attempt - 1, 0), 10);
+        return Math.min(RETRY_BASE_DELAY_MILLIS << shift, RETRY_MAX_DELAY_MILLIS);
+    }
+
+    private void cancelAfterCommit(RedisDelayQueue queue, Long recordId) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                queue.cancel(recordId.toString());
+            } catch (Exception e) {
+                log.warn("Failed to cancel charging task: queue={}, recordId={}", queue.getKey(), recordId, e);
+            }
+        });
+    }
+
+    private List<Long> claimDue(RedisDelayQueue queue, int limit) {
+        return queue.claimDue(System.currentTimeMillis(), limit).stream()
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,309 @@
+package com.smartcharger.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.dto.request.ExportJobCreateRequest;
+import com.smartcharger.dto.response.ExportJobResponse;
+import com.smartcharger.entity.ExportJob;
+import com.smartcharger.entity.enums.ExportFormat;
+import com.smartcharger.entity.enums.ExportJobStatus;
+import com.smartcharger.repository.ExportJobRepository;
+import com.smartcharger.service.ChargingPileAdminService;
+import com.smartcharger.service.ChargingRecordService;
+import com.smartcharger.service.ExportJobService;
+import com.smartcharger.service.StatisticsAdminService;
+import com.smartcharger.service.UserManagementService;
+import com.smartcharger.util.TabularWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 导出任务服务实现类
+ * 导出在独立的有界线程池中执行，不占用Tomcat请求线程；队列已满时拒绝提交。
+ * 文件先写入临时文件，完成后原子改名，下载时只会看到完整文件；文件在过期后由定时任务删除。
+ * 任务状态保存在数据库中；导出目录为本地磁盘，多节点部署时应挂载共享存储。
+ * 任务记录执行节点，节点定期为自己未结束的任务刷新心跳；心跳过期的未结束任务（节点重启或宕机遗留）
+ * 在启动时及定期检查中标记为失败。
+ */
+@Slf4j
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 30_000L;
+    private static final Duration HEARTBEAT_TIMEOUT = Duration.ofMillis(HEARTBEAT_INTERVAL_MILLIS * 3);
+    private static final Set<ExportJobStatus> UNFINISHED_STATUSES =
+            EnumSet.of(ExportJobStatus.PENDING, ExportJobStatus.RUNNING);
+
+    private final ExportJobRepository exportJobRepository;
+    private final UserManagementService userManagementService;
+    private final ChargingPileAdminService chargingPileAdminService;
+    private final ChargingRecordService chargingRecordService;
+    private final StatisticsAdminService statisticsAdminService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本节点正在执行的任务写入器，用于查询实时进度
+     */
+    private final Map<Long, TabularWriter> running = new ConcurrentHashMap<>();
+
+    public ExportJobServiceImpl(ExportJobRepository exportJobRepository,
+                                UserManagementService userManagementService,
+                                ChargingPileAdminService chargingPileAdminService,
+                                ChargingRecordService chargingRecordService,
+                                StatisticsAdminService statisticsAdminService,
+                                ObjectMapper objectMapper,
+                                @Value("${export.job.directory:${java.io.tmpdir}/smart-charger-exports}") String directory,
+                                @Value("${export.job.ttl-hours:24}") long ttlHours,
+                                @Value("${export.job.threads:2}") int threads,
+                                @Value("${export.job.queue-capacity:16}") int queueCapacity) {
+        this.exportJobRepository = exportJobRepository;
+        this.userManagementService = userManagementService;
+        this.chargingPileAdminService = chargingPileAdminService;
+        this.chargingRecordService = chargingRecordService;
+        this.statisticsAdminService = statisticsAdminService;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.ttl = Duration.ofHours(ttlHours);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public ExportJobResponse submit(Long adminId, ExportJobCreateRequest request) {
+        if (request.getFormat() == null) {
+            request.setFormat(ExportFormat.XLSX);
+        }
+        ExportJob job = new ExportJob();
+        job.setAdminId(adminId);
+        job.setType(request.getType());
+        job.setFormat(request.getFormat());
+        job.setStatus(ExportJobStatus.PENDING);
+        job.setParams(toJson(request));
+        job.setOwnerNode(nodeId);
+        job.setHeartbeatTime(LocalDateTime.now());
+        job = exportJobRepository.save(job);
+
+        Long jobId = job.getId();
+        try {
+            executor.execute(() -> run(jobId, request));
+        } catch (RejectedExecutionException e) {
+            exportJobRepository.delete(job);
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        }
+
+        log.info("Export job submitted: id={}, adminId={}, type={}, format={}",
+                jobId, adminId, request.getType(), request.getFormat());
+        return toResponse(job);
+    }
+
+    @Override
+    public ExportJobResponse getJob(Long id) {
+        ExportJob job = exportJobRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(ResultCode.EXPORT_JOB_NOT_FOUND));
+        return toResponse(job);
+    }
+
+    @Override
+    public Page<ExportJobResponse> getJobs(Long adminId, Integer page, Integer size) {
+        return exportJobRepository.findByAdminId(adminId,
+                        PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "id")))
+                .map(this::toResponse);
+    }
+
+    @Override
+    public ExportJob getDownloadableJob(Long id) {
+        ExportJob job = exportJobRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(ResultCode.EXPORT_JOB_NOT_FOUND));
+        if (job.getStatus() != ExportJobStatus.COMPLETED || job.getFilePath() == null
+                || !Files.isRegularFile(Paths.get(job.getFilePath()))) {
+            throw new BusinessException(ResultCode.EXPORT_FILE_NOT_READY);
+        }
+        return job;
+    }
+
+    /**
+     * 删除过期文件
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 60000)
+    public void cleanup() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ExportJob job : exportJobRepository.findByStatusAndExpireTimeBefore(ExportJobStatus.COMPLETED, now)) {
+            deleteQuietly(job.getFilePath());
+            job.setStatus(ExportJobStatus.EXPIRED);
+            exportJobRepository.save(job);
+            log.info("Export job expired: id={}", job.getId());
+        }
+    }
+
+    /**
+     * 刷新本节点未结束任务的心跳，并将心跳过期的任务标记为失败；启动时立即执行一次
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MILLIS, initialDelay = HEARTBEAT_INTERVAL_MILLIS)
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            exportJobRepository.heartbeat(nodeId, UNFINISHED_STATUSES, now);
+            int abandoned = exportJobRepository.failStale(UNFINISHED_STATUSES, ExportJobStatus.FAILED,
+                    "导出任务执行中断", now.minus(HEARTBEAT_TIMEOUT), now);
+            if (abandoned > 0) {
+                log.warn("Export jobs abandoned by stopped nodes marked failed: count={}", abandoned);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh export job heartbeats: nodeId={}", nodeId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run(Long jobId, ExportJobCreateRequest request) {
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(ExportJobStatus.RUNNING);
+        job.setStartedTime(LocalDateTime.now());
+        job.setHeartbeatTime(job.getStartedTime());
+        job = exportJobRepository.save(job);
+
+        String fileName = job.getType().getFilePrefix() + "_" + LocalDate.now() + "_" + jobId
+                + "." + job.getFormat().getExtension();
+        Path target = directory.resolve(fileName);
+        Path temp = directory.resolve(fileName + ".part");
+        try {
+            Files.createDirectories(directory);
+            long rowCount;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024);
+                 TabularWriter writer = TabularWriter.create(job.getFormat(), out)) {
+                running.put(jobId, writer);
+                export(request, writer);
+                writer.finish();
+                rowCount = writer.getRowCount();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            LocalDateTime finishedTime = LocalDateTime.now();
+            job.setStatus(ExportJobStatus.COMPLETED);
+            job.setRowCount(rowCount);
+            job.setFileName(fileName);
+            job.setFilePath(target.toString());
+            job.setFileSize(Files.size(target));
+            job.setFinishedTime(finishedTime);
+            job.setExpireTime(finishedTime.plus(ttl));
+            exportJobRepository.save(job);
+            log.info("Export job completed: id={}, rows={}, size={}", jobId, rowCount, job.getFileSize());
+        } catch (Exception e) {
+            deleteQuietly(temp.toString());
+            job.setStatus(ExportJobStatus.FAILED);
+            job.setErrorMessage(truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+            job.setFinishedTime(LocalDateTime.now());
+            exportJobRepository.save(job);
+            log.error("Export job failed: id={}", jobId, e);
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    private void export(ExportJobCreateRequest request, TabularWriter writer) throws IOException {
+        switch (request.getType()) {
+            case USERS -> userManagementService.exportUsers(request.getUserStatus(), request.getIsActive(), writer);
+            case CHARGING_PILES -> chargingPileAdminService.exportChargingPiles(
+                    request.getPileType(), request.getPileStatus(), writer);
+            case CHARGING_RECORDS -> chargingRecordService.exportChargingRecords(request.getUserId(),
+                    request.getChargingPileId(), request.getRecordStatus(),
+                    request.getStartDate(), request.getEndDate(), writer);
+            case STATISTICS -> statisticsAdminService.exportStatistics(
+                    request.getRangeType(), request.getStartDate(), request.getEndDate(), writer);
+        }
+    }
+
+    private ExportJobResponse toResponse(ExportJob job) {
+        TabularWriter writer = running.get(job.getId());
+        return ExportJobResponse.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .typeDesc(job.getType().getDescription())
+                .format(job.getFormat())
+                .status(job.getStatus())
+                .statusDesc(job.getStatus().getDescription())
+                .rowCount(writer != null ? writer.getRowCount() : job.getRowCount())
+                .fileName(job.getFileName())
+                .fileSize(job.getFileSize())
+                .errorMessage(job.getErrorMessage())
+                .createdTime(job.getCreatedTime())
+                .startedTime(job.getStartedTime())
+                .finishedTime(job.getFinishedTime())
+                .expireTime(job.getExpireTime())
+                .build();
+    }
+
+    private String toJson(ExportJobCreateRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST);
+        }
+    }
+
+    private void deleteQuietly(String path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            log.warn("Failed to delete export file: path={}", path, e);
+        }
+    }
+
+    private String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
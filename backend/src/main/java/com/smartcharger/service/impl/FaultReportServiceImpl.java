@@ -14,7 +14,9 @@ import com.smartcharger.entity.enums.FaultReportStatus;
 import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.repository.FaultReportRepository;
 import com.smartcharger.repository.UserRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
 import com.smartcharger.service.FaultReportService;
+import com.smartcharger.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -41,6 +43,8 @@ public class FaultReportServiceImpl implements FaultReportService {
     private final FaultReportRepository faultReportRepository;
     private final ChargingPileRepository chargingPileRepository;
     private final UserRepository userRepository;
+    private final ChargingPileStateMachine chargingPileStateMachine;
+    private final UserStatsService userStatsService;
 
     @Override
     @Transactional
@@ -57,10 +61,10 @@ public class FaultReportServiceImpl implements FaultReportService {
         faultReport.setStatus(FaultReportStatus.PENDING);
 
         faultReportRepository.save(faultReport);
+        userStatsService.recordFaultReports(userId, 1);
 
         // 更新充电桩状态为"故障"
-        chargingPile.setStatus(ChargingPileStatus.FAULT);
-        chargingPileRepository.save(chargingPile);
+        chargingPileStateMachine.transition(chargingPile, ChargingPileStatus.FAULT);
 
         log.info("提交故障报修成功: userId={}, chargingPileId={}, faultReportId={}",
                 userId, request.getChargingPileId(), faultReport.getId());
@@ -111,6 +115,7 @@ public class FaultReportServiceImpl implements FaultReportService {
 
         // 删除报修记录
         faultReportRepository.delete(faultReport);
+        userStatsService.recordFaultReports(userId, -1);
 
         // 检查该充电桩是否还有其他待处理的故障报修
         Integer pendingCount = faultReportRepository.countPendingOrProcessingByChargingPileId(
@@ -121,8 +126,7 @@ public class FaultReportServiceImpl implements FaultReportService {
             ChargingPile chargingPile = chargingPileRepository.findById(faultReport.getChargingPileId())
                     .orElse(null);
             if (chargingPile != null && chargingPile.getStatus() == ChargingPileStatus.FAULT) {
-                chargingPile.setStatus(ChargingPileStatus.IDLE);
-                chargingPileRepository.save(chargingPile);
+                chargingPileStateMachine.compareAndSet(chargingPile, ChargingPileStatus.IDLE);
             }
         }
 
@@ -166,8 +170,7 @@ public class FaultReportServiceImpl implements FaultReportService {
                 ChargingPile chargingPile = chargingPileRepository.findById(faultReport.getChargingPileId())
                         .orElse(null);
                 if (chargingPile != null && chargingPile.getStatus() == ChargingPileStatus.FAULT) {
-                    chargingPile.setStatus(ChargingPileStatus.IDLE);
-                    chargingPileRepository.save(chargingPile);
+                    chargingPileStateMachine.compareAndSet(chargingPile, ChargingPileStatus.IDLE);
                 }
             }
         }
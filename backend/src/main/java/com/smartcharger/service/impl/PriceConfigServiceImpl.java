@@ -1,5 +1,6 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.cache.TariffTable;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.PriceConfigCreateRequest;
@@ -33,6 +34,7 @@ import java.util.List;
 public class PriceConfigServiceImpl implements PriceConfigService {
 
     private final PriceConfigRepository priceConfigRepository;
+    private final TariffTable tariffTable;
 
     @Override
     @Transactional
@@ -67,6 +69,7 @@ public class PriceConfigServiceImpl implements PriceConfigService {
         priceConfig.setIsActive(request.getIsActive());
 
         priceConfig = priceConfigRepository.save(priceConfig);
+        tariffTable.onConfigChanged();
         log.info("创建费用配置成功: id={}, type={}", priceConfig.getId(), priceConfig.getChargingPileType());
 
         return convertToResponse(priceConfig);
@@ -103,6 +106,7 @@ public class PriceConfigServiceImpl implements PriceConfigService {
         }
 
         priceConfig = priceConfigRepository.save(priceConfig);
+        tariffTable.onConfigChanged();
         log.info("更新费用配置成功: id={}", id);
 
         return convertToResponse(priceConfig);
@@ -117,6 +121,7 @@ public class PriceConfigServiceImpl implements PriceConfigService {
         }
 
         priceConfigRepository.deleteById(id);
+        tariffTable.onConfigChanged();
         log.info("删除费用配置成功: id={}", id);
     }
 
@@ -151,15 +156,14 @@ public class PriceConfigServiceImpl implements PriceConfigService {
 
     @Override
     public PriceConfigResponse getCurrentPriceConfig(String chargingPileType) {
-        LocalDateTime now = LocalDateTime.now();
-        List<PriceConfig> configs = priceConfigRepository.findCurrentActivePriceConfig(chargingPileType, now);
+        // 从本地电价表快照查询，不访问数据库
+        TariffTable.Tariff tariff = tariffTable.find(chargingPileType, LocalDateTime.now());
 
-        if (configs.isEmpty()) {
+        if (tariff == null) {
             throw new BusinessException(ResultCode.NO_ACTIVE_PRICE_CONFIG);
         }
 
-        // 返回最新创建的一个
-        return convertToResponse(configs.get(0));
+        return convertToResponse(tariff);
     }
 
     @Override
@@ -229,4 +233,21 @@ public class PriceConfigServiceImpl implements PriceConfigService {
                 .updatedTime(priceConfig.getUpdatedTime())
                 .build();
     }
+
+    /**
+     * 电价快照转换为响应DTO
+     */
+    private PriceConfigResponse convertToResponse(TariffTable.Tariff tariff) {
+        return PriceConfigResponse.builder()
+                .id(tariff.id())
+                .chargingPileType(tariff.chargingPileType())
+                .pricePerKwh(tariff.pricePerKwh())
+                .serviceFee(tariff.serviceFee())
+                .startTime(tariff.startTime())
+                .endTime(tariff.endTime())
+                .isActive(1)
+                .createdTime(tariff.createdTime())
+                .updatedTime(tariff.updatedTime())
+                .build();
+    }
 }
@@ -4,6 +4,7 @@ import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ReservationCreateRequest;
 import com.smartcharger.dto.response.AvailabilityCheckResponse;
+import com.smartcharger.dto.response.CursorPageResponse;
 import com.smartcharger.dto.response.ReservationResponse;
 import com.smartcharger.entity.ChargingPile;
 import com.smartcharger.entity.Reservation;
@@ -14,6 +15,8 @@ import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.repository.ReservationRepository;
 import com.smartcharger.repository.UserRepository;
 import com.smartcharger.service.ReservationService;
+import com.smartcharger.service.UserStatsService;
+import com.smartcharger.util.KeysetCursor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
@@ -21,6 +24,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -46,15 +50,18 @@ public class ReservationServiceImpl implements ReservationService {
     private final ChargingPileRepository chargingPileRepository;
     private final UserRepository userRepository;
     private final RedissonClient redissonClient;
+    private final UserStatsService userStatsService;
 
     public ReservationServiceImpl(ReservationRepository reservationRepository,
                                   ChargingPileRepository chargingPileRepository,
                                   UserRepository userRepository,
-                                  RedissonClient redissonClient) {
+                                  RedissonClient redissonClient,
+                                  UserStatsService userStatsService) {
         this.reservationRepository = reservationRepository;
         this.chargingPileRepository = chargingPileRepository;
         this.userRepository = userRepository;
         this.redissonClient = redissonClient;
+        this.userStatsService = userStatsService;
     }
 
     @Override
@@ -115,6 +122,7 @@ public class ReservationServiceImpl implements ReservationService {
                 reservation.setEndTime(endTime);
                 reservation.setStatus(ReservationStatus.PENDING);
                 Reservation savedReservation = reservationRepository.save(reservation);
+                userStatsService.recordReservationCreated(userId);
 
                 log.info("Reservation created: reservationId={}, chargingPileId={}",
                         savedReservation.getId(), request.getChargingPileId());
@@ -170,6 +178,41 @@ public class ReservationServiceImpl implements ReservationService {
         return new PageImpl<>(responses, pageable, reservationPage.getTotalElements());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ReservationResponse> getAdminReservationsByCursor(Long userId, Long chargingPileId,
+                                                                              ReservationStatus status,
+                                                                              LocalDate startDate, LocalDate endDate,
+                                                                              String cursor, Integer size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+
+        Slice<Reservation> reservationSlice = reservationRepository.findAdminSlice(
+                userId, chargingPileId, status, startDateTime, endDateTime,
+                after != null ? after.time() : null, after != null ? after.id() : null,
+                PageRequest.of(0, size));
+
+        List<Reservation> reservations = reservationSlice.getContent();
+        Map<Long, ChargingPile> pileMap = batchFetchPiles(reservations);
+        Map<Long, User> userMap = batchFetchUsers(reservations);
+
+        List<ReservationResponse> responses = reservations.stream()
+                .map(reservation -> buildReservationResponse(
+                        reservation,
+                        pileMap.get(reservation.getChargingPileId()),
+                        userMap.get(reservation.getUserId())))
+                .toList();
+
+        Reservation last = reservations.isEmpty() ? null : reservations.get(reservations.size() - 1);
+        return CursorPageResponse.<ReservationResponse>builder()
+                .records(responses)
+                .size(size)
+                .hasNext(reservationSlice.hasNext())
+                .nextCursor(reservationSlice.hasNext() ? new KeysetCursor(last.getStartTime(), last.getId()).encode() : null)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ReservationResponse getReservationById(Long userId, Long id) {
@@ -345,7 +388,7 @@ public class ReservationServiceImpl implements ReservationService {
 
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
-
+        userStatsService.recordReservationCancelled(reservation.getUserId());
     }
 
     private Map<Long, ChargingPile> batchFetchPiles(List<Reservation> reservations) {
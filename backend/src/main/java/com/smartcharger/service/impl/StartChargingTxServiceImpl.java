@@ -15,7 +15,13 @@ import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.repository.ChargingRecordRepository;
 import com.smartcharger.repository.ReservationRepository;
 import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.service.ChargingScheduleService;
 import com.smartcharger.service.StartChargingTxService;
+import com.smartcharger.service.UserActivityService;
+import com.smartcharger.service.UserStatsService;
+import com.smartcharger.util.TransactionUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,10 +42,19 @@ public class StartChargingTxServiceImpl implements StartChargingTxService {
     private final ChargingPileRepository chargingPileRepository;
     private final VehicleRepository vehicleRepository;
     private final ReservationRepository reservationRepository;
+    private final ChargingPileStateMachine chargingPileStateMachine;
+    private final ChargingScheduleService chargingScheduleService;
+    private final UserActivityService userActivityService;
+    private final UserStatsService userStatsService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     @Transactional
     public ChargingRecordResponse startChargingInTx(Long userId, ChargingRecordStartRequest request) {
+        TransactionUtil.recordPhases(System.nanoTime(),
+                meterRegistry.timer("charging.start.tx", "phase", "work"),
+                meterRegistry.timer("charging.start.tx", "phase", "commit"));
+
         Optional<ChargingRecord> existingRecord = chargingRecordRepository.findByUserIdAndStatus(
                 userId, ChargingRecordStatus.CHARGING);
         if (existingRecord.isPresent()) {
@@ -90,6 +105,8 @@ public class StartChargingTxServiceImpl implements StartChargingTxService {
         applyChargingTarget(chargingRecord, chargingPile, request, now);
 
         chargingRecord = chargingRecordRepository.save(chargingRecord);
+        chargingScheduleService.scheduleAutoComplete(chargingRecord.getId(), chargingRecord.getTargetEndTime());
+        chargingScheduleService.schedulePreEndReminder(chargingRecord.getId(), chargingRecord.getTargetEndTime());
 
         if (userReservation != null) {
             userReservation.setStatus(ReservationStatus.COMPLETED);
@@ -98,8 +115,12 @@ public class StartChargingTxServiceImpl implements StartChargingTxService {
                     userId, userReservation.getId());
         }
 
-        chargingPile.setStatus(ChargingPileStatus.CHARGING);
-        chargingPileRepository.save(chargingPile);
+        // 条件更新占用充电桩，并发开始充电时只有一个请求成功，其余请求的事务回滚
+        if (!chargingPileStateMachine.compareAndSet(chargingPile, ChargingPileStatus.CHARGING)) {
+            throw new BusinessException(ResultCode.CHARGING_PILE_NOT_IDLE);
+        }
+        userActivityService.recordChargingStart(userId, now);
+        userStatsService.recordChargingStarted(userId, now);
 
         log.info("Start charging succeeded: userId={}, recordId={}, pileId={}",
                 userId, chargingRecord.getId(), request.getChargingPileId());
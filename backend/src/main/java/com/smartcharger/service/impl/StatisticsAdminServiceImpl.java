@@ -1,5 +1,6 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.cache.ChargingPileStatusCache;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.response.ChargingPileUsageResponse;
@@ -8,15 +9,17 @@ import com.smartcharger.dto.response.StatisticsOverviewResponse;
 import com.smartcharger.dto.response.UserActivityResponse;
 import com.smartcharger.entity.enums.ChargingPileStatus;
 import com.smartcharger.repository.ChargingPileRepository;
-import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.ChargingStatsDailyRepository;
 import com.smartcharger.repository.UserRepository;
 import com.smartcharger.service.StatisticsAdminService;
+import com.smartcharger.service.UserActivityService;
 import com.smartcharger.util.ExcelExportUtil;
+import com.smartcharger.util.TabularWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.DayOfWeek;
@@ -26,11 +29,17 @@ import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+/**
+ * 数据统计服务实现类
+ * 充电桩使用、收入和活跃用户统计读取预汇总表（按日），查询成本与日期范围天数成正比，与充电记录数量无关；
+ * 活跃用户为开始过充电的用户，由每日活跃用户草图合并估计。
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -39,8 +48,10 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
     private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
 
     private final ChargingPileRepository chargingPileRepository;
-    private final ChargingRecordRepository chargingRecordRepository;
+    private final ChargingStatsDailyRepository chargingStatsDailyRepository;
     private final UserRepository userRepository;
+    private final ChargingPileStatusCache chargingPileStatusCache;
+    private final UserActivityService userActivityService;
 
     @Override
     public StatisticsOverviewResponse getOverview(String rangeType, LocalDate startDate, LocalDate endDate) {
@@ -70,14 +81,16 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
     }
 
     @Override
-    public Workbook exportStatistics(String rangeType, LocalDate startDate, LocalDate endDate) {
+    public void exportStatistics(String rangeType, LocalDate startDate, LocalDate endDate,
+                                 TabularWriter writer) throws IOException {
         DateRange dateRange = resolveDateRange(rangeType, startDate, endDate);
         ChargingPileUsageResponse chargingPileUsage = buildChargingPileUsage(dateRange);
         RevenueStatisticsResponse revenueStatistics = buildRevenueStatistics(dateRange);
         UserActivityResponse userActivity = buildUserActivity(dateRange);
         StatisticsOverviewResponse overview = buildOverview(dateRange, chargingPileUsage, revenueStatistics, userActivity);
 
-        return ExcelExportUtil.buildStatisticsWorkbook(
+        ExcelExportUtil.writeStatistics(
+                writer,
                 dateRange.getRangeType(),
                 dateRange.getStartTime(),
                 dateRange.getEndTime(),
@@ -108,9 +121,10 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
     }
 
     private ChargingPileUsageResponse buildChargingPileUsage(DateRange dateRange) {
-        long totalPileCount = chargingPileRepository.count();
-        long usedPileCount = defaultLong(chargingRecordRepository.countUsedChargingPilesByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive()));
+        Map<ChargingPileStatus, Integer> statusCounts = countPilesByStatus();
+        long totalPileCount = statusCounts.values().stream().mapToLong(Integer::longValue).sum();
+        long usedPileCount = defaultLong(chargingStatsDailyRepository.countUsedChargingPiles(
+                dateRange.getStartDate(), dateRange.getEndDateExclusive()));
         BigDecimal usageRate = calculateRate(usedPileCount, totalPileCount);
 
         return ChargingPileUsageResponse.builder()
@@ -120,35 +134,50 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
                 .totalChargingPileCount(safeInt(totalPileCount))
                 .usedChargingPileCount(safeInt(usedPileCount))
                 .chargingPileUsageRate(usageRate)
-                .idleCount(safeInt(chargingPileRepository.countByStatus(ChargingPileStatus.IDLE)))
-                .chargingCount(safeInt(chargingPileRepository.countByStatus(ChargingPileStatus.CHARGING)))
-                .faultCount(safeInt(chargingPileRepository.countByStatus(ChargingPileStatus.FAULT)))
+                .idleCount(statusCounts.get(ChargingPileStatus.IDLE))
+                .chargingCount(statusCounts.get(ChargingPileStatus.CHARGING))
+                .faultCount(statusCounts.get(ChargingPileStatus.FAULT))
                 .reservedCount(0)
-                .overtimeCount(safeInt(chargingPileRepository.countByStatus(ChargingPileStatus.OVERTIME)))
+                .overtimeCount(statusCounts.get(ChargingPileStatus.OVERTIME))
                 .build();
     }
 
-    private RevenueStatisticsResponse buildRevenueStatistics(DateRange dateRange) {
-        BigDecimal totalRevenue = defaultBigDecimal(chargingRecordRepository.sumSettledFeeByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive()));
-        long totalChargingCount = defaultLong(chargingRecordRepository.countSettledRecordsByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive()));
-        BigDecimal avgDailyRevenue = calculateAverageDailyRevenue(totalRevenue, dateRange.getTotalDays());
+    /**
+     * 各状态充电桩数量，状态缓存未就绪时回退到数据库查询
+     */
+    private Map<ChargingPileStatus, Integer> countPilesByStatus() {
+        if (chargingPileStatusCache.isReady()) {
+            return chargingPileStatusCache.counts();
+        }
+        Map<ChargingPileStatus, Integer> counts = new EnumMap<>(ChargingPileStatus.class);
+        for (ChargingPileStatus status : ChargingPileStatus.values()) {
+            counts.put(status, safeInt(chargingPileRepository.countByStatus(status)));
+        }
+        return counts;
+    }
 
-        List<Object[]> dailyRows = chargingRecordRepository.aggregateDailySettledRevenueByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive());
+    private RevenueStatisticsResponse buildRevenueStatistics(DateRange dateRange) {
+        List<Object[]> dailyRows = chargingStatsDailyRepository.aggregateDailyRevenue(
+                dateRange.getStartDate(), dateRange.getEndDateExclusive());
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalChargingCount = 0L;
         Map<LocalDate, RevenueStatisticsResponse.DailyRevenueRecord> dailyMap = new HashMap<>();
         for (Object[] row : dailyRows) {
             LocalDate date = toLocalDate(row[0]);
             if (date == null) {
                 continue;
             }
+            BigDecimal revenue = toBigDecimal(row[1]);
+            long chargingCount = toLong(row[2]);
+            totalRevenue = totalRevenue.add(revenue);
+            totalChargingCount += chargingCount;
             dailyMap.put(date, RevenueStatisticsResponse.DailyRevenueRecord.builder()
                     .date(date.toString())
-                    .revenue(toBigDecimal(row[1]))
-                    .chargingCount(safeInt(toLong(row[2])))
+                    .revenue(revenue)
+                    .chargingCount(safeInt(chargingCount))
                     .build());
         }
+        BigDecimal avgDailyRevenue = calculateAverageDailyRevenue(totalRevenue, dateRange.getTotalDays());
 
         List<RevenueStatisticsResponse.DailyRevenueRecord> dailyRecords = new ArrayList<>();
         for (LocalDate date : buildDateAxis(dateRange)) {
@@ -175,21 +204,13 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
     }
 
     private UserActivityResponse buildUserActivity(DateRange dateRange) {
-        long activeUserCount = defaultLong(chargingRecordRepository.countDistinctActiveUsersByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive()));
         long newUserCount = defaultLong(userRepository.countByCreatedTimeGreaterThanEqualAndCreatedTimeLessThan(
                 dateRange.getStartTime(), dateRange.getEndExclusive()));
 
-        List<Object[]> dailyActiveRows = chargingRecordRepository.countDailyDistinctActiveUsersByStartTimeRange(
-                dateRange.getStartTime(), dateRange.getEndExclusive());
-        Map<LocalDate, Long> dailyActiveMap = new HashMap<>();
-        for (Object[] row : dailyActiveRows) {
-            LocalDate date = toLocalDate(row[0]);
-            if (date == null) {
-                continue;
-            }
-            dailyActiveMap.put(date, toLong(row[1]));
-        }
+        long activeUserCount = userActivityService.countActiveUsers(
+                dateRange.getStartDate(), dateRange.getEndDateExclusive());
+        Map<LocalDate, Long> dailyActiveMap = userActivityService.countDailyActiveUsers(
+                dateRange.getStartDate(), dateRange.getEndDateExclusive());
 
         List<Object[]> dailyNewRows = userRepository.countDailyNewUsersByCreatedTimeRange(
                 dateRange.getStartTime(), dateRange.getEndExclusive());
@@ -290,10 +311,6 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
         return totalRevenue.divide(BigDecimal.valueOf(totalDays), 2, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal defaultBigDecimal(BigDecimal value) {
-        return value == null ? BigDecimal.ZERO : value;
-    }
-
     private long defaultLong(Long value) {
         return value == null ? 0L : value;
     }
@@ -364,6 +381,14 @@ public class StatisticsAdminServiceImpl implements StatisticsAdminService {
             return endExclusive;
         }
 
+        private LocalDate getStartDate() {
+            return startTime.toLocalDate();
+        }
+
+        private LocalDate getEndDateExclusive() {
+            return endExclusive.toLocalDate();
+        }
+
         private LocalDateTime getEndTime() {
             return endExclusive.minusSeconds(1);
         }
@@ -0,0 +1,121 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.ChargingRecord;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.ChargingStatsDailyRepository;
+import com.smartcharger.repository.ChargingStatsHourlyRepository;
+import com.smartcharger.service.StatisticsRollupService;
+import com.smartcharger.service.UserActivityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计汇总服务实现类
+ * 结束充电时在同一事务内以 INSERT ... ON DUPLICATE KEY UPDATE 累加汇总行，汇总与充电记录同时提交。
+ * 按类型和全站的数字由日汇总行（带充电桩类型）求和得到，结束充电只锁定所在充电桩的汇总行。
+ * 重新汇总按天删除后从充电记录 INSERT ... SELECT，用于历史回填和定期校正；
+ * 当天仍有充电在结束并累加，重建会与其互相等待锁，因此只重建到前一天。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatisticsRollupServiceImpl implements StatisticsRollupService {
+
+    static final String BACKFILL_LOCK_KEY = "statistics:rollup:backfill";
+
+    private final ChargingStatsDailyRepository chargingStatsDailyRepository;
+    private final ChargingStatsHourlyRepository chargingStatsHourlyRepository;
+    private final ChargingRecordRepository chargingRecordRepository;
+    private final UserActivityService userActivityService;
+    private final TransactionTemplate transactionTemplate;
+    private final RedissonClient redissonClient;
+
+    @Override
+    @Transactional
+    public void recordSettled(ChargingRecord chargingRecord, ChargingPile chargingPile) {
+        LocalDate statDate = chargingRecord.getStartTime().toLocalDate();
+        LocalDateTime statHour = chargingRecord.getStartTime().truncatedTo(ChronoUnit.HOURS);
+        String pileType = chargingPile.getType().name();
+        BigDecimal electricQuantity = defaultBigDecimal(chargingRecord.getElectricQuantity());
+        BigDecimal revenue = defaultBigDecimal(chargingRecord.getFee());
+
+        chargingStatsDailyRepository.accumulate(statDate, chargingPile.getId(), pileType, electricQuantity, revenue);
+        chargingStatsHourlyRepository.accumulate(statHour, chargingPile.getId(), pileType, electricQuantity, revenue);
+    }
+
+    @Override
+    @Transactional
+    public void rebuildDay(LocalDate date) {
+        LocalDateTime startTime = date.atStartOfDay();
+        LocalDateTime endTime = date.plusDays(1).atStartOfDay();
+
+        chargingStatsDailyRepository.deleteByStatDate(date);
+        chargingStatsHourlyRepository.deleteByStatHourRange(startTime, endTime);
+        userActivityService.rebuildDay(date);
+        chargingStatsDailyRepository.rebuild(startTime, endTime);
+        chargingStatsHourlyRepository.rebuild(startTime, endTime);
+    }
+
+    @Override
+    public int backfill(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new BusinessException(ResultCode.INVALID_TIME_RANGE);
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate lastDate = endDate.isAfter(yesterday) ? yesterday : endDate;
+        if (lastDate.isBefore(startDate)) {
+            return 0;
+        }
+
+        RLock lock = redissonClient.getLock(BACKFILL_LOCK_KEY);
+        if (!lock.tryLock()) {
+            throw new BusinessException(ResultCode.SYSTEM_BUSY);
+        }
+        try {
+            long startNanos = System.nanoTime();
+            int days = 0;
+            for (LocalDate date = startDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                LocalDate day = date;
+                transactionTemplate.executeWithoutResult(status -> rebuildDay(day));
+                days++;
+            }
+            log.info("Statistics rollup backfilled: from={}, to={}, days={}, elapsed={}ms",
+                    startDate, lastDate, days, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return days;
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void backfillIfEmpty() {
+        if (chargingStatsDailyRepository.count() > 0 && userActivityService.hasSketches()) {
+            return;
+        }
+        LocalDateTime earliest = chargingRecordRepository.findEarliestSettledStartTime();
+        if (earliest == null) {
+            return;
+        }
+        backfill(earliest.toLocalDate(), LocalDate.now());
+    }
+
+    private BigDecimal defaultBigDecimal(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
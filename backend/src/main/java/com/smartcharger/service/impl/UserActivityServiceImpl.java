@@ -0,0 +1,131 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.UserActivityDailyRepository;
+import com.smartcharger.repository.UserRepository;
+import com.smartcharger.service.UserActivityService;
+import com.smartcharger.util.HyperLogLog;
+import com.smartcharger.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户活跃度服务实现类
+ * 开始充电时只在本节点内存草图中置位，不在开始充电的事务里争用当日的汇总行；
+ * 内存草图每分钟在行锁下合并进数据库，草图合并取寄存器最大值，多节点重复合并不会重复计数。
+ * 查询时合并数据库中的草图与本节点尚未写入的草图；节点宕机丢失的未写入部分由统计汇总校正任务按充电记录重建。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserActivityServiceImpl implements UserActivityService {
+
+    private final UserActivityDailyRepository userActivityDailyRepository;
+    private final UserRepository userRepository;
+    private final ChargingRecordRepository chargingRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<LocalDate, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordChargingStart(Long userId, LocalDateTime startTime) {
+        userRepository.touchLastChargingTime(userId, startTime);
+        LocalDate statDate = startTime.toLocalDate();
+        TransactionUtil.afterCommit(() -> pending.compute(statDate, (date, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.add(userId);
+            return target;
+        }));
+    }
+
+    @Override
+    public long countActiveUsers(LocalDate startDate, LocalDate endDate) {
+        HyperLogLog merged = new HyperLogLog();
+        loadSketches(startDate, endDate).values().forEach(merged::merge);
+        return merged.estimate();
+    }
+
+    @Override
+    public Map<LocalDate, Long> countDailyActiveUsers(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Long> counts = new HashMap<>();
+        loadSketches(startDate, endDate).forEach((date, sketch) -> counts.put(date, sketch.estimate()));
+        return counts;
+    }
+
+    @Override
+    public void rebuildDay(LocalDate date) {
+        HyperLogLog sketch = new HyperLogLog();
+        chargingRecordRepository.findDistinctUserIdsByStartTimeRange(
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay()).forEach(sketch::add);
+        if (sketch.isEmpty()) {
+            return;
+        }
+        userActivityDailyRepository.insertIfAbsent(date);
+        userActivityDailyRepository.findByStatDate(date)
+                .ifPresent(row -> row.setUserHll(sketch.toBytes()));
+    }
+
+    @Override
+    public boolean hasSketches() {
+        return userActivityDailyRepository.count() > 0;
+    }
+
+    /**
+     * 将本节点的内存草图合并进数据库，失败的日期放回待写入
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    @PreDestroy
+    public void flush() {
+        for (LocalDate date : List.copyOf(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(date);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userActivityDailyRepository.insertIfAbsent(date);
+                    userActivityDailyRepository.findByStatDate(date).ifPresent(row -> row.setUserHll(
+                            HyperLogLog.fromBytes(row.getUserHll()).merge(sketch).toBytes()));
+                });
+            } catch (Exception e) {
+                pending.merge(date, sketch, HyperLogLog::merge);
+                log.warn("Failed to flush user activity sketch: date={}", date, e);
+            }
+        }
+    }
+
+    private Map<LocalDate, HyperLogLog> loadSketches(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, HyperLogLog> sketches = new HashMap<>();
+        for (Object[] row : userActivityDailyRepository.findSketches(startDate, endDate)) {
+            if (row[1] != null) {
+                sketches.put((LocalDate) row[0], HyperLogLog.fromBytes((byte[]) row[1]));
+            }
+        }
+        List<LocalDate> pendingDates = new ArrayList<>();
+        for (LocalDate date : pending.keySet()) {
+            if (!date.isBefore(startDate) && date.isBefore(endDate)) {
+                pendingDates.add(date);
+            }
+        }
+        // 在映射的桶锁内读取，避免与并发写入的草图交错
+        for (LocalDate date : pendingDates) {
+            pending.computeIfPresent(date, (key, sketch) -> {
+                sketches.computeIfAbsent(key, ignored -> new HyperLogLog()).merge(sketch);
+                return sketch;
+            });
+        }
+        return sketches;
+    }
+}
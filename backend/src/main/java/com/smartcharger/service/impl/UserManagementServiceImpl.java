@@ -2,6 +2,7 @@ package com.smartcharger.service.impl;
 
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.common.security.JwtTokenProvider;
 import com.smartcharger.dto.request.BatchUserStatusUpdateRequest;
 import com.smartcharger.dto.request.PasswordResetRequest;
 import com.smartcharger.dto.request.UserStatusUpdateRequest;
@@ -12,10 +13,10 @@ import com.smartcharger.entity.enums.ReservationStatus;
 import com.smartcharger.entity.enums.WarningNoticeType;
 import com.smartcharger.repository.*;
 import com.smartcharger.service.UserManagementService;
+import com.smartcharger.service.UserStatisticsService;
+import com.smartcharger.util.TabularWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +24,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.SecureRandom;
 import java.time.LocalDate;
@@ -31,6 +33,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -41,14 +44,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserManagementServiceImpl implements UserManagementService {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String[] EXPORT_HEADERS = {"用户ID", "用户名", "手机号", "昵称", "真实姓名", "状态",
+            "车辆数量", "充电次数", "总消费", "超时次数", "注册时间"};
+    private static final int[] EXPORT_COLUMN_WIDTHS = {10, 18, 14, 16, 12, 8, 10, 10, 12, 10, 22};
+
     private final UserRepository userRepository;
     private final VehicleRepository vehicleRepository;
     private final ChargingRecordRepository chargingRecordRepository;
     private final ReservationRepository reservationRepository;
     private final WarningNoticeRepository warningNoticeRepository;
-    private final FaultReportRepository faultReportRepository;
     private final ChargingPileRepository chargingPileRepository;
     private final PasswordEncoder passwordEncoder;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserStatisticsService userStatisticsService;
 
     @Override
     public Page<UserAdminResponse> getAdminUserList(Integer status, String keyword,
@@ -72,7 +81,9 @@ public class UserManagementServiceImpl implements UserManagementService {
                     status, keyword, startDateTime, endDateTime, pageable);
         }
 
-        return userPage.map(this::buildUserAdminResponse);
+        Map<Long, UserStatisticsResponse> statistics = userStatisticsService.loadStatistics(
+                userPage.getContent().stream().map(User::getId).toList());
+        return userPage.map(user -> buildUserAdminResponse(user, statistics.get(user.getId())));
     }
 
     @Override
@@ -124,6 +135,11 @@ public class UserManagementServiceImpl implements UserManagementService {
         user.setUpdatedTime(LocalDateTime.now());
         userRepository.save(user);
 
+        // 禁用用户时吊销其全部会话
+        if (request.getStatus() == 0) {
+            jwtTokenProvider.revokeSessions(id);
+        }
+
         log.info("更新用户状态成功，用户ID：{}，新状态：{}，原因：{}", id, request.getStatus(), request.getReason());
 
         return buildUserAdminResponse(user);
@@ -155,6 +171,9 @@ public class UserManagementServiceImpl implements UserManagementService {
         user.setUpdatedTime(LocalDateTime.now());
         userRepository.save(user);
 
+        // 吊销会话，强制重新登录
+        jwtTokenProvider.revokeSessions(id);
+
         log.info("重置用户密码成功，用户ID：{}，用户名：{}", id, user.getUsername());
 
         return PasswordResetResponse.builder()
@@ -239,65 +258,45 @@ public class UserManagementServiceImpl implements UserManagementService {
     }
 
     @Override
-    public Workbook exportUsers(Integer status, Boolean isActive) {
+    public void exportUsers(Integer status, Boolean isActive, TabularWriter writer) throws IOException {
+        // 活跃用户：最近30天内充过电
+        LocalDateTime activeSince = Boolean.TRUE.equals(isActive) ? LocalDateTime.now().minusDays(30) : null;
+        writer.startSheet("用户列表", EXPORT_HEADERS, EXPORT_COLUMN_WIDTHS);
+
+        // 按ID倒序分块读取，每块一次批量加载统计数据，内存占用与用户总数无关
+        Pageable chunk = PageRequest.of(0, EXPORT_CHUNK_SIZE);
+        Long beforeId = null;
         List<User> users;
+        do {
+            users = userRepository.findExportChunk(status, activeSince, beforeId, chunk);
+            if (users.isEmpty()) {
+                break;
+            }
+            Map<Long, UserStatisticsResponse> statisticsMap = userStatisticsService.loadStatistics(
+                    users.stream().map(User::getId).toList());
+            for (User user : users) {
+                writeExportRow(writer, user, statisticsMap.get(user.getId()));
+            }
+            beforeId = users.get(users.size() - 1).getId();
+        } while (users.size() == EXPORT_CHUNK_SIZE);
 
-        if (Boolean.TRUE.equals(isActive)) {
-            // 查询活跃用户
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            users = userRepository.findActiveUsersByStatus(status, thirtyDaysAgo);
-        } else {
-            // 查询所有用户
-            users = userRepository.findByStatus(status);
-        }
-
-        // 创建 Excel 工作簿
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("用户列表");
-
-        // 创建标题行样式
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-
-        // 创建标题行
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"用户ID", "用户名", "手机号", "昵称", "真实姓名", "状态",
-                "车辆数量", "充电次数", "总消费", "超时次数", "注册时间"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // 填充数据
-        int rowNum = 1;
-        for (User user : users) {
-            Row row = sheet.createRow(rowNum++);
-
-            UserStatisticsResponse statistics = buildUserStatistics(user.getId());
-
-            row.createCell(0).setCellValue(user.getId());
-            row.createCell(1).setCellValue(user.getUsername());
-            row.createCell(2).setCellValue(user.getPhone() != null ? user.getPhone() : "");
-            row.createCell(3).setCellValue(user.getNickname() != null ? user.getNickname() : "");
-            row.createCell(4).setCellValue(user.getName() != null ? user.getName() : "");
-            row.createCell(5).setCellValue(user.getStatus() == 1 ? "启用" : "禁用");
-            row.createCell(6).setCellValue(statistics.getVehicleCount());
-            row.createCell(7).setCellValue(statistics.getChargingRecordCount());
-            row.createCell(8).setCellValue(statistics.getTotalSpent() != null ?
-                    statistics.getTotalSpent().doubleValue() : 0.0);
-            row.createCell(9).setCellValue(statistics.getOvertimeCount());
-            row.createCell(10).setCellValue(user.getCreatedTime().toString());
-        }
-
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+        log.info("Export users: status={}, isActive={}, count={}", status, isActive, writer.getRowCount());
+    }
 
-        return workbook;
+    private void writeExportRow(TabularWriter writer, User user, UserStatisticsResponse statistics)
+            throws IOException {
+        writer.writeRow(
+                user.getId(),
+                user.getUsername(),
+                user.getPhone() != null ? user.getPhone() : "",
+                user.getNickname() != null ? user.getNickname() : "",
+                user.getName() != null ? user.getName() : "",
+                user.getStatus() == 1 ? "启用" : "禁用",
+                statistics.getVehicleCount(),
+                statistics.getChargingRecordCount(),
+                statistics.getTotalSpent() != null ? statistics.getTotalSpent() : BigDecimal.ZERO,
+                statistics.getOvertimeCount(),
+                user.getCreatedTime().toString());
     }
 
     @Override
@@ -323,6 +322,9 @@ public class UserManagementServiceImpl implements UserManagementService {
                 user.setStatus(request.getStatus());
                 user.setUpdatedTime(LocalDateTime.now());
                 userRepository.save(user);
+                if (request.getStatus() == 0) {
+                    jwtTokenProvider.revokeSessions(userId);
+                }
 
                 successCount++;
                 log.info("批量更新用户状态成功，用户ID：{}，新状态：{}", userId, request.getStatus());
@@ -348,8 +350,10 @@ public class UserManagementServiceImpl implements UserManagementService {
      * 构建用户管理响应对象
      */
     private UserAdminResponse buildUserAdminResponse(User user) {
-        UserStatisticsResponse statistics = buildUserStatistics(user.getId());
+        return buildUserAdminResponse(user, userStatisticsService.loadStatistics(user.getId()));
+    }
 
+    private UserAdminResponse buildUserAdminResponse(User user, UserStatisticsResponse statistics) {
         return UserAdminResponse.builder()
                 .id(user.getId())
                 .username(user.getUsername())
@@ -365,67 +369,6 @@ public class UserManagementServiceImpl implements UserManagementService {
                 .build();
     }
 
-    /**
-     * 构建用户统计数据
-     */
-    private UserStatisticsResponse buildUserStatistics(Long userId) {
-        // 车辆数量
-        Integer vehicleCount = (int) vehicleRepository.countByUserId(userId);
-
-        // 充电记录数量
-        Integer chargingRecordCount = chargingRecordRepository.countByUserId(userId).intValue();
-
-        // 总充电量
-        BigDecimal totalElectricQuantity = chargingRecordRepository.sumElectricQuantityByUserId(userId);
-        if (totalElectricQuantity == null) {
-            totalElectricQuantity = BigDecimal.ZERO;
-        }
-
-        // 总消费金额
-        BigDecimal totalSpent = chargingRecordRepository.sumFeeByUserId(userId);
-        if (totalSpent == null) {
-            totalSpent = BigDecimal.ZERO;
-        }
-
-        // 平均充电时长
-        Double avgDuration = chargingRecordRepository.avgDurationByUserId(userId);
-        Integer avgChargingDuration = avgDuration != null ? avgDuration.intValue() : 0;
-
-        // 超时占位次数
-        Integer overtimeCount = warningNoticeRepository.countByUserIdAndType(
-                userId, WarningNoticeType.OVERTIME_WARNING).intValue();
-
-        // 预约次数
-        Integer reservationCount = reservationRepository.countByUserId(userId).intValue();
-
-        // 取消预约次数
-        Integer cancelledReservationCount = reservationRepository.countByUserIdAndStatus(
-                userId, ReservationStatus.CANCELLED).intValue();
-
-        // 故障报修次数
-        Integer faultReportCount = faultReportRepository.countByUserId(userId).intValue();
-
-        // 最后登录时间（暂时为空，需要登录日志功能）
-        LocalDateTime lastLoginTime = null;
-
-        // 最后充电时间
-        LocalDateTime lastChargingTime = chargingRecordRepository.findLastChargingTimeByUserId(userId);
-
-        return UserStatisticsResponse.builder()
-                .vehicleCount(vehicleCount)
-                .chargingRecordCount(chargingRecordCount)
-                .totalElectricQuantity(totalElectricQuantity)
-                .totalSpent(totalSpent)
-                .avgChargingDuration(avgChargingDuration)
-                .overtimeCount(overtimeCount)
-                .reservationCount(reservationCount)
-                .cancelledReservationCount(cancelledReservationCount)
-                .faultReportCount(faultReportCount)
-                .lastLoginTime(lastLoginTime)
-                .lastChargingTime(lastChargingTime)
-                .build();
-    }
-
     /**
      * 构建车辆响应对象
      */
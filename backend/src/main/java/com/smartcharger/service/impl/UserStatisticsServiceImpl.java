@@ -0,0 +1,161 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.dto.response.UserStatisticsResponse;
+import com.smartcharger.entity.UserStats;
+import com.smartcharger.entity.enums.ReservationStatus;
+import com.smartcharger.entity.enums.WarningNoticeType;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.FaultReportRepository;
+import com.smartcharger.repository.ReservationRepository;
+import com.smartcharger.repository.UserStatsRepository;
+import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.repository.WarningNoticeRepository;
+import com.smartcharger.service.UserStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 用户统计数据服务实现类（管理端）
+ * 充电、预约、预警和报修统计读取写入时维护的用户统计表（每个用户一行）；
+ * 统计表中尚无数据的用户，以及车辆数量，每类数据以 GROUP BY user_id ... WHERE user_id IN (...) 一次查询整批用户。
+ * 用户数较多时按批拆分IN列表。
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatisticsServiceImpl implements UserStatisticsService {
+
+    static final int BATCH_SIZE = 500;
+
+    private final VehicleRepository vehicleRepository;
+    private final ChargingRecordRepository chargingRecordRepository;
+    private final ReservationRepository reservationRepository;
+    private final WarningNoticeRepository warningNoticeRepository;
+    private final FaultReportRepository faultReportRepository;
+    private final UserStatsRepository userStatsRepository;
+
+    @Override
+    public Map<Long, UserStatisticsResponse> loadStatistics(Collection<Long> userIds) {
+        Map<Long, UserStatisticsResponse> statistics = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            statistics.put(userId, emptyStatistics());
+        }
+
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(userIds));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            loadBatch(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())), statistics);
+        }
+        return statistics;
+    }
+
+    @Override
+    public UserStatisticsResponse loadStatistics(Long userId) {
+        return loadStatistics(Set.of(userId)).get(userId);
+    }
+
+    private void loadBatch(List<Long> userIds, Map<Long, UserStatisticsResponse> statistics) {
+        merge(vehicleRepository.countGroupByUserIdIn(userIds), statistics,
+                (stats, row) -> stats.setVehicleCount(toInt(row[1])));
+
+        Set<Long> missing = new LinkedHashSet<>(userIds);
+        for (UserStats row : userStatsRepository.findByUserIdIn(userIds)) {
+            UserStatisticsResponse stats = statistics.get(row.getUserId());
+            if (stats != null) {
+                applyProjection(stats, row);
+                missing.remove(row.getUserId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            aggregateBatch(List.copyOf(missing), statistics);
+        }
+    }
+
+    private void applyProjection(UserStatisticsResponse stats, UserStats row) {
+        stats.setChargingRecordCount(row.getChargingCount().intValue());
+        stats.setTotalElectricQuantity(row.getTotalElectricQuantity());
+        stats.setTotalSpent(row.getTotalSpent());
+        stats.setAvgChargingDuration(row.getSettledCount() > 0
+                ? (int) (row.getTotalDurationMinutes() / row.getSettledCount())
+                : 0);
+        stats.setLastChargingTime(row.getLastChargingTime());
+        stats.setOvertimeCount(row.getOvertimeCount().intValue());
+        stats.setReservationCount(row.getReservationCount().intValue());
+        stats.setCancelledReservationCount(row.getCancelledReservationCount().intValue());
+        stats.setFaultReportCount(row.getFaultReportCount().intValue());
+    }
+
+    /**
+     * 统计表中尚无数据的用户从业务表分组汇总
+     */
+    private void aggregateBatch(List<Long> userIds, Map<Long, UserStatisticsResponse> statistics) {
+        merge(chargingRecordRepository.aggregateGroupByUserIdIn(userIds), statistics, (stats, row) -> {
+            stats.setChargingRecordCount(toInt(row[1]));
+            stats.setTotalElectricQuantity(toBigDecimal(row[2]));
+            stats.setTotalSpent(toBigDecimal(row[3]));
+            stats.setAvgChargingDuration(row[4] != null ? ((Number) row[4]).intValue() : 0);
+            stats.setLastChargingTime((LocalDateTime) row[5]);
+        });
+
+        merge(warningNoticeRepository.countGroupByUserIdInAndType(userIds, WarningNoticeType.OVERTIME_WARNING),
+                statistics, (stats, row) -> stats.setOvertimeCount(toInt(row[1])));
+
+        merge(reservationRepository.countGroupByUserIdIn(userIds, ReservationStatus.CANCELLED), statistics,
+                (stats, row) -> {
+                    stats.setReservationCount(toInt(row[1]));
+                    stats.setCancelledReservationCount(toInt(row[2]));
+                });
+
+        merge(faultReportRepository.countGroupByUserIdIn(userIds), statistics,
+                (stats, row) -> stats.setFaultReportCount(toInt(row[1])));
+    }
+
+    private void merge(List<Object[]> rows, Map<Long, UserStatisticsResponse> statistics,
+                       BiConsumer<UserStatisticsResponse, Object[]> applier) {
+        for (Object[] row : rows) {
+            UserStatisticsResponse stats = statistics.get(((Number) row[0]).longValue());
+            if (stats != null) {
+                applier.accept(stats, row);
+            }
+        }
+    }
+
+    /**
+     * 没有任何记录的用户各项统计为0；最后登录时间暂无数据来源
+     */
+    private UserStatisticsResponse emptyStatistics() {
+        return UserStatisticsResponse.builder()
+                .vehicleCount(0)
+                .chargingRecordCount(0)
+                .totalElectricQuantity(BigDecimal.ZERO)
+                .totalSpent(BigDecimal.ZERO)
+                .avgChargingDuration(0)
+                .overtimeCount(0)
+                .reservationCount(0)
+                .cancelledReservationCount(0)
+                .faultReportCount(0)
+                .build();
+    }
+
+    private int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,151 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.entity.UserStatsOutbox;
+import com.smartcharger.repository.UserStatsOutboxRepository;
+import com.smartcharger.repository.UserStatsRepository;
+import com.smartcharger.service.UserStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * 用户统计维护服务实现类
+ * 业务事务只向发件箱追加一行增量，不更新用户统计行，同一用户的并发写入互不等待；
+ * 中继任务按写入顺序领取一批增量（SKIP LOCKED，多节点可同时运行），在内存中按用户合并后每个用户一次累加，
+ * 并在同一事务中删除已应用的增量，因此每条增量恰好应用一次。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatsServiceImpl implements UserStatsService {
+
+    static final int RELAY_BATCH_SIZE = 1000;
+
+    private final UserStatsOutboxRepository userStatsOutboxRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void recordChargingStarted(Long userId, LocalDateTime startTime) {
+        append(userId, delta -> {
+            delta.setChargingCount(1);
+            delta.setLastChargingTime(startTime);
+        });
+    }
+
+    @Override
+    public void recordChargingSettled(Long userId, BigDecimal electricQuantity, BigDecimal fee, int durationMinutes) {
+        append(userId, delta -> {
+            delta.setSettledCount(1);
+            delta.setElectricQuantity(electricQuantity != null ? electricQuantity : BigDecimal.ZERO);
+            delta.setSpent(fee != null ? fee : BigDecimal.ZERO);
+            delta.setDurationMinutes(durationMinutes);
+        });
+    }
+
+    @Override
+    public void recordOvertimeWarnings(Long userId, int delta) {
+        if (delta != 0) {
+            append(userId, outbox -> outbox.setOvertimeCount(delta));
+        }
+    }
+
+    @Override
+    public void recordReservationCreated(Long userId) {
+        append(userId, delta -> delta.setReservationCount(1));
+    }
+
+    @Override
+    public void recordReservationCancelled(Long userId) {
+        append(userId, delta -> delta.setCancelledReservationCount(1));
+    }
+
+    @Override
+    public void recordFaultReports(Long userId, int delta) {
+        if (delta != 0) {
+            append(userId, outbox -> outbox.setFaultReportCount(delta));
+        }
+    }
+
+    /**
+     * 持续应用发件箱，直到某一批未取满
+     */
+    @Override
+    @Scheduled(fixedDelay = 1000, initialDelay = 10000)
+    public int relay() {
+        int total = 0;
+        try {
+            Integer applied;
+            do {
+                applied = transactionTemplate.execute(status -> applyBatch());
+                total += applied != null ? applied : 0;
+            } while (applied != null && applied >= RELAY_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Failed to relay user stats outbox: applied={}", total, e);
+        }
+        return total;
+    }
+
+    private int applyBatch() {
+        List<UserStatsOutbox> rows = userStatsOutboxRepository.claimBatch(RELAY_BATCH_SIZE);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // 按用户ID顺序累加，多个节点同时中继时行锁顺序一致，避免死锁
+        Map<Long, UserStatsOutbox> merged = new TreeMap<>();
+        for (UserStatsOutbox row : rows) {
+            coalesce(merged.computeIfAbsent(row.getUserId(), this::emptyDelta), row);
+        }
+        merged.forEach((userId, delta) -> userStatsRepository.accumulate(userId,
+                delta.getChargingCount(), delta.getSettledCount(),
+                delta.getElectricQuantity(), delta.getSpent(), delta.getDurationMinutes(),
+                delta.getOvertimeCount(), delta.getReservationCount(),
+                delta.getCancelledReservationCount(), delta.getFaultReportCount(),
+                delta.getLastChargingTime()));
+        userStatsOutboxRepository.deleteByIdIn(rows.stream().map(UserStatsOutbox::getId).toList());
+
+        log.debug("User stats outbox relayed: rows={}, users={}", rows.size(), merged.size());
+        return rows.size();
+    }
+
+    private void append(Long userId, Consumer<UserStatsOutbox> initializer) {
+        UserStatsOutbox delta = emptyDelta(userId);
+        initializer.accept(delta);
+        userStatsOutboxRepository.save(delta);
+    }
+
+    private UserStatsOutbox emptyDelta(Long userId) {
+        UserStatsOutbox delta = new UserStatsOutbox();
+        delta.setUserId(userId);
+        return delta;
+    }
+
+    /**
+     * 将一条增量合并到累加器（累加器不受持久化上下文管理，领取的行本身不被修改）
+     */
+    private void coalesce(UserStatsOutbox target, UserStatsOutbox row) {
+        target.setChargingCount(target.getChargingCount() + row.getChargingCount());
+        target.setSettledCount(target.getSettledCount() + row.getSettledCount());
+        target.setElectricQuantity(target.getElectricQuantity().add(row.getElectricQuantity()));
+        target.setSpent(target.getSpent().add(row.getSpent()));
+        target.setDurationMinutes(target.getDurationMinutes() + row.getDurationMinutes());
+        target.setOvertimeCount(target.getOvertimeCount() + row.getOvertimeCount());
+        target.setReservationCount(target.getReservationCount() + row.getReservationCount());
+        target.setCancelledReservationCount(target.getCancelledReservationCount() + row.getCancelledReservationCount());
+        target.setFaultReportCount(target.getFaultReportCount() + row.getFaultReportCount());
+        if (row.getLastChargingTime() != null && (target.getLastChargingTime() == null
+                || row.getLastChargingTime().isAfter(target.getLastChargingTime()))) {
+            target.setLastChargingTime(row.getLastChargingTime());
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusCache;
 import com.smartcharger.common.exception.BusinessException;
 import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ThresholdConfigRequest;
+import com.smartcharger.dto.response.CursorPageResponse;
+import com.smartcharger.dto.response.OvertimeEscalationResult;
 import com.smartcharger.dto.response.ThresholdConfigResponse;
 import com.smartcharger.dto.response.UnreadCountResponse;
 import com.smartcharger.dto.response.WarningNoticeResponse;
@@ -10,19 +14,25 @@ import com.smartcharger.entity.ChargingPile;
 import com.smartcharger.entity.SystemConfig;
 import com.smartcharger.entity.User;
 import com.smartcharger.entity.WarningNotice;
+import com.smartcharger.entity.enums.ChargingPileStatus;
 import com.smartcharger.entity.enums.SendStatus;
 import com.smartcharger.entity.enums.WarningNoticeType;
 import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.repository.ChargingRecordRepository;
 import com.smartcharger.repository.SystemConfigRepository;
 import com.smartcharger.repository.UserRepository;
 import com.smartcharger.repository.WarningNoticeRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.service.UserStatsService;
 import com.smartcharger.service.WarningNoticeService;
+import com.smartcharger.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,7 +40,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +62,11 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
     private final SystemConfigRepository systemConfigRepository;
     private final ChargingPileRepository chargingPileRepository;
     private final UserRepository userRepository;
+    private final ChargingRecordRepository chargingRecordRepository;
+    private final ChargingPileGeoIndex chargingPileGeoIndex;
+    private final ChargingPileStatusCache chargingPileStatusCache;
+    private final ChargingPileStateMachine chargingPileStateMachine;
+    private final UserStatsService userStatsService;
 
     @Override
     public Page<WarningNoticeResponse> getWarningNoticeList(Long userId, WarningNoticeType type,
@@ -80,6 +97,40 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
         return new PageImpl<>(responses, pageable, noticePage.getTotalElements());
     }
 
+    @Override
+    public CursorPageResponse<WarningNoticeResponse> getAdminWarningNoticesByCursor(WarningNoticeType type, Integer isRead,
+                                                                                  Long userId, LocalDate startDate,
+                                                                                  LocalDate endDate, String cursor,
+                                                                                  Integer size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+
+        Slice<WarningNotice> noticeSlice = warningNoticeRepository.findAdminSlice(
+                type, isRead, userId, startDateTime, endDateTime,
+                after != null ? after.time() : null, after != null ? after.id() : null,
+                PageRequest.of(0, size));
+
+        List<WarningNotice> notices = noticeSlice.getContent();
+        Map<Long, ChargingPile> pileMap = batchFetchPiles(notices);
+        Map<Long, User> userMap = batchFetchUsers(notices);
+
+        List<WarningNoticeResponse> responses = notices.stream()
+                .map(notice -> convertToResponse(
+                        notice,
+                        pileMap.get(notice.getChargingPileId()),
+                        userMap.get(notice.getUserId())))
+                .toList();
+
+        WarningNotice last = notices.isEmpty() ? null : notices.get(notices.size() - 1);
+        return CursorPageResponse.<WarningNoticeResponse>builder()
+                .records(responses)
+                .size(size)
+                .hasNext(noticeSlice.hasNext())
+                .nextCursor(noticeSlice.hasNext() ? new KeysetCursor(last.getCreatedTime(), last.getId()).encode() : null)
+                .build();
+    }
+
     @Override
     public UnreadCountResponse getUnreadCount(Long userId) {
         Integer count = warningNoticeRepository.countByUserIdAndIsReadAndSendStatus(userId, 0, SendStatus.SENT);
@@ -113,6 +164,7 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
                 .orElseThrow(() -> new BusinessException(ResultCode.WARNING_NOTICE_NOT_FOUND));
 
         warningNoticeRepository.delete(notice);
+        recordOvertimeNoticeRemoved(notice);
         log.info("Delete warning notice: userId={}, noticeId={}", userId, noticeId);
     }
 
@@ -160,14 +212,61 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
     @Transactional
     public void createOvertimeWarning(Long userId, Long chargingPileId, Long chargingRecordId,
                                       String pileName, Integer duration) {
-        String content = String.format("您的充电桩 %s 已超时占位 %d 分钟，请尽快驶离车位。",
-                pileName, duration);
         createNotice(userId, chargingPileId, chargingRecordId, WarningNoticeType.OVERTIME_WARNING,
-                content, duration);
+                buildOvertimeContent(pileName, duration), duration);
+        userStatsService.recordOvertimeWarnings(userId, 1);
         log.info("Create overtime warning: userId={}, recordId={}, duration={}min",
                 userId, chargingRecordId, duration);
     }
 
+    @Override
+    @Transactional
+    public OvertimeEscalationResult escalateOvertimeWarnings(Long afterRecordId, int limit, LocalDateTime now) {
+        Integer systemThreshold = getSystemThresholdResponse().getThreshold();
+        List<Object[]> rows = chargingRecordRepository.findOvertimeEscalationCandidates(
+                now, systemThreshold, afterRecordId, limit);
+
+        long lastRecordId = afterRecordId;
+        List<WarningNotice> notices = new ArrayList<>();
+        Set<Long> pileIds = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            Long recordId = ((Number) row[0]).longValue();
+            Long userId = ((Number) row[1]).longValue();
+            Long chargingPileId = ((Number) row[2]).longValue();
+            String pileName = (String) row[3];
+            int overtimeMinutes = ((Number) row[4]).intValue();
+            int threshold = ((Number) row[5]).intValue();
+            lastRecordId = recordId;
+
+            // 每跨过一个阈值倍数升级一次，同一级别只发送一次
+            if (chargingRecordRepository.raiseOvertimeWarningLevel(recordId, overtimeMinutes / threshold) == 0) {
+                continue;
+            }
+            pileIds.add(chargingPileId);
+            notices.add(buildNotice(userId, chargingPileId, recordId, WarningNoticeType.OVERTIME_WARNING,
+                    buildOvertimeContent(pileName, overtimeMinutes), overtimeMinutes));
+        }
+
+        int overtimePileCount = 0;
+        if (!pileIds.isEmpty()) {
+            overtimePileCount = chargingPileRepository.bulkUpdateStatus(pileIds,
+                    chargingPileStateMachine.sourcesOf(ChargingPileStatus.OVERTIME), ChargingPileStatus.OVERTIME);
+            chargingPileGeoIndex.onPilesChanged(pileIds);
+            chargingPileStatusCache.onPilesChanged(pileIds);
+            warningNoticeRepository.saveAll(notices);
+            notices.stream()
+                    .collect(Collectors.groupingBy(WarningNotice::getUserId, Collectors.summingInt(notice -> 1)))
+                    .forEach(userStatsService::recordOvertimeWarnings);
+        }
+
+        return OvertimeEscalationResult.builder()
+                .scannedCount(rows.size())
+                .lastRecordId(lastRecordId)
+                .noticeCount(notices.size())
+                .overtimePileCount(overtimePileCount)
+                .build();
+    }
+
     @Override
     @Transactional
     public void createChargingEndingSoonNotice(Long userId, Long chargingPileId, Long chargingRecordId,
@@ -245,6 +344,7 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
         WarningNotice notice = warningNoticeRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ResultCode.WARNING_NOTICE_NOT_FOUND));
         warningNoticeRepository.delete(notice);
+        recordOvertimeNoticeRemoved(notice);
         log.info("Admin delete warning notice: id={}", id);
     }
 
@@ -294,8 +394,24 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
                 .build();
     }
 
+    private void recordOvertimeNoticeRemoved(WarningNotice notice) {
+        if (notice.getType() == WarningNoticeType.OVERTIME_WARNING) {
+            userStatsService.recordOvertimeWarnings(notice.getUserId(), -1);
+        }
+    }
+
+    private String buildOvertimeContent(String pileName, Integer duration) {
+        return String.format("您的充电桩 %s 已超时占位 %d 分钟，请尽快驶离车位。", pileName, duration);
+    }
+
     private void createNotice(Long userId, Long chargingPileId, Long chargingRecordId,
                               WarningNoticeType type, String content, Integer overtimeMinutes) {
+        warningNoticeRepository.save(buildNotice(userId, chargingPileId, chargingRecordId, type, content,
+                overtimeMinutes));
+    }
+
+    private WarningNotice buildNotice(Long userId, Long chargingPileId, Long chargingRecordId,
+                                      WarningNoticeType type, String content, Integer overtimeMinutes) {
         WarningNotice notice = new WarningNotice();
         notice.setUserId(userId);
         notice.setChargingPileId(chargingPileId);
@@ -306,7 +422,7 @@ public class WarningNoticeServiceImpl implements WarningNoticeService {
         notice.setIsRead(0);
         notice.setSendStatus(SendStatus.SENT);
         notice.setCreatedTime(LocalDateTime.now());
-        warningNoticeRepository.save(notice);
+        return notice;
     }
 
     private Map<Long, ChargingPile> batchFetchPiles(List<WarningNotice> notices) {
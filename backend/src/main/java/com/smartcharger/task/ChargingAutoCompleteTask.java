@@ -1,27 +1,84 @@
 package com.smartcharger.task;
 
 import com.smartcharger.service.ChargingRecordService;
+import com.smartcharger.service.ChargingScheduleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ChargingAutoCompleteTask {
 
+    private static final int CLAIM_BATCH_SIZE = 100;
+
     private final ChargingRecordService chargingRecordService;
+    private final ChargingScheduleService chargingScheduleService;
+
+    /**
+     * 领取延迟队列中到期的记录逐条结束充电，每条记录独立事务
+     */
+    @Scheduled(fixedDelay = 500)
+    public void fireDueAutoCompletions() {
+        List<Long> recordIds;
+        try {
+            recordIds = chargingScheduleService.claimDueAutoCompletions(CLAIM_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Failed to poll auto complete queue: {}", e.getMessage());
+            return;
+        }
 
-    @Scheduled(fixedRate = 60000)
-    public void autoCompleteDueChargingRecords() {
-        log.debug("Start auto complete charging task");
-        chargingRecordService.autoCompleteDueChargingRecords();
+        for (Long recordId : recordIds) {
+            try {
+                chargingRecordService.autoCompleteChargingRecord(recordId);
+                chargingScheduleService.clearAutoCompleteRetries(recordId);
+            } catch (Exception e) {
+                log.error("Auto complete charging failed: recordId={}", recordId, e);
+                chargingScheduleService.retryAutoComplete(recordId);
+            }
+        }
     }
 
-    @Scheduled(fixedRate = 60000)
-    public void sendPreEndChargingReminders() {
-        log.debug("Start pre-end charging reminder task");
-        chargingRecordService.sendPreEndChargingReminders();
+    /**
+     * 启动时及每10分钟按数据库补齐调度任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedRate = 600000, initialDelay = 600000)
+    public void rebuildSchedules() {
+        try {
+            chargingScheduleService.rebuildSchedules();
+        } catch (Exception e) {
+            log.error("Rebuild charging schedules failed", e);
+        }
+    }
+
+    /**
+     * 领取延迟队列中到期的即将结束提醒逐条发送
+     */
+    @Scheduled(fixedDelay = 500)
+    public void fireDuePreEndReminders() {
+        List<Long> recordIds;
+        try {
+            recordIds = chargingScheduleService.claimDuePreEndReminders(CLAIM_BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("Failed to poll pre-end reminder queue: {}", e.getMessage());
+            return;
+        }
+
+        for (Long recordId : recordIds) {
+            try {
+                chargingRecordService.sendPreEndChargingReminder(recordId);
+                chargingScheduleService.clearPreEndReminderRetries(recordId);
+            } catch (Exception e) {
+                log.error("Create pre-end charging reminder failed: recordId={}", recordId, e);
+                chargingScheduleService.retryPreEndReminder(recordId);
+            }
+        }
     }
 }
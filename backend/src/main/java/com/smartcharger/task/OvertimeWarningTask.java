@@ -1,72 +1,90 @@
 package com.smartcharger.task;
 
-import com.smartcharger.entity.ChargingPile;
-import com.smartcharger.entity.ChargingRecord;
-import com.smartcharger.entity.enums.ChargingPileStatus;
-import com.smartcharger.entity.enums.ChargingRecordStatus;
-import com.smartcharger.repository.ChargingPileRepository;
-import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.dto.response.OvertimeEscalationResult;
 import com.smartcharger.service.WarningNoticeService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Sends repeated overtime occupancy notices for completed charging records
- * whose owners have not confirmed leaving.
+ * Escalates overtime occupancy notices for completed charging records
+ * whose owners have not confirmed leaving. A record is notified once per
+ * threshold multiple it crosses; records are processed in id-ordered chunks,
+ * each in its own transaction. Rows scanned and notices emitted are
+ * counted per committed chunk in {@code overtime.rows.scanned} and
+ * {@code overtime.notices.emitted}.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OvertimeWarningTask {
 
-    private final ChargingRecordRepository chargingRecordRepository;
-    private final ChargingPileRepository chargingPileRepository;
+    static final int CHUNK_SIZE = 500;
+
     private final WarningNoticeService warningNoticeService;
+    private final Counter scannedCounter;
+    private final Counter noticeCounter;
+
+    /**
+     * Falls back to a local SimpleMeterRegistry when no registry is configured.
+     */
+    @Autowired
+    public OvertimeWarningTask(WarningNoticeService warningNoticeService,
+                               ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(warningNoticeService, meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    OvertimeWarningTask(WarningNoticeService warningNoticeService, MeterRegistry meterRegistry) {
+        this.warningNoticeService = warningNoticeService;
+        this.scannedCounter = Counter.builder("overtime.rows.scanned")
+                .description("Overtime escalation candidate rows scanned")
+                .register(meterRegistry);
+        this.noticeCounter = Counter.builder("overtime.notices.emitted")
+                .description("Overtime occupancy notices emitted")
+                .register(meterRegistry);
+    }
 
     @Scheduled(cron = "0 */5 * * * ?")
     public void checkOvertimeCharging() {
         log.info("Start overtime occupancy warning task");
+        long startNanos = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
 
-        List<ChargingRecord> notLeftRecords = chargingRecordRepository
-                .findByStatusAndEndTimeIsNotNullAndLeaveTimeIsNull(ChargingRecordStatus.COMPLETED);
-
-        int warningCount = 0;
-        for (ChargingRecord record : notLeftRecords) {
+        long afterRecordId = 0L;
+        int chunkCount = 0;
+        int scannedCount = 0;
+        int noticeCount = 0;
+        int overtimePileCount = 0;
+        while (true) {
+            OvertimeEscalationResult chunk;
             try {
-                Optional<ChargingPile> pileOpt = chargingPileRepository.findById(record.getChargingPileId());
-                if (pileOpt.isEmpty()) {
-                    continue;
-                }
-
-                ChargingPile pile = pileOpt.get();
-                if (pile.getStatus() == ChargingPileStatus.IDLE
-                        || pile.getStatus() == ChargingPileStatus.WAITING_LEAVE
-                        || pile.getStatus() == ChargingPileStatus.OVERTIME) {
-                    pile.setStatus(ChargingPileStatus.OVERTIME);
-                    chargingPileRepository.save(pile);
-                }
-
-                int minutes = (int) Duration.between(record.getEndTime(), LocalDateTime.now()).toMinutes();
-                warningNoticeService.createOvertimeWarning(
-                        record.getUserId(),
-                        record.getChargingPileId(),
-                        record.getId(),
-                        pile.getCode(),
-                        Math.max(0, minutes)
-                );
-                warningCount++;
+                chunk = warningNoticeService.escalateOvertimeWarnings(afterRecordId, CHUNK_SIZE, now);
             } catch (Exception e) {
-                log.error("Failed to process overtime occupancy: recordId={}", record.getId(), e);
+                log.error("Failed to process overtime occupancy chunk: afterRecordId={}", afterRecordId, e);
+                break;
+            }
+
+            chunkCount++;
+            scannedCount += chunk.getScannedCount();
+            noticeCount += chunk.getNoticeCount();
+            scannedCounter.increment(chunk.getScannedCount());
+            noticeCounter.increment(chunk.getNoticeCount());
+            overtimePileCount += chunk.getOvertimePileCount();
+            if (chunk.getScannedCount() < CHUNK_SIZE) {
+                break;
             }
+            afterRecordId = chunk.getLastRecordId();
         }
 
-        log.info("Overtime occupancy warning task completed: warningCount={}", warningCount);
+        log.info("Overtime occupancy warning task completed: chunks={}, scanned={}, notices={}, overtimePiles={}, elapsed={}ms",
+                chunkCount, scannedCount, noticeCount, overtimePileCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
     }
 }
@@ -0,0 +1,51 @@
+package com.smartcharger.task;
+
+import com.smartcharger.service.StatisticsRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 统计汇总维护任务
+ * 汇总表在结束充电时增量更新；启动时若汇总表为空则回填历史，每天凌晨重新汇总最近两天作为校正。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticsRollupTask {
+
+    static final int RECONCILE_DAYS = 2;
+
+    private final StatisticsRollupService statisticsRollupService;
+
+    /**
+     * 首次部署时在后台线程回填，不阻塞启动和其他定时任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        Thread thread = new Thread(() -> {
+            try {
+                statisticsRollupService.backfillIfEmpty();
+            } catch (Exception e) {
+                log.error("Statistics rollup bootstrap backfill failed", e);
+            }
+        }, "stats-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        try {
+            statisticsRollupService.backfill(today.minusDays(RECONCILE_DAYS), today.minusDays(1));
+        } catch (Exception e) {
+            log.error("Statistics rollup reconciliation failed", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartcharger.util;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip压缩的CSV表格写入器
+ * UTF-8编码并带BOM，便于Excel直接打开；多个工作表依次写出，之间以空行分隔。
+ */
+public class CsvTabularWriter implements TabularWriter {
+
+    private final OutputStream outputStream;
+    private final GZIPOutputStream gzipStream;
+    private final Writer writer;
+
+    private boolean hasSheet;
+    private volatile long rowCount;
+
+    public CsvTabularWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        try {
+            // 关闭压缩流时不关闭调用方的输出流
+            this.gzipStream = new GZIPOutputStream(new FilterOutputStream(outputStream) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, 64 * 1024);
+            this.writer = new BufferedWriter(new OutputStreamWriter(gzipStream, StandardCharsets.UTF_8), 64 * 1024);
+            this.writer.write('\uFEFF');
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open CSV export stream", e);
+        }
+    }
+
+    @Override
+    public void startSheet(String name, String[] headers, int[] columnWidths) throws IOException {
+        if (hasSheet) {
+            writer.write("\r\n");
+        }
+        hasSheet = true;
+        writeLine(headers);
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        writeLine(values);
+        rowCount++;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+        gzipStream.finish();
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartcharger.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Excel逐行读取工具
+ * .xlsx使用SAX事件模型解析第一个工作表，不构建整个工作簿的对象模型，内存占用与行数无关；
+ * .xls（最多65536行）仍按对象模型读取。单元格值按单元格格式格式化并去除首尾空白，空单元格为null。
+ */
+public final class ExcelRowReader {
+
+    /**
+     * 行处理回调
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * @param rowNumber 行号（从1开始）
+         * @param cells     前columnCount列的单元格值
+         */
+        void handle(int rowNumber, String[] cells);
+    }
+
+    private ExcelRowReader() {
+    }
+
+    /**
+     * 依次读取第一个工作表中的每一行（包括表头行）
+     */
+    public static void read(InputStream inputStream, String filename, int columnCount,
+                            RowHandler handler) throws IOException {
+        if (filename.endsWith(".xls")) {
+            readWorkbook(inputStream, columnCount, handler);
+        } else {
+            readStreaming(inputStream, columnCount, handler);
+        }
+    }
+
+    private static void readStreaming(InputStream inputStream, int columnCount,
+                                      RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(inputStream)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new RowCollector(columnCount, handler), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Excel文件解析失败：" + e.getMessage(), e);
+        }
+    }
+
+    private static void readWorkbook(InputStream inputStream, int columnCount,
+                                     RowHandler handler) throws IOException {
+        DataFormatter formatter = new DataFormatter();
+        try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                String[] cells = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    Cell cell = row.getCell(i);
+                    cells[i] = cell != null ? normalize(formatter.formatCellValue(cell)) : null;
+                }
+                handler.handle(row.getRowNum() + 1, cells);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    /**
+     * 收集一行中的单元格并在行结束时回调
+     */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int columnCount;
+        private final RowHandler handler;
+
+        private String[] cells;
+        private int nextColumn;
+
+        RowCollector(int columnCount, RowHandler handler) {
+            this.columnCount = columnCount;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new String[columnCount];
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.handle(rowNum + 1, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // 单元格引用缺省时按出现顺序推算列号
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < columnCount) {
+                cells[column] = normalize(formattedValue);
+            }
+        }
+    }
+}
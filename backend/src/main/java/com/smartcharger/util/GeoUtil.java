@@ -0,0 +1,54 @@
+package com.smartcharger.util;
+
+/**
+ * 经纬度距离计算工具类
+ */
+public final class GeoUtil {
+
+    /**
+     * 地球半径（km）
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    /**
+     * 每一度纬度对应的距离（km）
+     */
+    public static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    private GeoUtil() {
+    }
+
+    /**
+     * Haversine公式计算两点之间的球面距离（km）
+     */
+    public static double haversineKm(double lng1, double lat1, double lng2, double lat2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double dLat = lat2Rad - lat1Rad;
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat + Math.cos(lat1Rad) * Math.cos(lat2Rad) * sinLng * sinLng;
+
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * 给定半径对应的纬度跨度（度）
+     */
+    public static double latDegrees(double radiusKm) {
+        return Math.min(180.0, radiusKm / KM_PER_DEGREE);
+    }
+
+    /**
+     * 给定纬度和半径对应的经度跨度（度），高纬度时退化为全经度范围
+     */
+    public static double lngDegrees(double lat, double radiusKm) {
+        double cosLat = Math.cos(Math.toRadians(lat));
+        if (cosLat <= 1e-6) {
+            return 360.0;
+        }
+        return Math.min(360.0, radiusKm / (KM_PER_DEGREE * cosLat));
+    }
+}
@@ -0,0 +1,40 @@
+package com.smartcharger.util;
+
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 键集分页游标：上一页最后一条记录的排序时间和ID
+ * 列表按（时间, ID）倒序，下一页取严格小于游标的记录，查询代价与翻页深度无关；
+ * 对外序列化为URL安全的Base64字符串，客户端只需原样回传。
+ */
+public record KeysetCursor(LocalDateTime time, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 解析游标，为空时返回null（第一页）
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = value.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, index)),
+                    Long.valueOf(value.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST.getCode(), "分页游标无效");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((time + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
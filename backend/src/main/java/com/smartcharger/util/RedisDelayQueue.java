@@ -0,0 +1,94 @@
+package com.smartcharger.util;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于Redis有序集合的延迟队列
+ * 成员为任务标识，分值为到期时间戳（毫秒）；到期任务由Lua脚本原子地取出并删除，多节点轮询时每个任务只会被一个节点领取。
+ * 任务的重试次数记录在 {key}:attempts 哈希中，取消任务时一并清除，执行成功后由调用方清除。
+ */
+public class RedisDelayQueue {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local items = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "if #items > 0 then redis.call('ZREM', KEYS[1], unpack(items)) end " +
+            "return items",
+            List.class);
+
+    /**
+     * 重试次数哈希的过期时间，最后一次重试后无人清除的计数随之过期
+     */
+    private static final Duration ATTEMPTS_TTL = Duration.ofDays(1);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String key;
+    private final String attemptsKey;
+
+    public RedisDelayQueue(StringRedisTemplate stringRedisTemplate, String key) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.key = key;
+        this.attemptsKey = key + ":attempts";
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 加入或改期任务
+     */
+    public void schedule(String member, long dueAtMillis) {
+        stringRedisTemplate.opsForZSet().add(key, member, dueAtMillis);
+    }
+
+    /**
+     * 任务不存在时才加入，不改变已有任务的到期时间
+     */
+    public void scheduleIfAbsent(String member, long dueAtMillis) {
+        stringRedisTemplate.opsForZSet().addIfAbsent(key, member, dueAtMillis);
+    }
+
+    /**
+     * 取消任务
+     */
+    public void cancel(String member) {
+        stringRedisTemplate.opsForZSet().remove(key, member);
+        clearAttempts(member);
+    }
+
+    /**
+     * 任务重试次数加一，返回加一后的次数
+     */
+    public long incrementAttempts(String member) {
+        Long attempts = stringRedisTemplate.opsForHash().increment(attemptsKey, member, 1);
+        stringRedisTemplate.expire(attemptsKey, ATTEMPTS_TTL);
+        return attempts != null ? attempts : 1;
+    }
+
+    /**
+     * 清除任务重试次数
+     */
+    public void clearAttempts(String member) {
+        stringRedisTemplate.opsForHash().delete(attemptsKey, member);
+    }
+
+    /**
+     * 领取到期任务（领取即出队）
+     *
+     * @param nowMillis 当前时间戳（毫秒）
+     * @param limit 单次最多领取数量
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> claimDue(long nowMillis, int limit) {
+        List<String> items = stringRedisTemplate.execute(CLAIM_SCRIPT, Collections.singletonList(key),
+                String.valueOf(nowMillis), String.valueOf(limit));
+        return items != null ? items : Collections.emptyList();
+    }
+}
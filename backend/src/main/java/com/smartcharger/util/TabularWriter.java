@@ -0,0 +1,42 @@
+package com.smartcharger.util;
+
+import com.smartcharger.entity.enums.ExportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 表格导出写入器
+ * 导出逻辑只按工作表和行写出数据，文件格式由具体实现决定；写入器不关闭调用方传入的输出流。
+ * 全部数据写完后调用 {@link #finish()}，无论成功与否都须调用 {@link #close()} 释放临时资源。
+ */
+public interface TabularWriter extends Closeable {
+
+    static TabularWriter create(ExportFormat format, OutputStream outputStream) {
+        return switch (format) {
+            case XLSX -> new XlsxTabularWriter(outputStream);
+            case CSV_GZIP -> new CsvTabularWriter(outputStream);
+        };
+    }
+
+    /**
+     * 开始一个工作表并写出表头，列宽以字符数给出
+     */
+    void startSheet(String name, String[] headers, int[] columnWidths) throws IOException;
+
+    /**
+     * 写出一行；数值写为数字单元格，null写为空，其余按字符串写出
+     */
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * 已写出的数据行数（不含表头），可在其他线程读取作为导出进度
+     */
+    long getRowCount();
+
+    /**
+     * 完成写出，刷新到输出流
+     */
+    void finish() throws IOException;
+}
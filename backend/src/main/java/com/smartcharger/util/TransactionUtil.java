@@ -0,0 +1,65 @@
+package com.smartcharger.util;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事务回调工具类
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 在当前事务提交后执行；若当前没有事务则立即执行
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 将当前事务拆分为执行和提交两段计时：从startNanos到提交前计入workTimer，提交本身计入commitTimer；
+     * 事务回滚或当前没有事务时不记录
+     */
+    public static void recordPhases(long startNanos, Timer workTimer, Timer commitTimer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStartNanos;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStartNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED && commitStartNanos != 0L) {
+                    workTimer.record(commitStartNanos - startNanos, TimeUnit.NANOSECONDS);
+                    commitTimer.record(System.nanoTime() - commitStartNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public int getOrder() {
+                // 在其他同步回调的beforeCommit之后开始提交计时
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+        });
+    }
+}
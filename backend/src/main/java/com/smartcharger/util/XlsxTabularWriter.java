@@ -0,0 +1,135 @@
+package com.smartcharger.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * XLSX表格写入器
+ * 使用SXSSF流式工作簿：内存中只保留最近的若干行，其余行写入压缩的临时文件；
+ * 列宽按列预先设定（autoSizeColumn需要遍历整列，且流式工作簿中已写出的行不可见）。
+ * 单个工作表最多1,048,576行（含表头），写满后以同样的表头续写到新工作表（名称追加序号）。
+ */
+public class XlsxTabularWriter implements TabularWriter {
+
+    /**
+     * 流式工作簿在内存中保留的行数
+     */
+    static final int ROW_ACCESS_WINDOW = 200;
+
+    /**
+     * Excel 2007 及以上版本单个工作表的最大行数
+     */
+    static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    /**
+     * 工作表名称的最大长度
+     */
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private final OutputStream outputStream;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+    private final int maxSheetRows;
+
+    private Sheet sheet;
+    private String sheetName;
+    private String[] headers;
+    private int[] columnWidths;
+    private int sheetPart;
+    private int rowIndex;
+    private volatile long rowCount;
+
+    public XlsxTabularWriter(OutputStream outputStream) {
+        this(outputStream, MAX_SHEET_ROWS);
+    }
+
+    XlsxTabularWriter(OutputStream outputStream, int maxSheetRows) {
+        this.outputStream = outputStream;
+        this.maxSheetRows = maxSheetRows;
+        this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.headerStyle = createHeaderStyle();
+    }
+
+    @Override
+    public void startSheet(String name, String[] headers, int[] columnWidths) {
+        this.sheetName = name;
+        this.headers = headers;
+        this.columnWidths = columnWidths;
+        this.sheetPart = 1;
+        createSheet(name);
+    }
+
+    @Override
+    public void writeRow(Object... values) {
+        if (rowIndex >= maxSheetRows) {
+            sheetPart++;
+            String suffix = "_" + sheetPart;
+            String base = sheetName.length() + suffix.length() > MAX_SHEET_NAME_LENGTH
+                    ? sheetName.substring(0, MAX_SHEET_NAME_LENGTH - suffix.length())
+                    : sheetName;
+            createSheet(base + suffix);
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof Number number) {
+                row.createCell(i).setCellValue(number.doubleValue());
+            } else {
+                row.createCell(i).setCellValue(value != null ? value.toString() : "");
+            }
+        }
+        rowCount++;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(outputStream);
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void createSheet(String name) {
+        sheet = workbook.createSheet(name);
+        for (int i = 0; i < columnWidths.length; i++) {
+            sheet.setColumnWidth(i, columnWidths[i] * 256);
+        }
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        rowIndex = 1;
+    }
+
+    private CellStyle createHeaderStyle() {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+}
@@ -0,0 +1,127 @@
+-- ============================================================
+-- Database migration V10: keyset pagination indexes
+-- Purpose:
+--   Support the admin cursor lists for charging records, reservations and
+--   warning notices, which seek on (time, id) in descending order. Each
+--   index matches one filter plus the sort, so a page reads exactly the
+--   rows it returns instead of sorting every matching row.
+-- Safety:
+--   Idempotent index creation; no data is modified. InnoDB builds the
+--   indexes online (ALGORITHM=INPLACE, LOCK=NONE).
+-- Rollback:
+--   Drop the indexes listed below, e.g.
+--   ALTER TABLE `charging_record` DROP KEY `idx_user_start_time`,
+--   DROP KEY `idx_pile_start_time`;
+--   The single-column user/charging pile indexes are kept because the
+--   foreign keys were declared against them.
+-- Verification:
+--   SHOW INDEX FROM charging_record; SHOW INDEX FROM reservation;
+--   SHOW INDEX FROM warning_notice;
+-- ============================================================
+
+USE smart_charger;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_user_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_user_start_time` (`user_id`, `start_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_user_start_time already exists on charging_record'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_pile_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_pile_start_time` (`charging_pile_id`, `start_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_pile_start_time already exists on charging_record'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'reservation'
+      AND INDEX_NAME = 'idx_user_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `reservation` ADD KEY `idx_user_start_time` (`user_id`, `start_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_user_start_time already exists on reservation'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'reservation'
+      AND INDEX_NAME = 'idx_pile_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `reservation` ADD KEY `idx_pile_start_time` (`charging_pile_id`, `start_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_pile_start_time already exists on reservation'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'reservation'
+      AND INDEX_NAME = 'idx_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `reservation` ADD KEY `idx_start_time` (`start_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_start_time already exists on reservation'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'warning_notice'
+      AND INDEX_NAME = 'idx_user_created_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `warning_notice` ADD KEY `idx_user_created_time` (`user_id`, `created_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_user_created_time already exists on warning_notice'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'warning_notice'
+      AND INDEX_NAME = 'idx_created_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `warning_notice` ADD KEY `idx_created_time` (`created_time`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_created_time already exists on warning_notice'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,85 @@
+-- ============================================================
+-- Database migration V11: charging_record composite indexes
+-- Purpose:
+--   Replace single-column lookups on the hot charging_record predicates
+--   with composite indexes whose leading equality columns match them:
+--     idx_user_status             current session (user_id, status)
+--     idx_status_target_end_time  auto-complete schedule rebuild
+--     idx_status_start_time       revenue rollup rebuild
+--   The overtime scan (status, leave_time IS NULL, id > ?) is already
+--   served in id order by idx_status_leave_time, whose implicit primary
+--   key suffix would be lost by appending end_time; it is left as is.
+--   idx_status is dropped: every status-led index above starts with it.
+-- Safety:
+--   Idempotent; no data is modified. Indexes are built online
+--   (ALGORITHM=INPLACE, LOCK=NONE).
+-- Rollback:
+--   ALTER TABLE `charging_record` ADD KEY `idx_status` (`status`),
+--   DROP KEY `idx_user_status`, DROP KEY `idx_status_target_end_time`,
+--   DROP KEY `idx_status_start_time`;
+-- Verification:
+--   SHOW INDEX FROM charging_record;
+--   mvn test -Dexplain.jdbc-url=jdbc:mysql://host:3306/ (ChargingRecordIndexExplainTest)
+-- ============================================================
+
+USE smart_charger;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_user_status'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_user_status` (`user_id`, `status`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_user_status already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_status_target_end_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_status_target_end_time` (`status`, `target_end_time`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_status_target_end_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_status_start_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_status_start_time` (`status`, `start_time`), ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_status_start_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_status'
+);
+SET @sql = IF(@index_exists > 0,
+    'ALTER TABLE `charging_record` DROP KEY `idx_status`, ALGORITHM=INPLACE, LOCK=NONE',
+    'SELECT ''Index idx_status already dropped'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,51 @@
+-- ============================================================
+-- Database migration V14: export job owner node and heartbeat
+-- Purpose:
+--   Record which node runs each export job and when that node last
+--   reported it alive. Each node refreshes heartbeat_time of its own
+--   PENDING/RUNNING jobs every 30 s. Jobs whose heartbeat is older than
+--   90 s were left by a stopped or restarted node and are marked FAILED,
+--   at startup and periodically, instead of waiting for the file TTL.
+-- Safety:
+--   Idempotent; nullable columns only, existing rows are not modified.
+--   Unfinished jobs created before this migration (NULL heartbeat) are
+--   failed once they are older than the heartbeat timeout.
+-- Rollback:
+--   ALTER TABLE `export_job` DROP COLUMN `owner_node`, DROP COLUMN `heartbeat_time`;
+--   (requires reverting ExportJobService first)
+-- Verification:
+--   SELECT status, owner_node, MAX(heartbeat_time) FROM export_job
+--   WHERE status IN ('PENDING', 'RUNNING') GROUP BY status, owner_node;
+-- ============================================================
+
+USE smart_charger;
+
+SET @column_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'export_job'
+      AND COLUMN_NAME = 'owner_node'
+);
+SET @sql = IF(@column_exists = 0,
+    'ALTER TABLE `export_job` ADD COLUMN `owner_node` VARCHAR(64) DEFAULT NULL COMMENT ''执行节点标识'' AFTER `expire_time`',
+    'SELECT ''Column owner_node already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @column_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'export_job'
+      AND COLUMN_NAME = 'heartbeat_time'
+);
+SET @sql = IF(@column_exists = 0,
+    'ALTER TABLE `export_job` ADD COLUMN `heartbeat_time` DATETIME DEFAULT NULL COMMENT ''执行节点最近心跳时间'' AFTER `owner_node`',
+    'SELECT ''Column heartbeat_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
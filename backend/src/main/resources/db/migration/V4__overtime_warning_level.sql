@@ -0,0 +1,48 @@
+-- ============================================================
+-- Database migration V4: overtime warning escalation
+-- Purpose:
+--   Track the highest overtime threshold bucket already notified per
+--   charging record so the overtime task escalates instead of re-sending
+--   a notice every cycle, and index the lingering-record scan.
+-- Safety:
+--   Idempotent column/index creation; no data is modified. Records still
+--   lingering at deploy time receive one notice at their current bucket.
+-- Rollback:
+--   The new column and index may be left in place safely, or dropped with
+--   ALTER TABLE `charging_record` DROP COLUMN `overtime_warning_level`,
+--   DROP KEY `idx_status_leave_time`.
+-- Verification:
+--   DESCRIBE charging_record; SHOW INDEX FROM charging_record;
+-- ============================================================
+
+USE smart_charger;
+
+SET @column_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND COLUMN_NAME = 'overtime_warning_level'
+);
+SET @sql = IF(@column_exists = 0,
+    'ALTER TABLE `charging_record` ADD COLUMN `overtime_warning_level` INT NOT NULL DEFAULT 0 COMMENT ''已发送的超时占位预警级别（超时分钟数/阈值）'' AFTER `pre_end_notice_sent`',
+    'SELECT ''Column overtime_warning_level already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_record'
+      AND INDEX_NAME = 'idx_status_leave_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `charging_record` ADD KEY `idx_status_leave_time` (`status`, `leave_time`)',
+    'SELECT ''Index idx_status_leave_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
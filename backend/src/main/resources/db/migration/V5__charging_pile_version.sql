@@ -0,0 +1,31 @@
+-- ============================================================
+-- Database migration V5: charging pile optimistic locking
+-- Purpose:
+--   Add a version column to charging_pile. Entity saves are guarded by
+--   JPA @Version, and status transitions use conditional updates
+--   (WHERE id = ? AND status = ?) that also bump the version.
+-- Safety:
+--   Idempotent column creation; existing rows start at version 0.
+-- Rollback:
+--   ALTER TABLE `charging_pile` DROP COLUMN `version`;
+--   (requires reverting the @Version field in ChargingPile first)
+-- Verification:
+--   DESCRIBE charging_pile;
+-- ============================================================
+
+USE smart_charger;
+
+SET @column_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'charging_pile'
+      AND COLUMN_NAME = 'version'
+);
+SET @sql = IF(@column_exists = 0,
+    'ALTER TABLE `charging_pile` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0 COMMENT ''乐观锁版本号'' AFTER `status`',
+    'SELECT ''Column version already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
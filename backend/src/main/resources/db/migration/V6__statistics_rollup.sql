@@ -0,0 +1,51 @@
+-- ============================================================
+-- Database migration V6: statistics rollup tables
+-- Purpose:
+--   Pre-aggregated settled charging statistics so the admin dashboard
+--   reads O(days) rollup rows instead of scanning charging_record:
+--   per pile per day and per pile per hour. Both carry the pile type,
+--   so per-type and whole-site figures are summed from the daily rows.
+--   Rows are keyed by the session start time, matching the previous
+--   raw queries, and are accumulated when a session completes.
+-- Safety:
+--   Creates new tables only (IF NOT EXISTS); no existing data is modified.
+--   History is filled by the rollup backfill job on first startup, or
+--   on demand via POST /admin/statistics/rollup/backfill.
+-- Rollback:
+--   DROP TABLE `charging_stats_daily`, `charging_stats_hourly`;
+--   (requires reverting the rollup reads in StatisticsAdminServiceImpl first)
+-- Verification:
+--   SHOW CREATE TABLE charging_stats_daily;
+--   SELECT stat_date, SUM(revenue), SUM(session_count)
+--   FROM charging_stats_daily GROUP BY stat_date ORDER BY stat_date DESC LIMIT 7;
+-- ============================================================
+
+USE smart_charger;
+
+CREATE TABLE IF NOT EXISTS `charging_stats_daily` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_date` DATE NOT NULL COMMENT '统计日期（按充电开始时间）',
+    `charging_pile_id` BIGINT NOT NULL COMMENT '充电桩ID',
+    `pile_type` VARCHAR(20) NOT NULL COMMENT '充电桩类型（AC, DC）',
+    `session_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `electric_quantity` DECIMAL(14,3) NOT NULL DEFAULT 0.000 COMMENT '充电电量（kWh）',
+    `revenue` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '收入（元）',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_date_pile` (`stat_date`, `charging_pile_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='充电统计日汇总表';
+
+CREATE TABLE IF NOT EXISTS `charging_stats_hourly` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_hour` DATETIME NOT NULL COMMENT '统计小时（按充电开始时间取整点）',
+    `charging_pile_id` BIGINT NOT NULL COMMENT '充电桩ID',
+    `pile_type` VARCHAR(20) NOT NULL COMMENT '充电桩类型（AC, DC）',
+    `session_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `electric_quantity` DECIMAL(14,3) NOT NULL DEFAULT 0.000 COMMENT '充电电量（kWh）',
+    `revenue` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '收入（元）',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_hour_pile` (`stat_hour`, `charging_pile_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='充电统计小时汇总表';
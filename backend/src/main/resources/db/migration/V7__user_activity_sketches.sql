@@ -0,0 +1,73 @@
+-- ============================================================
+-- Database migration V7: daily active user sketches
+-- Purpose:
+--   Store one HyperLogLog sketch per day of the users who started a
+--   charging session, so active-user counts for any date range merge
+--   O(days) sketches instead of COUNT(DISTINCT user_id) over
+--   charging_record. Add user.last_charging_time so the admin
+--   "active in the last 30 days" filter is an indexed range predicate
+--   instead of a DISTINCT join against charging_record.
+-- Safety:
+--   Idempotent table/column/index creation. last_charging_time is
+--   filled once from charging_record; afterwards it is maintained when
+--   a session starts. Sketches for history are written by the
+--   statistics rollup backfill.
+-- Rollback:
+--   DROP TABLE `user_activity_daily`;
+--   ALTER TABLE `user` DROP KEY `idx_last_charging_time`, DROP COLUMN `last_charging_time`;
+--   (requires reverting UserActivityService and the active-user queries first)
+-- Verification:
+--   SELECT COUNT(*) FROM user WHERE last_charging_time >= NOW() - INTERVAL 30 DAY;
+--   SELECT stat_date, LENGTH(user_hll) FROM user_activity_daily ORDER BY stat_date DESC LIMIT 7;
+-- ============================================================
+
+USE smart_charger;
+
+CREATE TABLE IF NOT EXISTS `user_activity_daily` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_date` DATE NOT NULL COMMENT '统计日期（按充电开始时间）',
+    `user_hll` BLOB DEFAULT NULL COMMENT '开始充电用户HyperLogLog草图',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_stat_date` (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='每日活跃用户表';
+
+SET @column_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.COLUMNS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'user'
+      AND COLUMN_NAME = 'last_charging_time'
+);
+SET @sql = IF(@column_exists = 0,
+    'ALTER TABLE `user` ADD COLUMN `last_charging_time` DATETIME DEFAULT NULL COMMENT ''最近一次开始充电时间'' AFTER `status`',
+    'SELECT ''Column last_charging_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM INFORMATION_SCHEMA.STATISTICS
+    WHERE TABLE_SCHEMA = 'smart_charger'
+      AND TABLE_NAME = 'user'
+      AND INDEX_NAME = 'idx_last_charging_time'
+);
+SET @sql = IF(@index_exists = 0,
+    'ALTER TABLE `user` ADD KEY `idx_last_charging_time` (`last_charging_time`)',
+    'SELECT ''Index idx_last_charging_time already exists'' AS message'
+);
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+UPDATE `user` u
+JOIN (
+    SELECT `user_id`, MAX(`start_time`) AS last_start
+    FROM `charging_record`
+    GROUP BY `user_id`
+) cr ON cr.`user_id` = u.`id`
+SET u.`last_charging_time` = cr.last_start, u.`updated_time` = u.`updated_time`
+WHERE u.`last_charging_time` IS NULL OR u.`last_charging_time` < cr.last_start;
@@ -0,0 +1,105 @@
+-- ============================================================
+-- Database migration V8: per-user statistics projection
+-- Purpose:
+--   Materialise admin user statistics (charge count, kWh, spend,
+--   duration, overtime notices, reservations/cancellations, fault
+--   reports, last charge) in user_stats so user list and detail pages
+--   read one row per user. Transactional paths append deltas to
+--   user_stats_outbox in their own transaction; a relay applies them
+--   in batches, coalescing all deltas of a user into one upsert.
+-- Safety:
+--   Idempotent table creation. user_stats is seeded once from the
+--   existing tables (INSERT IGNORE), so run this migration before the
+--   application version that writes the outbox is deployed. Users
+--   without a row fall back to grouped queries.
+-- Rollback:
+--   DROP TABLE `user_stats_outbox`, `user_stats`;
+--   (requires reverting UserStatsService first)
+-- Verification:
+--   SELECT COUNT(*) FROM user_stats;
+--   SELECT COUNT(*) FROM user_stats_outbox;  -- should stay near 0
+-- ============================================================
+
+USE smart_charger;
+
+CREATE TABLE IF NOT EXISTS `user_stats` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `charging_count` BIGINT NOT NULL DEFAULT 0 COMMENT '充电次数（含未完成）',
+    `settled_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `total_electric_quantity` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '总充电量（kWh）',
+    `total_spent` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '总消费金额（元）',
+    `total_duration_minutes` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电总时长（分钟）',
+    `overtime_count` BIGINT NOT NULL DEFAULT 0 COMMENT '超时占位预警次数',
+    `reservation_count` BIGINT NOT NULL DEFAULT 0 COMMENT '预约次数',
+    `cancelled_reservation_count` BIGINT NOT NULL DEFAULT 0 COMMENT '取消预约次数',
+    `fault_report_count` BIGINT NOT NULL DEFAULT 0 COMMENT '故障报修次数',
+    `last_charging_time` DATETIME DEFAULT NULL COMMENT '最后充电时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_user_id` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户统计表';
+
+CREATE TABLE IF NOT EXISTS `user_stats_outbox` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `charging_count` INT NOT NULL DEFAULT 0 COMMENT '充电次数增量',
+    `settled_count` INT NOT NULL DEFAULT 0 COMMENT '已完成充电次数增量',
+    `electric_quantity` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT '充电量增量（kWh）',
+    `spent` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT '消费金额增量（元）',
+    `duration_minutes` INT NOT NULL DEFAULT 0 COMMENT '充电时长增量（分钟）',
+    `overtime_count` INT NOT NULL DEFAULT 0 COMMENT '超时占位预警次数增量',
+    `reservation_count` INT NOT NULL DEFAULT 0 COMMENT '预约次数增量',
+    `cancelled_reservation_count` INT NOT NULL DEFAULT 0 COMMENT '取消预约次数增量',
+    `fault_report_count` INT NOT NULL DEFAULT 0 COMMENT '故障报修次数增量',
+    `last_charging_time` DATETIME DEFAULT NULL COMMENT '充电开始时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户统计变更发件箱表';
+
+INSERT IGNORE INTO `user_stats` (
+    `user_id`, `charging_count`, `settled_count`, `total_electric_quantity`, `total_spent`,
+    `total_duration_minutes`, `overtime_count`, `reservation_count`, `cancelled_reservation_count`,
+    `fault_report_count`, `last_charging_time`
+)
+SELECT u.`id`,
+       COALESCE(cr.charging_count, 0),
+       COALESCE(cr.settled_count, 0),
+       COALESCE(cr.total_electric_quantity, 0),
+       COALESCE(cr.total_spent, 0),
+       COALESCE(cr.total_duration_minutes, 0),
+       COALESCE(wn.overtime_count, 0),
+       COALESCE(r.reservation_count, 0),
+       COALESCE(r.cancelled_reservation_count, 0),
+       COALESCE(f.fault_report_count, 0),
+       cr.last_charging_time
+FROM `user` u
+LEFT JOIN (
+    SELECT `user_id`,
+           COUNT(*) AS charging_count,
+           SUM(`status` = 'COMPLETED') AS settled_count,
+           SUM(CASE WHEN `status` = 'COMPLETED' THEN `electric_quantity` END) AS total_electric_quantity,
+           SUM(CASE WHEN `status` = 'COMPLETED' THEN `fee` END) AS total_spent,
+           SUM(CASE WHEN `status` = 'COMPLETED' THEN TIMESTAMPDIFF(MINUTE, `start_time`, `end_time`) END) AS total_duration_minutes,
+           MAX(`start_time`) AS last_charging_time
+    FROM `charging_record`
+    GROUP BY `user_id`
+) cr ON cr.`user_id` = u.`id`
+LEFT JOIN (
+    SELECT `user_id`, COUNT(*) AS overtime_count
+    FROM `warning_notice`
+    WHERE `type` = 'OVERTIME_WARNING'
+    GROUP BY `user_id`
+) wn ON wn.`user_id` = u.`id`
+LEFT JOIN (
+    SELECT `user_id`, COUNT(*) AS reservation_count, SUM(`status` = 'CANCELLED') AS cancelled_reservation_count
+    FROM `reservation`
+    GROUP BY `user_id`
+) r ON r.`user_id` = u.`id`
+LEFT JOIN (
+    SELECT `user_id`, COUNT(*) AS fault_report_count
+    FROM `fault_report`
+    GROUP BY `user_id`
+) f ON f.`user_id` = u.`id`;
@@ -0,0 +1,40 @@
+-- ============================================================
+-- Database migration V9: asynchronous export jobs
+-- Purpose:
+--   Track admin export jobs (users, charging piles, charging records,
+--   statistics). Files are generated by a bounded worker pool into the
+--   export directory and served with HTTP Range support until they
+--   expire.
+-- Safety:
+--   Idempotent table creation only; no existing table is touched.
+-- Rollback:
+--   DROP TABLE `export_job`;
+--   (requires reverting ExportJobService first; remove files under
+--   export.job.directory)
+-- Verification:
+--   SELECT status, COUNT(*) FROM export_job GROUP BY status;
+-- ============================================================
+
+USE smart_charger;
+
+CREATE TABLE IF NOT EXISTS `export_job` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `admin_id` BIGINT NOT NULL COMMENT '提交任务的管理员ID',
+    `type` VARCHAR(30) NOT NULL COMMENT '导出类型：USERS/CHARGING_PILES/CHARGING_RECORDS/STATISTICS',
+    `format` VARCHAR(20) NOT NULL COMMENT '文件格式：XLSX/CSV_GZIP',
+    `status` VARCHAR(20) NOT NULL COMMENT '任务状态：PENDING/RUNNING/COMPLETED/FAILED/EXPIRED',
+    `params` TEXT DEFAULT NULL COMMENT '导出条件（JSON）',
+    `row_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已导出行数',
+    `file_name` VARCHAR(200) DEFAULT NULL COMMENT '下载文件名',
+    `file_path` VARCHAR(500) DEFAULT NULL COMMENT '文件存储路径',
+    `file_size` BIGINT DEFAULT NULL COMMENT '文件大小（字节）',
+    `error_message` VARCHAR(500) DEFAULT NULL COMMENT '失败原因',
+    `started_time` DATETIME DEFAULT NULL COMMENT '开始执行时间',
+    `finished_time` DATETIME DEFAULT NULL COMMENT '完成时间',
+    `expire_time` DATETIME DEFAULT NULL COMMENT '文件过期时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_admin_id` (`admin_id`),
+    KEY `idx_status_expire_time` (`status`, `expire_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='导出任务表';
@@ -15,11 +15,13 @@ CREATE TABLE `user` (
     `name` VARCHAR(50) DEFAULT NULL COMMENT '真实姓名',
     `warning_threshold` INT DEFAULT NULL COMMENT '个性化占位预警阈值（分钟）',
     `status` TINYINT NOT NULL DEFAULT 1 COMMENT '账号状态（0-禁用, 1-启用）',
+    `last_charging_time` DATETIME DEFAULT NULL COMMENT '最近一次开始充电时间',
     `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
     UNIQUE KEY `idx_username` (`username`),
-    UNIQUE KEY `idx_phone` (`phone`)
+    UNIQUE KEY `idx_phone` (`phone`),
+    KEY `idx_last_charging_time` (`last_charging_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
 -- 2. 角色表
@@ -89,6 +91,7 @@ CREATE TABLE `charging_pile` (
     `type` VARCHAR(20) NOT NULL COMMENT '类型（AC-交流慢充, DC-直流快充）',
     `power` DECIMAL(10,2) NOT NULL COMMENT '功率（kW）',
     `status` VARCHAR(20) NOT NULL DEFAULT 'IDLE' COMMENT '实时状态（IDLE-空闲, CHARGING-充电中, WAITING_LEAVE-待驶离, FAULT-故障, OVERTIME-超时占位）',
+    `version` BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号',
     `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
@@ -112,6 +115,9 @@ CREATE TABLE `reservation` (
     KEY `idx_charging_pile_id` (`charging_pile_id`),
     KEY `idx_status` (`status`),
     KEY `idx_time_range` (`start_time`, `end_time`),
+    KEY `idx_start_time` (`start_time`, `id`),
+    KEY `idx_user_start_time` (`user_id`, `start_time`, `id`),
+    KEY `idx_pile_start_time` (`charging_pile_id`, `start_time`, `id`),
     CONSTRAINT `fk_reservation_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `fk_reservation_charging_pile` FOREIGN KEY (`charging_pile_id`) REFERENCES `charging_pile` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预约记录表';
@@ -132,6 +138,7 @@ CREATE TABLE `charging_record` (
     `target_end_time` DATETIME DEFAULT NULL COMMENT '目标结束时间',
     `end_reason` VARCHAR(30) DEFAULT NULL COMMENT '结束原因（USER_MANUAL-用户手动, AUTO_TARGET_REACHED-达到目标自动结束）',
     `pre_end_notice_sent` TINYINT NOT NULL DEFAULT 0 COMMENT '结束前提醒是否已发送',
+    `overtime_warning_level` INT NOT NULL DEFAULT 0 COMMENT '已发送的超时占位预警级别（超时分钟数/阈值）',
     `duration` INT DEFAULT NULL COMMENT '充电时长（分钟）',
     `electric_quantity` DECIMAL(10,2) DEFAULT NULL COMMENT '充电电量（kWh）',
     `fee` DECIMAL(10,2) DEFAULT NULL COMMENT '费用（元）',
@@ -141,9 +148,14 @@ CREATE TABLE `charging_record` (
     PRIMARY KEY (`id`),
     KEY `idx_user_id` (`user_id`),
     KEY `idx_charging_pile_id` (`charging_pile_id`),
-    KEY `idx_status` (`status`),
     KEY `idx_start_time` (`start_time`),
     KEY `idx_target_end_time` (`target_end_time`),
+    KEY `idx_status_leave_time` (`status`, `leave_time`),
+    KEY `idx_user_start_time` (`user_id`, `start_time`, `id`),
+    KEY `idx_pile_start_time` (`charging_pile_id`, `start_time`, `id`),
+    KEY `idx_user_status` (`user_id`, `status`),
+    KEY `idx_status_target_end_time` (`status`, `target_end_time`),
+    KEY `idx_status_start_time` (`status`, `start_time`),
     CONSTRAINT `fk_charging_record_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `fk_charging_record_charging_pile` FOREIGN KEY (`charging_pile_id`) REFERENCES `charging_pile` (`id`) ON DELETE CASCADE,
     CONSTRAINT `fk_charging_record_vehicle` FOREIGN KEY (`vehicle_id`) REFERENCES `vehicle` (`id`) ON DELETE SET NULL
@@ -165,6 +177,8 @@ CREATE TABLE `warning_notice` (
     KEY `idx_user_id` (`user_id`),
     KEY `idx_is_read` (`is_read`),
     KEY `idx_send_status` (`send_status`),
+    KEY `idx_created_time` (`created_time`, `id`),
+    KEY `idx_user_created_time` (`user_id`, `created_time`, `id`),
     CONSTRAINT `fk_warning_notice_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `fk_warning_notice_charging_pile` FOREIGN KEY (`charging_pile_id`) REFERENCES `charging_pile` (`id`) ON DELETE SET NULL,
     CONSTRAINT `fk_warning_notice_charging_record` FOREIGN KEY (`charging_record_id`) REFERENCES `charging_record` (`id`) ON DELETE SET NULL
@@ -234,6 +248,111 @@ CREATE TABLE `price_config` (
     KEY `idx_type_active` (`charging_pile_type`, `is_active`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='费用配置表';
 
+-- 15. 充电统计日汇总表（按充电桩）
+CREATE TABLE `charging_stats_daily` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_date` DATE NOT NULL COMMENT '统计日期（按充电开始时间）',
+    `charging_pile_id` BIGINT NOT NULL COMMENT '充电桩ID',
+    `pile_type` VARCHAR(20) NOT NULL COMMENT '充电桩类型（AC, DC）',
+    `session_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `electric_quantity` DECIMAL(14,3) NOT NULL DEFAULT 0.000 COMMENT '充电电量（kWh）',
+    `revenue` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '收入（元）',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_date_pile` (`stat_date`, `charging_pile_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='充电统计日汇总表';
+
+-- 16. 充电统计小时汇总表（按充电桩）
+CREATE TABLE `charging_stats_hourly` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_hour` DATETIME NOT NULL COMMENT '统计小时（按充电开始时间取整点）',
+    `charging_pile_id` BIGINT NOT NULL COMMENT '充电桩ID',
+    `pile_type` VARCHAR(20) NOT NULL COMMENT '充电桩类型（AC, DC）',
+    `session_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `electric_quantity` DECIMAL(14,3) NOT NULL DEFAULT 0.000 COMMENT '充电电量（kWh）',
+    `revenue` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '收入（元）',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_hour_pile` (`stat_hour`, `charging_pile_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='充电统计小时汇总表';
+
+-- 17. 每日活跃用户表
+CREATE TABLE `user_activity_daily` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `stat_date` DATE NOT NULL COMMENT '统计日期（按充电开始时间）',
+    `user_hll` BLOB DEFAULT NULL COMMENT '开始充电用户HyperLogLog草图',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_stat_date` (`stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='每日活跃用户表';
+
+-- 18. 用户统计表
+CREATE TABLE `user_stats` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `charging_count` BIGINT NOT NULL DEFAULT 0 COMMENT '充电次数（含未完成）',
+    `settled_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电次数',
+    `total_electric_quantity` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '总充电量（kWh）',
+    `total_spent` DECIMAL(14,2) NOT NULL DEFAULT 0.00 COMMENT '总消费金额（元）',
+    `total_duration_minutes` BIGINT NOT NULL DEFAULT 0 COMMENT '已完成充电总时长（分钟）',
+    `overtime_count` BIGINT NOT NULL DEFAULT 0 COMMENT '超时占位预警次数',
+    `reservation_count` BIGINT NOT NULL DEFAULT 0 COMMENT '预约次数',
+    `cancelled_reservation_count` BIGINT NOT NULL DEFAULT 0 COMMENT '取消预约次数',
+    `fault_report_count` BIGINT NOT NULL DEFAULT 0 COMMENT '故障报修次数',
+    `last_charging_time` DATETIME DEFAULT NULL COMMENT '最后充电时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_user_id` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户统计表';
+
+-- 19. 用户统计变更发件箱表
+CREATE TABLE `user_stats_outbox` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `charging_count` INT NOT NULL DEFAULT 0 COMMENT '充电次数增量',
+    `settled_count` INT NOT NULL DEFAULT 0 COMMENT '已完成充电次数增量',
+    `electric_quantity` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT '充电量增量（kWh）',
+    `spent` DECIMAL(12,2) NOT NULL DEFAULT 0.00 COMMENT '消费金额增量（元）',
+    `duration_minutes` INT NOT NULL DEFAULT 0 COMMENT '充电时长增量（分钟）',
+    `overtime_count` INT NOT NULL DEFAULT 0 COMMENT '超时占位预警次数增量',
+    `reservation_count` INT NOT NULL DEFAULT 0 COMMENT '预约次数增量',
+    `cancelled_reservation_count` INT NOT NULL DEFAULT 0 COMMENT '取消预约次数增量',
+    `fault_report_count` INT NOT NULL DEFAULT 0 COMMENT '故障报修次数增量',
+    `last_charging_time` DATETIME DEFAULT NULL COMMENT '充电开始时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户统计变更发件箱表';
+
+-- 20. 导出任务表
+CREATE TABLE `export_job` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `admin_id` BIGINT NOT NULL COMMENT '提交任务的管理员ID',
+    `type` VARCHAR(30) NOT NULL COMMENT '导出类型：USERS/CHARGING_PILES/CHARGING_RECORDS/STATISTICS',
+    `format` VARCHAR(20) NOT NULL COMMENT '文件格式：XLSX/CSV_GZIP',
+    `status` VARCHAR(20) NOT NULL COMMENT '任务状态：PENDING/RUNNING/COMPLETED/FAILED/EXPIRED',
+    `params` TEXT DEFAULT NULL COMMENT '导出条件（JSON）',
+    `row_count` BIGINT NOT NULL DEFAULT 0 COMMENT '已导出行数',
+    `file_name` VARCHAR(200) DEFAULT NULL COMMENT '下载文件名',
+    `file_path` VARCHAR(500) DEFAULT NULL COMMENT '文件存储路径',
+    `file_size` BIGINT DEFAULT NULL COMMENT '文件大小（字节）',
+    `error_message` VARCHAR(500) DEFAULT NULL COMMENT '失败原因',
+    `started_time` DATETIME DEFAULT NULL COMMENT '开始执行时间',
+    `finished_time` DATETIME DEFAULT NULL COMMENT '完成时间',
+    `expire_time` DATETIME DEFAULT NULL COMMENT '文件过期时间',
+    `owner_node` VARCHAR(64) DEFAULT NULL COMMENT '执行节点标识',
+    `heartbeat_time` DATETIME DEFAULT NULL COMMENT '执行节点最近心跳时间',
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_admin_id` (`admin_id`),
+    KEY `idx_status_expire_time` (`status`, `expire_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='导出任务表';
+
 -- 插入初始数据
 
 -- 插入角色数据
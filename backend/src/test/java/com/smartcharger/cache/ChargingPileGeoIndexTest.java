@@ -0,0 +1,124 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.repository.ChargingPileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingPileGeoIndexTest {
+
+    @Mock
+    private ChargingPileRepository chargingPileRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Spy
+    private ChargingPileStatusCache chargingPileStatusCache = new ChargingPileStatusCache(null, null, null, null);
+
+    @InjectMocks
+    private ChargingPileGeoIndex index;
+
+    @Test
+    void findNearbyFiltersByRadiusTypeAndStatusOrderedByDistance() {
+        when(chargingPileRepository.findAll()).thenReturn(List.of(
+                pile(1L, "116.4000000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(2L, "116.4100000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(3L, "116.4050000", "39.9000000", ChargingPileType.AC, ChargingPileStatus.IDLE),
+                pile(4L, "116.4020000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.CHARGING),
+                pile(5L, "116.9000000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(6L, null, null, ChargingPileType.DC, ChargingPileStatus.IDLE)
+        ));
+        index.rebuild();
+
+        List<ChargingPileGeoIndex.Hit> hits = index.findNearby(116.4, 39.9, 5.0,
+                ChargingPileType.DC, ChargingPileStatus.IDLE);
+
+        assertThat(hits).extracting(hit -> hit.pile().id()).containsExactly(1L, 2L);
+        assertThat(hits.get(1).distanceKm()).isBetween(0.8, 0.9);
+    }
+
+    @Test
+    void findNearestExpandsRingsUntilLimitIsSatisfied() {
+        when(chargingPileRepository.findAll()).thenReturn(List.of(
+                pile(1L, "116.4000000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.CHARGING),
+                pile(2L, "116.4300000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(3L, "116.4000000", "39.8500000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(4L, "116.5000000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE),
+                pile(5L, "116.4010000", "39.9000000", ChargingPileType.AC, ChargingPileStatus.IDLE),
+                pile(6L, "117.4000000", "39.9000000", ChargingPileType.DC, ChargingPileStatus.IDLE)
+        ));
+        index.rebuild();
+
+        List<ChargingPileGeoIndex.Hit> hits = index.findNearest(116.4, 39.9, 2, 20.0,
+                ChargingPileType.DC, ChargingPileStatus.IDLE);
+
+        assertThat(hits).extracting(hit -> hit.pile().id()).containsExactly(2L, 3L);
+        assertThat(index.findNearest(116.4, 39.9, 5, 20.0, ChargingPileType.DC, ChargingPileStatus.IDLE))
+                .extracting(hit -> hit.pile().id()).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void upsertMovesPileBetweenCellsAndRemoveDropsIt() {
+        when(chargingPileRepository.findAll()).thenReturn(List.of(
+                pile(1L, "116.4000000", "39.9000000", ChargingPileType.AC, ChargingPileStatus.IDLE)));
+        index.rebuild();
+
+        index.upsert(pile(1L, "121.4700000", "31.2300000", ChargingPileType.AC, ChargingPileStatus.IDLE));
+        assertThat(index.findNearby(116.4, 39.9, 10.0, null, null)).isEmpty();
+        assertThat(index.findNearby(121.47, 31.23, 1.0, null, null)).hasSize(1);
+
+        index.remove(1L);
+        assertThat(index.findNearby(121.47, 31.23, 1.0, null, null)).isEmpty();
+    }
+
+    @Test
+    void changesAppliedDuringRebuildAreNotRevertedBySnapshot() {
+        when(chargingPileRepository.findAll()).thenAnswer(invocation -> {
+            // 加载结果读取之后、替换之前提交的变更
+            index.upsert(pile(1L, "121.4700000", "31.2300000", ChargingPileType.AC, ChargingPileStatus.IDLE));
+            index.remove(2L);
+            return List.of(
+                    pile(1L, "116.4000000", "39.9000000", ChargingPileType.AC, ChargingPileStatus.IDLE),
+                    pile(2L, "116.4010000", "39.9000000", ChargingPileType.AC, ChargingPileStatus.IDLE));
+        });
+
+        index.rebuild();
+
+        assertThat(index.findNearby(116.4, 39.9, 10.0, null, null)).isEmpty();
+        assertThat(index.findNearby(121.47, 31.23, 1.0, null, null))
+                .extracting(hit -> hit.pile().id()).containsExactly(1L);
+        assertThat(index.get(2L)).isNull();
+    }
+
+    private ChargingPile pile(Long id, String lng, String lat, ChargingPileType type, ChargingPileStatus status) {
+        ChargingPile pile = new ChargingPile();
+        pile.setId(id);
+        pile.setCode("P-" + id);
+        pile.setLocation("A" + id);
+        pile.setLng(lng != null ? new BigDecimal(lng) : null);
+        pile.setLat(lat != null ? new BigDecimal(lat) : null);
+        pile.setType(type);
+        pile.setPower(new BigDecimal("60.00"));
+        pile.setStatus(status);
+        return pile;
+    }
+}
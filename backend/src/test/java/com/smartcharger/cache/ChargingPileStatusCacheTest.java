@@ -0,0 +1,116 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingPileStatusCacheTest {
+
+    @Mock
+    private ChargingPileRepository chargingPileRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ChargingPileStatusCache cache;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transitionsKeepCountsInStepAndMirrorToRedis() {
+        when(chargingPileRepository.findAll()).thenReturn(List.of(
+                pile(1L, ChargingPileStatus.IDLE),
+                pile(2L, ChargingPileStatus.IDLE),
+                pile(3L, ChargingPileStatus.FAULT)));
+        cache.rebuild();
+
+        cache.onStatusChanged(2L, ChargingPileStatus.CHARGING);
+        cache.onStatusChanged(100L, ChargingPileStatus.IDLE);
+        cache.onPileRemoved(3L);
+
+        assertThat(cache.isReady()).isTrue();
+        assertThat(cache.statusOf(2L)).isEqualTo(ChargingPileStatus.CHARGING);
+        assertThat(cache.statusOf(3L)).isNull();
+        assertThat(cache.count(ChargingPileStatus.IDLE)).isEqualTo(2);
+        assertThat(cache.count(ChargingPileStatus.CHARGING)).isEqualTo(1);
+        assertThat(cache.count(ChargingPileStatus.FAULT)).isZero();
+        assertThat(cache.filter(List.of(1L, 2L, 3L, 100L, 999L), ChargingPileStatus.IDLE)).containsExactly(1L, 100L);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(), eq("2"),
+                eq(String.valueOf(ChargingPileStatus.CHARGING.ordinal() + 1)), any());
+    }
+
+    @Test
+    void appliesChangesPublishedByOtherNodes() {
+        cache.onMessage(new DefaultMessage(ChargingPileStatusCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node|7|OVERTIME".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.statusOf(7L)).isEqualTo(ChargingPileStatus.OVERTIME);
+        assertThat(cache.count(ChargingPileStatus.OVERTIME)).isEqualTo(1);
+        assertThat(cache.statusOf(8L, ChargingPileStatus.IDLE)).isEqualTo(ChargingPileStatus.IDLE);
+        verify(eventPublisher).publishEvent(new ChargingPileStatusChangedEvent(7L, ChargingPileStatus.OVERTIME));
+    }
+
+    @Test
+    void transitionAppliedDuringRebuildIsNotRevertedBySnapshot() {
+        when(chargingPileRepository.findAll()).thenAnswer(invocation -> {
+            // 快照读取之后、替换之前提交的变更
+            cache.onStatusChanged(1L, ChargingPileStatus.CHARGING);
+            return List.of(pile(1L, ChargingPileStatus.IDLE), pile(2L, ChargingPileStatus.IDLE));
+        });
+
+        cache.rebuild();
+
+        assertThat(cache.statusOf(1L)).isEqualTo(ChargingPileStatus.CHARGING);
+        assertThat(cache.count(ChargingPileStatus.CHARGING)).isEqualTo(1);
+        assertThat(cache.count(ChargingPileStatus.IDLE)).isEqualTo(1);
+    }
+
+    @Test
+    void largeIdsAreKeptOutsideTheDenseArray() {
+        long largeId = Integer.MAX_VALUE + 10L;
+        when(chargingPileRepository.findAll()).thenReturn(List.of(
+                pile(1L, ChargingPileStatus.IDLE),
+                pile(largeId, ChargingPileStatus.FAULT)));
+
+        cache.rebuild();
+        cache.onStatusChanged(largeId, ChargingPileStatus.IDLE);
+
+        assertThat(cache.statusOf(largeId)).isEqualTo(ChargingPileStatus.IDLE);
+        assertThat(cache.count(ChargingPileStatus.IDLE)).isEqualTo(2);
+        assertThat(cache.count(ChargingPileStatus.FAULT)).isZero();
+    }
+
+    private ChargingPile pile(Long id, ChargingPileStatus status) {
+        ChargingPile pile = new ChargingPile();
+        pile.setId(id);
+        pile.setStatus(status);
+        return pile;
+    }
+}
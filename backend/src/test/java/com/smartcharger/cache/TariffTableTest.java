@@ -0,0 +1,96 @@
+package com.smartcharger.cache;
+
+import com.smartcharger.entity.PriceConfig;
+import com.smartcharger.repository.PriceConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TariffTableTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private PriceConfigRepository priceConfigRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private TariffTable tariffTable;
+
+    @Test
+    void findLocatesWindowByStartTimeAndRespectsGaps() {
+        when(priceConfigRepository.findByIsActive(1)).thenReturn(List.of(
+                config(3L, "DC", "1.50", DAY.plusHours(18), DAY.plusHours(22), DAY),
+                config(1L, "DC", "0.80", DAY, DAY.plusHours(8), DAY),
+                config(2L, "DC", "1.20", DAY.plusHours(9), DAY.plusHours(17), DAY),
+                config(4L, "AC", "0.60", null, null, DAY)
+        ));
+
+        assertThat(tariffTable.find("DC", DAY.plusHours(10)).id()).isEqualTo(2L);
+        assertThat(tariffTable.find("DC", DAY.plusHours(22)).id()).isEqualTo(3L);
+        assertThat(tariffTable.find("DC", DAY.plusHours(8).plusMinutes(30))).isNull();
+        assertThat(tariffTable.find("DC", DAY.minusMinutes(1))).isNull();
+        assertThat(tariffTable.find("AC", DAY.plusYears(5)).id()).isEqualTo(4L);
+        assertThat(tariffTable.find("UNKNOWN", DAY)).isNull();
+        assertThat(tariffTable.current().windows("DC")).extracting(TariffTable.Tariff::id)
+                .containsExactly(1L, 2L, 3L);
+        verify(priceConfigRepository, times(1)).findByIsActive(1);
+    }
+
+    @Test
+    void overlappingWindowsPreferLatestCreated() {
+        when(priceConfigRepository.findByIsActive(1)).thenReturn(List.of(
+                config(1L, "DC", "1.00", null, null, DAY.minusDays(10)),
+                config(2L, "DC", "2.00", DAY, DAY.plusDays(1), DAY.minusDays(1))
+        ));
+
+        assertThat(tariffTable.find("DC", DAY.plusHours(1)).id()).isEqualTo(2L);
+        assertThat(tariffTable.find("DC", DAY.plusDays(2)).id()).isEqualTo(1L);
+    }
+
+    @Test
+    void reloadSwapsInNewerVersion() {
+        when(priceConfigRepository.findByIsActive(1))
+                .thenReturn(List.of(config(1L, "DC", "1.00", null, null, DAY)))
+                .thenReturn(List.of(config(2L, "DC", "1.30", null, null, DAY)));
+
+        tariffTable.reload();
+        long firstVersion = tariffTable.current().version();
+        tariffTable.onConfigChanged();
+
+        assertThat(tariffTable.current().version()).isGreaterThan(firstVersion);
+        assertThat(tariffTable.find("DC", DAY).pricePerKwh()).isEqualByComparingTo("1.30");
+    }
+
+    private PriceConfig config(Long id, String type, String price, LocalDateTime start, LocalDateTime end,
+                               LocalDateTime createdTime) {
+        PriceConfig config = new PriceConfig();
+        config.setId(id);
+        config.setChargingPileType(type);
+        config.setPricePerKwh(new BigDecimal(price));
+        config.setServiceFee(new BigDecimal("0.40"));
+        config.setStartTime(start);
+        config.setEndTime(end);
+        config.setCreatedTime(createdTime);
+        return config;
+    }
+}
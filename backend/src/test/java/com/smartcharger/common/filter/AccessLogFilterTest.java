@@ -0,0 +1,74 @@
+package com.smartcharger.common.filter;
+
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogFilterTest {
+
+    @Test
+    void capturesBodyOnlyForConfiguredNonMultipartRoutesUpToTheCap() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(List.of("/admin/charging-piles/**", " "), 8, 1.0, 1000);
+        MockHttpServletRequest request = request("POST", "/admin/charging-piles/batch");
+        request.setContentType("application/json");
+        request.setContent("{\"code\":\"P-0001\"}".getBytes(StandardCharsets.UTF_8));
+        AtomicReference<Object> seen = new AtomicReference<>();
+
+        new MockFilterChain(new HttpServlet() {
+        }, filter, (req, res, chain) -> {
+            seen.set(req);
+            StreamUtils.copyToByteArray(req.getInputStream());
+        }).doFilter(request, new MockHttpServletResponse());
+
+        assertThat(seen.get()).isInstanceOf(ContentCachingRequestWrapper.class);
+        assertThat(filter.log((ContentCachingRequestWrapper) seen.get(), 200, 1_500_000))
+                .contains("\"path\":\"/admin/charging-piles/batch\"", "\"latencyUs\":1500", "\"body\":\"{\\\"code\\\":\"");
+
+        MockHttpServletRequest multipart = request("POST", "/admin/charging-piles/import");
+        multipart.setContentType("multipart/form-data; boundary=x");
+        assertThat(filter.capturesBody(multipart)).isFalse();
+        assertThat(filter.capturesBody(request("POST", "/auth/login"))).isFalse();
+    }
+
+    @Test
+    void samplesFastSuccessfulGetsButKeepsErrorsAndSlowRequests() {
+        AccessLogFilter filter = new AccessLogFilter(List.of(), 2048, 0.0, 1000);
+        MockHttpServletRequest get = request("GET", "/charging-piles");
+        get.setQueryString("keyword=a\"b");
+        get.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, 42L);
+
+        assertThat(filter.log(get, 200, 1_000_000)).isNull();
+        assertThat(filter.log(get, 500, 1_000_000))
+                .isEqualTo("{\"method\":\"GET\",\"path\":\"/charging-piles\",\"query\":\"keyword=a\\\"b\"," +
+                        "\"status\":500,\"latencyUs\":1000,\"userId\":42,\"ip\":\"127.0.0.1\"}");
+        assertThat(filter.log(get, 200, 2_000_000_000L)).contains("\"status\":200");
+        assertThat(filter.log(request("POST", "/charging-record/start"), 200, 1_000_000)).isNotNull();
+    }
+
+    @Test
+    void redactsQueryToken() {
+        AccessLogFilter filter = new AccessLogFilter(List.of(), 2048, 1.0, 1000);
+        MockHttpServletRequest get = request("GET", "/charging-piles/stream");
+        get.setQueryString("minLng=116.3&access_token=secret.jwt.value&maxLng=116.5");
+
+        assertThat(filter.log(get, 200, 1_000_000))
+                .contains("\"query\":\"minLng=116.3&access_token=***&maxLng=116.5\"")
+                .doesNotContain("secret");
+    }
+
+    private MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        return request;
+    }
+}
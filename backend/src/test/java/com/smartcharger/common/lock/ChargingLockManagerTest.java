@@ -0,0 +1,75 @@
+package com.smartcharger.common.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingLockManagerTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChargingLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = new ChargingLockManager(stringRedisTemplate, meterRegistry, 100L, 30_000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acquiresUserKeyInOneScriptCallAndReleasesOnClose() throws InterruptedException {
+        List<String> keys = List.of(ChargingLockManager.USER_LOCK_PREFIX + 7);
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(keys), anyString(), eq("30000"))).thenReturn(0L);
+
+        try (ChargingLockManager.StartLock lock = lockManager.tryAcquireStartLocks(7L, 3L)) {
+            assertThat(lock.isAcquired()).isTrue();
+        }
+
+        verify(stringRedisTemplate, times(1)).execute(any(RedisScript.class), eq(keys), anyString(), eq("30000"));
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(keys), anyString());
+        assertThat(meterRegistry.get("charging.start.lock.wait").tag("result", "acquired").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("charging.start.lock.hold").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsWhichLockIsHeldAfterWaitExpires() throws InterruptedException {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(1L);
+
+        try (ChargingLockManager.StartLock lock = lockManager.tryAcquireStartLocks(7L, 3L)) {
+            assertThat(lock.isAcquired()).isFalse();
+            assertThat(lock.getBlockedBy()).isEqualTo(ChargingLockManager.LockOwner.USER);
+        }
+
+        assertThat(meterRegistry.get("charging.start.lock.wait").tag("result", "timeout").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("charging.start.lock.hold").timer().count()).isZero();
+        assertThat(meterRegistry.get("charging.start.lock.failures").tag("lock", "user").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("charging.start.lock.failures").tag("lock", "pile").counter().count()).isZero();
+
+        // 本地分段锁已释放，同一充电桩的下一次请求不会被本节点阻塞
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(0L);
+        try (ChargingLockManager.StartLock lock = lockManager.tryAcquireStartLocks(8L, 3L)) {
+            assertThat(lock.isAcquired()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartcharger.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrometheusScrapeEndpointTest {
+
+    @Test
+    void writesCountersTimersAndGaugesInTextFormat() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Counter.builder("charging.complete").tag("reason", "USER_MANUAL").register(registry).increment(3);
+        Timer timer = Timer.builder("charging.start.tx").tag("phase", "commit").register(registry);
+        timer.record(250, TimeUnit.MILLISECONDS);
+        timer.record(750, TimeUnit.MILLISECONDS);
+        Gauge.builder("hikaricp.connections.pending", () -> 2).tag("pool", "say \"hi\"").register(registry);
+
+        String text = new PrometheusScrapeEndpoint(registry).scrape();
+
+        assertThat(text).contains(
+                "# TYPE charging_complete_total counter\n" +
+                        "charging_complete_total{reason=\"USER_MANUAL\"} 3.0\n",
+                "# TYPE charging_start_tx_seconds summary\n" +
+                        "charging_start_tx_seconds_count{phase=\"commit\"} 2.0\n" +
+                        "charging_start_tx_seconds_sum{phase=\"commit\"} 1.0\n",
+                "# TYPE charging_start_tx_seconds_max gauge\n" +
+                        "charging_start_tx_seconds_max{phase=\"commit\"} 0.75\n",
+                "hikaricp_connections_pending{pool=\"say \\\"hi\\\"\"} 2.0\n");
+    }
+}
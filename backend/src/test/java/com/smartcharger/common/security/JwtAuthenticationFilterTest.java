@@ -0,0 +1,45 @@
+package com.smartcharger.common.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtTokenProvider);
+        ReflectionTestUtils.setField(filter, "headerString", "Authorization");
+        ReflectionTestUtils.setField(filter, "tokenPrefix", "Bearer");
+    }
+
+    @Test
+    void acceptsQueryTokenOnlyForTheStatusStream() {
+        assertThat(filter.getTokenFromRequest(request("GET", "/charging-piles/stream"))).isEqualTo("query-token");
+        assertThat(filter.getTokenFromRequest(request("GET", "/charging-piles"))).isNull();
+        assertThat(filter.getTokenFromRequest(request("POST", "/charging-piles/stream"))).isNull();
+
+        MockHttpServletRequest withHeader = request("GET", "/charging-piles/stream");
+        withHeader.addHeader("Authorization", "Bearer header-token");
+        assertThat(filter.getTokenFromRequest(withHeader)).isEqualTo("header-token");
+    }
+
+    private MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        request.setParameter(JwtAuthenticationFilter.QUERY_TOKEN_PARAMETER, "query-token");
+        return request;
+    }
+}
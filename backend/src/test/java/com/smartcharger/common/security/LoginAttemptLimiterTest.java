@@ -0,0 +1,49 @@
+package com.smartcharger.common.security;
+
+import com.smartcharger.common.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptLimiterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Test
+    void ipLimitIsIgnoredUnlessEnabled() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("login:fail:user:alice")))
+                .thenReturn(Arrays.asList((String) null));
+
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(stringRedisTemplate, 5, 0, 900);
+
+        assertThatCode(() -> limiter.checkAllowed("alice", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsWhenEnabledIpLimitIsReached() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("login:fail:user:alice", "login:fail:ip:10.0.0.1")))
+                .thenReturn(Arrays.asList(null, "50"));
+
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(stringRedisTemplate, 5, 50, 900);
+
+        assertThatThrownBy(() -> limiter.checkAllowed("alice", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
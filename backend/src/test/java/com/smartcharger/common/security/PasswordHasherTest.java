@@ -0,0 +1,86 @@
+package com.smartcharger.common.security;
+
+import com.smartcharger.common.exception.TooManyRequestsException;
+import com.smartcharger.common.result.ResultCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    @Test
+    void upgradesLegacyAndWeakerHashesOnSuccessfulVerification() {
+        PasswordHasher hasher = new PasswordHasher(encoder(5), 1, 4);
+        try {
+            String legacy = new BCryptPasswordEncoder(4).encode("secret123");
+            String current = encoder(5).encode("secret123");
+
+            PasswordHasher.Verification upgraded = hasher.verify("secret123", legacy).join();
+            PasswordHasher.Verification unchanged = hasher.verify("secret123", current).join();
+            PasswordHasher.Verification mismatch = hasher.verify("wrong", legacy).join();
+
+            assertThat(upgraded.matched()).isTrue();
+            assertThat(upgraded.upgradedPassword()).startsWith("{bcrypt}$2a$05$");
+            assertThat(hasher.matches("secret123", upgraded.upgradedPassword()).join()).isTrue();
+            assertThat(unchanged.matched()).isTrue();
+            assertThat(unchanged.upgradedPassword()).isNull();
+            assertThat(mismatch.matched()).isFalse();
+            assertThat(mismatch.upgradedPassword()).isNull();
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(started, release), 1, 1);
+        try {
+            hasher.encode("running");
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            hasher.encode("queued");
+
+            assertThatThrownBy(() -> hasher.encode("rejected"))
+                    .isInstanceOf(TooManyRequestsException.class)
+                    .extracting("code").isEqualTo(ResultCode.TOO_MANY_REQUESTS.getCode());
+        } finally {
+            release.countDown();
+            hasher.shutdown();
+        }
+    }
+
+    private static PasswordEncoder encoder(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return encoder;
+    }
+
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.smartcharger.common.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TokenValidationCacheTest {
+
+    private static final long FAR_FUTURE = Long.MAX_VALUE;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenValidationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenValidationCache(stringRedisTemplate, listenerContainer, 60, 2);
+    }
+
+    @Test
+    void cachesTokensUntilEarlierOfTtlAndTokenExpiry() {
+        TokenPrincipal principal = new TokenPrincipal(1L, "alice");
+        cache.putToken("token-a", principal, 3, FAR_FUTURE);
+        cache.putToken("token-b", new TokenPrincipal(2L, "bob"), 0, System.currentTimeMillis() - 1);
+
+        assertThat(cache.getToken("token-a").principal()).isEqualTo(principal);
+        assertThat(cache.getToken("token-a").sessionEpoch()).isEqualTo(3);
+        assertThat(cache.getToken("token-b")).isNull();
+        assertThat(cache.getToken("unknown")).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTokensBeyondCapacity() {
+        cache.putToken("token-a", new TokenPrincipal(1L, "alice"), 0, FAR_FUTURE);
+        cache.putToken("token-b", new TokenPrincipal(2L, "bob"), 0, FAR_FUTURE);
+        cache.getToken("token-a");
+        cache.putToken("token-c", new TokenPrincipal(3L, "carol"), 0, FAR_FUTURE);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getToken("token-a")).isNotNull();
+        assertThat(cache.getToken("token-b")).isNull();
+    }
+
+    @Test
+    void epochNeverMovesBackwards() {
+        assertThat(cache.getEpoch(1L)).isNull();
+
+        cache.updateEpoch(1L, 2);
+        // 吊销前读取的旧纪元晚于吊销通知写入
+        assertThat(cache.updateEpoch(1L, 1)).isEqualTo(2);
+        assertThat(cache.getEpoch(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void publishesEpochAndAppliesEpochsFromOtherNodes() {
+        cache.publishEpoch(1L, 4);
+        cache.onMessage(new DefaultMessage(TokenValidationCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "2|7".getBytes(StandardCharsets.UTF_8)), null);
+        cache.onMessage(new DefaultMessage(TokenValidationCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "malformed".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.getEpoch(1L)).isEqualTo(4);
+        assertThat(cache.getEpoch(2L)).isEqualTo(7);
+        verify(stringRedisTemplate).convertAndSend(TokenValidationCache.CHANNEL, "1|4");
+    }
+}
@@ -0,0 +1,70 @@
+package com.smartcharger.controller;
+
+import com.smartcharger.common.config.SecurityConfig;
+import com.smartcharger.common.security.JwtAuthenticationFilter;
+import com.smartcharger.common.security.JwtTokenProvider;
+import com.smartcharger.common.security.TokenPrincipal;
+import com.smartcharger.dto.request.ChangePasswordRequest;
+import com.smartcharger.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 异步返回的已认证接口：再次分派时JWT过滤器不执行，结果仍须正常写出
+ */
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+class AuthControllerAsyncSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void asyncDispatchOfAuthenticatedRequestIsNotRejected() throws Exception {
+        when(jwtTokenProvider.authenticate("valid-token")).thenReturn(new TokenPrincipal(7L, "alice"));
+        when(authService.changePassword(eq(7L), any(ChangePasswordRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult result = mockMvc.perform(put("/auth/password")
+                        .header("Authorization", "Bearer valid-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"oldPassword\":\"old-secret\",\"newPassword\":\"new-secret\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200));
+    }
+
+    @Test
+    void requestWithoutTokenIsStillRejected() throws Exception {
+        mockMvc.perform(put("/auth/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"oldPassword\":\"old-secret\",\"newPassword\":\"new-secret\"}"))
+                .andExpect(status().isForbidden());
+    }
+}
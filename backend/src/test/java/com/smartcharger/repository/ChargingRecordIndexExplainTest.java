@@ -0,0 +1,193 @@
+package com.smartcharger.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * 充电记录热点查询的执行计划回归测试
+ * 在MySQL中创建临时库（表结构取自schema.sql，去掉外键），写入有代表性分布的数据并ANALYZE后，
+ * 对各热点查询执行EXPLAIN：退化为全表扫描或未使用预期索引时测试失败。
+ * 需要可用的MySQL，通过 -Dexplain.jdbc-url=jdbc:mysql://host:3306/ 启用（可选 explain.jdbc-user、explain.jdbc-password），未指定时跳过。
+ * CI以 mysql-explain profile 运行（见pom.xml），此时未指定连接会直接失败，保证该门禁不会被静默跳过。
+ */
+class ChargingRecordIndexExplainTest {
+
+    private static final String DATABASE = "smart_charger_explain_" + System.currentTimeMillis();
+    private static final int ROW_COUNT = 20_000;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        String jdbcUrl = System.getProperty("explain.jdbc-url");
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            if (Boolean.getBoolean("explain.required")) {
+                fail("explain.jdbc-url must be set when the mysql-explain profile is active");
+            }
+            Assumptions.abort("explain.jdbc-url not set");
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("explain.jdbc-user", "root"));
+        properties.setProperty("password", System.getProperty("explain.jdbc-password", ""));
+        properties.setProperty("rewriteBatchedStatements", "true");
+        connection = DriverManager.getConnection(jdbcUrl, properties);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE `" + DATABASE + "` DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci");
+            statement.execute("USE `" + DATABASE + "`");
+            for (String createTable : loadCreateTableStatements()) {
+                statement.execute(createTable);
+            }
+        }
+        insertRecords();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE charging_record");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws Exception {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP DATABASE IF EXISTS `" + DATABASE + "`");
+            }
+            connection.close();
+        }
+    }
+
+    /**
+     * ChargingRecordRepository.findByUserIdAndStatus：开始充电时检查当前会话
+     */
+    @Test
+    void currentSessionLookupUsesUserStatusIndex() throws Exception {
+        assertUsesIndex("SELECT * FROM charging_record WHERE user_id = 42 AND status = 'CHARGING'",
+                "idx_user_status");
+    }
+
+    /**
+     * ChargingRecordRepository.findByStatusAndTargetEndTimeIsNotNull：自动结束调度补齐
+     */
+    @Test
+    void autoCompleteRebuildUsesStatusTargetEndTimeIndex() throws Exception {
+        assertUsesIndex("SELECT * FROM charging_record WHERE status = 'CHARGING' AND target_end_time IS NOT NULL",
+                "idx_status_target_end_time");
+    }
+
+    /**
+     * ChargingRecordRepository.findOvertimeEscalationCandidates 的内层扫描（外层按ID排序取LIMIT）
+     */
+    @Test
+    void overtimeScanUsesStatusLeaveTimeIndex() throws Exception {
+        assertUsesIndex("SELECT id, user_id, charging_pile_id, end_time FROM charging_record " +
+                        "WHERE status = 'COMPLETED' AND leave_time IS NULL AND end_time IS NOT NULL AND id > 0 " +
+                        "ORDER BY id",
+                "idx_status_leave_time");
+    }
+
+    /**
+     * ChargingStatsDailyRepository.rebuild 等营收汇总重建
+     */
+    @Test
+    void revenueRollupUsesStatusStartTimeIndex() throws Exception {
+        assertUsesIndex("SELECT DATE(start_time), charging_pile_id, COUNT(*), SUM(fee) FROM charging_record " +
+                        "WHERE status = 'COMPLETED' AND start_time >= '2024-06-01 00:00:00' " +
+                        "AND start_time < '2024-06-02 00:00:00' GROUP BY DATE(start_time), charging_pile_id",
+                "idx_status_start_time");
+    }
+
+    private void assertUsesIndex(String sql, String... expectedKeys) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            assertThat(plan.next()).isTrue();
+            String type = plan.getString("type");
+            String key = plan.getString("key");
+            assertThat(type).as("access type of: %s", sql).isNotEqualTo("ALL");
+            assertThat(key).as("index chosen for: %s", sql).isIn((Object[]) expectedKeys);
+        }
+    }
+
+    /**
+     * 充电记录分布：约1%充电中、95%已完成（其中约1%未驶离）、4%已取消，开始时间分布在一年内
+     */
+    private static void insertRecords() throws Exception {
+        Random random = new Random(20240601L);
+        String sql = "INSERT INTO charging_record (user_id, charging_pile_id, start_time, end_time, leave_time, " +
+                "target_end_time, pre_end_notice_sent, fee, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                LocalDateTime startTime = BASE_TIME.plusMinutes(random.nextInt(365 * 24 * 60));
+                LocalDateTime endTime = startTime.plusMinutes(30 + random.nextInt(180));
+                int bucket = random.nextInt(100);
+                String status = bucket < 1 ? "CHARGING" : bucket < 96 ? "COMPLETED" : "CANCELLED";
+                boolean charging = "CHARGING".equals(status);
+                boolean lingering = "COMPLETED".equals(status) && random.nextInt(100) == 0;
+
+                statement.setLong(1, 1 + random.nextInt(2000));
+                statement.setLong(2, 1 + random.nextInt(300));
+                statement.setTimestamp(3, Timestamp.valueOf(startTime));
+                statement.setTimestamp(4, charging ? null : Timestamp.valueOf(endTime));
+                statement.setTimestamp(5, charging || lingering ? null : Timestamp.valueOf(endTime.plusMinutes(10)));
+                statement.setTimestamp(6, charging || random.nextBoolean() ? Timestamp.valueOf(endTime) : null);
+                statement.setInt(7, charging && random.nextInt(4) > 0 ? 0 : 1);
+                statement.setBigDecimal(8, BigDecimal.valueOf(random.nextInt(10_000), 2));
+                statement.setString(9, status);
+                statement.addBatch();
+                if (i % 1000 == 999) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * 读取schema.sql中的建表语句并去掉外键约束（临时库中不需要引用完整性）
+     */
+    private static List<String> loadCreateTableStatements() throws IOException {
+        String schema;
+        try (InputStream in = ChargingRecordIndexExplainTest.class.getClassLoader().getResourceAsStream("schema.sql")) {
+            assertThat(in).as("schema.sql on classpath").isNotNull();
+            schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String statement : schema.split(";\\s*\\n")) {
+            StringBuilder table = new StringBuilder();
+            for (String line : statement.split("\\n")) {
+                String trimmed = line.trim();
+                if (trimmed.startsWith("--") || trimmed.startsWith("CONSTRAINT")) {
+                    continue;
+                }
+                table.append(line).append('\n');
+            }
+            String sql = table.toString().trim();
+            if (sql.startsWith("CREATE TABLE")) {
+                statements.add(sql.replaceAll(",\\s*\\)\\s*ENGINE", "\n) ENGINE"));
+            }
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,101 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.TariffTable;
+import com.smartcharger.dto.response.ChargingFeeResult;
+import com.smartcharger.dto.response.ChargingRecordResponse;
+import com.smartcharger.entity.PriceConfig;
+import com.smartcharger.repository.PriceConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingFeeServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private PriceConfigRepository priceConfigRepository;
+
+    private ChargingFeeServiceImpl chargingFeeService;
+
+    @BeforeEach
+    void setUp() {
+        chargingFeeService = new ChargingFeeServiceImpl(new TariffTable(priceConfigRepository, null, null));
+    }
+
+    @Test
+    void singleWindowMatchesFlatRateCalculation() {
+        when(priceConfigRepository.findByIsActive(1)).thenReturn(List.of(
+                config(1L, "1.00", "0.50", null, null)));
+
+        ChargingFeeResult result = chargingFeeService.calculate("DC", new BigDecimal("60.00"),
+                DAY.plusHours(10), DAY.plusHours(10).plusMinutes(30));
+
+        assertThat(result.getElectricQuantity()).isEqualByComparingTo("30.000");
+        assertThat(result.getElectricityFee()).isEqualByComparingTo("30.00");
+        assertThat(result.getServiceFee()).isEqualByComparingTo("15.00");
+        assertThat(result.getTotalFee()).isEqualByComparingTo("45.00");
+        assertThat(result.getSegments()).hasSize(1);
+    }
+
+    @Test
+    void sessionIsSplitAcrossPeakAndOffPeakWindows() {
+        when(priceConfigRepository.findByIsActive(1)).thenReturn(List.of(
+                config(1L, "0.60", "0.40", DAY, DAY.plusHours(7).plusMinutes(59).plusSeconds(59)),
+                config(2L, "1.20", "0.40", DAY.plusHours(8), DAY.plusHours(11).plusMinutes(59).plusSeconds(59))
+        ));
+
+        ChargingFeeResult result = chargingFeeService.calculate("DC", new BigDecimal("7.00"),
+                DAY.plusHours(7), DAY.plusHours(9).plusMinutes(30));
+
+        List<ChargingRecordResponse.FeeSegment> segments = result.getSegments();
+        assertThat(segments).extracting(ChargingRecordResponse.FeeSegment::getPriceConfigId)
+                .containsExactly(1L, 2L);
+        assertThat(segments.get(0).getEndTime()).isEqualTo(DAY.plusHours(8));
+        assertThat(segments.get(0).getElectricQuantity()).isEqualByComparingTo("7.000");
+        assertThat(segments.get(0).getFee()).isEqualByComparingTo("7.00");
+        assertThat(segments.get(1).getElectricQuantity()).isEqualByComparingTo("10.500");
+        assertThat(segments.get(1).getFee()).isEqualByComparingTo("16.80");
+        assertThat(result.getElectricQuantity()).isEqualByComparingTo("17.500");
+        assertThat(result.getTotalFee()).isEqualByComparingTo("23.80");
+    }
+
+    @Test
+    void segmentQuantitiesAlwaysSumToSessionTotal() {
+        when(priceConfigRepository.findByIsActive(1)).thenReturn(List.of(
+                config(1L, "0.61", "0.33", null, DAY.plusHours(8).plusSeconds(6)),
+                config(2L, "1.17", "0.33", DAY.plusHours(8).plusSeconds(7), null)
+        ));
+
+        ChargingFeeResult result = chargingFeeService.calculate("DC", new BigDecimal("7.33"),
+                DAY.plusHours(7).plusSeconds(13), DAY.plusHours(9).plusSeconds(11));
+
+        BigDecimal segmentTotal = result.getSegments().stream()
+                .map(ChargingRecordResponse.FeeSegment::getElectricQuantity)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(segmentTotal).isEqualByComparingTo(result.getElectricQuantity());
+        assertThat(result.getElectricQuantity()).isEqualByComparingTo("14.655");
+    }
+
+    private PriceConfig config(Long id, String price, String serviceFee, LocalDateTime start, LocalDateTime end) {
+        PriceConfig config = new PriceConfig();
+        config.setId(id);
+        config.setChargingPileType("DC");
+        config.setPricePerKwh(new BigDecimal(price));
+        config.setServiceFee(new BigDecimal(serviceFee));
+        config.setStartTime(start);
+        config.setEndTime(end);
+        config.setCreatedTime(DAY.minusDays(1));
+        return config;
+    }
+}
@@ -0,0 +1,93 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusCache;
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingPileStateMachineImplTest {
+
+    @Mock
+    private ChargingPileRepository chargingPileRepository;
+
+    @Mock
+    private ChargingPileGeoIndex chargingPileGeoIndex;
+
+    @Mock
+    private ChargingPileStatusCache chargingPileStatusCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ChargingPileStateMachineImpl stateMachine;
+
+    @Test
+    void compareAndSetAppliesConditionalUpdateFromLoadedStatus() {
+        ChargingPile pile = buildPile(ChargingPileStatus.IDLE);
+        when(chargingPileRepository.compareAndSetStatus(1L, ChargingPileStatus.IDLE, ChargingPileStatus.CHARGING))
+                .thenReturn(1);
+
+        assertThat(stateMachine.compareAndSet(pile, ChargingPileStatus.CHARGING)).isTrue();
+
+        assertThat(pile.getStatus()).isEqualTo(ChargingPileStatus.CHARGING);
+        verify(chargingPileGeoIndex).onPileChanged(pile);
+        verify(chargingPileStatusCache).onStatusChanged(1L, ChargingPileStatus.CHARGING);
+    }
+
+    @Test
+    void compareAndSetLosesRaceWithoutTouchingEntity() {
+        ChargingPile pile = buildPile(ChargingPileStatus.IDLE);
+        when(chargingPileRepository.compareAndSetStatus(1L, ChargingPileStatus.IDLE, ChargingPileStatus.CHARGING))
+                .thenReturn(0);
+
+        assertThat(stateMachine.compareAndSet(pile, ChargingPileStatus.CHARGING)).isFalse();
+        assertThatThrownBy(() -> stateMachine.transition(pile, ChargingPileStatus.CHARGING))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ResultCode.CHARGING_PILE_BUSY.getCode());
+
+        assertThat(pile.getStatus()).isEqualTo(ChargingPileStatus.IDLE);
+        verify(chargingPileGeoIndex, never()).onPileChanged(any());
+    }
+
+    @Test
+    void illegalTransitionIsRejectedBeforeAnyUpdate() {
+        ChargingPile pile = buildPile(ChargingPileStatus.FAULT);
+
+        assertThat(stateMachine.compareAndSet(pile, ChargingPileStatus.WAITING_LEAVE)).isFalse();
+        assertThatThrownBy(() -> stateMachine.transition(pile, ChargingPileStatus.CHARGING))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ResultCode.CHARGING_PILE_TRANSITION_ILLEGAL.getCode());
+        assertThat(stateMachine.sourcesOf(ChargingPileStatus.OVERTIME))
+                .containsExactlyInAnyOrder(ChargingPileStatus.IDLE, ChargingPileStatus.WAITING_LEAVE);
+
+        verify(chargingPileRepository, never()).compareAndSetStatus(any(), any(), any());
+    }
+
+    private ChargingPile buildPile(ChargingPileStatus status) {
+        ChargingPile pile = new ChargingPile();
+        pile.setId(1L);
+        pile.setCode("P-001");
+        pile.setStatus(status);
+        return pile;
+    }
+}
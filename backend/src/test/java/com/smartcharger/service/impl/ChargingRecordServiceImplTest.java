@@ -0,0 +1,158 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.lock.ChargingLockManager;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.dto.response.ChargingFeeResult;
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.ChargingRecord;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.entity.enums.ChargingRecordStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.service.ChargingFeeService;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.service.ChargingScheduleService;
+import com.smartcharger.service.StartChargingTxService;
+import com.smartcharger.service.StatisticsRollupService;
+import com.smartcharger.service.UserStatsService;
+import com.smartcharger.service.WarningNoticeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingRecordServiceImplTest {
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private ChargingPileRepository chargingPileRepository;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private ChargingFeeService chargingFeeService;
+
+    @Mock
+    private ChargingLockManager chargingLockManager;
+
+    @Mock
+    private StartChargingTxService startChargingTxService;
+
+    @Mock
+    private WarningNoticeService warningNoticeService;
+
+    @Mock
+    private ChargingScheduleService chargingScheduleService;
+
+    @Mock
+    private ChargingPileStateMachine chargingPileStateMachine;
+
+    @Mock
+    private StatisticsRollupService statisticsRollupService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ChargingRecordServiceImpl service;
+
+    @Test
+    void autoCompleteSettlesOnceWhenClaimSucceeds() {
+        ChargingRecord record = buildChargingRecord();
+        ChargingPile pile = buildPile();
+        when(chargingRecordRepository.findById(10L)).thenReturn(Optional.of(record));
+        when(chargingPileRepository.findById(1L)).thenReturn(Optional.of(pile));
+        when(chargingRecordRepository.markCompleted(10L, ChargingRecordStatus.CHARGING,
+                ChargingRecordStatus.COMPLETED)).thenReturn(1);
+        when(chargingFeeService.calculate(any(), any(), any(), any())).thenReturn(ChargingFeeResult.builder()
+                .electricQuantity(new BigDecimal("7.00"))
+                .totalFee(new BigDecimal("10.50"))
+                .build());
+        when(chargingRecordRepository.save(any(ChargingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.autoCompleteChargingRecord(10L);
+
+        assertThat(record.getStatus()).isEqualTo(ChargingRecordStatus.COMPLETED);
+        verify(statisticsRollupService).recordSettled(record, pile);
+        verify(userStatsService).recordChargingSettled(eq(100L), eq(new BigDecimal("7.00")),
+                eq(new BigDecimal("10.50")), anyInt());
+    }
+
+    @Test
+    void autoCompleteSkipsSettlementWhenManualEndClaimedFirst() {
+        ChargingRecord record = buildChargingRecord();
+        when(chargingRecordRepository.findById(10L)).thenReturn(Optional.of(record));
+        when(chargingPileRepository.findById(1L)).thenReturn(Optional.of(buildPile()));
+        when(chargingRecordRepository.markCompleted(10L, ChargingRecordStatus.CHARGING,
+                ChargingRecordStatus.COMPLETED)).thenReturn(0);
+
+        service.autoCompleteChargingRecord(10L);
+
+        verify(chargingRecordRepository, never()).save(any());
+        verifyNoInteractions(statisticsRollupService, userStatsService, warningNoticeService);
+    }
+
+    @Test
+    void manualEndRejectedWhenAutoCompleteClaimedFirst() {
+        ChargingRecord record = buildChargingRecord();
+        when(chargingRecordRepository.findById(10L)).thenReturn(Optional.of(record));
+        when(chargingPileRepository.findById(1L)).thenReturn(Optional.of(buildPile()));
+        when(chargingRecordRepository.markCompleted(10L, ChargingRecordStatus.CHARGING,
+                ChargingRecordStatus.COMPLETED)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.endCharging(100L, 10L, null))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ResultCode.CHARGING_RECORD_NOT_CHARGING.getCode());
+        verifyNoInteractions(statisticsRollupService, userStatsService);
+    }
+
+    private ChargingRecord buildChargingRecord() {
+        ChargingRecord record = new ChargingRecord();
+        record.setId(10L);
+        record.setUserId(100L);
+        record.setChargingPileId(1L);
+        record.setStatus(ChargingRecordStatus.CHARGING);
+        record.setStartTime(LocalDateTime.now().minusHours(1));
+        record.setTargetEndTime(LocalDateTime.now().minusMinutes(1));
+        return record;
+    }
+
+    private ChargingPile buildPile() {
+        ChargingPile pile = new ChargingPile();
+        pile.setId(1L);
+        pile.setCode("P-001");
+        pile.setType(ChargingPileType.AC);
+        pile.setPower(new BigDecimal("7.00"));
+        pile.setStatus(ChargingPileStatus.CHARGING);
+        return pile;
+    }
+}
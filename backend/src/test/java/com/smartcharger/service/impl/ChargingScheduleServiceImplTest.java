@@ -0,0 +1,89 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.repository.ChargingRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingScheduleServiceImplTest {
+
+    private static final String ATTEMPTS_KEY = ChargingScheduleServiceImpl.AUTO_COMPLETE_QUEUE_KEY + ":attempts";
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private ChargingScheduleServiceImpl chargingScheduleService;
+
+    @BeforeEach
+    void setUp() {
+        chargingScheduleService = new ChargingScheduleServiceImpl(chargingRecordRepository, stringRedisTemplate);
+    }
+
+    @Test
+    void retryDelayDoublesUpToCap() {
+        assertThat(ChargingScheduleServiceImpl.retryDelayMillis(1)).isEqualTo(30_000L);
+        assertThat(ChargingScheduleServiceImpl.retryDelayMillis(2)).isEqualTo(60_000L);
+        assertThat(ChargingScheduleServiceImpl.retryDelayMillis(4)).isEqualTo(240_000L);
+        assertThat(ChargingScheduleServiceImpl.retryDelayMillis(5)).isEqualTo(300_000L);
+        assertThat(ChargingScheduleServiceImpl.retryDelayMillis(60)).isEqualTo(300_000L);
+    }
+
+    @Test
+    void retryReschedulesWithBackoff() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.increment(ATTEMPTS_KEY, "7", 1)).thenReturn(3L);
+        long before = System.currentTimeMillis();
+
+        chargingScheduleService.retryAutoComplete(7L);
+
+        verify(zSetOperations).add(eq(ChargingScheduleServiceImpl.AUTO_COMPLETE_QUEUE_KEY), eq("7"),
+                doubleThat(score -> score >= before + 120_000L));
+    }
+
+    @Test
+    void retryGivesUpAfterMaxAttemptsAndResetsCounter() {
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.increment(ATTEMPTS_KEY, "7", 1))
+                .thenReturn((long) ChargingScheduleServiceImpl.MAX_RETRY_ATTEMPTS + 1);
+
+        chargingScheduleService.retryAutoComplete(7L);
+
+        verify(hashOperations).delete(ATTEMPTS_KEY, "7");
+        verify(stringRedisTemplate, never()).opsForZSet();
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void successClearsAttemptsSoLaterFailuresStartFromFirstRetry() {
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+
+        chargingScheduleService.clearAutoCompleteRetries(7L);
+
+        verify(hashOperations).delete(ATTEMPTS_KEY, "7");
+    }
+}
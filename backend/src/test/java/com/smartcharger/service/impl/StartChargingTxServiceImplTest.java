@@ -1,5 +1,7 @@
 package com.smartcharger.service.impl;
 
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
 import com.smartcharger.dto.request.ChargingRecordStartRequest;
 import com.smartcharger.dto.response.ChargingRecordResponse;
 import com.smartcharger.entity.ChargingPile;
@@ -11,10 +13,17 @@ import com.smartcharger.repository.ChargingPileRepository;
 import com.smartcharger.repository.ChargingRecordRepository;
 import com.smartcharger.repository.ReservationRepository;
 import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.service.ChargingScheduleService;
+import com.smartcharger.service.UserActivityService;
+import com.smartcharger.service.UserStatsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -22,7 +31,9 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +51,21 @@ class StartChargingTxServiceImplTest {
     @Mock
     private ReservationRepository reservationRepository;
 
+    @Mock
+    private ChargingPileStateMachine chargingPileStateMachine;
+
+    @Mock
+    private ChargingScheduleService chargingScheduleService;
+
+    @Mock
+    private UserActivityService userActivityService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private StartChargingTxServiceImpl service;
 
@@ -55,7 +81,7 @@ class StartChargingTxServiceImplTest {
             record.setId(10L);
             return record;
         });
-        when(chargingPileRepository.save(any(ChargingPile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(chargingPileStateMachine.compareAndSet(pile, ChargingPileStatus.CHARGING)).thenReturn(true);
 
         ChargingRecordStartRequest request = new ChargingRecordStartRequest();
         request.setChargingPileId(1L);
@@ -67,7 +93,9 @@ class StartChargingTxServiceImplTest {
         assertThat(response.getTargetDurationMinutes()).isEqualTo(30);
         assertThat(response.getTargetKwh()).isEqualByComparingTo("3.000");
         assertThat(response.getTargetEndTime()).isNotNull();
-        assertThat(pile.getStatus()).isEqualTo(ChargingPileStatus.CHARGING);
+        verify(chargingPileStateMachine).compareAndSet(pile, ChargingPileStatus.CHARGING);
+        verify(chargingScheduleService).scheduleAutoComplete(10L, response.getTargetEndTime());
+        verify(chargingScheduleService).schedulePreEndReminder(10L, response.getTargetEndTime());
     }
 
     @Test
@@ -78,7 +106,7 @@ class StartChargingTxServiceImplTest {
         when(reservationRepository.findByChargingPileIdAndStatusAndEndTimeAfter(any(), any(), any()))
                 .thenReturn(List.of());
         when(chargingRecordRepository.save(any(ChargingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(chargingPileRepository.save(any(ChargingPile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(chargingPileStateMachine.compareAndSet(pile, ChargingPileStatus.CHARGING)).thenReturn(true);
 
         ChargingRecordStartRequest request = new ChargingRecordStartRequest();
         request.setChargingPileId(1L);
@@ -92,6 +120,27 @@ class StartChargingTxServiceImplTest {
         assertThat(response.getTargetEndTime()).isNotNull();
     }
 
+    @Test
+    void startChargingFailsWhenAnotherRequestTookThePileFirst() {
+        ChargingPile pile = buildIdlePile(new BigDecimal("6.00"));
+        when(chargingRecordRepository.findByUserIdAndStatus(any(), any())).thenReturn(Optional.empty());
+        when(chargingPileRepository.findById(1L)).thenReturn(Optional.of(pile));
+        when(reservationRepository.findByChargingPileIdAndStatusAndEndTimeAfter(any(), any(), any()))
+                .thenReturn(List.of());
+        when(chargingRecordRepository.save(any(ChargingRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(chargingPileStateMachine.compareAndSet(pile, ChargingPileStatus.CHARGING)).thenReturn(false);
+
+        ChargingRecordStartRequest request = new ChargingRecordStartRequest();
+        request.setChargingPileId(1L);
+        request.setTargetType(ChargingTargetType.DURATION);
+        request.setTargetValue(new BigDecimal("30"));
+
+        assertThatThrownBy(() -> service.startChargingInTx(99L, request))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ResultCode.CHARGING_PILE_NOT_IDLE.getCode());
+    }
+
     private ChargingPile buildIdlePile(BigDecimal power) {
         ChargingPile pile = new ChargingPile();
         pile.setId(1L);
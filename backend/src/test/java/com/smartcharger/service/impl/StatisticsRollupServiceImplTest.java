@@ -0,0 +1,114 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.common.exception.BusinessException;
+import com.smartcharger.common.result.ResultCode;
+import com.smartcharger.entity.ChargingPile;
+import com.smartcharger.entity.ChargingRecord;
+import com.smartcharger.entity.enums.ChargingPileType;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.ChargingStatsDailyRepository;
+import com.smartcharger.repository.ChargingStatsHourlyRepository;
+import com.smartcharger.service.UserActivityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsRollupServiceImplTest {
+
+    @Mock
+    private ChargingStatsDailyRepository chargingStatsDailyRepository;
+
+    @Mock
+    private ChargingStatsHourlyRepository chargingStatsHourlyRepository;
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private UserActivityService userActivityService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @InjectMocks
+    private StatisticsRollupServiceImpl statisticsRollupService;
+
+    @Test
+    void settledSessionAccumulatesRollupsByStartTime() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 3, 1, 23, 40);
+        LocalDate statDate = startTime.toLocalDate();
+
+        statisticsRollupService.recordSettled(record(7L, startTime), pile());
+
+        BigDecimal quantity = new BigDecimal("12.50");
+        BigDecimal fee = new BigDecimal("30.00");
+        verify(chargingStatsDailyRepository).accumulate(statDate, 3L, "DC", quantity, fee);
+        verify(chargingStatsHourlyRepository).accumulate(LocalDateTime.of(2024, 3, 1, 23, 0), 3L, "DC", quantity, fee);
+    }
+
+    @Test
+    void backfillIsRejectedWhileAnotherNodeHoldsTheLock() {
+        RLock lock = mock(RLock.class);
+        when(redissonClient.getLock(StatisticsRollupServiceImpl.BACKFILL_LOCK_KEY)).thenReturn(lock);
+        when(lock.tryLock()).thenReturn(false);
+
+        assertThatThrownBy(() -> statisticsRollupService.backfill(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 2)))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code")
+                .isEqualTo(ResultCode.SYSTEM_BUSY.getCode());
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    @Test
+    void backfillStopsBeforeTodayWhileCompletionsAreLive() {
+        RLock lock = mock(RLock.class);
+        when(redissonClient.getLock(StatisticsRollupServiceImpl.BACKFILL_LOCK_KEY)).thenReturn(lock);
+        when(lock.tryLock()).thenReturn(true);
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        LocalDate today = LocalDate.now();
+
+        assertThat(statisticsRollupService.backfill(today.minusDays(2), today)).isEqualTo(2);
+        assertThat(statisticsRollupService.backfill(today, today)).isZero();
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    private ChargingRecord record(Long userId, LocalDateTime startTime) {
+        ChargingRecord record = new ChargingRecord();
+        record.setId(11L);
+        record.setUserId(userId);
+        record.setChargingPileId(3L);
+        record.setStartTime(startTime);
+        record.setElectricQuantity(new BigDecimal("12.50"));
+        record.setFee(new BigDecimal("30.00"));
+        return record;
+    }
+
+    private ChargingPile pile() {
+        ChargingPile pile = new ChargingPile();
+        pile.setId(3L);
+        pile.setType(ChargingPileType.DC);
+        return pile;
+    }
+}
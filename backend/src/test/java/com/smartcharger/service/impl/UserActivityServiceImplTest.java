@@ -0,0 +1,87 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.entity.UserActivityDaily;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.UserActivityDailyRepository;
+import com.smartcharger.repository.UserRepository;
+import com.smartcharger.util.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserActivityServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private UserActivityDailyRepository userActivityDailyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private UserActivityServiceImpl userActivityService;
+
+    @Test
+    void unflushedStartsAreCountedTogetherWithPersistedSketches() {
+        HyperLogLog persisted = new HyperLogLog();
+        persisted.add(1L);
+        persisted.add(2L);
+        when(userActivityDailyRepository.findSketches(DAY, DAY.plusDays(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{DAY, persisted.toBytes()}));
+
+        userActivityService.recordChargingStart(2L, DAY.atTime(9, 0));
+        userActivityService.recordChargingStart(3L, DAY.atTime(10, 0));
+
+        verify(userRepository).touchLastChargingTime(3L, LocalDateTime.of(2024, 3, 1, 10, 0));
+        assertThat(userActivityService.countActiveUsers(DAY, DAY.plusDays(1))).isEqualTo(3L);
+        assertThat(userActivityService.countDailyActiveUsers(DAY, DAY.plusDays(1))).containsEntry(DAY, 3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushMergesPendingSketchIntoLockedRow() {
+        HyperLogLog persisted = new HyperLogLog();
+        persisted.add(1L);
+        UserActivityDaily row = new UserActivityDaily();
+        row.setStatDate(DAY);
+        row.setUserHll(persisted.toBytes());
+        when(userActivityDailyRepository.findByStatDate(DAY)).thenReturn(Optional.of(row));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        userActivityService.recordChargingStart(1L, DAY.atTime(8, 0));
+        userActivityService.recordChargingStart(5L, DAY.atTime(8, 30));
+        userActivityService.flush();
+        userActivityService.flush();
+
+        verify(userActivityDailyRepository).insertIfAbsent(DAY);
+        assertThat(HyperLogLog.fromBytes(row.getUserHll()).estimate()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,122 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.dto.response.UserStatisticsResponse;
+import com.smartcharger.entity.UserStats;
+import com.smartcharger.entity.enums.ReservationStatus;
+import com.smartcharger.entity.enums.WarningNoticeType;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.FaultReportRepository;
+import com.smartcharger.repository.ReservationRepository;
+import com.smartcharger.repository.UserStatsRepository;
+import com.smartcharger.repository.VehicleRepository;
+import com.smartcharger.repository.WarningNoticeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatisticsServiceImplTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private WarningNoticeRepository warningNoticeRepository;
+
+    @Mock
+    private FaultReportRepository faultReportRepository;
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @InjectMocks
+    private UserStatisticsServiceImpl userStatisticsService;
+
+    @Test
+    void mergesGroupedRowsPerUserAndDefaultsUsersWithoutHistory() {
+        LocalDateTime lastCharge = LocalDateTime.of(2024, 3, 1, 8, 0);
+        List<Long> userIds = List.of(1L, 2L);
+        when(vehicleRepository.countGroupByUserIdIn(userIds)).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+        when(chargingRecordRepository.aggregateGroupByUserIdIn(userIds)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 5L, new BigDecimal("80.50"), new BigDecimal("120.00"), 45.6d, lastCharge}));
+        when(warningNoticeRepository.countGroupByUserIdInAndType(userIds, WarningNoticeType.OVERTIME_WARNING))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        when(reservationRepository.countGroupByUserIdIn(userIds, ReservationStatus.CANCELLED))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 4L, 1L}, new Object[]{2L, 1L, 0L}));
+        when(faultReportRepository.countGroupByUserIdIn(userIds)).thenReturn(List.of());
+
+        Map<Long, UserStatisticsResponse> statistics = userStatisticsService.loadStatistics(userIds);
+
+        UserStatisticsResponse first = statistics.get(1L);
+        assertThat(first.getVehicleCount()).isEqualTo(2);
+        assertThat(first.getChargingRecordCount()).isEqualTo(5);
+        assertThat(first.getTotalSpent()).isEqualByComparingTo("120.00");
+        assertThat(first.getAvgChargingDuration()).isEqualTo(45);
+        assertThat(first.getLastChargingTime()).isEqualTo(lastCharge);
+        assertThat(first.getOvertimeCount()).isEqualTo(3);
+        assertThat(first.getCancelledReservationCount()).isEqualTo(1);
+
+        UserStatisticsResponse second = statistics.get(2L);
+        assertThat(second.getChargingRecordCount()).isZero();
+        assertThat(second.getTotalElectricQuantity()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(second.getReservationCount()).isEqualTo(1);
+        assertThat(second.getLastChargingTime()).isNull();
+    }
+
+    @Test
+    void readsProjectedUsersFromStatsRowsAndAggregatesOnlyTheRest() {
+        LocalDateTime lastCharge = LocalDateTime.of(2024, 3, 1, 8, 0);
+        UserStats projected = new UserStats();
+        projected.setUserId(1L);
+        projected.setChargingCount(6L);
+        projected.setSettledCount(4L);
+        projected.setTotalElectricQuantity(new BigDecimal("90.00"));
+        projected.setTotalSpent(new BigDecimal("130.00"));
+        projected.setTotalDurationMinutes(190L);
+        projected.setOvertimeCount(2L);
+        projected.setLastChargingTime(lastCharge);
+        when(userStatsRepository.findByUserIdIn(List.of(1L, 2L))).thenReturn(List.of(projected));
+
+        Map<Long, UserStatisticsResponse> statistics = userStatisticsService.loadStatistics(List.of(1L, 2L));
+
+        UserStatisticsResponse first = statistics.get(1L);
+        assertThat(first.getChargingRecordCount()).isEqualTo(6);
+        assertThat(first.getTotalSpent()).isEqualByComparingTo("130.00");
+        assertThat(first.getAvgChargingDuration()).isEqualTo(47);
+        assertThat(first.getOvertimeCount()).isEqualTo(2);
+        assertThat(first.getLastChargingTime()).isEqualTo(lastCharge);
+        verify(chargingRecordRepository).aggregateGroupByUserIdIn(List.of(2L));
+        verify(reservationRepository).countGroupByUserIdIn(List.of(2L), ReservationStatus.CANCELLED);
+    }
+
+    @Test
+    void splitsLargeIdListsIntoBatches() {
+        List<Long> userIds = LongStream.rangeClosed(1, UserStatisticsServiceImpl.BATCH_SIZE + 1)
+                .boxed().toList();
+
+        assertThat(userStatisticsService.loadStatistics(userIds)).hasSize(userIds.size());
+        verify(chargingRecordRepository, times(2)).aggregateGroupByUserIdIn(anyList());
+        verify(reservationRepository, times(2)).countGroupByUserIdIn(anyList(), eq(ReservationStatus.CANCELLED));
+    }
+}
@@ -0,0 +1,103 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.entity.UserStatsOutbox;
+import com.smartcharger.repository.UserStatsOutboxRepository;
+import com.smartcharger.repository.UserStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceImplTest {
+
+    @Mock
+    private UserStatsOutboxRepository userStatsOutboxRepository;
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private UserStatsServiceImpl userStatsService;
+
+    @Test
+    void relayCoalescesDeltasIntoOneUpsertPerUser() {
+        LocalDateTime earlier = LocalDateTime.of(2024, 3, 1, 8, 0);
+        LocalDateTime later = LocalDateTime.of(2024, 3, 1, 9, 0);
+        when(userStatsOutboxRepository.claimBatch(UserStatsServiceImpl.RELAY_BATCH_SIZE)).thenReturn(List.of(
+                started(1L, 7L, later),
+                started(2L, 7L, earlier),
+                settled(3L, 7L, "12.50", "20.00", 45),
+                started(4L, 8L, earlier)));
+        doAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0)
+                .doInTransaction(mock(TransactionStatus.class)))
+                .when(transactionTemplate).execute(any());
+
+        assertThat(userStatsService.relay()).isEqualTo(4);
+
+        verify(userStatsRepository).accumulate(7L, 2L, 1L, new BigDecimal("12.50"), new BigDecimal("20.00"),
+                45L, 0L, 0L, 0L, 0L, later);
+        verify(userStatsRepository).accumulate(8L, 1L, 0L, BigDecimal.ZERO, BigDecimal.ZERO,
+                0L, 0L, 0L, 0L, 0L, earlier);
+        verify(userStatsOutboxRepository).deleteByIdIn(List.of(1L, 2L, 3L, 4L));
+        verifyNoMoreInteractions(userStatsRepository);
+    }
+
+    @Test
+    void zeroDeltasAreNotWritten() {
+        userStatsService.recordOvertimeWarnings(7L, 0);
+        userStatsService.recordFaultReports(7L, -1);
+
+        verify(userStatsOutboxRepository).save(eq(faultReports(7L, -1)));
+        verifyNoMoreInteractions(userStatsOutboxRepository);
+    }
+
+    private UserStatsOutbox started(Long id, Long userId, LocalDateTime startTime) {
+        UserStatsOutbox row = row(id, userId);
+        row.setChargingCount(1);
+        row.setLastChargingTime(startTime);
+        return row;
+    }
+
+    private UserStatsOutbox settled(Long id, Long userId, String electricQuantity, String fee, int duration) {
+        UserStatsOutbox row = row(id, userId);
+        row.setSettledCount(1);
+        row.setElectricQuantity(new BigDecimal(electricQuantity));
+        row.setSpent(new BigDecimal(fee));
+        row.setDurationMinutes(duration);
+        return row;
+    }
+
+    private UserStatsOutbox faultReports(Long userId, int delta) {
+        UserStatsOutbox row = row(null, userId);
+        row.setFaultReportCount(delta);
+        return row;
+    }
+
+    private UserStatsOutbox row(Long id, Long userId) {
+        UserStatsOutbox row = new UserStatsOutbox();
+        row.setId(id);
+        row.setUserId(userId);
+        return row;
+    }
+}
@@ -0,0 +1,111 @@
+package com.smartcharger.service.impl;
+
+import com.smartcharger.cache.ChargingPileGeoIndex;
+import com.smartcharger.cache.ChargingPileStatusCache;
+import com.smartcharger.dto.response.OvertimeEscalationResult;
+import com.smartcharger.entity.WarningNotice;
+import com.smartcharger.entity.enums.ChargingPileStatus;
+import com.smartcharger.repository.ChargingPileRepository;
+import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.repository.SystemConfigRepository;
+import com.smartcharger.repository.UserRepository;
+import com.smartcharger.repository.WarningNoticeRepository;
+import com.smartcharger.service.ChargingPileStateMachine;
+import com.smartcharger.service.UserStatsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarningNoticeServiceImplTest {
+
+    @Mock
+    private WarningNoticeRepository warningNoticeRepository;
+
+    @Mock
+    private SystemConfigRepository systemConfigRepository;
+
+    @Mock
+    private ChargingPileRepository chargingPileRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ChargingRecordRepository chargingRecordRepository;
+
+    @Mock
+    private ChargingPileGeoIndex chargingPileGeoIndex;
+
+    @Mock
+    private ChargingPileStatusCache chargingPileStatusCache;
+
+    @Mock
+    private ChargingPileStateMachine chargingPileStateMachine;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @InjectMocks
+    private WarningNoticeServiceImpl service;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void escalateOvertimeWarningsNotifiesOncePerThresholdBucket() {
+        LocalDateTime now = LocalDateTime.now();
+        when(systemConfigRepository.findByUserIdIsNullAndConfigKey(any())).thenReturn(Optional.empty());
+        when(chargingRecordRepository.findOvertimeEscalationCandidates(now, 30, 0L, 100)).thenReturn(List.of(
+                new Object[]{10L, 99L, 1L, "P-001", 65, 30},
+                new Object[]{11L, 98L, 2L, "P-002", 40, 30}));
+        when(chargingRecordRepository.raiseOvertimeWarningLevel(10L, 2)).thenReturn(1);
+        when(chargingRecordRepository.raiseOvertimeWarningLevel(11L, 1)).thenReturn(0);
+        when(chargingPileRepository.bulkUpdateStatus(any(), any(), eq(ChargingPileStatus.OVERTIME))).thenReturn(1);
+
+        OvertimeEscalationResult result = service.escalateOvertimeWarnings(0L, 100, now);
+
+        assertThat(result.getScannedCount()).isEqualTo(2);
+        assertThat(result.getLastRecordId()).isEqualTo(11L);
+        assertThat(result.getNoticeCount()).isEqualTo(1);
+        verify(chargingPileGeoIndex).onPilesChanged(Set.of(1L));
+        verify(chargingPileStatusCache).onPilesChanged(Set.of(1L));
+        verify(userStatsService).recordOvertimeWarnings(99L, 1);
+
+        ArgumentCaptor<List<WarningNotice>> notices = ArgumentCaptor.forClass(List.class);
+        verify(warningNoticeRepository).saveAll(notices.capture());
+        assertThat(notices.getValue()).singleElement().satisfies(notice -> {
+            assertThat(notice.getChargingRecordId()).isEqualTo(10L);
+            assertThat(notice.getOvertimeMinutes()).isEqualTo(65);
+        });
+    }
+
+    @Test
+    void escalateOvertimeWarningsWithNothingDueTouchesNoPiles() {
+        when(systemConfigRepository.findByUserIdIsNullAndConfigKey(any())).thenReturn(Optional.empty());
+        when(chargingRecordRepository.findOvertimeEscalationCandidates(any(), anyInt(), anyLong(), anyInt()))
+                .thenReturn(List.of());
+
+        OvertimeEscalationResult result = service.escalateOvertimeWarnings(500L, 100, LocalDateTime.now());
+
+        assertThat(result.getScannedCount()).isZero();
+        assertThat(result.getLastRecordId()).isEqualTo(500L);
+        verify(chargingPileRepository, never()).bulkUpdateStatus(any(), any(), any());
+        verify(warningNoticeRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartcharger.task;
+
+import com.smartcharger.service.ChargingRecordService;
+import com.smartcharger.service.ChargingScheduleService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChargingAutoCompleteTaskTest {
+
+    @Mock
+    private ChargingRecordService chargingRecordService;
+
+    @Mock
+    private ChargingScheduleService chargingScheduleService;
+
+    @InjectMocks
+    private ChargingAutoCompleteTask task;
+
+    @Test
+    void fireDueAutoCompletionsClearsRetriesOnSuccessAndRetriesOnFailure() {
+        when(chargingScheduleService.claimDueAutoCompletions(anyInt())).thenReturn(List.of(7L, 8L));
+        doNothing().when(chargingRecordService).autoCompleteChargingRecord(7L);
+        doThrow(new IllegalStateException("db down")).when(chargingRecordService).autoCompleteChargingRecord(8L);
+
+        task.fireDueAutoCompletions();
+
+        verify(chargingScheduleService).clearAutoCompleteRetries(7L);
+        verify(chargingScheduleService, never()).retryAutoComplete(7L);
+        verify(chargingScheduleService).retryAutoComplete(8L);
+        verify(chargingScheduleService, never()).clearAutoCompleteRetries(8L);
+    }
+
+    @Test
+    void fireDuePreEndRemindersClearsRetriesOnSuccess() {
+        when(chargingScheduleService.claimDuePreEndReminders(anyInt())).thenReturn(List.of(7L));
+
+        task.fireDuePreEndReminders();
+
+        verify(chargingScheduleService).clearPreEndReminderRetries(7L);
+        verify(chargingScheduleService, never()).retryPreEndReminder(7L);
+    }
+}
@@ -1,24 +1,17 @@
 package com.smartcharger.task;
 
-import com.smartcharger.entity.ChargingPile;
-import com.smartcharger.entity.ChargingRecord;
-import com.smartcharger.entity.enums.ChargingPileStatus;
-import com.smartcharger.entity.enums.ChargingRecordStatus;
-import com.smartcharger.repository.ChargingPileRepository;
-import com.smartcharger.repository.ChargingRecordRepository;
+import com.smartcharger.dto.response.OvertimeEscalationResult;
 import com.smartcharger.service.WarningNoticeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -27,42 +20,51 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class OvertimeWarningTaskTest {
 
-    @Mock
-    private ChargingRecordRepository chargingRecordRepository;
-
-    @Mock
-    private ChargingPileRepository chargingPileRepository;
-
     @Mock
     private WarningNoticeService warningNoticeService;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
     private OvertimeWarningTask task;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        task = new OvertimeWarningTask(warningNoticeService, meterRegistry);
+    }
+
     @Test
-    void checkOvertimeChargingSendsNoticeEveryRun() {
-        ChargingRecord record = new ChargingRecord();
-        record.setId(10L);
-        record.setUserId(99L);
-        record.setChargingPileId(1L);
-        record.setStatus(ChargingRecordStatus.COMPLETED);
-        record.setEndTime(LocalDateTime.now().minusMinutes(7));
+    void checkOvertimeChargingWalksChunksUntilAShortOne() {
+        when(warningNoticeService.escalateOvertimeWarnings(eq(0L), anyInt(), any()))
+                .thenReturn(chunk(OvertimeWarningTask.CHUNK_SIZE, 900L, 3));
+        when(warningNoticeService.escalateOvertimeWarnings(eq(900L), anyInt(), any()))
+                .thenReturn(chunk(2, 950L, 1));
 
-        ChargingPile pile = new ChargingPile();
-        pile.setId(1L);
-        pile.setCode("P-001");
-        pile.setStatus(ChargingPileStatus.WAITING_LEAVE);
+        task.checkOvertimeCharging();
 
-        when(chargingRecordRepository.findByStatusAndEndTimeIsNotNullAndLeaveTimeIsNull(
-                ChargingRecordStatus.COMPLETED)).thenReturn(List.of(record));
-        when(chargingPileRepository.findById(1L)).thenReturn(Optional.of(pile));
-        when(chargingPileRepository.save(any(ChargingPile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        verify(warningNoticeService, times(2)).escalateOvertimeWarnings(any(), anyInt(), any());
+        assertThat(meterRegistry.counter("overtime.rows.scanned").count())
+                .isEqualTo(OvertimeWarningTask.CHUNK_SIZE + 2);
+        assertThat(meterRegistry.counter("overtime.notices.emitted").count()).isEqualTo(4);
+    }
+
+    @Test
+    void checkOvertimeChargingStopsOnChunkFailure() {
+        when(warningNoticeService.escalateOvertimeWarnings(eq(0L), anyInt(), any()))
+                .thenThrow(new IllegalStateException("db down"));
 
         task.checkOvertimeCharging();
-        task.checkOvertimeCharging();
 
-        assertThat(pile.getStatus()).isEqualTo(ChargingPileStatus.OVERTIME);
-        verify(warningNoticeService, times(2)).createOvertimeWarning(
-                eq(99L), eq(1L), eq(10L), eq("P-001"), any());
+        verify(warningNoticeService, times(1)).escalateOvertimeWarnings(any(), anyInt(), any());
+        assertThat(meterRegistry.counter("overtime.rows.scanned").count()).isZero();
+    }
+
+    private OvertimeEscalationResult chunk(int scanned, long lastRecordId, int notices) {
+        return OvertimeEscalationResult.builder()
+                .scannedCount(scanned)
+                .lastRecordId(lastRecordId)
+                .noticeCount(notices)
+                .overtimePileCount(notices)
+                .build();
     }
 }
@@ -0,0 +1,42 @@
+package com.smartcharger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTabularWriterTest {
+
+    @Test
+    void writesGzippedCsvWithEscapingAndKeepsCallerStreamOpen() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TabularWriter writer = new CsvTabularWriter(out)) {
+            writer.startSheet("用户", new String[]{"ID", "名称", "余额"}, new int[]{10, 20, 10});
+            writer.writeRow(1L, "a,b", new BigDecimal("1E+2"));
+            writer.writeRow(2L, "say \"hi\"", null);
+            writer.startSheet("汇总", new String[]{"总数"}, new int[]{10});
+            writer.writeRow(2);
+            writer.finish();
+            assertThat(writer.getRowCount()).isEqualTo(3);
+        }
+        out.write('x');
+
+        byte[] bytes = out.toByteArray();
+        assertThat(bytes[bytes.length - 1]).isEqualTo((byte) 'x');
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 1))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(csv).isEqualTo("\uFEFFID,名称,余额\r\n"
+                + "1,\"a,b\",100\r\n"
+                + "2,\"say \"\"hi\"\"\",\r\n"
+                + "\r\n"
+                + "总数\r\n"
+                + "2\r\n");
+    }
+}
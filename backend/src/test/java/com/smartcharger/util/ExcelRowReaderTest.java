@@ -0,0 +1,47 @@
+package com.smartcharger.util;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExcelRowReaderTest {
+
+    @Test
+    void streamsXlsxRowsWithFormattedValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("编号");
+            header.createCell(1).setCellValue("功率");
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue(" CP001 ");
+            first.createCell(1).setCellValue(120);
+            first.createCell(2).setCellValue("ignored");
+            // 第3行缺失，第4行只有第2列
+            sheet.createRow(3).createCell(1).setCellValue(7.5);
+            workbook.write(out);
+        }
+
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<String[]> rows = new ArrayList<>();
+        ExcelRowReader.read(new ByteArrayInputStream(out.toByteArray()), "piles.xlsx", 2, (rowNumber, cells) -> {
+            rowNumbers.add(rowNumber);
+            rows.add(cells);
+        });
+
+        assertThat(rowNumbers).containsExactly(1, 2, 4);
+        assertThat(rows.get(0)).containsExactly("编号", "功率");
+        assertThat(rows.get(1)).containsExactly("CP001", "120");
+        assertThat(rows.get(2)).containsExactly(null, "7.5");
+    }
+}
@@ -0,0 +1,43 @@
+package com.smartcharger.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctCountWithinStandardError() {
+        HyperLogLog small = new HyperLogLog();
+        for (long userId = 1; userId <= 100; userId++) {
+            small.add(userId);
+            small.add(userId);
+        }
+        HyperLogLog large = new HyperLogLog();
+        for (long userId = 1; userId <= 50_000; userId++) {
+            large.add(userId);
+        }
+
+        assertThat(new HyperLogLog().estimate()).isZero();
+        assertThat(small.estimate()).isCloseTo(100L, within(3L));
+        assertThat((double) large.estimate()).isCloseTo(50_000d, within(50_000d * 0.05));
+    }
+
+    @Test
+    void mergedSketchesCountOverlappingUsersOnce() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (long userId = 1; userId <= 3_000; userId++) {
+            monday.add(userId);
+            tuesday.add(userId + 1_000);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(monday.toBytes());
+        long merged = restored.merge(HyperLogLog.fromBytes(tuesday.toBytes())).estimate();
+
+        assertThat(restored.add(1L)).isFalse();
+        assertThat((double) merged).isCloseTo(4_000d, within(4_000d * 0.08));
+        assertThat(HyperLogLog.fromBytes(null).isEmpty()).isTrue();
+    }
+}
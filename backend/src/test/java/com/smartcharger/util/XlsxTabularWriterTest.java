@@ -0,0 +1,35 @@
+package com.smartcharger.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxTabularWriterTest {
+
+    @Test
+    void continuesOnNewSheetWithHeadersWhenSheetIsFull() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TabularWriter writer = new XlsxTabularWriter(out, 3)) {
+            writer.startSheet("充电记录", new String[]{"ID", "名称"}, new int[]{10, 20});
+            for (long id = 1; id <= 5; id++) {
+                writer.writeRow(id, "r" + id);
+            }
+            writer.finish();
+            assertThat(writer.getRowCount()).isEqualTo(5);
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(3);
+            assertThat(workbook.getSheetName(1)).isEqualTo("充电记录_2");
+            Sheet last = workbook.getSheetAt(2);
+            assertThat(last.getRow(0).getCell(1).getStringCellValue()).isEqualTo("名称");
+            assertThat(last.getRow(1).getCell(0).getNumericCellValue()).isEqualTo(5d);
+            assertThat(last.getLastRowNum()).isEqualTo(1);
+        }
+    }
+}